@@ -0,0 +1,110 @@
+#!/usr/bin/env bash
+#
+# Time to first request and resident memory of the application per startup variant:
+#
+#   jar      plain executable jar (java -jar target/internship-*.jar)
+#   aot      exploded jar with the Spring AOT initializers (-Dspring.aot.enabled=true)
+#   aot-cds  same, with the AppCDS archive recorded by the training run
+#   native   GraalVM native executable (only when target/internship exists)
+#
+# Build first:
+#   mvn -Pfast-startup -DskipTests package          (jar, aot, aot-cds)
+#   mvn -Pnative -DskipTests native:compile         (native, needs GraalVM)
+#
+# Usage: scripts/startup-benchmark.sh [runs] [extra JVM / application arguments...]
+#   scripts/startup-benchmark.sh 10
+#   scripts/startup-benchmark.sh 5 -Dspring.profiles.active=prod
+#
+# Each run starts the variant on a free port, polls GET /api/items?limit=1 every 10 ms and
+# records the milliseconds from launch to the first 200 and VmRSS at that moment, then
+# kills the process. Reports min / median / max per variant.
+
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+RUNS=${1:-5}
+shift || true
+EXTRA=("$@")
+PORT=${PORT:-18080}
+TIMEOUT_SECONDS=${TIMEOUT_SECONDS:-120}
+
+JAR=$(ls target/internship-*.jar 2>/dev/null | grep -v -- '-plain' | head -n 1 || true)
+EXPLODED=target/fast-startup
+NATIVE=target/internship
+
+if [[ -z "$JAR" ]]; then
+    echo "No jar in target/, build with: mvn -Pfast-startup -DskipTests package" >&2
+    exit 1
+fi
+
+launch() {
+    local variant=$1
+    case "$variant" in
+        jar)
+            exec java "${EXTRA[@]}" -jar "$JAR" --server.port="$PORT" ;;
+        aot)
+            cd "$EXPLODED"
+            exec java -Dspring.aot.enabled=true "${EXTRA[@]}" -jar "$(basename "$JAR")" --server.port="$PORT" ;;
+        aot-cds)
+            cd "$EXPLODED"
+            exec java -XX:SharedArchiveFile=application.jsa -Xshare:auto -Dspring.aot.enabled=true "${EXTRA[@]}" \
+                -jar "$(basename "$JAR")" --server.port="$PORT" ;;
+        native)
+            exec "$NATIVE" "${EXTRA[@]}" --server.port="$PORT" ;;
+    esac
+}
+
+# Prints "<ms to first request> <rss kB>" for one run of the variant
+measure() {
+    local variant=$1
+    local start now pid rss
+    start=$(date +%s%N)
+    ( launch "$variant" ) > "target/startup-$variant.log" 2>&1 &
+    pid=$!
+    while true; do
+        if curl -s -o /dev/null -w '%{http_code}' "http://localhost:$PORT/api/items?limit=1" 2>/dev/null | grep -q 200; then
+            now=$(date +%s%N)
+            break
+        fi
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "$variant exited before serving a request, see target/startup-$variant.log" >&2
+            return 1
+        fi
+        if (( ($(date +%s%N) - start) / 1000000000 > TIMEOUT_SECONDS )); then
+            kill "$pid"
+            echo "$variant did not serve a request within ${TIMEOUT_SECONDS}s" >&2
+            return 1
+        fi
+        sleep 0.01
+    done
+    rss=$(awk '/^VmRSS:/ { print $2 }' "/proc/$pid/status")
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    echo "$(( (now - start) / 1000000 )) $rss"
+}
+
+# min / median / max of the numbers on stdin, in columns of the given width
+summary() {
+    sort -n | awk -v w="$1" '{ v[NR] = $1 } END { printf "%*d %*d %*d", w, v[1], w, v[int((NR + 1) / 2)], w, v[NR] }'
+}
+
+variants=(jar)
+if [[ -f "$EXPLODED/$(basename "$JAR")" ]]; then
+    variants+=(aot)
+    [[ -f "$EXPLODED/application.jsa" ]] && variants+=(aot-cds)
+fi
+[[ -x "$NATIVE" ]] && variants+=(native)
+
+printf '%-8s %8s %8s %8s   %10s %10s %10s\n' variant "min ms" "med ms" "max ms" "min RSS MB" "med RSS MB" "max RSS MB"
+for variant in "${variants[@]}"; do
+    times=()
+    rss=()
+    for ((run = 1; run <= RUNS; run++)); do
+        result=$(measure "$variant")
+        read -r ms kb <<< "$result"
+        times+=("$ms")
+        rss+=("$(( kb / 1024 ))")
+    done
+    printf '%-8s %s   %s\n' "$variant" "$(printf '%s\n' "${times[@]}" | summary 8)" "$(printf '%s\n' "${rss[@]}" | summary 10)"
+done
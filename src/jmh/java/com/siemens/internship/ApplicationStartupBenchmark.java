@@ -0,0 +1,30 @@
+package com.siemens.internship;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cold start of the application context with the default settings (schema by ddl-auto=update)
+ * and with the prod profile (Flyway migrations, no schema introspection, fixed-size pool).
+ * Every fork measures one start in a fresh JVM.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+@State(Scope.Benchmark)
+public class ApplicationStartupBenchmark {
+
+    @Param({"default", "prod"})
+    public String profile;
+
+    @Benchmark
+    public void start() {
+        try (ConfigurableApplicationContext context = BenchmarkSupport.start("--spring.profiles.active=" + profile)) {
+            context.getBean(ItemService.class);
+        }
+    }
+}
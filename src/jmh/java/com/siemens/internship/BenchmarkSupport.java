@@ -0,0 +1,81 @@
+package com.siemens.internship;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongFunction;
+
+/**
+ * Helpers shared by the JMH benchmarks: boots the application against a private
+ * embedded H2 database and bulk-loads synthetic items through plain JDBC.
+ */
+final class BenchmarkSupport {
+
+    private static final int INSERT_BATCH = 5_000;
+    private static final String INSERT_SQL =
+            "INSERT INTO item (id, name, description, status, email, version, modified_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * Starts a non-web application context. Every context gets its own in-memory
+     * database so benchmarks with different parameters never share rows.
+     */
+    static ConfigurableApplicationContext start(String... args) {
+        return startOn("jdbc:h2:mem:bench-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1", args);
+    }
+
+    // Starts a non-web application context on the database of `url`
+    static ConfigurableApplicationContext startOn(String url, String... args) {
+        SpringApplication app = new SpringApplication(InternshipApplication.class);
+        app.setWebApplicationType(WebApplicationType.NONE);
+        List<String> all = new ArrayList<>(List.of(
+                "--spring.datasource.url=" + url,
+                "--spring.h2.console.enabled=false",
+                "--logging.level.root=WARN"));
+        all.addAll(List.of(args));
+        return app.run(all.toArray(new String[0]));
+    }
+
+    /**
+     * Inserts `rows` items with ids 1..rows and moves the id sequence past them,
+     * so that later saves through JPA do not collide with the seeded ids.
+     */
+    static void seed(ConfigurableApplicationContext context, int rows) {
+        seed(context, rows, id -> "Item " + id, id -> "Description of item " + id);
+    }
+
+    // Same, with the name and description of each id given by `name` and `description`
+    static void seed(ConfigurableApplicationContext context, int rows,
+                     LongFunction<String> name, LongFunction<String> description) {
+        seed(context.getBean(JdbcTemplate.class), rows, name, description);
+    }
+
+    // Same, through `jdbc`, for databases prepared without an application context
+    static void seed(JdbcTemplate jdbc, int rows, LongFunction<String> name, LongFunction<String> description) {
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH);
+        Timestamp modifiedAt = Timestamp.from(Item.now());
+        for (long id = 1; id <= rows; id++) {
+            batch.add(new Object[]{id, name.apply(id), description.apply(id), ItemStatus.NEW.ordinal(), "item" + id + "@example.com", 0L, modifiedAt});
+            if (batch.size() == INSERT_BATCH) {
+                jdbc.batchUpdate(INSERT_SQL, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbc.batchUpdate(INSERT_SQL, batch);
+        }
+        jdbc.execute("ALTER SEQUENCE item_seq RESTART WITH " + (rows + 1_000));
+    }
+
+    // Sets every item back to NEW, so that the next processing run has every row to process again
+    static void resetStatus(ConfigurableApplicationContext context) {
+        context.getBean(JdbcTemplate.class).update("UPDATE item SET status = ?", ItemStatus.NEW.ordinal());
+    }
+}
@@ -0,0 +1,61 @@
+package com.siemens.internship;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ingest of `items` new items through the bulk path (ItemService.createAll, batched inserts
+ * with pooled ids) compared with one ItemService.save call per item.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class ItemBatchBenchmark {
+
+    @Param({"10000", "100000"})
+    public int items;
+
+    private ConfigurableApplicationContext context;
+    private ItemService itemService;
+    private List<Item> batch;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.start("--items.cache.enabled=false");
+        itemService = context.getBean(ItemService.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void newItems() {
+        batch = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            batch.add(new Item(null, "Item " + i, "Description of item " + i, ItemStatus.NEW, "item" + i + "@example.com"));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object createAll() {
+        return itemService.createAll(batch);
+    }
+
+    @Benchmark
+    public Object saveEach() {
+        Item last = null;
+        for (Item item : batch) {
+            last = itemService.save(item);
+        }
+        return last;
+    }
+}
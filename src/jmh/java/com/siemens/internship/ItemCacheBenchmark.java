@@ -0,0 +1,56 @@
+package com.siemens.internship;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of ItemService.findById with the item cache on and off.
+ * Lookups follow the usual read pattern: 90% of them hit a hot set of 1% of the ids.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ItemCacheBenchmark {
+
+    @Param({"true", "false"})
+    public boolean cacheEnabled;
+
+    @Param({"100000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private ItemService itemService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.start("--items.cache.enabled=" + cacheEnabled);
+        BenchmarkSupport.seed(context, rows);
+        itemService = context.getBean(ItemService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Keys {
+        private final SplittableRandom random = new SplittableRandom(42);
+
+        long next(int rows) {
+            int hotSet = Math.max(1, rows / 100);
+            return 1 + (random.nextInt(10) < 9 ? random.nextInt(hotSet) : random.nextInt(rows));
+        }
+    }
+
+    @Benchmark
+    public Object findById(Keys keys) {
+        return itemService.findById(keys.next(rows));
+    }
+}
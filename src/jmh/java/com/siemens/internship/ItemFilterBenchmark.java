@@ -0,0 +1,82 @@
+package com.siemens.internship;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency distribution (look at p0.99) of the server-side filters and aggregates at several
+ * table sizes. Index lookups should stay flat as the table grows; filterInJava is the old
+ * way of answering the same question (read every row, filter on the client) for comparison.
+ * One item in 100 is DONE, the rest NEW.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class ItemFilterBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private ItemService itemService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.start("--items.cache.enabled=false");
+        BenchmarkSupport.seed(context, rows);
+        context.getBean(JdbcTemplate.class)
+                .update("UPDATE item SET status = ? WHERE MOD(id, 100) = 0", ItemStatus.DONE.ordinal());
+        itemService = context.getBean(ItemService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Keys {
+        private final SplittableRandom random = new SplittableRandom(42);
+
+        long next(int rows) {
+            return 1 + random.nextInt(rows);
+        }
+    }
+
+    // First page of 100 DONE items after a random cursor
+    @Benchmark
+    public Object filterByStatus(Keys keys) {
+        return itemService.findPage(new ItemFilter(ItemStatus.DONE, null, null), keys.next(rows), 100);
+    }
+
+    @Benchmark
+    public Object filterByEmail(Keys keys) {
+        return itemService.findPage(new ItemFilter(null, "item" + keys.next(rows) + "@example.com", null), null, 100);
+    }
+
+    // "Item 1234" also matches "Item 12340".."Item 12349" and so on: a small range of the name index
+    @Benchmark
+    public Object filterByNamePrefix(Keys keys) {
+        return itemService.findPage(new ItemFilter(null, null, "Item " + keys.next(rows)), null, 100);
+    }
+
+    @Benchmark
+    public Object countByStatus() {
+        return itemService.countByStatus();
+    }
+
+    @Benchmark
+    public Object filterInJava(Keys keys) {
+        String email = "item" + keys.next(rows) + "@example.com";
+        List<Item> all = itemService.findAll();
+        return all.stream().filter(item -> email.equals(item.getEmail())).toList();
+    }
+}
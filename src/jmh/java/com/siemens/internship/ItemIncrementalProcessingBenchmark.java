@@ -0,0 +1,69 @@
+package com.siemens.internship;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a chunked processing run after `changed` rows of an already processed table
+ * were modified, with incremental runs on (only the changed rows are visited) and off
+ * (every id of the table is visited again).
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class ItemIncrementalProcessingBenchmark {
+
+    @Param({"true", "false"})
+    public boolean incremental;
+
+    @Param({"100000", "1000000"})
+    public int rows;
+
+    @Param({"100"})
+    public int changed;
+
+    private ConfigurableApplicationContext context;
+    private ItemService itemService;
+    private JdbcTemplate jdbc;
+    private long nextChanged = 1;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = BenchmarkSupport.start(
+                "--items.processing.incremental=" + incremental,
+                "--items.processing.checkpoint-overlap=0s");
+        BenchmarkSupport.seed(context, rows);
+        itemService = context.getBean(ItemService.class);
+        jdbc = context.getBean(JdbcTemplate.class);
+        // First run processes the whole table and, when incremental, sets the checkpoint
+        itemService.processItemsAsync().get();
+    }
+
+    // Simulates client writes between two runs: the next `changed` ids go back to NEW
+    @Setup(Level.Invocation)
+    public void modifyRows() throws InterruptedException {
+        Thread.sleep(1);
+        long from = nextChanged;
+        long to = from + changed - 1;
+        nextChanged = to >= rows ? 1 : to + 1;
+        jdbc.update("UPDATE item SET status = ?, modified_at = ? WHERE id BETWEEN ? AND ?",
+                ItemStatus.NEW.ordinal(), Timestamp.from(Item.now()), from, to);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object processChanged() throws Exception {
+        return itemService.processItemsAsync().get();
+    }
+}
@@ -0,0 +1,56 @@
+package com.siemens.internship;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares one full processing run of the per-item engine against the chunked
+ * and set-based engines (see ItemProcessingProperties.ProcessingMode). Incremental
+ * runs are turned off so that every iteration walks the whole table.
+ * The per-item engine takes minutes at 1M rows; narrow the sizes with -Djmh.args="-p rows=1000,100000".
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class ItemProcessingBenchmark {
+
+    @Param({"PER_ITEM", "CHUNKED", "SET_BASED", "PIPELINE"})
+    public ItemProcessingProperties.ProcessingMode mode;
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private ItemService itemService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.start("--items.processing.mode=" + mode, "--items.processing.incremental=false");
+        BenchmarkSupport.seed(context, rows);
+        itemService = context.getBean(ItemService.class);
+    }
+
+    // The previous iteration processed every row: without this every later run would find nothing to do
+    @Setup(Level.Iteration)
+    public void resetStatus() {
+        BenchmarkSupport.resetStatus(context);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object processAll() throws Exception {
+        if (mode == ItemProcessingProperties.ProcessingMode.SET_BASED) {
+            return itemService.markAllProcessedAsync().get();
+        }
+        return itemService.processItemsAsync().get();
+    }
+}
@@ -0,0 +1,108 @@
+package com.siemens.internship;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency distribution (look at p0.99) of a full-text search for the first page of 20 items,
+ * through the Lucene index (ItemService.search, hits loaded by id) and as a LIKE '%term%' scan
+ * of the item table, which is what the same question costs without the index. The scan returns
+ * unranked rows and stops at the first 20 matches, so it is the optimistic case for it.
+
+ * Names are 2 and descriptions 8 words drawn from a vocabulary of 5000 fixed-width words, so one
+ * word matches about rows / 500 items; a query takes its `terms` words from the name of a random item.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ItemSearchBenchmark {
+
+    private static final int VOCABULARY = 5_000;
+    private static final int PAGE = 20;
+
+    @Param({"100000", "1000000"})
+    public int rows;
+
+    @Param({"1", "2"})
+    public int terms;
+
+    private ConfigurableApplicationContext context;
+    private ItemService itemService;
+    private ItemSearchIndex searchIndex;
+    private JdbcTemplate jdbc;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.start("--items.cache.enabled=false", "--items.admission.enabled=false");
+        BenchmarkSupport.seed(context, rows, id -> words(id, 2), id -> words(-id, 8));
+        context.getBean(ItemSearchIndexer.class).rebuild();
+        itemService = context.getBean(ItemService.class);
+        searchIndex = context.getBean(ItemSearchIndex.class);
+        jdbc = context.getBean(JdbcTemplate.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Queries {
+        private final SplittableRandom random = new SplittableRandom(42);
+
+        List<String> next(int rows, int terms) {
+            String[] name = words(1 + random.nextInt(rows), 2).split(" ");
+            return List.of(name).subList(0, terms);
+        }
+    }
+
+    @Benchmark
+    public Object search(Queries queries) {
+        return itemService.search(String.join(" ", queries.next(rows, terms)), null, PAGE);
+    }
+
+    // The index alone: ids of the first page, without loading the items
+    @Benchmark
+    public Object searchIds(Queries queries) {
+        return searchIndex.search(String.join(" ", queries.next(rows, terms)), null, PAGE);
+    }
+
+    @Benchmark
+    public Object scan(Queries queries) {
+        List<String> words = queries.next(rows, terms);
+        StringBuilder sql = new StringBuilder("SELECT * FROM item WHERE ");
+        List<Object> args = new ArrayList<>();
+        for (String word : words) {
+            if (!args.isEmpty()) {
+                sql.append(" AND ");
+            }
+            sql.append("(name LIKE ? OR description LIKE ?)");
+            args.add("%" + word + "%");
+            args.add("%" + word + "%");
+        }
+        sql.append(" LIMIT ").append(PAGE);
+        return jdbc.queryForList(sql.toString(), args.toArray());
+    }
+
+    // `count` words for a seed, the same on every call; fixed width, so that LIKE '%w0042%' only matches the word
+    private static String words(long seed, int count) {
+        SplittableRandom random = new SplittableRandom(seed);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(String.format("w%04d", random.nextInt(VOCABULARY)));
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,96 @@
+package com.siemens.internship;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialization of Item lists the way ItemController writes them, per wire format
+ * (JSON, Smile, CBOR; see ItemFormats) and content encoding (none or gzip, as done by
+ * server.compression): a page as one array (what the message converters do) and the
+ * full-table stream (NDJSON for JSON, a plain sequence of items for the binary formats).
+ * Output goes to a discarding stream so only serialization and compression are measured.
+
+ * The bytes on the wire of a page in the selected format and encoding are printed once per trial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ItemSerializationBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int size;
+
+    @Param({"json", "smile", "cbor"})
+    public String format;
+
+    @Param({"identity", "gzip"})
+    public String encoding;
+
+    private ObjectMapper objectMapper;
+    private ObjectWriter streamWriter;
+    private List<Item> items;
+
+    @Setup
+    public void setUp() throws IOException {
+        JsonFactory factory = switch (format) {
+            case "smile" -> new SmileFactory();
+            case "cbor" -> new CBORFactory();
+            default -> new JsonFactory();
+        };
+        objectMapper = Jackson2ObjectMapperBuilder.json().factory(factory).build();
+        streamWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        items = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            items.add(new Item(id, "Item " + id, "Description of item " + id, ItemStatus.NEW, "item" + id + "@example.com"));
+        }
+
+        ByteArrayOutputStream wire = new ByteArrayOutputStream();
+        try (OutputStream out = open(wire)) {
+            objectMapper.writeValue(out, items);
+        }
+        System.out.printf("%n%d items as %s/%s: %d bytes on the wire%n", size, format, encoding, wire.size());
+    }
+
+    @Benchmark
+    public void page() throws IOException {
+        try (OutputStream out = open(OutputStream.nullOutputStream())) {
+            objectMapper.writeValue(out, items);
+        }
+    }
+
+    @Benchmark
+    public void stream() throws IOException {
+        boolean lines = "json".equals(format);
+        try (OutputStream out = open(OutputStream.nullOutputStream());
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            for (Item item : items) {
+                streamWriter.writeValue(generator, item);
+                if (lines) {
+                    generator.writeRaw('\n');
+                }
+            }
+        }
+    }
+
+    private OutputStream open(OutputStream target) throws IOException {
+        return "gzip".equals(encoding) ? new GZIPOutputStream(target, 8192) : target;
+    }
+}
@@ -0,0 +1,93 @@
+package com.siemens.internship;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ItemService CRUD hot paths at several table sizes.
+ * The item cache is disabled so findById measures the database path (see ItemCacheBenchmark for the cache).
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ItemServiceBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private ItemService itemService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.start("--items.cache.enabled=false");
+        BenchmarkSupport.seed(context, rows);
+        itemService = context.getBean(ItemService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Keys {
+        private final SplittableRandom random = new SplittableRandom(42);
+
+        long next(int rows) {
+            return 1 + random.nextInt(rows);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 3, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    public Object findById(Keys keys) {
+        return itemService.findById(keys.next(rows));
+    }
+
+    // Inserts a new row
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 3, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    public Object save() {
+        return itemService.save(new Item(null, "New item", "New description", ItemStatus.NEW, "new@example.com"));
+    }
+
+    // Overwrites an existing row with the single-statement update
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 3, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    public Object update(Keys keys) {
+        long id = keys.next(rows);
+        return itemService.update(id, new Item(null, "Item " + id, "Updated description", ItemStatus.NEW, "item" + id + "@example.com"), null);
+    }
+
+    // First keyset page as served by GET /api/items
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 3, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    public Object findPage(Keys keys) {
+        return itemService.findPage(keys.next(rows), ItemController.DEFAULT_PAGE_SIZE);
+    }
+
+    // Whole table as one list, what GET /api/items used to return
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public Object findAll() {
+        return itemService.findAll();
+    }
+}
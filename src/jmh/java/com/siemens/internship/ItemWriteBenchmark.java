@@ -0,0 +1,99 @@
+package com.siemens.internship;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PUT/DELETE /api/items/{id} write paths before and after the single-statement rewrite.
+
+ * - *Legacy: what ItemController used to do - findById, then save (merge SELECT + UPDATE)
+ *   or findById, then deleteById (which loads the row again)
+ * - *SingleStatement: ItemService.update / delete, one conditional UPDATE / DELETE
+ * The item cache is disabled so every variant pays its database round trips.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ItemWriteBenchmark {
+
+    @Param({"100000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private ItemService itemService;
+    private ItemRepository itemRepository;
+    private JdbcTemplate jdbc;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.start("--items.cache.enabled=false");
+        BenchmarkSupport.seed(context, rows);
+        itemService = context.getBean(ItemService.class);
+        itemRepository = context.getBean(ItemRepository.class);
+        jdbc = context.getBean(JdbcTemplate.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Keys {
+        private final SplittableRandom random = new SplittableRandom(42);
+
+        long next(int rows) {
+            return 1 + random.nextInt(rows);
+        }
+    }
+
+    // Gives each delete invocation a fresh row, outside the seeded id range
+    @State(Scope.Thread)
+    public static class DeleteTarget {
+        private static long nextId = Long.MAX_VALUE / 2;
+        long id;
+
+        @Setup(Level.Invocation)
+        public void insertRow(ItemWriteBenchmark benchmark) {
+            id = ++nextId;
+            benchmark.jdbc.update("INSERT INTO item (id, name, description, status, email, version, modified_at) "
+                    + "VALUES (?, 'Doomed', 'desc', ?, 'd@example.com', 0, CURRENT_TIMESTAMP)", id, ItemStatus.NEW.ordinal());
+        }
+    }
+
+    @Benchmark
+    public Object updateLegacy(Keys keys) {
+        long id = keys.next(rows);
+        return itemRepository.findById(id).map(existing -> {
+            existing.setDescription("Updated description");
+            return itemRepository.save(existing);
+        });
+    }
+
+    @Benchmark
+    public Object updateSingleStatement(Keys keys) {
+        long id = keys.next(rows);
+        return itemService.update(id, new Item(null, "Item " + id, "Updated description", ItemStatus.NEW, "item" + id + "@example.com"), null);
+    }
+
+    @Benchmark
+    public boolean deleteLegacy(DeleteTarget target) {
+        if (itemRepository.findById(target.id).isPresent()) {
+            itemRepository.deleteById(target.id);
+            return true;
+        }
+        return false;
+    }
+
+    @Benchmark
+    public boolean deleteSingleStatement(DeleteTarget target) {
+        return itemService.delete(target.id, null);
+    }
+}
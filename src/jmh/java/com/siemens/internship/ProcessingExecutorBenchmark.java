@@ -0,0 +1,59 @@
+package com.siemens.internship;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One full processing run on each ProcessingExecutor mode.
+ * VIRTUAL needs a Java 21+ JVM; on older JVMs its trials fail at startup and are reported as such.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProcessingExecutorBenchmark {
+
+    @Param({"PLATFORM", "VIRTUAL", "FORK_JOIN"})
+    public ItemProcessingProperties.ExecutorMode executorMode;
+
+    @Param({"PER_ITEM", "CHUNKED"})
+    public ItemProcessingProperties.ProcessingMode mode;
+
+    @Param({"10000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private ItemService itemService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.start(
+                "--items.processing.executor.mode=" + executorMode,
+                "--items.processing.mode=" + mode,
+                "--items.processing.incremental=false");
+        BenchmarkSupport.seed(context, rows);
+        itemService = context.getBean(ItemService.class);
+    }
+
+    // The previous iteration processed every row: without this every later run would find nothing to do
+    @Setup(Level.Iteration)
+    public void resetStatus() {
+        BenchmarkSupport.resetStatus(context);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public Object processAll() throws Exception {
+        return itemService.processItemsAsync().get();
+    }
+}
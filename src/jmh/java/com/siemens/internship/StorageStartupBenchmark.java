@@ -0,0 +1,94 @@
+package com.siemens.internship;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time until the application is up with `rows` items, by where the items come from:
+ * - memory: in-memory database, every item inserted again with JDBC batches (what a restart costs without the file profile)
+ * - file: file-backed database (profile file) that already holds the items
+ * - restore: file-backed database whose file is missing, restored from a snapshot at startup (items.storage.restore-on-startup)
+
+ * The file database and its snapshot are built once per row count in target/storage-benchmark and reused by
+ * later runs; delete the directory after changing the schema. The search index is off, its rebuild runs after startup anyway.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(3)
+@State(Scope.Benchmark)
+public class StorageStartupBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int rows;
+
+    @Param({"memory", "file", "restore"})
+    public String storage;
+
+    private Path database;
+    private Path snapshots;
+    private Path restored;
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void prepare() throws IOException {
+        Path directory = Path.of("target", "storage-benchmark", String.valueOf(rows)).toAbsolutePath();
+        database = directory.resolve("db").resolve("items");
+        snapshots = directory.resolve("snapshots");
+        restored = directory.resolve("restored-" + ProcessHandle.current().pid()).resolve("items");
+        if (!Files.exists(database.resolveSibling("items.mv.db")) || StorageSnapshots.list(snapshots, "items").isEmpty()) {
+            FileSystemUtils.deleteRecursively(directory);
+            Files.createDirectories(snapshots);
+            // Plain JDBC: an application context started here would warm up the JVM of the measured start
+            SingleConnectionDataSource dataSource = new SingleConnectionDataSource("jdbc:h2:file:" + database, "sa", "", true);
+            try {
+                JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+                jdbc.execute("RUNSCRIPT FROM 'classpath:/db/migration/V1__baseline.sql'");
+                BenchmarkSupport.seed(jdbc, rows, id -> "Item " + id, id -> "Description of item " + id);
+                jdbc.execute("BACKUP TO '" + snapshots.resolve("items-20260101T000000000Z.zip") + "'");
+            } finally {
+                dataSource.destroy();
+            }
+        }
+    }
+
+    @Benchmark
+    public ConfigurableApplicationContext start() {
+        context = switch (storage) {
+            case "memory" -> {
+                ConfigurableApplicationContext started = BenchmarkSupport.start("--items.search.enabled=false");
+                BenchmarkSupport.seed(started, rows);
+                yield started;
+            }
+            case "file" -> startOn(database);
+            default -> startOn(restored, "--items.storage.restore-on-startup=true");
+        };
+        return context;
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws IOException {
+        if (context != null) {
+            context.close();
+        }
+        FileSystemUtils.deleteRecursively(restored.getParent());
+    }
+
+    private ConfigurableApplicationContext startOn(Path path, String... args) {
+        String[] all = new String[args.length + 3];
+        all[0] = "--spring.profiles.active=file";
+        all[1] = "--items.storage.snapshot-directory=" + snapshots;
+        all[2] = "--items.search.enabled=false";
+        System.arraycopy(args, 0, all, 3, args.length);
+        return BenchmarkSupport.startOn("jdbc:h2:file:" + path + ";CACHE_SIZE=131072;PAGE_SIZE=16384;WRITE_DELAY=1000;DB_CLOSE_ON_EXIT=FALSE", all);
+    }
+}
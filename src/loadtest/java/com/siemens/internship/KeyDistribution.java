@@ -0,0 +1,89 @@
+package com.siemens.internship;
+
+import java.util.SplittableRandom;
+
+/**
+ * Picks the item ids that GET / PUT / DELETE requests of the load test address, in 1..items.
+
+ * - uniform: every id is equally likely
+ * - zipfian: id 1 is the hottest, then 2, and so on, like the popularity of real catalogue
+ *   entries. Uses the generator of Gray et al., "Quickly Generating Billion-Record Synthetic
+ *   Databases" (also used by YCSB): zeta(n) is computed once, every draw is O(1).
+ */
+abstract class KeyDistribution {
+
+    final long items;
+
+    private KeyDistribution(long items) {
+        if (items < 1) {
+            throw new IllegalArgumentException("items must be at least 1, was " + items);
+        }
+        this.items = items;
+    }
+
+    abstract long next(SplittableRandom random);
+
+    /**
+     * Parses "uniform" or "zipfian"; theta is the skew of the zipfian distribution
+     * (0 < theta < 1, 0.99 puts about half of the requests on the hottest 1% of 100k ids).
+     */
+    static KeyDistribution of(String name, long items, double theta) {
+        return switch (name.toLowerCase()) {
+            case "uniform" -> uniform(items);
+            case "zipfian" -> zipfian(items, theta);
+            default -> throw new IllegalArgumentException("Unknown key distribution '" + name + "', expected uniform or zipfian");
+        };
+    }
+
+    static KeyDistribution uniform(long items) {
+        return new KeyDistribution(items) {
+            @Override
+            long next(SplittableRandom random) {
+                return 1 + random.nextLong(items);
+            }
+
+            @Override
+            public String toString() {
+                return "uniform(" + items + ")";
+            }
+        };
+    }
+
+    static KeyDistribution zipfian(long items, double theta) {
+        if (!(theta > 0 && theta < 1)) {
+            throw new IllegalArgumentException("zipfian theta must be in (0, 1), was " + theta);
+        }
+        double zetaN = zeta(items, theta);
+        double alpha = 1 / (1 - theta);
+        double secondThreshold = 1 + Math.pow(0.5, theta);
+        double eta = (1 - Math.pow(2.0 / items, 1 - theta)) / (1 - zeta(2, theta) / zetaN);
+        return new KeyDistribution(items) {
+            @Override
+            long next(SplittableRandom random) {
+                double u = random.nextDouble();
+                double uz = u * zetaN;
+                if (uz < 1) {
+                    return 1;
+                }
+                if (uz < secondThreshold) {
+                    return Math.min(2, items);
+                }
+                long rank = (long) (items * Math.pow(eta * u - eta + 1, alpha));
+                return 1 + Math.min(rank, items - 1);
+            }
+
+            @Override
+            public String toString() {
+                return "zipfian(" + items + ", theta=" + theta + ")";
+            }
+        };
+    }
+
+    private static double zeta(long n, double theta) {
+        double sum = 0;
+        for (long i = 1; i <= n; i++) {
+            sum += 1 / Math.pow(i, theta);
+        }
+        return sum;
+    }
+}
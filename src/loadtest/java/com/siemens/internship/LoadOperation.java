@@ -0,0 +1,17 @@
+package com.siemens.internship;
+
+/**
+ * Request types of the load test and the ItemController endpoint each one calls.
+ */
+enum LoadOperation {
+    // GET /api/items/{id}
+    GET,
+    // POST /api/items with a new, valid item
+    POST,
+    // PUT /api/items/{id} without If-Match
+    PUT,
+    // DELETE /api/items/{id} of an item created by this run, or of a missing id (404) so the seeded ids stay readable
+    DELETE,
+    // POST /api/items/process; 503 once the job registry is full of running jobs
+    PROCESS
+}
@@ -0,0 +1,181 @@
+package com.siemens.internship;
+
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * End-to-end load test of ItemController: replays a mix of GET / POST / PUT / DELETE /api/items
+ * and POST /api/items/process at an open-loop arrival rate (see OpenLoopGenerator) and reports
+ * response and service time percentiles per operation.
+
+ * Starts the application on a random port against a private in-memory database seeded with
+ * `rows` items, unless url= points at a running service. Run with:
+ *   mvn -Pload-test verify -DskipTests -Dloadtest.args="rate=2000 duration=60s keys=uniform"
+ * The full percentile distributions are written as HdrHistogram .hgrm files to output=
+ * (target/loadtest by default), which the HdrHistogram plotter can compare between runs.
+ */
+public final class LoadTest {
+
+    private static final int INSERT_BATCH = 5_000;
+    private static final String INSERT_SQL =
+            "INSERT INTO item (id, name, description, status, email, version, modified_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    // Response time p99 above this multiple of the service time p99 means a closed-loop client would have hidden queueing
+    private static final double OMISSION_RATIO = 2.0;
+    // Achieved rate below this fraction of the target means the generator did not hold the schedule
+    private static final double RATE_TOLERANCE = 0.95;
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = LoadTestSettings.parse(args);
+        KeyDistribution keys = KeyDistribution.of(settings.keys, settings.rows, settings.theta);
+        ConfigurableApplicationContext context = settings.url.isEmpty() ? start(settings) : null;
+        try {
+            URI baseUri = URI.create(context != null
+                    ? "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort()
+                    : settings.url);
+            System.out.println("Load test against " + baseUri + ": " + settings);
+            OpenLoopGenerator.Result result = new OpenLoopGenerator(settings, baseUri, keys).run();
+            report(settings, result, System.out);
+            write(settings.output, result);
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext start(LoadTestSettings settings) {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:loadtest-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1",
+                "--spring.h2.console.enabled=false",
+                "--items.admission.client-header=" + OpenLoopGenerator.CLIENT_HEADER,
+                "--logging.level.root=WARN"));
+        args.addAll(settings.applicationArgs);
+        ConfigurableApplicationContext context = SpringApplication.run(InternshipApplication.class, args.toArray(new String[0]));
+        seed(context.getBean(JdbcTemplate.class), settings.rows);
+        return context;
+    }
+
+    // Inserts items 1..rows through plain JDBC and moves the id sequence past them
+    private static void seed(JdbcTemplate jdbc, int rows) {
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH);
+        Timestamp modifiedAt = Timestamp.from(Item.now());
+        for (long id = 1; id <= rows; id++) {
+            batch.add(new Object[]{id, "Item " + id, "Description of item " + id, ItemStatus.NEW.ordinal(), "item" + id + "@example.com", 0L, modifiedAt});
+            if (batch.size() == INSERT_BATCH) {
+                jdbc.batchUpdate(INSERT_SQL, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbc.batchUpdate(INSERT_SQL, batch);
+        }
+        jdbc.execute("ALTER SEQUENCE item_seq RESTART WITH " + (rows + 1_000));
+    }
+
+    static void report(LoadTestSettings settings, OpenLoopGenerator.Result result, PrintStream out) {
+        out.printf("%nTarget %.0f req/s, achieved %.0f req/s over %.0f s%n",
+                settings.rate, result.achievedRate(), result.measuredSeconds());
+        out.printf("%-8s %8s %7s %5s %5s %6s | %-27s | %-27s%n", "", "", "", "", "", "",
+                "response time ms (intended)", "service time ms (sent)");
+        out.printf("%-8s %8s %7s %5s %5s %6s | %8s %8s %9s | %8s %8s %9s%n",
+                "op", "count", "ok", "404", "shed", "errors", "p50", "p99", "p99.9", "p50", "p99", "p99.9");
+        Histogram allResponse = new Histogram(3);
+        Histogram allService = new Histogram(3);
+        for (Map.Entry<LoadOperation, OpenLoopGenerator.OperationStats> entry : result.stats().entrySet()) {
+            OpenLoopGenerator.OperationStats stats = entry.getValue();
+            if (stats.responseTime.getTotalCount() == 0) {
+                continue;
+            }
+            allResponse.add(stats.responseTime);
+            allService.add(stats.serviceTime);
+            out.printf("%-8s %8d %7d %5d %5d %6d | %s | %s%n", entry.getKey(), stats.responseTime.getTotalCount(),
+                    stats.ok.sum(), stats.notFound.sum(), stats.rejected.sum(), stats.errors.sum(),
+                    percentiles(stats.responseTime), percentiles(stats.serviceTime));
+        }
+        out.printf("%-8s %8d %7s %5s %5s %6s | %s | %s%n", "all", allResponse.getTotalCount(), "", "", "", "",
+                percentiles(allResponse), percentiles(allService));
+
+        out.printf("%nSend lag ms: p50 %.3f, p99 %.3f, max %.3f; %d of %d requests sent more than %d ms late%n",
+                millis(result.sendLag().getValueAtPercentile(50)), millis(result.sendLag().getValueAtPercentile(99)),
+                millis(result.sendLag().getMaxValue()), result.lateSends(), result.sendLag().getTotalCount(),
+                settings.lateThreshold.toMillis());
+        for (String warning : omissionWarnings(settings, result, allResponse, allService)) {
+            out.println("WARNING: " + warning);
+        }
+    }
+
+    /**
+     * Signs of coordinated omission: the schedule was not held, or requests queued for much longer
+     * than the server took to answer them, which a closed-loop client would not have measured.
+     */
+    static List<String> omissionWarnings(LoadTestSettings settings, OpenLoopGenerator.Result result,
+                                         Histogram response, Histogram service) {
+        List<String> warnings = new ArrayList<>();
+        if (result.achievedRate() < settings.rate * RATE_TOLERANCE) {
+            warnings.add(String.format("achieved rate %.0f req/s is below the target %.0f req/s",
+                    result.achievedRate(), settings.rate));
+        }
+        long total = result.sendLag().getTotalCount();
+        if (total > 0 && result.lateSends() > total / 100) {
+            warnings.add(String.format("%.1f%% of the requests were sent late: the generator fell behind its schedule "
+                            + "(maxInFlight=%d reached, GC or CPU starvation); response times include that delay",
+                    100.0 * result.lateSends() / total, settings.maxInFlight));
+        }
+        long responseP99 = response.getValueAtPercentile(99);
+        long serviceP99 = service.getValueAtPercentile(99);
+        if (service.getTotalCount() > 0 && responseP99 > serviceP99 * OMISSION_RATIO) {
+            warnings.add(String.format("response time p99 %.1f ms is over %.0fx the service time p99 %.1f ms: "
+                            + "a closed-loop benchmark would under-report these latencies (coordinated omission)",
+                    millis(responseP99), OMISSION_RATIO, millis(serviceP99)));
+        }
+        return warnings;
+    }
+
+    // Percentile distributions per operation as .hgrm files, values in milliseconds
+    private static void write(Path output, OpenLoopGenerator.Result result) throws IOException {
+        Files.createDirectories(output);
+        for (Map.Entry<LoadOperation, OpenLoopGenerator.OperationStats> entry : result.stats().entrySet()) {
+            if (entry.getValue().responseTime.getTotalCount() == 0) {
+                continue;
+            }
+            String name = entry.getKey().name().toLowerCase();
+            writeDistribution(output.resolve(name + "-response.hgrm"), entry.getValue().responseTime);
+            writeDistribution(output.resolve(name + "-service.hgrm"), entry.getValue().serviceTime);
+        }
+        writeDistribution(output.resolve("send-lag.hgrm"), result.sendLag());
+        System.out.println("Percentile distributions written to " + output.toAbsolutePath());
+    }
+
+    private static void writeDistribution(Path file, Histogram histogram) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+            histogram.outputPercentileDistribution(out, 1000.0);
+        }
+    }
+
+    private static String percentiles(Histogram histogram) {
+        return String.format("%8.2f %8.2f %9.2f", millis(histogram.getValueAtPercentile(50)),
+                millis(histogram.getValueAtPercentile(99)), millis(histogram.getValueAtPercentile(99.9)));
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
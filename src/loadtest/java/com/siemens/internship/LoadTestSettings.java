@@ -0,0 +1,128 @@
+package com.siemens.internship;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Settings of one load test run, parsed from key=value arguments, e.g.
+ * rate=2000 duration=60s mix=get:95,put:5 keys=zipfian.
+ * Arguments starting with -- are passed on to the embedded application (--items.cache.enabled=false).
+ */
+final class LoadTestSettings {
+
+    // Base URL of a running service; when empty the test starts the application on a random port
+    String url = "";
+
+    // Items seeded into the embedded database (ids 1..rows); with url= it must match the target's ids
+    int rows = 10_000;
+
+    // Target arrival rate in requests per second, independent of how fast the server answers
+    double rate = 200;
+
+    // constant: one request every 1/rate seconds; poisson: exponential gaps with mean 1/rate
+    String arrivals = "constant";
+
+    Duration warmup = Duration.ofSeconds(10);
+
+    Duration duration = Duration.ofSeconds(30);
+
+    // Relative weights of the operations; the process weight is tiny because each one starts a full table job
+    Map<LoadOperation, Double> mix = parseMix("get:80,put:10,post:5,delete:5,process:0.01");
+
+    String keys = "zipfian";
+
+    // Simulated clients, sent round robin in the X-Load-Client header (the embedded application rate limits by it)
+    int clients = 1_000;
+
+    double theta = 0.99;
+
+    // Requests outstanding at once; when reached, the dispatcher waits and the wait counts as latency
+    int maxInFlight = 1_000;
+
+    // A request sent later than this after its intended start counts as late (coordinated omission check)
+    Duration lateThreshold = Duration.ofMillis(1);
+
+    long seed = 42;
+
+    Path output = Path.of("target", "loadtest");
+
+    List<String> applicationArgs = new ArrayList<>();
+
+    static LoadTestSettings parse(String... args) {
+        LoadTestSettings settings = new LoadTestSettings();
+        for (String arg : args) {
+            if (arg.isBlank()) {
+                continue;
+            }
+            if (arg.startsWith("--")) {
+                settings.applicationArgs.add(arg);
+                continue;
+            }
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Expected key=value, got '" + arg + "'");
+            }
+            String value = arg.substring(separator + 1);
+            switch (arg.substring(0, separator)) {
+                case "url" -> settings.url = value;
+                case "rows" -> settings.rows = Integer.parseInt(value);
+                case "rate" -> settings.rate = Double.parseDouble(value);
+                case "arrivals" -> settings.arrivals = value;
+                case "warmup" -> settings.warmup = DurationStyle.detectAndParse(value);
+                case "duration" -> settings.duration = DurationStyle.detectAndParse(value);
+                case "mix" -> settings.mix = parseMix(value);
+                case "keys" -> settings.keys = value;
+                case "theta" -> settings.theta = Double.parseDouble(value);
+                case "clients" -> settings.clients = Integer.parseInt(value);
+                case "maxInFlight" -> settings.maxInFlight = Integer.parseInt(value);
+                case "lateThreshold" -> settings.lateThreshold = DurationStyle.detectAndParse(value);
+                case "seed" -> settings.seed = Long.parseLong(value);
+                case "output" -> settings.output = Path.of(value);
+                default -> throw new IllegalArgumentException("Unknown load test setting '" + arg + "'");
+            }
+        }
+        if (settings.rate <= 0) {
+            throw new IllegalArgumentException("rate must be positive, was " + settings.rate);
+        }
+        if (settings.clients < 1) {
+            throw new IllegalArgumentException("clients must be at least 1, was " + settings.clients);
+        }
+        if (!settings.arrivals.equals("constant") && !settings.arrivals.equals("poisson")) {
+            throw new IllegalArgumentException("arrivals must be constant or poisson, was " + settings.arrivals);
+        }
+        return settings;
+    }
+
+    // Parses "get:80,put:20"; operations left out get weight 0
+    static Map<LoadOperation, Double> parseMix(String value) {
+        Map<LoadOperation, Double> mix = new EnumMap<>(LoadOperation.class);
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected operation:weight in mix, got '" + entry + "'");
+            }
+            double weight = Double.parseDouble(parts[1]);
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight in mix: '" + entry + "'");
+            }
+            mix.put(LoadOperation.valueOf(parts[0].trim().toUpperCase()), weight);
+        }
+        if (mix.values().stream().mapToDouble(Double::doubleValue).sum() <= 0) {
+            throw new IllegalArgumentException("mix must contain a positive weight: '" + value + "'");
+        }
+        return mix;
+    }
+
+    @Override
+    public String toString() {
+        return "rate=" + rate + "/s (" + arrivals + "), warmup=" + warmup.toSeconds() + "s, duration=" + duration.toSeconds()
+                + "s, mix=" + mix + ", keys=" + keys + (keys.equals("zipfian") ? "(theta=" + theta + ")" : "")
+                + ", clients=" + clients + ", rows=" + rows + ", maxInFlight=" + maxInFlight;
+    }
+}
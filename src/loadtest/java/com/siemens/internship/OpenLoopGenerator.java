@@ -0,0 +1,260 @@
+package com.siemens.internship;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load generator: requests are scheduled at the target arrival rate whether or not
+ * earlier ones have completed, and each is sent from its own (virtual, on Java 21+) thread.
+
+ * Coordinated omission: a closed-loop client that waits for each response before sending the next
+ * request stops sending while the server stalls, so the stall shows up in one sample instead of
+ * in every request that should have been sent meanwhile. Here every request has an intended start
+ * time from the schedule and two latencies are recorded:
+ * - response time: intended start to response, what a user arriving on schedule experiences
+ * - service time: actual send to response, what a closed-loop client would have reported
+ * The lag between intended and actual send is recorded too; requests sent late mean the generator
+ * itself fell behind (maxInFlight reached, GC, CPU starvation) and the run did not hold its rate.
+ */
+final class OpenLoopGenerator {
+
+    static final String CLIENT_HEADER = "X-Load-Client";
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final LoadTestSettings settings;
+    private final URI baseUri;
+    private final KeyDistribution keys;
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final Map<LoadOperation, OperationStats> stats = new EnumMap<>(LoadOperation.class);
+    private final Histogram sendLag = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+    private final LongAdder lateSends = new LongAdder();
+    // Ids created by POST during the run; DELETE takes them first so the seeded ids stay readable
+    private final Queue<Long> createdIds = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    OpenLoopGenerator(LoadTestSettings settings, URI baseUri, KeyDistribution keys) {
+        this.settings = settings;
+        this.baseUri = baseUri;
+        this.keys = keys;
+        for (LoadOperation operation : LoadOperation.values()) {
+            stats.put(operation, new OperationStats());
+        }
+    }
+
+    /**
+     * Latencies of one operation in microseconds, recorded only for requests scheduled
+     * after the warmup.
+     */
+    static final class OperationStats {
+        final Histogram responseTime = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+        final Histogram serviceTime = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+        // 2xx and 304
+        final LongAdder ok = new LongAdder();
+        final LongAdder notFound = new LongAdder();
+        // 429 and 503: shed by admission control, or POST /process while a job is running
+        final LongAdder rejected = new LongAdder();
+        // Any other status, I/O errors and timeouts
+        final LongAdder errors = new LongAdder();
+    }
+
+    record Result(Map<LoadOperation, OperationStats> stats, Histogram sendLag, long lateSends,
+                  long scheduled, double measuredSeconds) {
+
+        double achievedRate() {
+            return scheduled / measuredSeconds;
+        }
+    }
+
+    Result run() throws InterruptedException {
+        LoadOperation[] operations = LoadOperation.values();
+        double[] cumulativeWeights = cumulativeWeights(operations);
+        SplittableRandom random = new SplittableRandom(settings.seed);
+        double meanGapNanos = TimeUnit.SECONDS.toNanos(1) / settings.rate;
+        boolean poisson = settings.arrivals.equals("poisson");
+        Semaphore inFlight = new Semaphore(settings.maxInFlight);
+
+        ExecutorService workers = newWorkerExecutor();
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(workers)
+                .build();
+
+        long start = System.nanoTime();
+        long measureFrom = start + settings.warmup.toNanos();
+        long end = measureFrom + settings.duration.toNanos();
+        long scheduled = 0;
+        long sent = 0;
+        double intended = start;
+        try {
+            while (intended < end) {
+                long intendedStart = (long) intended;
+                parkUntil(intendedStart);
+                LoadOperation operation = pick(operations, cumulativeWeights, random.nextDouble());
+                long key = keys.next(random);
+                String clientId = "client-" + (sent % settings.clients);
+                boolean measured = intendedStart >= measureFrom;
+                // Blocks once maxInFlight requests are outstanding; the wait is part of their response time
+                inFlight.acquire();
+                workers.execute(() -> {
+                    try {
+                        execute(client, operation, key, clientId, intendedStart, measured);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+                sent++;
+                if (measured) {
+                    scheduled++;
+                }
+                intended += poisson ? -Math.log(1 - random.nextDouble()) * meanGapNanos : meanGapNanos;
+            }
+            if (!inFlight.tryAcquire(settings.maxInFlight, REQUEST_TIMEOUT.toSeconds() + 5, TimeUnit.SECONDS)) {
+                System.err.println("Requests still in flight after the run, their latencies are missing");
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+        return new Result(stats, sendLag, lateSends.sum(), scheduled, settings.duration.toNanos() / 1e9);
+    }
+
+    private void execute(HttpClient client, LoadOperation operation, long key, String clientId, long intendedStart, boolean measured) {
+        long sent = System.nanoTime();
+        OperationStats operationStats = stats.get(operation);
+        int status;
+        try {
+            status = send(client, operation, key, clientId);
+        } catch (IOException e) {
+            status = -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        long completed = System.nanoTime();
+        if (!measured) {
+            return;
+        }
+        long lag = Math.max(0, sent - intendedStart);
+        sendLag.recordValue(TimeUnit.NANOSECONDS.toMicros(lag));
+        if (lag > settings.lateThreshold.toNanos()) {
+            lateSends.increment();
+        }
+        operationStats.responseTime.recordValue(TimeUnit.NANOSECONDS.toMicros(completed - intendedStart));
+        operationStats.serviceTime.recordValue(TimeUnit.NANOSECONDS.toMicros(completed - sent));
+        if ((status >= 200 && status < 300) || status == 304) {
+            operationStats.ok.increment();
+        } else if (status == 404) {
+            operationStats.notFound.increment();
+        } else if (status == 429 || status == 503) {
+            operationStats.rejected.increment();
+        } else {
+            operationStats.errors.increment();
+        }
+    }
+
+    private int send(HttpClient client, LoadOperation operation, long key, String clientId) throws IOException, InterruptedException {
+        return switch (operation) {
+            case GET -> client.send(request("/api/items/" + key, clientId).GET().build(),
+                    HttpResponse.BodyHandlers.discarding()).statusCode();
+            case POST -> {
+                HttpResponse<byte[]> response = client.send(request("/api/items", clientId)
+                        .POST(json(newItem(sequence.incrementAndGet()))).build(), HttpResponse.BodyHandlers.ofByteArray());
+                if (response.statusCode() == 201) {
+                    createdIds.add(objectMapper.readTree(response.body()).get("id").asLong());
+                }
+                yield response.statusCode();
+            }
+            case PUT -> client.send(request("/api/items/" + key, clientId).PUT(json(newItem(key))).build(),
+                    HttpResponse.BodyHandlers.discarding()).statusCode();
+            case DELETE -> {
+                // Without a created item left, a missing id: deleting seeded (hot) ids would turn GETs into 404s
+                Long created = createdIds.poll();
+                yield client.send(request("/api/items/" + (created != null ? created : -key), clientId).DELETE().build(),
+                        HttpResponse.BodyHandlers.discarding()).statusCode();
+            }
+            case PROCESS -> client.send(request("/api/items/process", clientId).POST(HttpRequest.BodyPublishers.noBody()).build(),
+                    HttpResponse.BodyHandlers.discarding()).statusCode();
+        };
+    }
+
+    private HttpRequest.Builder request(String path, String clientId) {
+        return HttpRequest.newBuilder(baseUri.resolve(path)).timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .header(CLIENT_HEADER, clientId);
+    }
+
+    private HttpRequest.BodyPublisher json(Item item) throws IOException {
+        return HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(item));
+    }
+
+    private static Item newItem(long n) {
+        return new Item(null, "Item " + n, "Load test item " + n, ItemStatus.NEW, "item" + n + "@example.com");
+    }
+
+    private double[] cumulativeWeights(LoadOperation[] operations) {
+        double total = settings.mix.values().stream().mapToDouble(Double::doubleValue).sum();
+        double[] cumulative = new double[operations.length];
+        double sum = 0;
+        for (int i = 0; i < operations.length; i++) {
+            sum += settings.mix.getOrDefault(operations[i], 0.0) / total;
+            cumulative[i] = sum;
+        }
+        return cumulative;
+    }
+
+    private static LoadOperation pick(LoadOperation[] operations, double[] cumulativeWeights, double u) {
+        for (int i = 0; i < operations.length; i++) {
+            if (u < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        // Rounding left u above the last cumulative weight: take the last operation with a weight
+        for (int i = operations.length - 1; ; i--) {
+            if (i == 0 || cumulativeWeights[i] > cumulativeWeights[i - 1]) {
+                return operations[i];
+            }
+        }
+    }
+
+    private static void parkUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    // Virtual threads when available (looked up reflectively so the project still compiles for Java 17)
+    private static ExecutorService newWorkerExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger counter = new AtomicInteger();
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "load-test-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.siemens.internship;
+
+import java.util.List;
+
+/**
+ * Outcome of one item of a bulk create/update/delete request.
+ *
+ * @param index   position of the item in the request
+ * @param id      id of the item (assigned id for creates), null if unknown
+ * @param outcome what happened to the item
+ * @param errors  validation or database errors, empty on success
+ */
+public record BatchItemResult(int index, Long id, Outcome outcome, List<String> errors) {
+
+    public enum Outcome {
+        CREATED,
+        UPDATED,
+        DELETED,
+        NOT_FOUND,
+        INVALID,
+        FAILED
+    }
+
+    public boolean isSuccess() {
+        return outcome == Outcome.CREATED || outcome == Outcome.UPDATED || outcome == Outcome.DELETED;
+    }
+
+    static BatchItemResult of(int index, Long id, Outcome outcome) {
+        return new BatchItemResult(index, id, outcome, List.of());
+    }
+}
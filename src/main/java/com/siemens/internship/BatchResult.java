@@ -0,0 +1,19 @@
+package com.siemens.internship;
+
+import java.util.List;
+
+/**
+ * Response of the bulk endpoints: totals plus one result per item, in request order.
+ */
+public record BatchResult(int succeeded, int failed, List<BatchItemResult> results) {
+
+    static BatchResult of(List<BatchItemResult> results) {
+        int succeeded = 0;
+        for (BatchItemResult result : results) {
+            if (result.isSuccess()) {
+                succeeded++;
+            }
+        }
+        return new BatchResult(succeeded, results.size() - succeeded, results);
+    }
+}
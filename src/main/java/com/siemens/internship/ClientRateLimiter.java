@@ -0,0 +1,71 @@
+package com.siemens.internship;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free token bucket per client, as the generic cell rate algorithm (GCRA).
+
+ * Each client's bucket is a single AtomicLong: the theoretical arrival time (TAT) of its next
+ * request, in System.nanoTime() units. A request is admitted when it arrives no earlier than
+ * TAT minus the burst tolerance, and moves TAT one emission interval (1 / rate) further, with
+ * one compareAndSet. That is exactly a bucket of `burst` tokens refilled at `rate`, without a
+ * refill timer or a lock.
+
+ * Buckets live in a Caffeine cache bounded by maxClients and expired once idle for as long as
+ * a full refill takes, after which a new bucket is indistinguishable from the old one.
+ */
+public class ClientRateLimiter {
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final LongSupplier clock;
+    private final Cache<String, AtomicLong> buckets;
+
+    public ClientRateLimiter(double requestsPerSecond, int burst, long maxClients) {
+        this(requestsPerSecond, burst, maxClients, System::nanoTime);
+    }
+
+    ClientRateLimiter(double requestsPerSecond, int burst, long maxClients, LongSupplier clock) {
+        if (requestsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("requestsPerSecond and burst must be positive");
+        }
+        this.emissionIntervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond));
+        this.burstToleranceNanos = emissionIntervalNanos * (burst - 1);
+        this.clock = clock;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(Duration.ofNanos(burstToleranceNanos + emissionIntervalNanos))
+                .build();
+    }
+
+    /**
+     * Takes one token from the client's bucket. Returns 0 when the request is admitted,
+     * otherwise the nanoseconds until the client's next request would be.
+     */
+    public long tryAcquire(String client) {
+        AtomicLong tat = buckets.get(client, key -> new AtomicLong(clock.getAsLong()));
+        while (true) {
+            long now = clock.getAsLong();
+            long current = tat.get();
+            long base = current - now > 0 ? current : now;
+            long wait = base - burstToleranceNanos - now;
+            if (wait > 0) {
+                return wait;
+            }
+            if (tat.compareAndSet(current, base + emissionIntervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    // Number of clients with a bucket (approximate, for metrics)
+    public long trackedClients() {
+        return buckets.estimatedSize();
+    }
+}
@@ -0,0 +1,56 @@
+package com.siemens.internship;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Derives the size of the HikariCP pool from the processing parallelism (items.datasource.derive-pool-size).
+
+ * Every chunk in flight holds a connection, and HTTP requests need their own, so the pool gets
+ * items.processing.parallelism + items.datasource.request-connections connections. minimumIdle is set
+ * to the same value: a fixed-size pool never opens connections under load. ProcessingExecutor then
+ * sizes its threads from this pool as usual.
+
+ * A BeanPostProcessor, so it runs before anything takes a connection. For the same reason the settings
+ * are bound from the Environment rather than injected as beans.
+ */
+@Component
+public class ConnectionPoolSizing implements BeanPostProcessor, EnvironmentAware {
+    private static final Logger log = LoggerFactory.getLogger(ConnectionPoolSizing.class);
+
+    private Environment environment;
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof HikariDataSource hikari) {
+            Binder binder = Binder.get(environment);
+            ItemDataSourceProperties settings = binder.bind("items.datasource", ItemDataSourceProperties.class)
+                    .orElseGet(ItemDataSourceProperties::new);
+            if (settings.isDerivePoolSize() && !environment.containsProperty("spring.datasource.hikari.maximum-pool-size")) {
+                int parallelism = binder.bind("items.processing.parallelism", Integer.class)
+                        .orElse(new ItemProcessingProperties().getParallelism());
+                int size = poolSize(parallelism, settings.getRequestConnections());
+                hikari.setMaximumPoolSize(size);
+                hikari.setMinimumIdle(size);
+                log.info("Connection pool sized to {} connections ({} processing + {} for requests)",
+                        size, parallelism, settings.getRequestConnections());
+            }
+        }
+        return bean;
+    }
+
+    static int poolSize(int parallelism, int requestConnections) {
+        return Math.max(1, parallelism) + Math.max(0, requestConnections);
+    }
+}
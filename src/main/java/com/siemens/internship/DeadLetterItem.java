@@ -0,0 +1,41 @@
+package com.siemens.internship;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * An item that processing could not handle even on its own and after retries
+ * (see ProcessingRecovery). One row per item: when the item fails again in a later
+ * run the row is updated, and it is deleted once reprocessing succeeds.
+ */
+@Entity
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class DeadLetterItem {
+
+    @Id
+    private Long itemId;
+
+    // Job of the last failure
+    private String jobId;
+
+    // "ExceptionType: message" of the last failure
+    @Column(length = 1000)
+    private String cause;
+
+    // Number of runs in which the item failed
+    private int failures;
+
+    private Instant firstFailedAt;
+
+    private Instant lastFailedAt;
+}
@@ -0,0 +1,15 @@
+package com.siemens.internship;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface DeadLetterItemRepository extends JpaRepository<DeadLetterItem, Long> {
+
+    // Keyset page of dead letters in item id order
+    @Query("SELECT d FROM DeadLetterItem d WHERE d.itemId > :after ORDER BY d.itemId")
+    List<DeadLetterItem> findPageAfter(@Param("after") Long after, Pageable pageable);
+}
@@ -0,0 +1,74 @@
+package com.siemens.internship;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.datatype.jsr310.ser.InstantSerializer;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Writes an Instant exactly like Instant.toString (ISO-8601 in UTC, the fraction in groups of three digits),
+ * straight from its epoch seconds into a char buffer. Instant.toString goes through DateTimeFormatter,
+ * a LocalDateTime and several intermediate Strings: about 700 bytes per call, which made up ~40% of what
+ * a page of items allocated (one modifiedAt per item). Other cases (timestamps enabled, years outside
+ * 0000-9999) are left to the stock InstantSerializer.
+ */
+class IsoInstantSerializer extends StdSerializer<Instant> {
+    private static final int SECONDS_PER_DAY = 86_400;
+    // 0000-01-01T00:00:00Z and 10000-01-01T00:00:00Z
+    private static final long MIN_SECOND = -62_167_219_200L;
+    private static final long MAX_SECOND = 253_402_300_800L;
+
+    IsoInstantSerializer() {
+        super(Instant.class);
+    }
+
+    @Override
+    public void serialize(Instant value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        long second = value.getEpochSecond();
+        if (provider.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS) || second < MIN_SECOND || second >= MAX_SECOND) {
+            InstantSerializer.INSTANCE.serialize(value, gen, provider);
+            return;
+        }
+        LocalDate date = LocalDate.ofEpochDay(Math.floorDiv(second, SECONDS_PER_DAY));
+        int secondOfDay = (int) Math.floorMod(second, SECONDS_PER_DAY);
+        char[] text = new char[30];
+        int end = digits(text, 0, date.getYear(), 4);
+        text[end++] = '-';
+        end = digits(text, end, date.getMonthValue(), 2);
+        text[end++] = '-';
+        end = digits(text, end, date.getDayOfMonth(), 2);
+        text[end++] = 'T';
+        end = digits(text, end, secondOfDay / 3600, 2);
+        text[end++] = ':';
+        end = digits(text, end, secondOfDay / 60 % 60, 2);
+        text[end++] = ':';
+        end = digits(text, end, secondOfDay % 60, 2);
+        int nano = value.getNano();
+        if (nano > 0) {
+            text[end++] = '.';
+            if (nano % 1_000_000 == 0) {
+                end = digits(text, end, nano / 1_000_000, 3);
+            } else if (nano % 1_000 == 0) {
+                end = digits(text, end, nano / 1_000, 6);
+            } else {
+                end = digits(text, end, nano, 9);
+            }
+        }
+        text[end++] = 'Z';
+        gen.writeString(text, 0, end);
+    }
+
+    // Writes `value` as `width` digits, zero-padded, at `offset`; returns the offset after them
+    private static int digits(char[] text, int offset, int value, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            text[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return offset + width;
+    }
+}
@@ -1,26 +1,50 @@
 package com.siemens.internship;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
 @Entity
+// Incremental processing walks (modified_at, id) from its checkpoint instead of the whole table;
+// the other indexes serve the server-side filters of ItemFilter
+@Table(indexes = {
+        @Index(name = "idx_item_modified_at", columnList = "modified_at, id"),
+        @Index(name = "idx_item_status", columnList = "status, id"),
+        @Index(name = "idx_item_email", columnList = "email, id"),
+        @Index(name = "idx_item_name", columnList = "name")
+})
 @Getter
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
 public class Item {
+    static final int ALLOCATION_SIZE = 500;
+
+    // Pooled sequence: one round trip hands out ALLOCATION_SIZE ids, so batched inserts stay batched
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "item_seq")
+    @SequenceGenerator(name = "item_seq", sequenceName = "item_seq", allocationSize = ALLOCATION_SIZE)
     private Long id;
 
     @NotBlank(message = "Name must not be blank") //Required field
@@ -29,10 +53,43 @@ public class Item {
     @NotBlank(message = "Description must not be blank") //Required field
     private String description;
 
-    @NotBlank(message = "Status must not be blank") //Required field
-    private String status;
+    // Stored as a one-byte ordinal instead of free-form text (see ItemStatus)
+    @NotNull(message = "Status must not be null") //Required field
+    @Enumerated(EnumType.ORDINAL)
+    @Column(nullable = false)
+    private ItemStatus status;
 
     @NotBlank(message = "Email must not be blank")
     @Email(message = "Invalid email format") //Ensure email format is valid
     private String email;
+
+    // Optimistic lock version, also used as the ETag of the item; set by the database, never by clients
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    /**
+     * Last time the item was created or changed through the API; set by ItemService, never by clients.
+     * Processing runs do not touch it, so a processed row only comes back into an
+     * incremental run when a client modifies it again.
+     */
+    @Column(nullable = false)
+    private Instant modifiedAt;
+
+    public Item(Long id, String name, String description, ItemStatus status, String email) {
+        this(id, name, description, status, email, null, null);
+    }
+
+    // Rows written outside ItemService (repository saves, bulk inserts) still get a timestamp
+    @PrePersist
+    void onPersist() {
+        if (modifiedAt == null) {
+            modifiedAt = now();
+        }
+    }
+
+    // Truncated to the precision of the TIMESTAMP column, so in-memory and stored values compare equal
+    static Instant now() {
+        return Instant.now().truncatedTo(ChronoUnit.MICROS);
+    }
 }
\ No newline at end of file
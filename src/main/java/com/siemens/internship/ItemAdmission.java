@@ -0,0 +1,27 @@
+package com.siemens.internship;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Registers ItemAdmissionFilter for /api/items and everything below it (items.admission.*).
+
+ * Ordered right after the HTTP observation filter: rejected requests still show up in
+ * http.server.requests, but cost nothing else (no body is read, no form or request context is set up).
+ */
+@Configuration(proxyBeanMethods = false)
+public class ItemAdmission {
+
+    @Bean
+    public FilterRegistrationBean<ItemAdmissionFilter> itemAdmissionFilter(ItemAdmissionProperties properties,
+                                                                          MeterRegistry registry) {
+        FilterRegistrationBean<ItemAdmissionFilter> registration =
+                new FilterRegistrationBean<>(new ItemAdmissionFilter(properties, registry));
+        registration.addUrlPatterns(ItemAdmissionFilter.API_PREFIX, ItemAdmissionFilter.API_PREFIX + "/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+        return registration;
+    }
+}
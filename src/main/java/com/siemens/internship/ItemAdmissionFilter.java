@@ -0,0 +1,198 @@
+package com.siemens.internship;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Sheds load on /api/items before it reaches ItemController, so that one caller cannot starve the others:
+
+ * - a token bucket per client (ClientRateLimiter): 429 Too Many Requests with Retry-After
+ * - a concurrency limit per endpoint group (ItemAdmissionProperties.Endpoint), taken without
+ *   waiting: 503 Service Unavailable with Retry-After. A streaming response keeps its permit
+ *   until the stream has been written.
+
+ * Every decision is counted in items.admission.requests (tags endpoint, outcome).
+ * Registered by ItemAdmission for /api/items only; actuator endpoints are never limited.
+ */
+public class ItemAdmissionFilter extends OncePerRequestFilter {
+
+    static final String API_PREFIX = "/api/items";
+
+    enum Outcome {
+        ADMITTED,
+        RATE_LIMITED,
+        CONCURRENCY_LIMITED
+    }
+
+    private final ItemAdmissionProperties properties;
+    // Null when rate limiting is off
+    private final ClientRateLimiter rateLimiter;
+    // Only groups with a limit have a semaphore
+    private final Map<ItemAdmissionProperties.Endpoint, Semaphore> permits = new EnumMap<>(ItemAdmissionProperties.Endpoint.class);
+    private final Map<ItemAdmissionProperties.Endpoint, Map<Outcome, Counter>> decisions = new EnumMap<>(ItemAdmissionProperties.Endpoint.class);
+
+    public ItemAdmissionFilter(ItemAdmissionProperties properties, MeterRegistry registry) {
+        this.properties = properties;
+        ItemAdmissionProperties.RateLimit rateLimit = properties.getRateLimit();
+        this.rateLimiter = rateLimit.getRequestsPerSecond() > 0
+                ? new ClientRateLimiter(rateLimit.getRequestsPerSecond(), rateLimit.getBurst(), rateLimit.getMaxClients())
+                : null;
+        for (ItemAdmissionProperties.Endpoint endpoint : ItemAdmissionProperties.Endpoint.values()) {
+            Integer limit = properties.getMaxConcurrent().get(endpoint);
+            if (limit != null && limit > 0) {
+                Semaphore semaphore = new Semaphore(limit);
+                permits.put(endpoint, semaphore);
+                Gauge.builder("items.admission.in.flight", semaphore, s -> limit - s.availablePermits())
+                        .description("Requests in flight in an endpoint group with a concurrency limit")
+                        .tag("endpoint", tag(endpoint))
+                        .register(registry);
+            }
+            Map<Outcome, Counter> counters = new EnumMap<>(Outcome.class);
+            for (Outcome outcome : Outcome.values()) {
+                counters.put(outcome, Counter.builder("items.admission.requests")
+                        .description("Admission decisions for /api/items requests")
+                        .tag("endpoint", tag(endpoint))
+                        .tag("outcome", tag(outcome))
+                        .register(registry));
+            }
+            decisions.put(endpoint, counters);
+        }
+        if (rateLimiter != null) {
+            Gauge.builder("items.admission.clients", rateLimiter, ClientRateLimiter::trackedClients)
+                    .description("Clients with a rate limit bucket")
+                    .register(registry);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ItemAdmissionProperties.Endpoint endpoint = endpoint(request);
+        if (rateLimiter != null) {
+            long waitNanos = rateLimiter.tryAcquire(client(request));
+            if (waitNanos > 0) {
+                reject(response, endpoint, Outcome.RATE_LIMITED, HttpStatus.TOO_MANY_REQUESTS, waitNanos);
+                return;
+            }
+        }
+        Semaphore semaphore = permits.get(endpoint);
+        if (semaphore != null && !semaphore.tryAcquire()) {
+            reject(response, endpoint, Outcome.CONCURRENCY_LIMITED, HttpStatus.SERVICE_UNAVAILABLE,
+                    properties.getRetryAfter().toNanos());
+            return;
+        }
+        decisions.get(endpoint).get(Outcome.ADMITTED).increment();
+        if (semaphore == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        boolean releasedLater = false;
+        try {
+            chain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseOnCompletion(semaphore));
+                releasedLater = true;
+            }
+        } finally {
+            if (!releasedLater) {
+                semaphore.release();
+            }
+        }
+    }
+
+    static ItemAdmissionProperties.Endpoint endpoint(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.equals(API_PREFIX) || path.equals(API_PREFIX + "/")) {
+            return "GET".equals(request.getMethod()) ? ItemAdmissionProperties.Endpoint.LIST : ItemAdmissionProperties.Endpoint.OTHER;
+        }
+        if (path.startsWith(API_PREFIX + "/batch")) {
+            return ItemAdmissionProperties.Endpoint.BATCH;
+        }
+        if ("POST".equals(request.getMethod())
+                && (path.equals(API_PREFIX + "/process") || path.equals(API_PREFIX + "/dead-letters/reprocess"))) {
+            return ItemAdmissionProperties.Endpoint.PROCESS;
+        }
+        return ItemAdmissionProperties.Endpoint.OTHER;
+    }
+
+    private String client(HttpServletRequest request) {
+        String header = properties.getClientHeader();
+        if (header != null && !header.isEmpty()) {
+            String client = request.getHeader(header);
+            if (client != null && !client.isEmpty()) {
+                return client;
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    private void reject(HttpServletResponse response, ItemAdmissionProperties.Endpoint endpoint, Outcome outcome,
+                        HttpStatus status, long retryAfterNanos) {
+        decisions.get(endpoint).get(outcome).increment();
+        response.setStatus(status.value());
+        // Whole seconds, rounded up so that a client honouring it is admitted
+        long seconds = Math.max(1, (retryAfterNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+    }
+
+    private static String tag(Enum<?> value) {
+        return value.name().toLowerCase();
+    }
+
+    // Releases the permit of an async (streaming) request once, when it completes, fails or times out
+    private static final class ReleaseOnCompletion implements AsyncListener {
+        private final Semaphore semaphore;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        ReleaseOnCompletion(Semaphore semaphore) {
+            this.semaphore = semaphore;
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                semaphore.release();
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
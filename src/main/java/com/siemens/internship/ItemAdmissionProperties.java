@@ -0,0 +1,71 @@
+package com.siemens.internship;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Settings for rate limiting and admission control of /api/items (prefix {@code items.admission}),
+ * see ItemAdmissionFilter.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "items.admission")
+public class ItemAdmissionProperties {
+
+    /**
+     * Groups of /api/items endpoints that share a concurrency limit:
+     * - LIST: GET /api/items, keyset pages and the full-table streams
+     * - BATCH: /api/items/batch
+     * - PROCESS: POST /api/items/process and /api/items/dead-letters/reprocess
+     * - OTHER: every other item endpoint
+     */
+    public enum Endpoint {
+        LIST,
+        BATCH,
+        PROCESS,
+        OTHER
+    }
+
+    // When false no request is limited
+    private boolean enabled = true;
+
+    /**
+     * Request header identifying the client, e.g. one set by an authenticating gateway.
+     * When empty (or missing on a request) clients are told apart by their remote address;
+     * only configure a header that callers cannot set themselves.
+     */
+    private String clientHeader = "";
+
+    // Requests in flight per endpoint group, rejected with 503 beyond it; 0 or missing means unlimited
+    private Map<Endpoint, Integer> maxConcurrent = new EnumMap<>(Map.of(
+            Endpoint.LIST, 4,
+            Endpoint.BATCH, 2,
+            Endpoint.PROCESS, 2));
+
+    // Retry-After sent with 503 responses (concurrency limit, processing run already active)
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    private RateLimit rateLimit = new RateLimit();
+
+    /**
+     * Token bucket per client: `requestsPerSecond` sustained, up to `burst` at once.
+     * Requests beyond it are rejected with 429 and a Retry-After of when the next one is allowed.
+     */
+    @Getter
+    @Setter
+    public static class RateLimit {
+
+        // 0 disables rate limiting
+        private double requestsPerSecond = 100;
+
+        private int burst = 200;
+
+        // Clients tracked at most; the least recently seen beyond it are forgotten (and start with a full bucket)
+        private long maxClients = 10_000;
+    }
+}
@@ -0,0 +1,20 @@
+package com.siemens.internship;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the bulk endpoints under /api/items/batch (prefix {@code items.batch}).
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "items.batch")
+public class ItemBatchProperties {
+
+    // Items written per transaction; also used as hibernate.jdbc.batch_size in application.properties
+    private int size = 500;
+
+    // Largest number of items accepted in one request (413 Payload Too Large above it)
+    private int maxItems = 100_000;
+}
@@ -0,0 +1,100 @@
+package com.siemens.internship;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Transactional unit of work for one window of a bulk request.
+
+ * Like ItemChunkProcessor, kept as a separate bean so ItemService goes through the
+ * @Transactional proxy. Every method writes its window in one transaction, which
+ * Hibernate flushes as JDBC batches (ids come from the pooled item_seq sequence,
+ * so inserts do not need a round trip per id).
+ */
+@Component
+public class ItemBatchWriter {
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Inserts every item; the returned list holds the persisted items in input order
+    @Transactional
+    public List<Item> insert(List<Item> items) {
+        return itemRepository.saveAll(items);
+    }
+
+    /**
+     * Loads the existing rows with one IN query and copies the new values onto them,
+     * so dirty checking issues batched UPDATEs without a merge SELECT per item.
+     * The returned list is aligned with the input: null where the id does not exist.
+     */
+    @Transactional
+    public List<Item> update(List<Item> items) {
+        List<Long> ids = new ArrayList<>(items.size());
+        for (Item item : items) {
+            ids.add(item.getId());
+        }
+        Map<Long, Item> existing = new HashMap<>();
+        for (Item item : itemRepository.findAllById(ids)) {
+            existing.put(item.getId(), item);
+        }
+
+        List<Item> updated = new ArrayList<>(items.size());
+        for (Item item : items) {
+            Item managed = existing.get(item.getId());
+            if (managed != null) {
+                managed.setName(item.getName());
+                managed.setDescription(item.getDescription());
+                managed.setStatus(item.getStatus());
+                managed.setEmail(item.getEmail());
+                managed.setModifiedAt(Item.now());
+            }
+            updated.add(managed);
+        }
+        return updated;
+    }
+
+    // Deletes the ids that exist with a single DELETE ... WHERE id IN and returns them
+    @Transactional
+    public Set<Long> delete(List<Long> ids) {
+        List<Long> existing = itemRepository.findExistingIds(ids);
+        itemRepository.deleteAllByIdInBatch(existing);
+        return new HashSet<>(existing);
+    }
+
+    /**
+     * Writes the fields of detached items by id with one JDBC batch, without loading them
+     * (used by ItemWriteBehind), stamped with `modifiedAt` instead of their own modifiedAt.
+     * The returned array holds 1 for every written item and 0 for every id that no longer exists, in input order.
+     */
+    @Transactional
+    public int[] updateFields(List<Item> items, Instant modifiedAt) {
+        if (items.isEmpty()) {
+            return new int[0];
+        }
+        int[][] counts = jdbcTemplate.batchUpdate(
+                "UPDATE item SET name = ?, description = ?, status = ?, email = ?, modified_at = ?, version = version + 1 WHERE id = ?",
+                items, items.size(), (statement, item) -> {
+                    statement.setString(1, item.getName());
+                    statement.setString(2, item.getDescription());
+                    statement.setInt(3, item.getStatus().ordinal());
+                    statement.setString(4, item.getEmail());
+                    statement.setObject(5, modifiedAt);
+                    statement.setLong(6, item.getId());
+                });
+        return counts[0];
+    }
+}
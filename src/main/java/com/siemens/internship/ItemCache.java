@@ -0,0 +1,135 @@
+package com.siemens.internship;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache of items by id (Caffeine: W-TinyLFU eviction plus a TTL).
+
+ * Items are copied on the way in and on the way out, so callers can never change
+ * a cached instance by mutating what they got back. Misses are not cached.
+ * When items.cache.enabled is false every method is a pass-through / no-op.
+
+ * An AsyncCache holding futures, so that a load runs outside Caffeine's per-bin compute lock:
+ * with a synchronous cache, a load waiting for a JDBC connection blocked evict() in writers that
+ * still held theirs (open-in-view), and under load the pool deadlocked until connectionTimeout.
+ */
+@Component
+public class ItemCache {
+
+    private final AsyncCache<Long, Item> cache;
+
+    public ItemCache(ItemCacheProperties properties) {
+        this.cache = properties.isEnabled()
+                ? Caffeine.newBuilder()
+                        .maximumSize(properties.getMaximumSize())
+                        .expireAfterWrite(properties.getTtl())
+                        .recordStats()
+                        .buildAsync()
+                : null;
+    }
+
+    public boolean isEnabled() {
+        return cache != null;
+    }
+
+    /**
+     * Returns the cached item, or loads it with `loader` and caches it when found.
+     * Concurrent lookups of the same missing id share a single load, which runs on the
+     * thread that missed first. An eviction while the load runs drops its result.
+     */
+    public Optional<Item> get(Long id, Function<Long, Optional<Item>> loader) {
+        if (cache == null) {
+            return loader.apply(id);
+        }
+        CompletableFuture<Item> pending = new CompletableFuture<>();
+        CompletableFuture<Item> future = cache.get(id, (key, executor) -> pending);
+        if (future == pending) {
+            try {
+                // A null result removes the entry again: misses are not cached
+                pending.complete(loader.apply(id).map(ItemCache::copy).orElse(null));
+            } catch (RuntimeException e) {
+                pending.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return Optional.ofNullable(future.join()).map(ItemCache::copy);
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    // Copies of the cached items among `ids`, by id; ids that are missing or still loading are left out
+    public Map<Long, Item> getAllPresent(Collection<Long> ids) {
+        if (cache == null) {
+            return Map.of();
+        }
+        Map<Long, Item> present = new HashMap<>();
+        cache.synchronous().getAllPresent(ids).forEach((id, item) -> present.put(id, copy(item)));
+        return present;
+    }
+
+    public void put(Item item) {
+        if (cache != null && item.getId() != null) {
+            cache.put(item.getId(), CompletableFuture.completedFuture(copy(item)));
+        }
+    }
+
+    /**
+     * Drops the cached copies of items just written. Writers evict rather than put: a concurrent
+     * update may have committed and evicted in between, and putting afterwards would cache the
+     * older copy until the TTL. The next read loads the committed row.
+     */
+    public void evictAll(Collection<Item> items) {
+        if (cache != null) {
+            items.forEach(item -> evict(item.getId()));
+        }
+    }
+
+    public void evict(Long id) {
+        if (cache != null && id != null) {
+            cache.synchronous().invalidate(id);
+        }
+    }
+
+    // Drops every cached id in [fromId, toId], used after set-based updates
+    public void evictRange(long fromId, long toId) {
+        if (cache != null) {
+            cache.asMap().keySet().removeIf(id -> id >= fromId && id <= toId);
+        }
+    }
+
+    // Underlying Caffeine cache for metrics binding, null when disabled
+    Cache<Long, Item> nativeCache() {
+        return cache != null ? cache.synchronous() : null;
+    }
+
+    public Stats stats() {
+        if (cache == null) {
+            return new Stats(false, 0, 0, 0, 0);
+        }
+        Cache<Long, Item> synchronous = cache.synchronous();
+        CacheStats stats = synchronous.stats();
+        return new Stats(true, stats.hitCount(), stats.missCount(), stats.evictionCount(), synchronous.estimatedSize());
+    }
+
+    static Item copy(Item item) {
+        return new Item(item.getId(), item.getName(), item.getDescription(), item.getStatus(), item.getEmail(),
+                item.getVersion(), item.getModifiedAt());
+    }
+
+    public record Stats(boolean enabled, long hits, long misses, long evictions, long size) {
+    }
+}
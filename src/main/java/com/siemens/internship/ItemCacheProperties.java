@@ -0,0 +1,25 @@
+package com.siemens.internship;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for the local item cache in front of ItemService.findById (prefix {@code items.cache}).
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "items.cache")
+public class ItemCacheProperties {
+
+    // When false every lookup goes straight to the database
+    private boolean enabled = true;
+
+    // Maximum number of cached items; beyond it entries are evicted by W-TinyLFU
+    private long maximumSize = 10_000;
+
+    // Time after which a cached item is reloaded from the database
+    private Duration ttl = Duration.ofMinutes(10);
+}
@@ -0,0 +1,31 @@
+package com.siemens.internship;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * One event of the change feed (GET /api/items/changes), see ItemChangeFeed. Only the fields
+ * of its type are set; the others are left out of the JSON.
+ *
+ * @param sequence position in the feed; pass it back as `after` (or Last-Event-ID) to resume after this event
+ * @param type     what happened
+ * @param at       when the change was published
+ * @param id       SAVED, DELETED: the item
+ * @param item     SAVED: the item as written
+ * @param ids      PROCESSED: the items a processing run has marked as processed
+ * @param fromId   PROCESSED by id range: first id of the range; any item in it may have changed
+ * @param toId     PROCESSED by id range: last id of the range (inclusive)
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ItemChange(long sequence, Type type, Instant at, Long id, Item item, List<Long> ids, Long fromId, Long toId) {
+
+    public enum Type {
+        SAVED,
+        DELETED,
+        PROCESSED,
+        // The subscriber missed events: reload the items, then resume after this sequence
+        RESYNC
+    }
+}
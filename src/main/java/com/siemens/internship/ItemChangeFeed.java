@@ -0,0 +1,235 @@
+package com.siemens.internship;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory feed of item mutations behind GET /api/items/changes, so that consumers are told
+ * about changes instead of polling the table. ItemService publishes every save, update and
+ * delete (SAVED / DELETED) and every chunk a processing run commits (PROCESSED).
+
+ * The last items.changes.capacity events are kept in a ring buffer, numbered by a sequence,
+ * and a subscriber resumes after any sequence still in it. Each subscriber reads the ring at its
+ * own pace on its own thread, so a slow one never holds back the writers or the other subscribers,
+ * and nothing is buffered per subscriber: one that falls more than `capacity` events behind
+ * (or asks for a sequence the ring does not have) gets a RESYNC event and its stream ends.
+ * It then reloads the items and subscribes again after the sequence of that event.
+
+ * Sequences start at the startup time in microseconds, so a sequence from before a restart
+ * is always older than the ring and leads to a resync instead of silently skipping events.
+ * Events are only recorded by this instance: with several instances, each has its own feed.
+ */
+@Component
+public class ItemChangeFeed implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(ItemChangeFeed.class);
+
+    // Events handed to a subscriber per write
+    private static final int MAX_BATCH = 500;
+
+    /**
+     * Where a subscription writes to; called from the subscription's own thread only.
+     */
+    public interface Subscriber {
+        void send(List<ItemChange> changes) throws IOException;
+
+        // Nothing happened for items.changes.heartbeat-interval
+        void heartbeat() throws IOException;
+
+        boolean isOpen();
+
+        void close();
+    }
+
+    private final ItemChangeProperties properties;
+    // Null when the feed is disabled; guards `next` and is notified on every event
+    private final ItemChange[] ring;
+    private final long firstSequence;
+    private long next;
+    private final ThreadPoolExecutor streams;
+    private final Counter resyncs;
+
+    public ItemChangeFeed(ItemChangeProperties properties, MeterRegistry registry) {
+        this.properties = properties;
+        this.firstSequence = ChronoUnit.MICROS.between(Instant.EPOCH, Instant.now());
+        this.next = firstSequence;
+        if (!properties.isEnabled()) {
+            ring = null;
+            streams = null;
+            resyncs = null;
+            return;
+        }
+        ring = new ItemChange[Math.max(1, properties.getCapacity())];
+        AtomicInteger threads = new AtomicInteger();
+        // No queue: a subscription beyond max-subscribers is rejected instead of waiting for a thread
+        streams = new ThreadPoolExecutor(0, Math.max(1, properties.getMaxSubscribers()), 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), task -> {
+                    Thread thread = new Thread(task, "item-changes-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        resyncs = Counter.builder("items.changes.resyncs")
+                .description("Change feed subscribers that fell behind the ring buffer and had to resync")
+                .register(registry);
+        Gauge.builder("items.changes.subscribers", streams, ThreadPoolExecutor::getActiveCount)
+                .description("Open change feed streams")
+                .register(registry);
+        FunctionCounter.builder("items.changes.published", this, feed -> feed.latestSequence() - feed.firstSequence + 1)
+                .description("Item changes published to the change feed")
+                .register(registry);
+    }
+
+    public boolean isEnabled() {
+        return ring != null;
+    }
+
+    public void saved(Item item) {
+        if (ring != null && item.getId() != null) {
+            publish(ItemChange.Type.SAVED, item.getId(), ItemCache.copy(item), null, null, null);
+        }
+    }
+
+    public void deleted(Long id) {
+        if (ring != null) {
+            publish(ItemChange.Type.DELETED, id, null, null, null, null);
+        }
+    }
+
+    public void processed(Collection<Long> ids) {
+        if (ring != null && !ids.isEmpty()) {
+            publish(ItemChange.Type.PROCESSED, null, null, List.copyOf(ids), null, null);
+        }
+    }
+
+    // A set-based run marked the id range [fromId, toId] without loading it
+    public void processedRange(long fromId, long toId) {
+        if (ring != null) {
+            publish(ItemChange.Type.PROCESSED, null, null, null, fromId, toId);
+        }
+    }
+
+    // Sequence of the last event, or firstSequence - 1 before any
+    public long latestSequence() {
+        if (ring == null) {
+            return next - 1;
+        }
+        synchronized (ring) {
+            return next - 1;
+        }
+    }
+
+    /**
+     * Streams the events after sequence `after` (only new ones when null) to `subscriber`
+     * on a thread of its own, until the subscriber closes, fails or has to resync.
+     * Throws IllegalStateException when the feed is disabled or items.changes.max-subscribers are open.
+     */
+    public void subscribe(Long after, Subscriber subscriber) {
+        if (ring == null) {
+            throw new IllegalStateException("The change feed is disabled");
+        }
+        long from = after != null ? after : latestSequence();
+        try {
+            streams.execute(() -> stream(from, subscriber));
+        } catch (RejectedExecutionException e) {
+            throw new IllegalStateException("Too many change feed subscribers");
+        }
+    }
+
+    /**
+     * Up to `max` events after sequence `after`, oldest first; empty when there is none yet,
+     * null when the ring does not hold every event after `after` (the subscriber must resync).
+     */
+    List<ItemChange> read(long after, int max) {
+        synchronized (ring) {
+            long oldest = Math.max(firstSequence, next - ring.length);
+            if (after < oldest - 1 || after >= next) {
+                return null;
+            }
+            int count = (int) Math.min(max, next - 1 - after);
+            List<ItemChange> changes = new ArrayList<>(count);
+            for (long sequence = after + 1; sequence <= after + count; sequence++) {
+                changes.add(ring[slot(sequence)]);
+            }
+            return changes;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (streams != null) {
+            // Wakes every subscription, which then closes its stream
+            streams.shutdownNow();
+        }
+    }
+
+    private void publish(ItemChange.Type type, Long id, Item item, List<Long> ids, Long fromId, Long toId) {
+        Instant at = Instant.now();
+        synchronized (ring) {
+            long sequence = next++;
+            ring[slot(sequence)] = new ItemChange(sequence, type, at, id, item, ids, fromId, toId);
+            ring.notifyAll();
+        }
+    }
+
+    private void stream(long after, Subscriber subscriber) {
+        long heartbeatNanos = Math.max(1, properties.getHeartbeatInterval().toNanos());
+        long cursor = after;
+        try {
+            while (subscriber.isOpen()) {
+                List<ItemChange> changes = await(cursor, heartbeatNanos);
+                if (changes == null) {
+                    resyncs.increment();
+                    subscriber.send(List.of(new ItemChange(latestSequence(), ItemChange.Type.RESYNC, Instant.now(),
+                            null, null, null, null, null)));
+                    return;
+                }
+                if (changes.isEmpty()) {
+                    subscriber.heartbeat();
+                } else {
+                    subscriber.send(changes);
+                    cursor = changes.get(changes.size() - 1).sequence();
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            // SseEmitter throws IllegalStateException once the client disconnected or the emitter timed out
+            log.debug("Change feed subscriber went away: {}", e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            subscriber.close();
+        }
+    }
+
+    // Waits up to `timeoutNanos` for events after `after`; empty on timeout, null on a resync (see read)
+    private List<ItemChange> await(long after, long timeoutNanos) throws InterruptedException {
+        long deadline = System.nanoTime() + timeoutNanos;
+        synchronized (ring) {
+            long remaining;
+            while (next - 1 == after && (remaining = deadline - System.nanoTime()) > 0) {
+                TimeUnit.NANOSECONDS.timedWait(ring, remaining);
+            }
+            return read(after, MAX_BATCH);
+        }
+    }
+
+    private int slot(long sequence) {
+        return (int) Math.floorMod(sequence, (long) ring.length);
+    }
+}
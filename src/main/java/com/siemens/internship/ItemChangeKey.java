@@ -0,0 +1,9 @@
+package com.siemens.internship;
+
+import java.time.Instant;
+
+/**
+ * Position of an item in the (modifiedAt, id) order walked by incremental processing runs.
+ */
+public record ItemChangeKey(Long id, Instant modifiedAt) {
+}
@@ -0,0 +1,31 @@
+package com.siemens.internship;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for the change feed behind GET /api/items/changes (prefix {@code items.changes}), see ItemChangeFeed.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "items.changes")
+public class ItemChangeProperties {
+
+    // When false nothing is recorded and subscriptions are answered with 503
+    private boolean enabled = true;
+
+    // Events kept for resuming subscribers; one further behind has to resync
+    private int capacity = 10_000;
+
+    // Open streams, each holding a thread; further subscriptions get 503
+    private int maxSubscribers = 100;
+
+    // Idle time after which a stream sends a keep-alive, which also detects clients that went away
+    private Duration heartbeatInterval = Duration.ofSeconds(15);
+
+    // Time after which a stream is closed, so that clients reconnect (and resume) through the load balancer
+    private Duration streamTimeout = Duration.ofMinutes(30);
+}
@@ -0,0 +1,68 @@
+package com.siemens.internship;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Writes change feed events to an HTTP response, as server-sent events
+ * ("id: {sequence}", "event: {type}", "data: {json}") or as NDJSON (one event per line).
+ * A batch of events goes out in a single write and flush. Keep-alives are an SSE comment line,
+ * or an empty line in NDJSON.
+ */
+class ItemChangeStream implements ItemChangeFeed.Subscriber {
+
+    private static final MediaType TEXT = new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8);
+
+    private final ResponseBodyEmitter emitter;
+    private final ObjectMapper objectMapper;
+    private final boolean sse;
+    private final AtomicBoolean open = new AtomicBoolean(true);
+
+    ItemChangeStream(ResponseBodyEmitter emitter, ObjectMapper objectMapper, boolean sse) {
+        this.emitter = emitter;
+        this.objectMapper = objectMapper;
+        this.sse = sse;
+        emitter.onCompletion(() -> open.set(false));
+        emitter.onTimeout(() -> open.set(false));
+        emitter.onError(e -> open.set(false));
+    }
+
+    @Override
+    public void send(List<ItemChange> changes) throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (ItemChange change : changes) {
+            String json = objectMapper.writeValueAsString(change);
+            if (sse) {
+                text.append("id: ").append(change.sequence()).append('\n')
+                        .append("event: ").append(change.type().name().toLowerCase()).append('\n')
+                        .append("data: ").append(json).append("\n\n");
+            } else {
+                text.append(json).append('\n');
+            }
+        }
+        emitter.send(text.toString(), TEXT);
+    }
+
+    @Override
+    public void heartbeat() throws IOException {
+        emitter.send(sse ? ":\n\n" : "\n", TEXT);
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open.get();
+    }
+
+    @Override
+    public void close() {
+        if (open.getAndSet(false)) {
+            emitter.complete();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.siemens.internship;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Transactional unit of work for one processing chunk.
+
+ * Kept as a separate bean so that the @Transactional proxy is applied when
+ * ItemService calls it from its worker threads (self-invocation would bypass it).
+ */
+@Component
+public class ItemChunkProcessor {
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ItemProcessors processors;
+
+    /**
+     * Loads all items of the chunk with a single IN query and applies the ItemProcessors to them
+     * (`job` gets the time spent per processor). The entities stay managed, so dirty checking
+     * flushes the updates at commit as one JDBC batch (see hibernate.jdbc.batch_size in
+     * application.properties). Ids that no longer exist are simply absent from the returned list.
+     */
+    @Transactional
+    public List<Item> processChunk(List<Long> ids, ProcessingJob job) {
+        List<Item> items = itemRepository.findAllById(ids);
+        processors.apply(items, job);
+        return items;
+    }
+
+    /**
+     * Set-based fast path: marks every item with fromId <= id <= toId that is not processed yet
+     * as processed in one UPDATE statement. Returns the number of affected rows.
+     */
+    @Transactional
+    public int markProcessed(long fromId, long toId) {
+        return itemRepository.markProcessedBetween(fromId, toId);
+    }
+
+    /**
+     * Writer of the PIPELINE engine: stores the fields ItemProcessors may change (name, description,
+     * status, email) of already loaded (detached) items with one JDBC batch. A row is only written if it still has the version that was read,
+     * so a concurrent client update is never overwritten; the returned array holds 1 for
+     * every written item and 0 for every skipped one, in input order.
+     */
+    @Transactional
+    public int[] writeProcessed(List<Item> items) {
+        if (items.isEmpty()) {
+            return new int[0];
+        }
+        int[][] counts = jdbcTemplate.batchUpdate(
+                "UPDATE item SET name = ?, description = ?, status = ?, email = ?, version = version + 1 WHERE id = ? AND version = ?",
+                items, items.size(), (statement, item) -> {
+                    statement.setString(1, item.getName());
+                    statement.setString(2, item.getDescription());
+                    statement.setInt(3, item.getStatus().ordinal());
+                    statement.setString(4, item.getEmail());
+                    statement.setLong(5, item.getId());
+                    statement.setLong(6, item.getVersion());
+                });
+        return counts[0];
+    }
+
+    // Set-based update of one incremental chunk: a single UPDATE ... WHERE id IN
+    @Transactional
+    public int markProcessed(List<Long> ids) {
+        return itemRepository.markProcessedIn(ids);
+    }
+}
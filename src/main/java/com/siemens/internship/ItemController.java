@@ -1,27 +1,263 @@
 package com.siemens.internship;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.util.UriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 
 
 @RestController
 @RequestMapping("/api/items")
 public class ItemController {
 
+    static final String NDJSON = "application/x-ndjson";
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final int DEFAULT_PAGE_SIZE = 100;
+    static final int MAX_PAGE_SIZE = 1000;
+    // Versions start at 0, so no item ever has this one
+    static final long NO_VERSION = -1;
+
     @Autowired
     private ItemService itemService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ItemBatchProperties batchProperties;
+
+    @Autowired
+    private ItemAdmissionProperties admissionProperties;
+
+    @Autowired
+    private ItemChangeProperties changeProperties;
+
+    @Autowired
+    private MappingJackson2CborHttpMessageConverter cborConverter;
+
+    /**
+     * GET /api/items?after={cursor}&limit={n}&status={status}&email={email}&namePrefix={prefix}
+
+     * Returns one keyset page of items ordered by id (default 100, at most 1000 items).
+
+     * - The page starts right after the id given in `after` (from the beginning when omitted),
+     *   so no OFFSET scan is needed however deep the client pages
+     * - `status`, `email` (exact) and `namePrefix` optionally filter the items in the database,
+     *   through an index lookup per criterion (see ItemFilter)
+     * - When more items exist, the next cursor is returned in the X-Next-Cursor header
+     *   and as a Link header with rel="next" that keeps the filter
+     * - Returns 400 Bad Request if limit is outside 1..1000 or status is unknown
+     * - JSON by default; CBOR or Smile with Accept: application/cbor or application/x-jackson-smile
+
+     * Originally:
+     * - Returned findAll() as one list, pulling the whole table into the heap
+     */
     @GetMapping
-    public ResponseEntity<List<Item>> getAllItems() {
-        return new ResponseEntity<>(itemService.findAll(), HttpStatus.OK);
+    public ResponseEntity<List<Item>> getAllItems(@RequestParam(required = false) Long after,
+                                                  @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit,
+                                                  @RequestParam(required = false) ItemStatus status,
+                                                  @RequestParam(required = false) String email,
+                                                  @RequestParam(required = false) String namePrefix) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        ItemFilter filter = new ItemFilter(status, email, namePrefix);
+        ItemPage page = itemService.findPage(filter, after, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            String next = UriComponentsBuilder.fromPath("/api/items")
+                    .queryParam("after", page.nextCursor())
+                    .queryParam("limit", limit)
+                    .queryParamIfPresent("status", Optional.ofNullable(filter.status()))
+                    .queryParamIfPresent("email", Optional.ofNullable(filter.email()))
+                    .queryParamIfPresent("namePrefix", Optional.ofNullable(filter.namePrefix()))
+                    .encode()
+                    .toUriString();
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor().toString())
+                    .header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return response.body(page.items());
+    }
+
+    /**
+     * GET /api/items/search?q={query}&after={cursor}&limit={n}
+
+     * Returns one page of the items whose name or description match `q`, best match first
+     * (default 100, at most 1000 items), from the full-text index (see ItemSearchIndex).
+
+     * - Every term of `q` must match; "phrases", prefix*, -exclusions and a | b are supported
+     * - When more hits exist, the cursor of the next page is returned in the X-Next-Cursor header
+     *   and as a Link header with rel="next"
+     * - Returns 400 Bad Request if q is blank, limit is outside 1..1000 or the cursor is malformed
+     * - Returns 503 Service Unavailable with Retry-After while the index is rebuilt at startup
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<Item>> searchItems(@RequestParam String q,
+                                                  @RequestParam(required = false) String after,
+                                                  @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit) {
+        if (q.isBlank() || limit < 1 || limit > MAX_PAGE_SIZE) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        ItemSearchPage page;
+        try {
+            page = itemService.search(q, after, limit);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (IllegalStateException e) {
+            return busy();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            String next = UriComponentsBuilder.fromPath("/api/items/search")
+                    .queryParam("q", q)
+                    .queryParam("after", page.nextCursor())
+                    .queryParam("limit", limit)
+                    .encode()
+                    .toUriString();
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor())
+                    .header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return response.body(page.items());
+    }
+
+    /**
+     * GET /api/items/changes?after={sequence} with Accept: text/event-stream or application/x-ndjson
+
+     * Pushes every change to the items as it happens (see ItemChangeFeed), instead of clients
+     * polling GET /api/items: SAVED with the item, DELETED with its id, PROCESSED with the ids
+     * (or the id range) a processing run has marked.
+
+     * - Server-sent events by default, each with its sequence as id; NDJSON when only
+     *   application/x-ndjson is accepted
+     * - Resumes after the sequence in `after`, or in the Last-Event-ID header that EventSource
+     *   clients send when they reconnect; without either, only new changes are sent
+     * - A subscriber too far behind gets a RESYNC event and the stream ends: reload the items,
+     *   then subscribe again after the sequence of that event
+     * - Returns 400 Bad Request for a malformed sequence
+     * - Returns 503 Service Unavailable with Retry-After when items.changes.max-subscribers streams are open
+     */
+    @GetMapping(value = "/changes", produces = {MediaType.TEXT_EVENT_STREAM_VALUE, NDJSON})
+    public ResponseEntity<ResponseBodyEmitter> streamChanges(
+            @RequestParam(required = false) String after,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        Long from;
+        try {
+            String sequence = after != null ? after : lastEventId;
+            from = sequence != null ? Long.valueOf(sequence.trim()) : null;
+        } catch (NumberFormatException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        boolean sse = accept == null || !accept.contains(NDJSON) || accept.contains(MediaType.TEXT_EVENT_STREAM_VALUE);
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(changeProperties.getStreamTimeout().toMillis());
+        try {
+            itemService.subscribeChanges(from, new ItemChangeStream(emitter, objectMapper, sse));
+        } catch (IllegalStateException e) {
+            return busy();
+        }
+        return ResponseEntity.ok()
+                .contentType(sse ? MediaType.TEXT_EVENT_STREAM : MediaType.parseMediaType(NDJSON))
+                .cacheControl(CacheControl.noStore())
+                .body(emitter);
+    }
+
+    /**
+     * GET /api/items/count?status={status}&email={email}&namePrefix={prefix}
+
+     * Returns {"count": n}, the number of items matching the optional filter,
+     * computed with a COUNT query instead of loading the items.
+     */
+    @GetMapping("/count")
+    public Map<String, Long> countItems(@RequestParam(required = false) ItemStatus status,
+                                        @RequestParam(required = false) String email,
+                                        @RequestParam(required = false) String namePrefix) {
+        return Map.of("count", itemService.count(new ItemFilter(status, email, namePrefix)));
+    }
+
+    /**
+     * GET /api/items/count/by-status
+
+     * Returns the number of items per status, e.g. {"NEW": 3, "PROCESSED": 5, "DONE": 0},
+     * aggregated by the database with a single GROUP BY query.
+     */
+    @GetMapping("/count/by-status")
+    public Map<ItemStatus, Long> countItemsByStatus() {
+        return itemService.countByStatus();
+    }
+
+    /**
+     * GET /api/items with Accept: application/x-ndjson
+
+     * Streams every item as newline-delimited JSON, one object per line.
+     * Rows are read through a database cursor and written straight to the response,
+     * so memory use does not depend on the size of the table.
+     */
+    @GetMapping(produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamAllItems() {
+        return stream(objectMapper, NDJSON, true);
+    }
+
+    /**
+     * GET /api/items with Accept: application/cbor-seq
+
+     * Same stream as NDJSON, as a sequence of CBOR items (see ItemFormats).
+     */
+    @GetMapping(produces = ItemFormats.CBOR_SEQ)
+    public ResponseEntity<StreamingResponseBody> streamAllItemsCbor() {
+        return stream(cborConverter.getObjectMapper(), ItemFormats.CBOR_SEQ, false);
+    }
+
+    // Writes every item with one generator over the response stream, optionally one item per line
+    private ResponseEntity<StreamingResponseBody> stream(ObjectMapper mapper, String contentType, boolean lines) {
+        StreamingResponseBody body = out -> {
+            ObjectWriter writer = mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            try (JsonGenerator generator = mapper.getFactory().createGenerator(out)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                itemService.streamAll(item -> {
+                    try {
+                        writer.writeValue(generator, item);
+                        if (lines) {
+                            generator.writeRaw('\n');
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(contentType)).body(body);
     }
 
     /**
@@ -30,7 +266,8 @@ public class ItemController {
 
      * Uses @Valid and BindingResult to validate the request body (e.g. email format, non-empty fields)
      * Returns 400 Bad Request if validation fails
-     * Returns 201 Created on successful creation
+     * Returns 201 Created on successful creation, with the ETag of the new item
+     * Any id or version in the body is ignored: the database assigns both
      *  Originally:
      *     - Returned 201 Created even when validation failed
      *     - Returned 400 Bad Request on success
@@ -41,7 +278,10 @@ public class ItemController {
         if (result.hasErrors()) {
             return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST); // << asta e importantă
         }
-        return new ResponseEntity<>(itemService.save(item), HttpStatus.CREATED);
+        item.setId(null);
+        item.setVersion(null);
+        Item saved = itemService.save(item);
+        return ResponseEntity.status(HttpStatus.CREATED).eTag(eTag(saved.getVersion())).body(saved);
     }
 
     /**
@@ -49,7 +289,8 @@ public class ItemController {
 
      * Retrieves an item by its ID.
 
-     * Returns 200 OK if the item is found
+     * Returns 200 OK if the item is found, with its version as ETag
+     * Returns 304 Not Modified if If-None-Match carries the current ETag
      * Returns 404 Not Found if the item does not exist
      * Originally:
      *     - Returned 204 No Content if the item was not found
@@ -58,12 +299,29 @@ public class ItemController {
      *     - Changed to 404 Not Found to correctly reflect that the resource doesn't exist ✔
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Item> getItemById(@PathVariable Long id) {
+    public ResponseEntity<Item> getItemById(@PathVariable Long id,
+                                            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         return itemService.findById(id)
-                .map(item -> new ResponseEntity<>(item, HttpStatus.OK))
+                .map(item -> {
+                    String eTag = eTag(item.getVersion());
+                    if (eTag != null && eTag.equals(ifNoneMatch)) {
+                        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).<Item>build();
+                    }
+                    return ResponseEntity.ok().eTag(eTag).body(item);
+                })
                 .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
+    /**
+     * GET /api/items/cache/stats
+
+     * Returns the hit, miss and eviction counters of the item cache used by GET/PUT/DELETE /api/items/{id}.
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<ItemCache.Stats> getCacheStats() {
+        return ResponseEntity.ok(itemService.cacheStats());
+    }
+
     /**
      * PUT /api/items/{id}
 
@@ -73,6 +331,12 @@ public class ItemController {
      * - Returns 400 Bad Request if validation fails
      * - Returns 200 OK with the updated item if the ID exists
      * - Returns 404 Not Found if the item does not exist
+     * - Returns the new version as ETag, with or without If-Match
+     * - With If-Match: only updates the item at that version (optimistic locking), and returns
+     *   412 Precondition Failed if the item has been changed meanwhile
+     * - Runs a single conditional UPDATE; the affected row count decides between 200 and 404
+     * - With write-behind enabled (items.write-behind), an update without If-Match is acknowledged
+     *   once it is buffered, without an ETag: its version is only known once it has been flushed
 
      * Originally:
      * - Returned 201 Created even though the resource already existed
@@ -80,16 +344,18 @@ public class ItemController {
      * - The update operation should not return Created or Accepted, but rather OK or Not Found
      */
     @PutMapping("/{id}")
-    public ResponseEntity<Item> updateItem(@PathVariable Long id,@Valid @RequestBody Item item, BindingResult result) {
+    public ResponseEntity<Item> updateItem(@PathVariable Long id,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                           @Valid @RequestBody Item item, BindingResult result) {
         if (result.hasErrors()) {
             return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
         }
-        Optional<Item> existingItem = itemService.findById(id);
-        if (existingItem.isPresent()) {
-            item.setId(id);
-            return new ResponseEntity<>(itemService.save(item), HttpStatus.OK);
-        } else {
-            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        try {
+            return itemService.update(id, item, parseIfMatch(ifMatch))
+                    .map(updated -> ResponseEntity.ok().eTag(eTag(updated.getVersion())).body(updated))
+                    .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+        } catch (OptimisticLockingFailureException e) {
+            return new ResponseEntity<>(HttpStatus.PRECONDITION_FAILED);
         }
     }
 
@@ -100,6 +366,8 @@ public class ItemController {
 
      * - Returns 204 No Content on successful deletion
      * - Returns 404 Not Found if the item does not exist
+     * - With If-Match: only deletes the item at that version, 412 Precondition Failed otherwise
+     * - Runs a single conditional DELETE; the affected row count decides between 204 and 404
 
      * Originally:
      * - Always returned 409 Conflict, regardless of whether the item existed or not
@@ -107,30 +375,268 @@ public class ItemController {
      *   not simply that a resource does not exist
      */
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteItem(@PathVariable Long id) {
-        if (itemService.findById(id).isPresent()) {
-            itemService.deleteById(id);
-            return ResponseEntity.noContent().build();
-        } else {
+    public ResponseEntity<Void> deleteItem(@PathVariable Long id,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        try {
+            if (itemService.delete(id, parseIfMatch(ifMatch))) {
+                return ResponseEntity.noContent().build();
+            }
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        } catch (OptimisticLockingFailureException e) {
+            return new ResponseEntity<>(HttpStatus.PRECONDITION_FAILED);
         }
     }
 
+    // 503 for a job that cannot start now, a search before the index is ready or a change stream too many, with the Retry-After of items.admission.retry-after
+    private <T> ResponseEntity<T> busy() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, admissionProperties.getRetryAfter().toSeconds())))
+                .build();
+    }
+
+    // Strong ETag for an item version, e.g. "3"; null when the version is unknown
+    private static String eTag(Long version) {
+        return version != null ? "\"" + version + "\"" : null;
+    }
+
     /**
-     * GET /api/items/process
+     * Reads the expected version from an If-Match header.
+     * Returns null when there is no precondition (no header or "*"). A header that is not
+     * one of our ETags maps to NO_VERSION, which matches no row, so the write ends in 412
+     * (or 404 if the item does not exist at all).
+     */
+    private static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String value = ifMatch.trim();
+        if (value.length() < 2 || !value.startsWith("\"") || !value.endsWith("\"")) {
+            return NO_VERSION;
+        }
+        try {
+            return Long.parseLong(value.substring(1, value.length() - 1));
+        } catch (NumberFormatException e) {
+            return NO_VERSION;
+        }
+    }
+
+    /**
+     * POST /api/items/batch
+
+     * Creates many items in one request, as a JSON array or as NDJSON (one item per line).
+
+     * - Every item is validated on its own; invalid items are reported as INVALID and skipped
+     * - Valid items are inserted with JDBC batching, one transaction per items.batch.size items
+     * - Returns 200 OK with totals and one result per item (CREATED / INVALID / FAILED)
+     * - Returns 400 Bad Request for an empty request, 413 Payload Too Large above items.batch.max-items
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BatchResult> createItems(@RequestBody List<Item> items) {
+        return runBatch(items, false, itemService::createAll);
+    }
+
+    @PostMapping(value = "/batch", consumes = NDJSON)
+    public ResponseEntity<BatchResult> createItemsNdjson(InputStream body) throws IOException {
+        return runBatch(readNdjson(body), false, itemService::createAll);
+    }
+
+    /**
+     * PUT /api/items/batch
+
+     * Updates many items by id in one request, as a JSON array or as NDJSON.
+
+     * - Every item is validated on its own and must carry its id
+     * - Returns 200 OK with one result per item (UPDATED / NOT_FOUND / INVALID / FAILED)
+     * - Returns 400 Bad Request for an empty request, 413 Payload Too Large above items.batch.max-items
+     */
+    @PutMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BatchResult> updateItems(@RequestBody List<Item> items) {
+        return runBatch(items, true, itemService::updateAll);
+    }
+
+    @PutMapping(value = "/batch", consumes = NDJSON)
+    public ResponseEntity<BatchResult> updateItemsNdjson(InputStream body) throws IOException {
+        return runBatch(readNdjson(body), true, itemService::updateAll);
+    }
+
+    /**
+     * DELETE /api/items/batch
+
+     * Deletes many items by id; the body is a JSON array of ids.
+
+     * - Returns 200 OK with one result per id (DELETED / NOT_FOUND / FAILED)
+     * - Returns 400 Bad Request for an empty request, 413 Payload Too Large above items.batch.max-items
+     */
+    @DeleteMapping("/batch")
+    public ResponseEntity<BatchResult> deleteItems(@RequestBody List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        if (ids.size() > batchProperties.getMaxItems()) {
+            return new ResponseEntity<>(HttpStatus.PAYLOAD_TOO_LARGE);
+        }
+        return ResponseEntity.ok(BatchResult.of(itemService.deleteAll(ids)));
+    }
 
-     * Triggers asynchronous processing of all items.
+    /**
+     * Validates every item, hands the valid ones to `writer` and merges both
+     * sets of results back into request order.
+     */
+    private ResponseEntity<BatchResult> runBatch(List<Item> items, boolean requireId,
+                                                 Function<List<Item>, List<BatchItemResult>> writer) {
+        if (items == null || items.isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        if (items.size() > batchProperties.getMaxItems()) {
+            return new ResponseEntity<>(HttpStatus.PAYLOAD_TOO_LARGE);
+        }
 
-     * - Waits for all asynchronous operations to complete using CompletableFuture.get()
-     * - Returns 200 OK with a list of all successfully processed items
+        BatchItemResult[] results = new BatchItemResult[items.size()];
+        List<Item> valid = new ArrayList<>(items.size());
+        List<Integer> validIndexes = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            Item item = items.get(i);
+            List<String> errors = new ArrayList<>();
+            if (item == null) {
+                errors.add("Item must not be null");
+            } else {
+                for (ConstraintViolation<Item> violation : validator.validate(item)) {
+                    errors.add(violation.getMessage());
+                }
+                if (requireId && item.getId() == null) {
+                    errors.add("Id must not be null");
+                }
+            }
+            if (errors.isEmpty()) {
+                valid.add(item);
+                validIndexes.add(i);
+            } else {
+                results[i] = new BatchItemResult(i, item != null ? item.getId() : null, BatchItemResult.Outcome.INVALID, errors);
+            }
+        }
+
+        if (!valid.isEmpty()) {
+            for (BatchItemResult result : writer.apply(valid)) {
+                int index = validIndexes.get(result.index());
+                results[index] = new BatchItemResult(index, result.id(), result.outcome(), result.errors());
+            }
+        }
+        return ResponseEntity.ok(BatchResult.of(Arrays.asList(results)));
+    }
+
+    // Reads at most items.batch.max-items + 1 items, enough to tell that a request is too large
+    private List<Item> readNdjson(InputStream body) throws IOException {
+        List<Item> items = new ArrayList<>();
+        try (MappingIterator<Item> iterator = objectMapper.readerFor(Item.class).readValues(body)) {
+            while (iterator.hasNextValue() && items.size() <= batchProperties.getMaxItems()) {
+                items.add(iterator.nextValue());
+            }
+        }
+        return items;
+    }
+
+    /**
+     * POST /api/items/process
+
+     * Starts asynchronous processing of all items as a background job.
+
+     * - Returns 202 Accepted right away with the job status and a Location header
+     *   pointing to GET /api/items/process/{jobId}
+     * - Returns 503 Service Unavailable with Retry-After if a job is already running
+     *   (items.processing.max-running-jobs) or the job registry is full of running jobs
 
      * Originally:
-     * - Returned the raw CompletableFuture immediately without awaiting its completion
-     * - This could cause inconsistent behavior or incomplete processing on the client side
+     * - GET /api/items/process blocked the servlet thread on CompletableFuture.get()
+     *   until the whole table was processed, then returned every processed item in one list
+     * - On large tables this held Tomcat threads and heap for minutes
+     */
+    @PostMapping("/process")
+    public ResponseEntity<ProcessingJob.Snapshot> processItems() {
+        ProcessingJob job;
+        try {
+            job = itemService.startProcessing();
+        } catch (IllegalStateException e) {
+            return busy();
+        }
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/items/process/" + job.getId()))
+                .body(job.snapshot());
+    }
+
+    /**
+     * GET /api/items/process/{jobId}
+
+     * Reports the progress of a processing job (processed, missing, failed and
+     * remaining counts, throughput and ETA) and its summary: retries, dead-lettered
+     * items, sample ids of missing items and failures grouped by cause.
+
+     * - Returns 200 OK with the job status
+     * - Returns 404 Not Found if the job is unknown or has been evicted
      */
-    @GetMapping("/process")
-    public ResponseEntity<List<Item>> processItems() throws Exception {
-        List<Item> result = itemService.processItemsAsync().get();
-        return ResponseEntity.ok(result);
+    @GetMapping("/process/{jobId}")
+    public ResponseEntity<ProcessingJob.Snapshot> getProcessingJob(@PathVariable String jobId) {
+        return itemService.findJob(jobId)
+                .map(job -> new ResponseEntity<>(job.snapshot(), HttpStatus.OK))
+                .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    /**
+     * DELETE /api/items/process/{jobId}
+
+     * Requests cooperative cancellation of a processing job. Chunks already in
+     * flight are completed, no new chunks are started.
+
+     * - Returns 202 Accepted with the job status
+     * - Returns 404 Not Found if the job is unknown or has been evicted
+     */
+    @DeleteMapping("/process/{jobId}")
+    public ResponseEntity<ProcessingJob.Snapshot> cancelProcessingJob(@PathVariable String jobId) {
+        return itemService.findJob(jobId)
+                .map(job -> {
+                    job.cancel();
+                    return new ResponseEntity<>(job.snapshot(), HttpStatus.ACCEPTED);
+                })
+                .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    /**
+     * GET /api/items/dead-letters?after={itemId}&limit={n}
+
+     * Lists the items that processing runs dead-lettered (see ProcessingRecovery), in item id
+     * order with the cause and count of their failures. Pages are keyset pages like GET /api/items:
+     * the next page starts after the last itemId returned.
+
+     * - Returns 400 Bad Request if limit is outside 1..1000
+     */
+    @GetMapping("/dead-letters")
+    public ResponseEntity<List<DeadLetterItem>> getDeadLetters(@RequestParam(required = false) Long after,
+                                                               @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return ResponseEntity.ok(itemService.findDeadLetters(after, limit));
+    }
+
+    /**
+     * POST /api/items/dead-letters/reprocess
+
+     * Starts a background job that processes every dead-lettered item again. Items that succeed
+     * (or no longer exist) leave the dead-letter table.
+
+     * - Returns 202 Accepted with the job status and a Location header
+     *   pointing to GET /api/items/process/{jobId}
+     * - Returns 503 Service Unavailable with Retry-After if a job is already running
+     */
+    @PostMapping("/dead-letters/reprocess")
+    public ResponseEntity<ProcessingJob.Snapshot> reprocessDeadLetters() {
+        ProcessingJob job;
+        try {
+            job = itemService.reprocessDeadLetters();
+        } catch (IllegalStateException e) {
+            return busy();
+        }
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/items/process/" + job.getId()))
+                .body(job.snapshot());
     }
 }
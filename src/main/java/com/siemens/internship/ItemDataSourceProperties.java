@@ -0,0 +1,23 @@
+package com.siemens.internship;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Sizing of the JDBC connection pool (prefix {@code items.datasource}), see ConnectionPoolSizing.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "items.datasource")
+public class ItemDataSourceProperties {
+
+    /**
+     * When true the HikariCP pool gets a fixed size of items.processing.parallelism + request-connections,
+     * unless spring.datasource.hikari.maximum-pool-size is set explicitly.
+     */
+    private boolean derivePoolSize = false;
+
+    // Connections kept for HTTP requests and background jobs next to the processing chunks in flight
+    private int requestConnections = 8;
+}
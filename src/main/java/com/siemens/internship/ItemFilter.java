@@ -0,0 +1,95 @@
+package com.siemens.internship;
+
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Server-side filter of GET /api/items and GET /api/items/count. Every criterion is optional;
+ * the ones that are set are combined with AND. Blank strings count as not set.
+
+ * Each criterion has a matching index on the item table (see Item), so a filtered page is an
+ * index seek instead of a table scan:
+ * - status: exact match, index (status, id), which also serves the id order of keyset pages
+ * - email: exact match, index (email, id)
+ * - namePrefix: name LIKE 'prefix%', index (name)
+ */
+public record ItemFilter(ItemStatus status, String email, String namePrefix) {
+
+    public static final ItemFilter NONE = new ItemFilter(null, null, null);
+
+    public ItemFilter {
+        email = email == null || email.isBlank() ? null : email;
+        namePrefix = namePrefix == null || namePrefix.isBlank() ? null : namePrefix;
+    }
+
+    public boolean isEmpty() {
+        return status == null && email == null && namePrefix == null;
+    }
+
+    /**
+     * Filter plus keyset condition id > :after (when `keyset`), as a JPQL WHERE clause on `i` (empty when
+     * there is no condition) whose parameters are set by bind(). JPQL rather than a Specification:
+     * Hibernate translates a JPQL string to SQL once and then serves it from its query plan cache,
+     * a criteria query is translated again on every execution.
+
+     * With a name prefix the id condition is written as id + 0 > after: H2 only sees a range
+     * on the primary key otherwise, and prefers walking the whole primary key in id order
+     * over seeking the name index and sorting the few matching rows.
+     */
+    String toJpql(boolean keyset) {
+        List<String> conditions = new ArrayList<>(4);
+        if (status != null) {
+            conditions.add("i.status = :status");
+        }
+        if (email != null) {
+            conditions.add("i.email = :email");
+        }
+        if (namePrefix != null) {
+            conditions.add("i.name LIKE :namePrefix ESCAPE '\\'");
+        }
+        if (keyset) {
+            conditions.add(namePrefix != null ? "i.id + 0 > :after" : "i.id > :after");
+        }
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    void bind(TypedQuery<?> query, Long after) {
+        if (status != null) {
+            query.setParameter("status", status);
+        }
+        if (email != null) {
+            query.setParameter("email", email);
+        }
+        if (namePrefix != null) {
+            query.setParameter("namePrefix", escapeLike(namePrefix) + "%");
+        }
+        if (after != null) {
+            query.setParameter("after", after);
+        }
+    }
+
+    Specification<Item> toSpecification() {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>(3);
+            if (status != null) {
+                predicates.add(cb.equal(root.get("status"), status));
+            }
+            if (email != null) {
+                predicates.add(cb.equal(root.get("email"), email));
+            }
+            if (namePrefix != null) {
+                predicates.add(cb.like(root.get("name"), escapeLike(namePrefix) + "%", '\\'));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    // A prefix containing % or _ must match them literally, not as wildcards
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,53 @@
+package com.siemens.internship;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.time.Instant;
+
+/**
+ * Binary wire formats of the item API, picked by content negotiation (Accept header):
+
+ * - application/cbor (RFC 8949) and application/x-jackson-smile for pages, single items and
+ *   batch bodies, next to JSON. Both encode the same fields as JSON, without quoting and with
+ *   length-prefixed strings, so they are smaller and cheaper to write and parse
+ * - application/cbor-seq (RFC 8742) for the full-table stream, next to NDJSON: one CBOR item
+ *   after the other, without separators
+
+ * The converters replace the ones Spring MVC would register by default, so that they are built
+ * from Boot's Jackson2ObjectMapperBuilder and honour the same spring.jackson.* settings as JSON.
+ * Like the JSON converter they write through a generator straight to the response stream.
+
+ * Instants (modifiedAt) are written by IsoInstantSerializer in every format: same text, a fraction
+ * of the garbage of the default serializer.
+
+ * Compression of large responses (server.compression in application.properties) is done by the
+ * servlet container for every format.
+ */
+@Configuration(proxyBeanMethods = false)
+public class ItemFormats {
+    static final String CBOR = "application/cbor";
+    static final String CBOR_SEQ = "application/cbor-seq";
+    static final String SMILE = "application/x-jackson-smile";
+
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer instantSerializer() {
+        return builder -> builder.serializerByType(Instant.class, new IsoInstantSerializer());
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
@@ -0,0 +1,185 @@
+package com.siemens.internship;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Micrometer meters for ItemService and the processing engines, exposed through
+ * /actuator/metrics and /actuator/prometheus. HTTP endpoints are covered by Spring
+ * Boot's own http.server.requests timer.
+
+ * All meters are registered once up front and recorded with explicit nanoTime
+ * deltas, so the hot paths do not allocate samples, lambdas or tag lists per call.
+ */
+@Component
+public class ItemMetrics {
+
+    final Timer findById;
+    final Timer findPage;
+    final Timer count;
+    final Timer findAll;
+    final Timer streamAll;
+    final Timer save;
+    final Timer deleteById;
+    final Timer update;
+    final Timer delete;
+    final Timer search;
+
+    private final Timer chunk;
+    private final Counter processed;
+    private final Counter missing;
+    private final Counter failed;
+    private final Counter retries;
+    private final Counter deadLettered;
+    private final Counter scheduledStarted;
+    private final Counter scheduledSkipped;
+
+    // PIPELINE engine: time spent per stage and chunks waiting between stages, summed over running pipelines
+    final Timer pipelineProduce;
+    final Timer pipelineRead;
+    final Timer pipelineTransform;
+    final Timer pipelineWrite;
+    final AtomicInteger pipelineChunksQueued = new AtomicInteger();
+    final AtomicInteger pipelineWritesQueued = new AtomicInteger();
+
+    public ItemMetrics(MeterRegistry registry, ProcessingExecutor processingExecutor, ItemCache itemCache,
+                       ItemWriteBehind writeBehind) {
+        findById = serviceTimer(registry, "findById");
+        findPage = serviceTimer(registry, "findPage");
+        count = serviceTimer(registry, "count");
+        findAll = serviceTimer(registry, "findAll");
+        streamAll = serviceTimer(registry, "streamAll");
+        save = serviceTimer(registry, "save");
+        deleteById = serviceTimer(registry, "deleteById");
+        update = serviceTimer(registry, "update");
+        delete = serviceTimer(registry, "delete");
+        search = serviceTimer(registry, "search");
+
+        chunk = Timer.builder("items.processing.chunk")
+                .description("Duration of one processing chunk or id range")
+                .publishPercentileHistogram()
+                .register(registry);
+        processed = itemCounter(registry, "processed");
+        missing = itemCounter(registry, "missing");
+        failed = itemCounter(registry, "failed");
+        retries = Counter.builder("items.processing.retries")
+                .description("Chunks or items run again after a transient database error")
+                .register(registry);
+        deadLettered = Counter.builder("items.processing.dead.letters")
+                .description("Failed items written to the dead-letter table")
+                .register(registry);
+
+        scheduledStarted = scheduleCounter(registry, "started");
+        scheduledSkipped = scheduleCounter(registry, "skipped");
+
+        pipelineProduce = pipelineTimer(registry, "produce");
+        pipelineRead = pipelineTimer(registry, "read");
+        pipelineTransform = pipelineTimer(registry, "transform");
+        pipelineWrite = pipelineTimer(registry, "write");
+        pipelineGauge(registry, "chunks", pipelineChunksQueued);
+        pipelineGauge(registry, "writes", pipelineWritesQueued);
+
+        Gauge.builder("items.processing.executor.queue", processingExecutor, ProcessingExecutor::queueDepth)
+                .description("Processing tasks waiting for a worker")
+                .register(registry);
+        Gauge.builder("items.write.behind.pending", writeBehind, ItemWriteBehind::pending)
+                .description("Item updates buffered by write-behind, waiting for a flush")
+                .register(registry);
+        FunctionCounter.builder("items.write.behind.flushed", writeBehind, ItemWriteBehind::flushedCount)
+                .description("Buffered item updates written to the database")
+                .register(registry);
+        if (itemCache.nativeCache() != null) {
+            CaffeineCacheMetrics.monitor(registry, itemCache.nativeCache(), "items");
+        }
+    }
+
+    // Records the time elapsed since `startNanos` (taken with System.nanoTime())
+    static void stop(Timer timer, long startNanos) {
+        timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    void recordChunk(long startNanos, int processedItems, int missingItems) {
+        stop(chunk, startNanos);
+        processed.increment(processedItems);
+        missing.increment(missingItems);
+    }
+
+    void recordProcessed(int count) {
+        processed.increment(count);
+    }
+
+    void recordMissing(int count) {
+        missing.increment(count);
+    }
+
+    void recordFailed(int count) {
+        failed.increment(count);
+    }
+
+    void recordRetry() {
+        retries.increment();
+    }
+
+    void recordDeadLettered(int count) {
+        deadLettered.increment(count);
+    }
+
+    // A tick of ProcessingSchedule: a run was started, or skipped because one is still running
+    void recordScheduledRun(boolean started) {
+        (started ? scheduledStarted : scheduledSkipped).increment();
+    }
+
+    private static Timer serviceTimer(MeterRegistry registry, String method) {
+        return Timer.builder("items.service")
+                .description("Latency of ItemService methods")
+                .tag("method", method)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private static Timer pipelineTimer(MeterRegistry registry, String stage) {
+        return Timer.builder("items.processing.pipeline.stage")
+                .description("Duration of one chunk in a stage of the processing pipeline")
+                .tag("stage", stage)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    // One per ItemProcessor, registered by ItemProcessors
+    static Timer processorTimer(MeterRegistry registry, String processor) {
+        return Timer.builder("items.processing.processor")
+                .description("Time one ItemProcessor spent on a processing chunk")
+                .tag("processor", processor)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private static void pipelineGauge(MeterRegistry registry, String queue, AtomicInteger occupancy) {
+        Gauge.builder("items.processing.pipeline.queue", occupancy, AtomicInteger::get)
+                .description("Chunks waiting in a queue of the processing pipeline")
+                .tag("queue", queue)
+                .register(registry);
+    }
+
+    private static Counter scheduleCounter(MeterRegistry registry, String outcome) {
+        return Counter.builder("items.processing.schedule.runs")
+                .description("Ticks of the processing schedule, by outcome")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private static Counter itemCounter(MeterRegistry registry, String outcome) {
+        return Counter.builder("items.processing.items")
+                .description("Items handled by processing runs, by outcome")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+}
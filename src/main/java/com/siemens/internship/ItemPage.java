@@ -0,0 +1,12 @@
+package com.siemens.internship;
+
+import java.util.List;
+
+/**
+ * One keyset page of items ordered by id.
+ *
+ * @param items      the items of this page
+ * @param nextCursor id to pass as `after` to get the next page, or null on the last page
+ */
+public record ItemPage(List<Item> items, Long nextCursor) {
+}
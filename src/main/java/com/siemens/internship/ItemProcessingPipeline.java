@@ -0,0 +1,352 @@
+package com.siemens.internship;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * PIPELINE processing engine: a streaming pipeline with bounded in-flight work.
+
+ *   producer --[chunks]--> N readers --[writes]--> 1 batched writer
+
+ * - The producer (the thread calling run) takes chunks of ids from a ProcessingScan
+ * - Readers load a chunk with one IN query and apply the ItemProcessors to it in memory
+ * - The writer stores every processed chunk with one JDBC batch, guarded by the item versions,
+ *   and moves the scan checkpoint once the chunk has committed
+
+ * Both queues hold at most items.processing.pipeline.queue-capacity chunks, and a stage blocks
+ * when the queue it feeds is full. At most (2 * queueCapacity + readers + 1) chunks are ever
+ * in memory, whatever the size of the table (processItemsAsync still collects the processed
+ * items it has to return; background jobs do not).
+
+ * Reads and writes are retried on transient errors (ProcessingRecovery). A chunk that fails
+ * to load or write for any other reason is loaded or written again item by item, and the items
+ * that still fail are dead-lettered.
+
+ * Stage timings and queue occupancy are published by ItemMetrics as
+ * items.processing.pipeline.stage and items.processing.pipeline.queue.
+
+ * The readers and the writer block on the queues for the whole run, so they get their own
+ * threads (reader count = ProcessingExecutor.parallelism(), so still capped by the connection
+ * pool) instead of occupying the shared processing pool, where a few concurrent runs could
+ * hold every thread while their writers wait in the pool queue.
+ */
+@Component
+public class ItemProcessingPipeline {
+    private static final Logger log = LoggerFactory.getLogger(ItemProcessingPipeline.class);
+
+    // How often blocked stages re-check whether the run was aborted
+    private static final long POLL_MILLIS = 100;
+
+    private static final ProcessingScan.Chunk END_OF_CHUNKS = new ProcessingScan.Chunk(-1, List.of());
+    private static final Batch END_OF_WRITES = new Batch(END_OF_CHUNKS, List.of(), List.of());
+
+    @Autowired
+    private ItemChunkProcessor chunkProcessor;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private ItemProcessingProperties processingProperties;
+    @Autowired
+    private ProcessingExecutor processingExecutor;
+    @Autowired
+    private ItemCache itemCache;
+    @Autowired
+    private ItemMetrics metrics;
+    @Autowired
+    private ProcessingRecovery recovery;
+    @Autowired
+    private ItemProcessors processors;
+
+    private final AtomicInteger runCounter = new AtomicInteger();
+
+    /**
+     * Feeds every chunk of `scan` through the pipeline. Returns once the producer is done; the
+     * returned future completes when the writer has drained the pipeline. A chunk that keeps failing
+     * with a transient error is counted as failed and holds the checkpoint back; it does not stop the run.
+     * Processed items of each written chunk are passed to `sink`, on the writer thread.
+     */
+    public CompletableFuture<Void> run(ProcessingJob job, ProcessingScan scan, Consumer<List<Item>> sink) {
+        Run run = new Run(job, scan, sink);
+        run.start();
+        run.produce();
+        return run.done;
+    }
+
+    // Items loaded from a chunk, and the ids of the chunk that no longer existed
+    private record Batch(ProcessingScan.Chunk chunk, List<Item> items, List<Long> missing) {
+    }
+
+    private class Run {
+        final ProcessingJob job;
+        final ProcessingScan scan;
+        final Consumer<List<Item>> sink;
+        final int readers = processingExecutor.parallelism();
+        final BlockingQueue<ProcessingScan.Chunk> chunks;
+        final BlockingQueue<Batch> writes;
+        final AtomicInteger readersLeft = new AtomicInteger(readers);
+        final List<Thread> threads = new ArrayList<>();
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        Run(ProcessingJob job, ProcessingScan scan, Consumer<List<Item>> sink) {
+            this.job = job;
+            this.scan = scan;
+            this.sink = sink;
+            int capacity = Math.max(1, processingProperties.getPipeline().getQueueCapacity());
+            this.chunks = new ArrayBlockingQueue<>(capacity);
+            this.writes = new ArrayBlockingQueue<>(capacity);
+        }
+
+        void start() {
+            String prefix = "item-pipeline-" + runCounter.incrementAndGet() + "-";
+            for (int i = 1; i <= readers; i++) {
+                threads.add(new Thread(this::read, prefix + "reader-" + i));
+            }
+            threads.add(new Thread(this::write, prefix + "writer"));
+            for (Thread thread : threads) {
+                thread.setDaemon(true);
+                thread.start();
+            }
+        }
+
+        // Producer stage, on the calling thread
+        void produce() {
+            try {
+                while (!job.isCancelRequested()) {
+                    long start = System.nanoTime();
+                    ProcessingScan.Chunk chunk = scan.next();
+                    ItemMetrics.stop(metrics.pipelineProduce, start);
+                    if (chunk == null || !offer(chunks, chunk, metrics.pipelineChunksQueued)) {
+                        break;
+                    }
+                }
+                for (int i = 0; i < readers; i++) {
+                    offer(chunks, END_OF_CHUNKS, metrics.pipelineChunksQueued);
+                }
+            } catch (Throwable e) {
+                abort(e);
+            }
+        }
+
+        // Reader stage: load + processing step, one chunk at a time
+        void read() {
+            try {
+                ProcessingScan.Chunk chunk;
+                while ((chunk = take(chunks, metrics.pipelineChunksQueued)) != END_OF_CHUNKS) {
+                    List<Item> items;
+                    List<Long> missing = new ArrayList<>();
+                    try {
+                        long start = System.nanoTime();
+                        items = readChunk(chunk, missing);
+                        ItemMetrics.stop(metrics.pipelineRead, start);
+                    } catch (RuntimeException e) {
+                        failed(chunk, e);
+                        continue;
+                    }
+                    long start = System.nanoTime();
+                    try {
+                        items = transform(chunk, items, missing);
+                    } catch (RuntimeException e) {
+                        failed(chunk, e);
+                        continue;
+                    }
+                    ItemMetrics.stop(metrics.pipelineTransform, start);
+                    if (!offer(writes, new Batch(chunk, items, missing), metrics.pipelineWritesQueued)) {
+                        return;
+                    }
+                }
+                // The last reader to finish tells the writer that nothing else is coming
+                if (readersLeft.decrementAndGet() == 0) {
+                    offer(writes, END_OF_WRITES, metrics.pipelineWritesQueued);
+                }
+            } catch (Throwable e) {
+                abort(e);
+            }
+        }
+
+        // Writer stage: one batched, version-guarded UPDATE per chunk
+        void write() {
+            try {
+                Batch batch;
+                while ((batch = take(writes, metrics.pipelineWritesQueued)) != END_OF_WRITES) {
+                    ProcessingScan.Chunk chunk = batch.chunk();
+                    try {
+                        long start = System.nanoTime();
+                        int[] counts = writeChunk(batch.items());
+                        ItemMetrics.stop(metrics.pipelineWrite, start);
+                        scan.committed(chunk);
+                        written(batch, counts);
+                    } catch (RuntimeException e) {
+                        failed(chunk, e);
+                    }
+                }
+                done.complete(null);
+            } catch (Throwable e) {
+                abort(e);
+            }
+        }
+
+        // Loads a chunk; after a non-transient failure, loads it item by item and dead-letters the items that fail
+        private List<Item> readChunk(ProcessingScan.Chunk chunk, List<Long> missing) {
+            List<Item> items;
+            try {
+                items = recovery.retry(job, () -> itemRepository.findAllById(chunk.ids()));
+            } catch (RuntimeException e) {
+                if (ProcessingRecovery.isTransient(e)) {
+                    throw e;
+                }
+                items = new ArrayList<>();
+                for (Long id : chunk.ids()) {
+                    List<Long> single = List.of(id);
+                    try {
+                        List<Item> item = recovery.retry(job, () -> itemRepository.findAllById(single));
+                        if (item.isEmpty()) {
+                            missing.add(id);
+                        }
+                        items.addAll(item);
+                    } catch (RuntimeException itemFailure) {
+                        recovery.deadLetter(job, single, itemFailure);
+                    }
+                }
+                return items;
+            }
+            if (items.size() < chunk.ids().size()) {
+                Set<Long> found = new HashSet<>();
+                items.forEach(item -> found.add(item.getId()));
+                chunk.ids().stream().filter(id -> !found.contains(id)).forEach(missing::add);
+            }
+            return items;
+        }
+
+        /**
+         * Applies the processors to a loaded chunk. When one of them throws, the copies are partly
+         * processed: the loaded items are read again and processed one by one, and the items that still
+         * fail are dead-lettered (nothing was written yet, so no processor runs twice on a stored item).
+         */
+        private List<Item> transform(ProcessingScan.Chunk chunk, List<Item> items, List<Long> missing) {
+            try {
+                processors.apply(items, job);
+                return items;
+            } catch (RuntimeException e) {
+                log.warn("Chunk starting at ID {} failed in a processor, processing its items one by one: {}",
+                        chunk.ids().get(0), e.getMessage());
+            }
+            List<Long> ids = items.stream().map(Item::getId).toList();
+            List<Item> reloaded = recovery.retry(job, () -> itemRepository.findAllById(ids));
+            if (reloaded.size() < ids.size()) {
+                Set<Long> found = new HashSet<>();
+                reloaded.forEach(item -> found.add(item.getId()));
+                ids.stream().filter(id -> !found.contains(id)).forEach(missing::add);
+            }
+            List<Item> processed = new ArrayList<>();
+            for (Item item : reloaded) {
+                try {
+                    processors.apply(List.of(item), job);
+                    processed.add(item);
+                } catch (RuntimeException itemFailure) {
+                    recovery.deadLetter(job, List.of(item.getId()), itemFailure);
+                }
+            }
+            return processed;
+        }
+
+        // Writes a batch; after a non-transient failure, writes it item by item. Dead-lettered items get count -1.
+        private int[] writeChunk(List<Item> items) {
+            try {
+                return recovery.retry(job, () -> chunkProcessor.writeProcessed(items));
+            } catch (RuntimeException e) {
+                if (ProcessingRecovery.isTransient(e)) {
+                    throw e;
+                }
+                int[] counts = new int[items.size()];
+                for (int i = 0; i < items.size(); i++) {
+                    List<Item> single = List.of(items.get(i));
+                    try {
+                        counts[i] = recovery.retry(job, () -> chunkProcessor.writeProcessed(single))[0];
+                    } catch (RuntimeException itemFailure) {
+                        recovery.deadLetter(job, List.of(items.get(i).getId()), itemFailure);
+                        counts[i] = -1;
+                    }
+                }
+                return counts;
+            }
+        }
+
+        /**
+         * Items whose row changed after it was read were not written; they count as missing.
+         * With incremental runs their newer modifiedAt brings them back in the next run.
+         * Every item of the batch is dropped from the cache, written or not.
+         */
+        private void written(Batch batch, int[] counts) {
+            List<Item> items = batch.items();
+            List<Item> processed = new ArrayList<>(items.size());
+            List<Long> missing = new ArrayList<>(batch.missing());
+            for (int i = 0; i < items.size(); i++) {
+                Item item = items.get(i);
+                if (counts[i] > 0) {
+                    item.setVersion(item.getVersion() + 1);
+                    processed.add(item);
+                } else if (counts[i] == 0) {
+                    missing.add(item.getId());
+                }
+            }
+            itemCache.evictAll(items);
+            job.recordProcessed(processed.size());
+            job.recordMissing(missing);
+            metrics.recordProcessed(processed.size());
+            metrics.recordMissing(missing.size());
+            sink.accept(processed);
+        }
+
+        private void failed(ProcessingScan.Chunk chunk, RuntimeException e) {
+            log.warn("Error processing chunk starting at ID {}: {}", chunk.ids().get(0), e.getMessage());
+            job.recordFailed(chunk.ids(), e);
+            metrics.recordFailed(chunk.ids().size());
+        }
+
+        /**
+         * Stops every stage of this run after an unexpected error (interrupt, an Error thrown by a processor, ...).
+         * Every stage loop ends here on any Throwable: a stage that died silently would leave the others blocked
+         * on their queues and the job running forever.
+         */
+        private void abort(Throwable e) {
+            if (done.completeExceptionally(e)) {
+                log.warn("Processing pipeline aborted: {}", e.toString());
+                threads.forEach(Thread::interrupt);
+                // Whatever is still queued will never be taken: keep the occupancy gauges exact
+                metrics.pipelineChunksQueued.addAndGet(-chunks.drainTo(new ArrayList<>()));
+                metrics.pipelineWritesQueued.addAndGet(-writes.drainTo(new ArrayList<>()));
+            }
+        }
+
+        // Blocking put that gives up (returns false) once the run is over
+        private <T> boolean offer(BlockingQueue<T> queue, T element, AtomicInteger occupancy) throws InterruptedException {
+            occupancy.incrementAndGet();
+            while (!done.isDone()) {
+                if (queue.offer(element, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+            occupancy.decrementAndGet();
+            return false;
+        }
+
+        private <T> T take(BlockingQueue<T> queue, AtomicInteger occupancy) throws InterruptedException {
+            T element = queue.take();
+            occupancy.decrementAndGet();
+            return element;
+        }
+    }
+}
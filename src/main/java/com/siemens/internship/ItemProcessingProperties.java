@@ -0,0 +1,175 @@
+package com.siemens.internship;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Settings for the item processing engine (prefix {@code items.processing}).
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "items.processing")
+public class ItemProcessingProperties {
+
+    /**
+     * How processItemsAsync walks the table:
+     * - PER_ITEM: one findById + save per id (original behaviour)
+     * - CHUNKED: ids are paged in chunks, each chunk is loaded with one IN query
+     *   and written back in one batched transaction
+     * - SET_BASED: a single UPDATE per id range, no entities are loaded
+     * - PIPELINE: producer, bounded queues, reader workers and one batched writer
+     *   (see ItemProcessingPipeline)
+     * - PARTITIONED: id ranges claimed through the database, so that several application
+     *   instances share one run (see ProcessingPartitions)
+     */
+    private ProcessingMode mode = ProcessingMode.CHUNKED;
+
+    // Number of ids handled by one chunk / one range update
+    private int chunkSize = 1000;
+
+    // Maximum number of chunks in flight at the same time
+    private int parallelism = 4;
+
+    // Number of jobs kept by ProcessingJobRegistry before old finished ones are evicted
+    private int maxRetainedJobs = 100;
+
+    // Jobs (processing runs and dead-letter reprocessing) allowed to run at the same time; more are rejected
+    private int maxRunningJobs = 1;
+
+    // Sample ids kept per failure cause (and for missing items) in the summary of a job
+    private int maxReportedIds = 100;
+
+    /**
+     * When true, processing runs only visit unprocessed items modified since the persisted
+     * checkpoint (see ProcessingScan) instead of every id in the table. The legacy PER_ITEM
+     * mode and markAllProcessedAsync always walk the whole table.
+     */
+    private boolean incremental = true;
+
+    // How far before the checkpoint an incremental run starts, to catch rows committed late
+    private Duration checkpointOverlap = Duration.ofSeconds(5);
+
+    private Executor executor = new Executor();
+
+    private Pipeline pipeline = new Pipeline();
+
+    private Retry retry = new Retry();
+
+    private Partitioning partitioning = new Partitioning();
+
+    private Schedule schedule = new Schedule();
+
+    /**
+     * Settings of the executor the processing engines run their tasks on (see ProcessingExecutor).
+     */
+    @Getter
+    @Setter
+    public static class Executor {
+
+        /**
+         * - PLATFORM: fixed pool of platform threads with a bounded queue; when the queue
+         *   is full the submitting thread runs the task itself (caller-runs backpressure)
+         * - VIRTUAL: one virtual thread per task (requires Java 21+)
+         * - FORK_JOIN: work-stealing ForkJoinPool
+         */
+        private ExecutorMode mode = ExecutorMode.PLATFORM;
+
+        // Worker threads (PLATFORM / FORK_JOIN); 0 means "as many as the DataSource pool has connections"
+        private int threads = 0;
+
+        // Capacity of the PLATFORM work queue
+        private int queueCapacity = 1000;
+
+        // How long shutdown waits for running tasks before interrupting them
+        private Duration shutdownTimeout = Duration.ofSeconds(30);
+    }
+
+    /**
+     * Settings of the PIPELINE engine.
+     */
+    @Getter
+    @Setter
+    public static class Pipeline {
+
+        // Chunks each of the two pipeline queues can hold before the stage feeding it blocks
+        private int queueCapacity = 4;
+    }
+
+    /**
+     * Retries of transient database errors (lock and query timeouts, optimistic lock
+     * conflicts, no connection available, ...) by the processing engines, see ProcessingRecovery.
+     * The wait doubles after every failed attempt, from initialBackoff up to maxBackoff.
+     */
+    @Getter
+    @Setter
+    public static class Retry {
+
+        // Attempts per chunk or item, including the first one; 1 disables retries
+        private int maxAttempts = 3;
+
+        private Duration initialBackoff = Duration.ofMillis(50);
+
+        private Duration maxBackoff = Duration.ofSeconds(1);
+    }
+
+    /**
+     * Settings of the PARTITIONED engine. Every instance sharing the database polls for an
+     * active run and works on it; a run is started by POST /api/items/process on any of them.
+     */
+    @Getter
+    @Setter
+    public static class Partitioning {
+
+        // Ids per partition; a partition is the unit of work claimed by one instance at a time
+        private long partitionSize = 10000;
+
+        // How long a claimed partition stays reserved without progress before another instance may take it over
+        private Duration lease = Duration.ofSeconds(30);
+
+        // How often an idle instance looks for claimable partitions (ISO-8601, e.g. PT5S: it is also read by @Scheduled)
+        private Duration pollInterval = Duration.ofSeconds(5);
+
+        // Owner name stored in the leases; must be unique per running instance
+        private String instanceId = "instance-" + UUID.randomUUID();
+    }
+
+    /**
+     * Processing runs started on a schedule (see ProcessingSchedule), in addition to POST /api/items/process.
+     * Off unless cron or fixedRate is set; with both, cron is used. A scheduled run is skipped while
+     * the previous one, or any other job beyond max-running-jobs, is still running.
+     */
+    @Getter
+    @Setter
+    public static class Schedule {
+
+        // Spring cron expression (second minute hour day month weekday), e.g. "0 0 2 * * *"
+        private String cron = "";
+
+        // Time zone of the cron expression; empty means the server's
+        private String zone = "";
+
+        // Interval between run starts, e.g. 15m
+        private Duration fixedRate;
+
+        // Delay before the first fixed-rate run
+        private Duration initialDelay = Duration.ZERO;
+    }
+
+    public enum ExecutorMode {
+        PLATFORM,
+        VIRTUAL,
+        FORK_JOIN
+    }
+
+    public enum ProcessingMode {
+        PER_ITEM,
+        CHUNKED,
+        SET_BASED,
+        PIPELINE,
+        PARTITIONED
+    }
+}
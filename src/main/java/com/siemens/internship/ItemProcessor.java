@@ -0,0 +1,25 @@
+package com.siemens.internship;
+
+/**
+ * One per-item transformation of a processing run. Every ItemProcessor bean is picked up by
+ * ItemProcessors and applied in @Order order to the items of each chunk, after the chunk was
+ * loaded with one query and before it is written back with one batch: adding a processor adds
+ * no table scan and no round trip.
+
+ * - process() changes the item in place; it runs on the processing workers, concurrently for
+ *   different chunks, so implementations must be thread-safe
+ * - name, description, status and email are written back; id, version and modifiedAt are not
+ * - an exception fails the item: the chunk is run again item by item and the failing item is
+ *   dead-lettered (see ProcessingRecovery)
+ * - SET_BASED runs only mark items as processed in SQL, so they fall back to CHUNKED as soon
+ *   as any other processor is registered
+ */
+public interface ItemProcessor {
+
+    // Tag of the items.processing.processor timer and key in the job summary
+    default String name() {
+        return getClass().getSimpleName();
+    }
+
+    void process(Item item);
+}
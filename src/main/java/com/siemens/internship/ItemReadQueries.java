@@ -0,0 +1,12 @@
+package com.siemens.internship;
+
+import java.util.List;
+
+/**
+ * Read model queries of ItemRepository that Spring Data cannot derive (see ItemRepository.SELECT_ITEM).
+ */
+public interface ItemReadQueries {
+
+    // Keyset page of the items matching `filter` with an id greater than `after` (all when null), in id order
+    List<Item> findDetachedPage(ItemFilter filter, Long after, int limit);
+}
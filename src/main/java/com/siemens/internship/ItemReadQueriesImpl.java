@@ -0,0 +1,22 @@
+package com.siemens.internship;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.util.List;
+
+// Picked up by Spring Data as the implementation of the ItemReadQueries fragment of ItemRepository
+class ItemReadQueriesImpl implements ItemReadQueries {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Item> findDetachedPage(ItemFilter filter, Long after, int limit) {
+        TypedQuery<Item> query = entityManager.createQuery(
+                ItemRepository.SELECT_ITEM + filter.toJpql(after != null) + " ORDER BY i.id", Item.class);
+        filter.bind(query, after);
+        return query.setMaxResults(limit).getResultList();
+    }
+}
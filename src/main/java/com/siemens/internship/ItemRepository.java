@@ -1,11 +1,149 @@
 package com.siemens.internship;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface ItemRepository extends JpaRepository<Item, Long>, JpaSpecificationExecutor<Item>, ItemReadQueries {
+    /**
+     * Read model of the read endpoints: a constructor expression, so the query returns plain Item
+     * instances instead of entities. Hibernate registers nothing in the persistence context for them
+     * (no entity entry, no dirty-checking snapshot), which open-in-view would otherwise keep until the
+     * end of the request. Use it for anything that is only serialized; load entities to change them.
+     */
+    String SELECT_ITEM = "SELECT new com.siemens.internship.Item(i.id, i.name, i.description, i.status, i.email, "
+            + "i.version, i.modifiedAt) FROM Item i";
 
-public interface ItemRepository extends JpaRepository<Item, Long> {
     @Query("SELECT id FROM Item")
     List<Long> findAllIds();
+
+    // Keyset page of ids: the next chunk starts right after the last id of the previous one
+    @Query("SELECT i.id FROM Item i WHERE i.id > :after ORDER BY i.id")
+    List<Long> findIdsAfter(@Param("after") Long after, Pageable pageable);
+
+    // Same, bounded by `toId` (inclusive): pages one id range
+    @Query("SELECT i.id FROM Item i WHERE i.id > :after AND i.id <= :toId ORDER BY i.id")
+    List<Long> findIdsBetween(@Param("after") Long after, @Param("toId") Long toId, Pageable pageable);
+
+    // Keyset page of items, no OFFSET scan: the page starts with an index seek on the primary key (read model)
+    @Query(SELECT_ITEM + " WHERE i.id > :after ORDER BY i.id")
+    List<Item> findPageAfter(@Param("after") Long after, Pageable pageable);
+
+    // findById through the read model
+    @Query(SELECT_ITEM + " WHERE i.id = :id")
+    Optional<Item> findDetachedById(@Param("id") Long id);
+
+    // findAllById through the read model, in no particular order
+    @Query(SELECT_ITEM + " WHERE i.id IN :ids")
+    List<Item> findAllDetachedById(@Param("ids") Collection<Long> ids);
+
+    // findAll through the read model, in id order
+    @Query(SELECT_ITEM + " ORDER BY i.id")
+    List<Item> findAllDetached();
+
+    // Forward-only cursor over the whole table; must be consumed inside a transaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT i FROM Item i ORDER BY i.id")
+    Stream<Item> streamAll();
+
+    @Query("SELECT i.id FROM Item i WHERE i.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT MIN(i.id) FROM Item i")
+    Long findMinId();
+
+    @Query("SELECT MAX(i.id) FROM Item i")
+    Long findMaxId();
+
+    /**
+     * Single-statement update by id. When `version` is not null the row is only
+     * updated if it still has that version. Returns the number of updated rows (0 or 1).
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Item i SET i.name = :name, i.description = :description, i.status = :status, i.email = :email, "
+            + "i.modifiedAt = :modifiedAt, i.version = i.version + 1 "
+            + "WHERE i.id = :id AND (:version IS NULL OR i.version = :version)")
+    int updateById(@Param("id") Long id,
+                   @Param("name") String name,
+                   @Param("description") String description,
+                   @Param("status") ItemStatus status,
+                   @Param("email") String email,
+                   @Param("modifiedAt") Instant modifiedAt,
+                   @Param("version") Long version);
+
+    /**
+     * updateById without a version, returning the version it wrote, or null when there is no such item.
+     * The version is read back in the same transaction: the row lock the UPDATE holds until commit
+     * keeps any concurrent update from getting in between.
+     */
+    @Transactional
+    default Long updateByIdReturningVersion(Long id, String name, String description, ItemStatus status, String email,
+                                            Instant modifiedAt) {
+        return updateById(id, name, description, status, email, modifiedAt, null) == 1 ? findVersionById(id) : null;
+    }
+
+    @Query("SELECT i.version FROM Item i WHERE i.id = :id")
+    Long findVersionById(@Param("id") Long id);
+
+    // Single-statement delete by id, optionally only at the given version. Returns the number of deleted rows.
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Item i WHERE i.id = :id AND (:version IS NULL OR i.version = :version)")
+    int deleteByIdAndVersion(@Param("id") Long id, @Param("version") Long version);
+
+    @Modifying
+    @Query("UPDATE Item i SET i.status = com.siemens.internship.ItemStatus.PROCESSED, i.version = i.version + 1 "
+            + "WHERE i.id BETWEEN :fromId AND :toId AND i.status <> com.siemens.internship.ItemStatus.PROCESSED")
+    int markProcessedBetween(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    @Modifying
+    @Query("UPDATE Item i SET i.status = com.siemens.internship.ItemStatus.PROCESSED, i.version = i.version + 1 "
+            + "WHERE i.id IN :ids AND i.status <> com.siemens.internship.ItemStatus.PROCESSED")
+    int markProcessedIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Keyset page of the unprocessed items modified up to `until`, ordered by (modifiedAt, id)
+     * and starting right after the key (afterModifiedAt, afterId). Served by idx_item_modified_at:
+     * the range scan starts at afterModifiedAt, so rows changed before the checkpoint are never read.
+     */
+    @Query("SELECT new com.siemens.internship.ItemChangeKey(i.id, i.modifiedAt) FROM Item i "
+            + "WHERE i.modifiedAt >= :afterModifiedAt AND i.modifiedAt <= :until "
+            + "AND (i.modifiedAt > :afterModifiedAt OR i.id > :afterId) AND i.status <> com.siemens.internship.ItemStatus.PROCESSED "
+            + "ORDER BY i.modifiedAt, i.id")
+    List<ItemChangeKey> findChangedAfter(@Param("afterModifiedAt") Instant afterModifiedAt,
+                                         @Param("afterId") Long afterId,
+                                         @Param("until") Instant until,
+                                         Pageable pageable);
+
+    // Keyset page of all items modified since afterModifiedAt, ordered by (modifiedAt, id); same index as findChangedAfter
+    @Query("SELECT i FROM Item i WHERE i.modifiedAt >= :afterModifiedAt "
+            + "AND (i.modifiedAt > :afterModifiedAt OR i.id > :afterId) ORDER BY i.modifiedAt, i.id")
+    List<Item> findModifiedAfter(@Param("afterModifiedAt") Instant afterModifiedAt,
+                                 @Param("afterId") Long afterId,
+                                 Pageable pageable);
+
+    // Items per status, aggregated by the database (statuses without items are absent)
+    @Query("SELECT new com.siemens.internship.StatusCount(i.status, COUNT(i)) FROM Item i GROUP BY i.status")
+    List<StatusCount> countPerStatus();
+
+    @Query("SELECT COUNT(i) FROM Item i WHERE i.modifiedAt >= :since AND i.modifiedAt <= :until "
+            + "AND i.status <> com.siemens.internship.ItemStatus.PROCESSED")
+    long countChanged(@Param("since") Instant since, @Param("until") Instant until);
 }
@@ -0,0 +1,284 @@
+package com.siemens.internship;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.ControlledRealTimeReopenThread;
+import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TopFieldDocs;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Embedded Lucene index over the name and description of every item, behind GET /api/items/search.
+
+ * Only ids are kept in the index; hits are loaded from the database by id (ItemService.search).
+ * ItemService updates the index on every write, and changes become searchable within
+ * items.search.refresh-interval (near-real-time reopen). Writes that bypass ItemService are picked
+ * up by ItemSearchIndexer, which also rebuilds the index at startup: until that rebuild is done
+ * isReady() is false and search() throws IllegalStateException.
+
+ * Results are ranked by BM25 with name matches weighted twice, ties broken by id, and paged with
+ * a cursor "score:id" (searchAfter): deep pages cost no more than the first one. A cursor is only
+ * exact as long as the index does not change, since scores move with the term statistics.
+ * When items.search.enabled is false every write is a no-op and search() always throws.
+ */
+@Component
+public class ItemSearchIndex implements DisposableBean {
+
+    static final String ID = "id";
+    static final String NAME = "name";
+    static final String DESCRIPTION = "description";
+
+    // Relevance first, then id, so that every hit has a unique sort key to resume after
+    private static final Sort ORDER = new Sort(SortField.FIELD_SCORE, new SortField(ID, SortField.Type.LONG));
+
+    public record Hits(List<Long> ids, String nextCursor) {
+    }
+
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private final Directory directory;
+    private final IndexWriter writer;
+    private final SearcherManager searchers;
+    private final ControlledRealTimeReopenThread<IndexSearcher> reopener;
+    private volatile boolean ready;
+
+    public ItemSearchIndex(ItemSearchProperties properties) throws IOException {
+        if (!properties.isEnabled()) {
+            directory = null;
+            writer = null;
+            searchers = null;
+            reopener = null;
+            return;
+        }
+        String path = properties.getDirectory();
+        directory = path == null || path.isBlank() ? new ByteBuffersDirectory() : FSDirectory.open(Path.of(path));
+        // Rebuilt from the database at startup, so whatever an earlier run left behind is dropped
+        writer = new IndexWriter(directory, new IndexWriterConfig(analyzer).setOpenMode(IndexWriterConfig.OpenMode.CREATE));
+        searchers = new SearcherManager(writer, null);
+        double maxStaleSeconds = Math.max(0.001, properties.getRefreshInterval().toNanos() / 1e9);
+        reopener = new ControlledRealTimeReopenThread<>(writer, searchers, maxStaleSeconds, Math.min(0.001, maxStaleSeconds));
+        reopener.setName("item-search-reopen");
+        reopener.setDaemon(true);
+        reopener.start();
+    }
+
+    public boolean isEnabled() {
+        return writer != null;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Adds the item, or replaces the document it already has
+    public void index(Item item) {
+        if (writer == null || item.getId() == null) {
+            return;
+        }
+        try {
+            writer.updateDocument(idTerm(item.getId()), document(item));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void indexAll(Collection<Item> items) {
+        items.forEach(this::index);
+    }
+
+    public void delete(Long id) {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.deleteDocuments(idTerm(id));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void deleteAll(Collection<Long> ids) {
+        if (writer == null || ids.isEmpty()) {
+            return;
+        }
+        try {
+            writer.deleteDocuments(ids.stream().map(ItemSearchIndex::idTerm).toArray(Term[]::new));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Replaces the whole index with the items `source` feeds to its consumer, then marks it ready.
+     * Writes that arrive meanwhile are applied as usual; a row the rebuild read before such a write
+     * may briefly be indexed with its older text, until the next catch-up.
+     */
+    public synchronized void rebuild(Consumer<Consumer<Item>> source) {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.deleteAll();
+            source.accept(this::index);
+            writer.commit();
+            searchers.maybeRefreshBlocking();
+            ready = true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Makes every write so far visible to searches, without waiting for the reopen thread
+    public void refresh() {
+        if (searchers == null) {
+            return;
+        }
+        try {
+            searchers.maybeRefreshBlocking();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Ids of up to `limit` best matches of `query`, after the hit `after` points at (a cursor
+     * returned by an earlier page, or null for the first page).
+
+     * The query uses Lucene's simple syntax: terms must all match, in the name or the description;
+     * "quoted phrases", prefix*, -excluded and a | b alternatives are supported, and nothing in it
+     * is a syntax error. Throws IllegalArgumentException for a malformed cursor.
+     */
+    public Hits search(String query, String after, int limit) {
+        if (!ready) {
+            throw new IllegalStateException(writer == null ? "The search index is disabled" : "The search index is being rebuilt");
+        }
+        Object[] cursor = after != null ? parseCursor(after) : null;
+        SimpleQueryParser parser = new SimpleQueryParser(analyzer, Map.of(NAME, 2f, DESCRIPTION, 1f));
+        parser.setDefaultOperator(BooleanClause.Occur.MUST);
+        Query parsed = parser.parse(query);
+        IndexSearcher searcher = acquire();
+        try {
+            int maxDoc = searcher.getIndexReader().maxDoc();
+            if (maxDoc == 0) {
+                return new Hits(List.of(), null);
+            }
+            // The last doc number: on equal (score, id), which is only the hit itself, it is skipped
+            FieldDoc afterHit = cursor != null ? new FieldDoc(maxDoc - 1, (Float) cursor[0], cursor) : null;
+            // One extra hit tells whether a next page exists
+            TopFieldDocs top = searcher.searchAfter(afterHit, parsed, limit + 1, ORDER, true);
+            int count = Math.min(limit, top.scoreDocs.length);
+            List<Long> ids = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                ids.add((Long) ((FieldDoc) top.scoreDocs[i]).fields[1]);
+            }
+            String next = top.scoreDocs.length > limit ? cursor(top.scoreDocs[limit - 1]) : null;
+            return new Hits(ids, next);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            release(searcher);
+        }
+    }
+
+    // Number of indexed items, as of the last refresh
+    public int size() {
+        if (searchers == null) {
+            return 0;
+        }
+        IndexSearcher searcher = acquire();
+        try {
+            return searcher.getIndexReader().numDocs();
+        } finally {
+            release(searcher);
+        }
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        if (writer == null) {
+            return;
+        }
+        reopener.close();
+        searchers.close();
+        writer.close();
+        directory.close();
+    }
+
+    private IndexSearcher acquire() {
+        try {
+            return searchers.acquire();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void release(IndexSearcher searcher) {
+        try {
+            searchers.release(searcher);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Document document(Item item) {
+        Document document = new Document();
+        document.add(new StringField(ID, Long.toString(item.getId()), Field.Store.NO));
+        document.add(new NumericDocValuesField(ID, item.getId()));
+        if (item.getName() != null) {
+            document.add(new TextField(NAME, item.getName(), Field.Store.NO));
+        }
+        if (item.getDescription() != null) {
+            document.add(new TextField(DESCRIPTION, item.getDescription(), Field.Store.NO));
+        }
+        return document;
+    }
+
+    private static Term idTerm(Long id) {
+        return new Term(ID, Long.toString(id));
+    }
+
+    private static String cursor(ScoreDoc hit) {
+        Object[] fields = ((FieldDoc) hit).fields;
+        return fields[0] + ":" + fields[1];
+    }
+
+    // Sort values (score, id) of the hit a cursor points at
+    private static Object[] parseCursor(String cursor) {
+        int colon = cursor.lastIndexOf(':');
+        try {
+            float score = Float.parseFloat(cursor.substring(0, colon));
+            long id = Long.parseLong(cursor.substring(colon + 1));
+            return new Object[]{score, id};
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Malformed search cursor: " + cursor, e);
+        }
+    }
+}
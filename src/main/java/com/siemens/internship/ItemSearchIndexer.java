@@ -0,0 +1,86 @@
+package com.siemens.internship;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps ItemSearchIndex complete beyond the writes that go through ItemService:
+
+ * - rebuild() fills the index from the whole table, in the background once the application is up
+ * - catchUp() re-indexes every item modified since the previous scan (minus items.search.catch-up-overlap),
+ *   which covers rows written by other instances, by SQL or by write-behind journal replay.
+ *   Deleted rows cannot be seen that way; ItemService.search drops their ids when it meets them.
+ */
+@Component
+public class ItemSearchIndexer {
+    private static final Logger log = LoggerFactory.getLogger(ItemSearchIndexer.class);
+
+    private final ItemSearchIndex index;
+    private final ItemSearchProperties properties;
+    private final ItemService itemService;
+    private final ItemRepository itemRepository;
+    private final TaskExecutor taskExecutor;
+
+    // Start of the next catch-up scan; null until the first rebuild is done
+    private volatile Instant checkpoint;
+
+    public ItemSearchIndexer(ItemSearchIndex index, ItemSearchProperties properties, ItemService itemService,
+                             ItemRepository itemRepository, TaskExecutor taskExecutor) {
+        this.index = index;
+        this.properties = properties;
+        this.itemService = itemService;
+        this.itemRepository = itemRepository;
+        this.taskExecutor = taskExecutor;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildInBackground() {
+        if (index.isEnabled()) {
+            taskExecutor.execute(this::rebuild);
+        }
+    }
+
+    // Streams every item into a fresh index (see ItemService.streamAll); searches get 503 until it is done
+    public void rebuild() {
+        long start = System.nanoTime();
+        Instant started = Item.now();
+        index.rebuild(itemService::streamAll);
+        checkpoint = started.minus(properties.getCatchUpOverlap());
+        log.info("Search index rebuilt with {} items in {} ms", index.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    // Re-indexes the items modified since the last scan, one keyset page on (modifiedAt, id) at a time
+    @Scheduled(fixedDelayString = "${items.search.catch-up-interval:PT5S}")
+    public void catchUp() {
+        Instant from = checkpoint;
+        if (from == null) {
+            return;
+        }
+        Instant started = Item.now();
+        int size = Math.max(1, properties.getBatchSize());
+        Instant afterModifiedAt = from;
+        Long afterId = Long.MIN_VALUE;
+        List<Item> page;
+        do {
+            page = itemRepository.findModifiedAfter(afterModifiedAt, afterId, PageRequest.ofSize(size));
+            index.indexAll(page);
+            if (!page.isEmpty()) {
+                Item last = page.get(page.size() - 1);
+                afterModifiedAt = last.getModifiedAt();
+                afterId = last.getId();
+            }
+        } while (page.size() == size);
+        checkpoint = started.minus(properties.getCatchUpOverlap());
+    }
+}
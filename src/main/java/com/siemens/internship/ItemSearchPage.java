@@ -0,0 +1,12 @@
+package com.siemens.internship;
+
+import java.util.List;
+
+/**
+ * One page of full-text search results, best match first.
+ *
+ * @param items      the items of this page
+ * @param nextCursor cursor to pass as `after` to get the next page, or null on the last page
+ */
+public record ItemSearchPage(List<Item> items, String nextCursor) {
+}
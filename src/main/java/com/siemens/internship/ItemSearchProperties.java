@@ -0,0 +1,34 @@
+package com.siemens.internship;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for the full-text index behind GET /api/items/search (prefix {@code items.search}).
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "items.search")
+public class ItemSearchProperties {
+
+    // When false nothing is indexed and searches are answered with 503
+    private boolean enabled = true;
+
+    // Index directory, recreated at startup; empty keeps the index on the heap
+    private String directory = "";
+
+    // Time after which indexed changes become visible to searches
+    private Duration refreshInterval = Duration.ofMillis(500);
+
+    // How often items modified behind the index (e.g. by another instance) are re-indexed (ISO-8601: it is also read by @Scheduled)
+    private Duration catchUpInterval = Duration.ofSeconds(5);
+
+    // The catch-up scan restarts this long before the previous one, for transactions that committed late
+    private Duration catchUpOverlap = Duration.ofSeconds(5);
+
+    // Items read per page by the catch-up scan
+    private int batchSize = 1000;
+}
@@ -1,37 +1,455 @@
 package com.siemens.internship;
 
+import com.siemens.internship.ItemProcessingProperties.ProcessingMode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
 
 @Service
 public class ItemService {
+    private static final Logger log = LoggerFactory.getLogger(ItemService.class);
+
     @Autowired
     private ItemRepository itemRepository;
-    private static ExecutorService executor = Executors.newFixedThreadPool(10);
-    private List<Item> processedItems = new ArrayList<>();
-    private int processedCount = 0;
+    @Autowired
+    private ItemChunkProcessor chunkProcessor;
+    @Autowired
+    private ItemProcessingProperties processingProperties;
+    @Autowired
+    private ProcessingJobRegistry jobRegistry;
+    @Autowired
+    private TaskExecutor taskExecutor;
+    @Autowired
+    private ItemCache itemCache;
+    @Autowired
+    private ItemMetrics metrics;
+    @Autowired
+    private ItemBatchWriter batchWriter;
+    @Autowired
+    private ItemBatchProperties batchProperties;
+    @PersistenceContext
+    private EntityManager entityManager;
+    @Autowired
+    private ProcessingExecutor processingExecutor;
+    @Autowired
+    private ProcessingCheckpointRepository checkpointRepository;
+    @Autowired
+    private ItemProcessingPipeline pipeline;
+    @Autowired
+    private ProcessingRecovery recovery;
+    @Autowired
+    private ProcessingPartitions partitions;
+    @Autowired
+    private ItemWriteBehind writeBehind;
+    @Autowired
+    private ItemSearchIndex searchIndex;
+    @Autowired
+    private ItemChangeFeed changeFeed;
+    @Autowired
+    private ItemProcessors processors;
 
+    // Partitioned runs this instance is working on; the poller only joins a run when idle
+    private final AtomicInteger partitionedRuns = new AtomicInteger();
 
+
+    // Reads return plain Item instances instead of managed entities (see ItemRepository.SELECT_ITEM)
     public List<Item> findAll() {
-        return itemRepository.findAll();
+        long start = System.nanoTime();
+        try {
+            return itemRepository.findAllDetached();
+        } finally {
+            ItemMetrics.stop(metrics.findAll, start);
+        }
+    }
+
+    /**
+     * Returns up to `limit` items with an id greater than `after` (or from the start when null).
+     * One extra row is fetched to know whether a next page exists without a COUNT query.
+     */
+    public ItemPage findPage(Long after, int limit) {
+        long start = System.nanoTime();
+        try {
+            return toPage(itemRepository.findPageAfter(after != null ? after : Long.MIN_VALUE, PageRequest.ofSize(limit + 1)), limit);
+        } finally {
+            ItemMetrics.stop(metrics.findPage, start);
+        }
     }
 
+    /**
+     * Keyset page of the items matching `filter`, in id order. The filter is turned into a
+     * WHERE clause served by the item indexes (see ItemFilter); nothing is filtered in Java.
+     */
+    public ItemPage findPage(ItemFilter filter, Long after, int limit) {
+        if (filter.isEmpty()) {
+            return findPage(after, limit);
+        }
+        long start = System.nanoTime();
+        try {
+            return toPage(itemRepository.findDetachedPage(filter, after, limit + 1), limit);
+        } finally {
+            ItemMetrics.stop(metrics.findPage, start);
+        }
+    }
+
+    private static ItemPage toPage(List<Item> rows, int limit) {
+        if (rows.size() <= limit) {
+            return new ItemPage(rows, null);
+        }
+        List<Item> page = rows.subList(0, limit);
+        return new ItemPage(page, page.get(limit - 1).getId());
+    }
+
+    // Number of items matching `filter`, counted by the database
+    public long count(ItemFilter filter) {
+        long start = System.nanoTime();
+        try {
+            return filter.isEmpty() ? itemRepository.count() : itemRepository.count(filter.toSpecification());
+        } finally {
+            ItemMetrics.stop(metrics.count, start);
+        }
+    }
+
+    // Number of items per status from one GROUP BY query; every status is present, with 0 when it has no items
+    public Map<ItemStatus, Long> countByStatus() {
+        long start = System.nanoTime();
+        try {
+            Map<ItemStatus, Long> counts = new EnumMap<>(ItemStatus.class);
+            for (ItemStatus status : ItemStatus.values()) {
+                counts.put(status, 0L);
+            }
+            for (StatusCount row : itemRepository.countPerStatus()) {
+                counts.put(row.status(), row.count());
+            }
+            return counts;
+        } finally {
+            ItemMetrics.stop(metrics.count, start);
+        }
+    }
+
+    /**
+     * Feeds every item, in id order, to `consumer` through a database cursor.
+     * Each item is detached once consumed so the persistence context does not
+     * grow with the table: memory use stays flat whatever the number of rows.
+     */
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<Item> consumer) {
+        long start = System.nanoTime();
+        try (Stream<Item> items = itemRepository.streamAll()) {
+            items.forEach(item -> {
+                consumer.accept(item);
+                entityManager.detach(item);
+            });
+        } finally {
+            ItemMetrics.stop(metrics.streamAll, start);
+        }
+    }
+
+    /**
+     * Up to `limit` items matching the full-text `query`, best match first (see ItemSearchIndex),
+     * starting after the hit the cursor `after` points at. Hits are taken from ItemCache, and the
+     * others loaded with one query by id; ids whose row no longer exists are dropped from the page
+     * and from the index.
+     * Throws IllegalStateException while the index is being rebuilt.
+     */
+    public ItemSearchPage search(String query, String after, int limit) {
+        long start = System.nanoTime();
+        try {
+            ItemSearchIndex.Hits hits = searchIndex.search(query, after, limit);
+            Map<Long, Item> found = new HashMap<>(itemCache.getAllPresent(hits.ids()));
+            List<Long> misses = hits.ids().stream().filter(id -> !found.containsKey(id)).toList();
+            if (!misses.isEmpty()) {
+                // Not cached: an update committing meanwhile could not evict them (see ItemCache.get)
+                itemRepository.findAllDetachedById(misses).forEach(item -> found.put(item.getId(), item));
+            }
+            List<Item> items = new ArrayList<>(hits.ids().size());
+            for (Long id : hits.ids()) {
+                Optional<Item> buffered = writeBehind.isEnabled() ? writeBehind.find(id) : Optional.empty();
+                Item item = buffered.orElseGet(() -> found.get(id));
+                if (item != null) {
+                    items.add(item);
+                } else {
+                    searchIndex.delete(id);
+                }
+            }
+            return new ItemSearchPage(items, hits.nextCursor());
+        } finally {
+            ItemMetrics.stop(metrics.search, start);
+        }
+    }
+
+    // Buffered write-behind state first, then the read-through ItemCache: only misses reach the database
     public Optional<Item> findById(Long id) {
-        return itemRepository.findById(id);
+        long start = System.nanoTime();
+        try {
+            Optional<Item> buffered = writeBehind.find(id);
+            return buffered.isPresent() ? buffered : itemCache.get(id, itemRepository::findDetachedById);
+        } finally {
+            ItemMetrics.stop(metrics.findById, start);
+        }
     }
 
     public Item save(Item item) {
-        return itemRepository.save(item);
+        long start = System.nanoTime();
+        try {
+            item.setModifiedAt(Item.now());
+            Item saved = itemRepository.save(item);
+            itemCache.evict(saved.getId());
+            searchIndex.index(saved);
+            changeFeed.saved(saved);
+            return saved;
+        } finally {
+            ItemMetrics.stop(metrics.save, start);
+        }
+    }
+
+    /**
+     * Updates an item with a single UPDATE statement, without loading it first.
+
+     * When `expectedVersion` is given the row is only updated at that version; without it the new
+     * version is read back in the UPDATE's transaction, so that the response can still carry an ETag.
+     * Returns the item with its id and new version (null when buffered by write-behind), or empty
+     * if no such item exists.
+     * Throws OptimisticLockingFailureException if the item exists at another version;
+     * that extra existence check only runs on this failure path.
+
+     * With write-behind enabled an update without `expectedVersion` is only buffered (ItemWriteBehind)
+     * once the item is known to exist; a conditional one first flushes the buffered write of the item.
+     */
+    public Optional<Item> update(Long id, Item item, Long expectedVersion) {
+        long start = System.nanoTime();
+        try {
+            Instant modifiedAt = Item.now();
+            if (writeBehind.isEnabled()) {
+                if (expectedVersion == null) {
+                    return updateBehind(id, item, modifiedAt);
+                }
+                writeBehind.flush(List.of(id));
+            }
+            Long version;
+            if (expectedVersion != null) {
+                int updated = itemRepository.updateById(id, item.getName(), item.getDescription(),
+                        item.getStatus(), item.getEmail(), modifiedAt, expectedVersion);
+                version = updated == 1 ? expectedVersion + 1 : null;
+            } else {
+                version = itemRepository.updateByIdReturningVersion(id, item.getName(), item.getDescription(),
+                        item.getStatus(), item.getEmail(), modifiedAt);
+            }
+            // Evicted after the statement has committed, so no reader can re-cache the old row
+            itemCache.evict(id);
+            if (version != null) {
+                item.setId(id);
+                item.setModifiedAt(modifiedAt);
+                item.setVersion(version);
+                searchIndex.index(item);
+                changeFeed.saved(item);
+                return Optional.of(item);
+            }
+            if (expectedVersion != null && itemRepository.existsById(id)) {
+                throw new ObjectOptimisticLockingFailureException(Item.class, id);
+            }
+            return Optional.empty();
+        } finally {
+            ItemMetrics.stop(metrics.update, start);
+        }
+    }
+
+    private Optional<Item> updateBehind(Long id, Item item, Instant modifiedAt) {
+        if (writeBehind.find(id).isEmpty() && itemCache.get(id, itemRepository::findDetachedById).isEmpty()) {
+            return Optional.empty();
+        }
+        item.setId(id);
+        item.setModifiedAt(modifiedAt);
+        item.setVersion(null);
+        writeBehind.write(item);
+        searchIndex.index(item);
+        changeFeed.saved(item);
+        return Optional.of(item);
+    }
+
+    /**
+     * Deletes an item with a single DELETE statement, optionally only at `expectedVersion`.
+     * Returns false if no such item exists; throws OptimisticLockingFailureException
+     * if it exists at another version.
+     */
+    public boolean delete(Long id, Long expectedVersion) {
+        long start = System.nanoTime();
+        try {
+            if (writeBehind.isEnabled()) {
+                // A conditional delete must see the version the buffered write leads to
+                if (expectedVersion != null) {
+                    writeBehind.flush(List.of(id));
+                } else {
+                    writeBehind.discard(id);
+                }
+            }
+            int deleted = itemRepository.deleteByIdAndVersion(id, expectedVersion);
+            itemCache.evict(id);
+            if (deleted == 1) {
+                searchIndex.delete(id);
+                changeFeed.deleted(id);
+                return true;
+            }
+            if (expectedVersion != null && itemRepository.existsById(id)) {
+                throw new ObjectOptimisticLockingFailureException(Item.class, id);
+            }
+            return false;
+        } finally {
+            ItemMetrics.stop(metrics.delete, start);
+        }
     }
 
     public void deleteById(Long id) {
-        itemRepository.deleteById(id);
+        long start = System.nanoTime();
+        try {
+            writeBehind.discard(id);
+            itemRepository.deleteById(id);
+            itemCache.evict(id);
+            searchIndex.delete(id);
+            changeFeed.deleted(id);
+        } finally {
+            ItemMetrics.stop(metrics.deleteById, start);
+        }
+    }
+
+    /**
+     * Inserts every item, one transaction per window of items.batch.size items.
+     * A window that fails is reported as FAILED item by item; other windows are unaffected.
+     * Ids in the input are ignored: a bulk create always creates new rows.
+     */
+    public List<BatchItemResult> createAll(List<Item> items) {
+        List<BatchItemResult> results = new ArrayList<>(items.size());
+        forEachWindow(items, (offset, window) -> {
+            Instant modifiedAt = Item.now();
+            window.forEach(item -> {
+                item.setId(null);
+                item.setModifiedAt(modifiedAt);
+            });
+            try {
+                List<Item> saved = batchWriter.insert(window);
+                itemCache.evictAll(saved);
+                searchIndex.indexAll(saved);
+                saved.forEach(changeFeed::saved);
+                for (int i = 0; i < saved.size(); i++) {
+                    results.add(BatchItemResult.of(offset + i, saved.get(i).getId(), BatchItemResult.Outcome.CREATED));
+                }
+            } catch (RuntimeException e) {
+                addFailed(results, offset, window.size(), i -> null, e);
+            }
+        });
+        return results;
+    }
+
+    /**
+     * Updates every item by id, one transaction per window. Items whose id does not
+     * exist are reported as NOT_FOUND.
+     */
+    public List<BatchItemResult> updateAll(List<Item> items) {
+        List<BatchItemResult> results = new ArrayList<>(items.size());
+        forEachWindow(items, (offset, window) -> {
+            try {
+                if (writeBehind.isEnabled()) {
+                    // Buffered writes of these items must not overwrite the bulk update later
+                    writeBehind.flush(window.stream().map(Item::getId).toList());
+                }
+                List<Item> updated = batchWriter.update(window);
+                for (int i = 0; i < updated.size(); i++) {
+                    Item item = updated.get(i);
+                    Long id = window.get(i).getId();
+                    if (item != null) {
+                        itemCache.evict(item.getId());
+                        searchIndex.index(item);
+                        changeFeed.saved(item);
+                        results.add(BatchItemResult.of(offset + i, id, BatchItemResult.Outcome.UPDATED));
+                    } else {
+                        results.add(BatchItemResult.of(offset + i, id, BatchItemResult.Outcome.NOT_FOUND));
+                    }
+                }
+            } catch (RuntimeException e) {
+                addFailed(results, offset, window.size(), i -> window.get(i).getId(), e);
+            }
+        });
+        return results;
+    }
+
+    /**
+     * Deletes every id, one DELETE ... WHERE id IN per window. Ids that do not
+     * exist are reported as NOT_FOUND.
+     */
+    public List<BatchItemResult> deleteAll(List<Long> ids) {
+        List<BatchItemResult> results = new ArrayList<>(ids.size());
+        forEachWindow(ids, (offset, window) -> {
+            try {
+                window.forEach(writeBehind::discard);
+                Set<Long> deleted = batchWriter.delete(window);
+                searchIndex.deleteAll(deleted);
+                deleted.forEach(changeFeed::deleted);
+                for (int i = 0; i < window.size(); i++) {
+                    Long id = window.get(i);
+                    itemCache.evict(id);
+                    results.add(BatchItemResult.of(offset + i, id, deleted.contains(id)
+                            ? BatchItemResult.Outcome.DELETED
+                            : BatchItemResult.Outcome.NOT_FOUND));
+                }
+            } catch (RuntimeException e) {
+                addFailed(results, offset, window.size(), window::get, e);
+            }
+        });
+        return results;
+    }
+
+    // Calls `action` with consecutive sub-lists of at most items.batch.size elements and their offset
+    private <T> void forEachWindow(List<T> all, BiConsumer<Integer, List<T>> action) {
+        int size = Math.max(1, batchProperties.getSize());
+        for (int offset = 0; offset < all.size(); offset += size) {
+            action.accept(offset, all.subList(offset, Math.min(offset + size, all.size())));
+        }
+    }
+
+    private static void addFailed(List<BatchItemResult> results, int offset, int count,
+                                  IntFunction<Long> idAt, RuntimeException cause) {
+        log.warn("Bulk window starting at index {} failed: {}", offset, cause.getMessage());
+        List<String> errors = List.of(String.valueOf(cause.getMessage()));
+        for (int i = 0; i < count; i++) {
+            results.add(new BatchItemResult(offset + i, idAt.apply(i), BatchItemResult.Outcome.FAILED, errors));
+        }
+    }
+
+    /**
+     * Streams the item changes after sequence `after` (only new ones when null) to `subscriber`,
+     * see ItemChangeFeed. Throws IllegalStateException when no more subscribers are accepted.
+     */
+    public void subscribeChanges(Long after, ItemChangeFeed.Subscriber subscriber) {
+        changeFeed.subscribe(after, subscriber);
+    }
+
+    public ItemCache.Stats cacheStats() {
+        return itemCache.stats();
     }
 
 
@@ -55,6 +473,478 @@ public class ItemService {
      */
     @Async
     public CompletableFuture<List<Item>> processItemsAsync() {
+        if (processingProperties.getMode() == ProcessingMode.PER_ITEM) {
+            return processPerItem();
+        }
+        List<Item> processed = Collections.synchronizedList(new ArrayList<>());
+        if (processingProperties.getMode() == ProcessingMode.PIPELINE) {
+            ProcessingJob job = newJob(ProcessingMode.PIPELINE);
+            return runPipeline(job, openScan(), processed::addAll).thenApply(v -> processed);
+        }
+        if (processingProperties.getMode() == ProcessingMode.PARTITIONED) {
+            // Only the items processed by this instance are returned
+            ProcessingJob job = newJob(ProcessingMode.PARTITIONED);
+            return runPartitioned(job, true, processed::addAll).thenApply(v -> processed);
+        }
+        // SET_BASED has no entities to return, so item-returning callers get the chunked path
+        ProcessingJob job = newJob(ProcessingMode.CHUNKED);
+        return runChunked(job, openScan(), processed::addAll).thenApply(v -> processed);
+    }
+
+    /**
+     * Set-based fast path for when no per-item Java logic is needed: it only marks items as
+     * processed and never runs the ItemProcessors. Always walks the whole id space, regardless of items.processing.incremental.
+     * Rows that are already processed keep their version. Completes with the number of rows marked as processed.
+     */
+    @Async
+    public CompletableFuture<Integer> markAllProcessedAsync() {
+        return runSetBased(newJob(ProcessingMode.SET_BASED), null);
+    }
+
+    /**
+     * Starts a processing run in the background and returns right away.
+
+     * The job is registered in ProcessingJobRegistry so that its progress can be polled
+     * and it can be cancelled. Everything that touches the table (including the checkpoint
+     * and the initial count) runs on the task executor, never on the calling request thread.
+     * PER_ITEM is a legacy mode of processItemsAsync only; jobs run on the chunked engine instead.
+     * SET_BASED cannot run ItemProcessors, so it also runs on the chunked engine when any processor
+     * other than MarkProcessedItemProcessor is registered.
+     * A PARTITIONED job starts (or joins) the shared run and reports this instance's share of it.
+     */
+    public ProcessingJob startProcessing() {
+        ProcessingMode mode = switch (processingProperties.getMode()) {
+            case SET_BASED -> processors.onlyMarksProcessed() ? ProcessingMode.SET_BASED : ProcessingMode.CHUNKED;
+            case PIPELINE, PARTITIONED -> processingProperties.getMode();
+            case PER_ITEM, CHUNKED -> ProcessingMode.CHUNKED;
+        };
+        ProcessingJob job = jobRegistry.register(newJob(mode));
+        if (mode == ProcessingMode.PARTITIONED) {
+            taskExecutor.execute(() -> completeWith(job, runPartitioned(job, true, items -> { })));
+            return job;
+        }
+        taskExecutor.execute(() -> {
+            try {
+                ProcessingScan scan = openScan();
+                job.setTotal(scan.pending());
+                CompletableFuture<?> run = switch (mode) {
+                    case SET_BASED -> runSetBased(job, scan.isIncremental() ? scan : null);
+                    case PIPELINE -> runPipeline(job, scan, items -> { });
+                    default -> runChunked(job, scan, items -> { });
+                };
+                completeWith(job, run);
+            } catch (Exception e) {
+                job.fail(e);
+            }
+        });
+        return job;
+    }
+
+    private static void completeWith(ProcessingJob job, CompletableFuture<?> run) {
+        run.whenComplete((r, e) -> {
+            if (e == null) {
+                job.complete();
+            } else {
+                job.fail(e);
+            }
+        });
+    }
+
+    /**
+     * Lets an idle instance help with the active PARTITIONED run started by another instance,
+     * and take over the partitions of instances that died.
+
+     * The run is handed to the task executor: the single scheduler thread also drives the search
+     * catch-up, scheduled processing runs and storage snapshots. partitionedRuns is taken before the
+     * hand-off, so polls never overlap.
+     */
+    @Scheduled(fixedDelayString = "${items.processing.partitioning.poll-interval:PT5S}")
+    public void pollPartitions() {
+        if (processingProperties.getMode() != ProcessingMode.PARTITIONED || !partitionedRuns.compareAndSet(0, 1)) {
+            return;
+        }
+        try {
+            taskExecutor.execute(() -> {
+                try {
+                    joinActiveRun();
+                } finally {
+                    partitionedRuns.decrementAndGet();
+                }
+            });
+        } catch (RuntimeException e) {
+            partitionedRuns.decrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * Works on the active PARTITIONED run, if it has claimable partitions, until none is left.
+     * Never starts a run. Returns the job recording this instance's share, or empty if there was nothing to do
+     * or another job (a dead-letter reprocess, a scheduled run) is running here; the next poll tries again.
+     */
+    public Optional<ProcessingJob> joinActiveRun() {
+        if (!partitions.hasClaimable()) {
+            return Optional.empty();
+        }
+        ProcessingJob job;
+        try {
+            job = jobRegistry.register(newJob(ProcessingMode.PARTITIONED));
+        } catch (IllegalStateException e) {
+            log.debug("Not joining the partitioned run: {}", e.getMessage());
+            return Optional.empty();
+        }
+        try {
+            runPartitioned(job, false, items -> { }).join();
+            job.complete();
+        } catch (CompletionException e) {
+            job.fail(e.getCause());
+        }
+        return Optional.of(job);
+    }
+
+    public Optional<ProcessingJob> findJob(String jobId) {
+        return jobRegistry.find(jobId);
+    }
+
+    // Up to `limit` dead-lettered items with an item id greater than `after`, in item id order
+    public List<DeadLetterItem> findDeadLetters(Long after, int limit) {
+        return recovery.findDeadLetters(after != null ? after : Long.MIN_VALUE, limit);
+    }
+
+    /**
+     * Starts a background job that processes every dead-lettered item again, one item at a time
+     * (with the usual retries). Items that are processed, or that no longer exist, leave the
+     * dead-letter table; items that fail again stay in it with their failure count increased.
+     * The job is registered like processing jobs, so its summary is polled the same way.
+     */
+    public ProcessingJob reprocessDeadLetters() {
+        ProcessingJob job = jobRegistry.register(newJob(ProcessingMode.PER_ITEM));
+        taskExecutor.execute(() -> {
+            try {
+                job.setTotal(recovery.countDeadLetters());
+                Long after = Long.MIN_VALUE;
+                List<DeadLetterItem> page;
+                while (!job.isCancelRequested()
+                        && !(page = recovery.findDeadLetters(after, processingProperties.getChunkSize())).isEmpty()) {
+                    for (DeadLetterItem letter : page) {
+                        List<Long> missing = new ArrayList<>();
+                        List<Long> id = List.of(letter.getItemId());
+                        List<Item> items = processEach(job, id, missing);
+                        itemCache.evictAll(items);
+                        publishProcessed(items);
+                        job.recordProcessed(items.size());
+                        job.recordMissing(missing);
+                        if (!items.isEmpty() || !missing.isEmpty()) {
+                            recovery.resolved(letter.getItemId());
+                        }
+                    }
+                    after = page.get(page.size() - 1).getItemId();
+                }
+                job.complete();
+            } catch (Exception e) {
+                job.fail(e);
+            }
+        });
+        return job;
+    }
+
+    private ProcessingJob newJob(ProcessingMode mode) {
+        return new ProcessingJob(mode, processingProperties.getMaxReportedIds());
+    }
+
+    // Incremental (from the persisted checkpoint) or full scan, depending on items.processing.incremental
+    private ProcessingScan openScan() {
+        int chunkSize = processingProperties.getChunkSize();
+        return processingProperties.isIncremental()
+                ? ProcessingScan.incremental(itemRepository, checkpointRepository, chunkSize, processingProperties.getCheckpointOverlap())
+                : ProcessingScan.full(itemRepository, chunkSize);
+    }
+
+    /**
+     * Chunked engine: takes chunks of ids from `scan` and hands every chunk to ItemChunkProcessor,
+     * which loads it with one IN query and writes it back in one batched transaction.
+     * Processed items of each chunk are passed to `sink`.
+
+     * At most `parallelism` chunks (capped by the connection pool size) are in flight; the producer blocks on the semaphore
+     * instead of queueing every chunk of the table up front. Cancellation is checked before each new chunk.
+
+     * Failures (see ProcessingRecovery) never stop the run:
+     * - a transient error is retried; a chunk that keeps failing with one is counted as failed
+     *   and holds the checkpoint back, so the next run retries it
+     * - any other error makes the chunk run again item by item: the items that still fail
+     *   are dead-lettered and the chunk counts as committed
+     */
+    private CompletableFuture<Void> runChunked(ProcessingJob job, ProcessingScan scan, Consumer<List<Item>> sink) {
+        Semaphore permits = new Semaphore(processingExecutor.parallelism());
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+
+        ProcessingScan.Chunk next;
+        while (!job.isCancelRequested() && (next = scan.next()) != null) {
+            ProcessingScan.Chunk chunk = next;
+            List<Long> ids = chunk.ids();
+            permits.acquireUninterruptibly();
+            futures.add(CompletableFuture.runAsync(() -> {
+                        long start = System.nanoTime();
+                        List<Long> missing = new ArrayList<>();
+                        List<Item> items = processChunk(job, ids, missing);
+                        // The chunk is committed: evict the cached copies, publish the change and move the checkpoint
+                        itemCache.evictAll(items);
+                        publishProcessed(items);
+                        scan.committed(chunk);
+                        job.recordProcessed(items.size());
+                        job.recordMissing(missing);
+                        metrics.recordChunk(start, items.size(), missing.size());
+                        sink.accept(items);
+                    }, processingExecutor.executorService())
+                    .exceptionally(e -> {
+                        log.warn("Error processing chunk starting at ID {}: {}", ids.get(0), e.getMessage());
+                        job.recordFailed(ids, e);
+                        metrics.recordFailed(ids.size());
+                        return null;
+                    })
+                    .whenComplete((r, e) -> permits.release()));
+        }
+
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .thenRun(() -> finishScan(job, scan));
+    }
+
+    /**
+     * Processes one chunk with retries. After a non-transient failure the chunk is processed
+     * again item by item (see processEach). Ids that no longer exist are added to `missing`.
+     * Throws if the chunk keeps failing with a transient error.
+     */
+    private List<Item> processChunk(ProcessingJob job, List<Long> ids, List<Long> missing) {
+        try {
+            List<Item> items = recovery.retry(job, () -> chunkProcessor.processChunk(ids, job));
+            missing.addAll(missingIds(ids, items));
+            return items;
+        } catch (RuntimeException e) {
+            if (ProcessingRecovery.isTransient(e)) {
+                throw e;
+            }
+            log.warn("Chunk starting at ID {} failed, processing its items one by one: {}", ids.get(0), e.getMessage());
+            return processEach(job, ids, missing);
+        }
+    }
+
+    /**
+     * Processes `ids` one transaction per item, with retries. Items that still fail are
+     * dead-lettered, ids that no longer exist are added to `missing`. Returns the processed items.
+     */
+    private List<Item> processEach(ProcessingJob job, List<Long> ids, List<Long> missing) {
+        List<Item> processed = new ArrayList<>();
+        for (Long id : ids) {
+            List<Long> single = List.of(id);
+            try {
+                List<Item> items = recovery.retry(job, () -> chunkProcessor.processChunk(single, job));
+                if (items.isEmpty()) {
+                    missing.add(id);
+                }
+                processed.addAll(items);
+            } catch (RuntimeException e) {
+                recovery.deadLetter(job, single, e);
+            }
+        }
+        return processed;
+    }
+
+    // Ids of the chunk that were not loaded, computed only when some are absent
+    private static List<Long> missingIds(List<Long> ids, List<Item> items) {
+        if (items.size() == ids.size()) {
+            return List.of();
+        }
+        Set<Long> found = new HashSet<>();
+        items.forEach(item -> found.add(item.getId()));
+        return ids.stream().filter(id -> !found.contains(id)).toList();
+    }
+
+    /**
+     * Partitioned engine: `parallelism` workers claim partitions of the active run (after starting
+     * one, when `start` is set) and process each claimed id range chunk by chunk, recording the
+     * progress and renewing the lease after every chunk (see ProcessingPartitions).
+
+     * Completes when no partition is left to claim. Partitions leased by other instances are
+     * theirs to finish; if an instance dies, the poller of another one takes them over once
+     * their lease has expired. Partitioned runs always cover the whole id space (no checkpoint).
+     */
+    private CompletableFuture<Void> runPartitioned(ProcessingJob job, boolean start, Consumer<List<Item>> sink) {
+        partitionedRuns.incrementAndGet();
+        CompletableFuture<Void> run;
+        try {
+            if (start && partitions.openRun().isEmpty()) {
+                run = CompletableFuture.completedFuture(null);
+            } else {
+                if (start) {
+                    // The run covers the whole id space: the table's count, as for a full chunked run
+                    job.setTotal(itemRepository.count());
+                }
+                List<CompletableFuture<Void>> workers = new ArrayList<>();
+                for (int i = 0; i < processingExecutor.parallelism(); i++) {
+                    workers.add(CompletableFuture.runAsync(() -> {
+                        Optional<ProcessingPartition> claimed;
+                        while (!job.isCancelRequested() && (claimed = partitions.claim()).isPresent()) {
+                            processPartition(job, claimed.get(), sink);
+                        }
+                    }, processingExecutor.executorService()));
+                }
+                run = CompletableFuture.allOf(workers.toArray(new CompletableFuture[0]));
+            }
+        } catch (RuntimeException e) {
+            run = CompletableFuture.failedFuture(e);
+        }
+        return run.whenComplete((r, e) -> partitionedRuns.decrementAndGet());
+    }
+
+    // Processes the ids of a claimed partition that follow its last committed chunk
+    private void processPartition(ProcessingJob job, ProcessingPartition partition, Consumer<List<Item>> sink) {
+        long after = partition.getLastId() != null ? partition.getLastId() : partition.getFromId() - 1;
+        ProcessingScan scan = ProcessingScan.range(itemRepository, processingProperties.getChunkSize(), after, partition.getToId());
+        ProcessingScan.Chunk chunk;
+        while (!job.isCancelRequested() && (chunk = scan.next()) != null) {
+            List<Long> ids = chunk.ids();
+            long start = System.nanoTime();
+            List<Long> missing = new ArrayList<>();
+            List<Item> items;
+            try {
+                items = processChunk(job, ids, missing);
+            } catch (RuntimeException e) {
+                // Keeps the lease: the partition is retried from this chunk once the lease expires
+                log.warn("Error processing chunk starting at ID {} of partition {}: {}", ids.get(0), partition.getId(), e.getMessage());
+                job.recordFailed(ids, e);
+                metrics.recordFailed(ids.size());
+                return;
+            }
+            itemCache.evictAll(items);
+            publishProcessed(items);
+            job.recordProcessed(items.size());
+            job.recordMissing(missing);
+            metrics.recordChunk(start, items.size(), missing.size());
+            sink.accept(items);
+            long deadLettered = ids.size() - items.size() - missing.size();
+            if (!partitions.recordProgress(partition, ids.get(ids.size() - 1), items.size(), missing.size(), deadLettered)) {
+                log.warn("Lost the lease on partition {} to another instance", partition.getId());
+                return;
+            }
+        }
+        if (job.isCancelRequested()) {
+            partitions.release(partition);
+        } else {
+            partitions.complete(partition);
+        }
+    }
+
+    // Pipeline engine, see ItemProcessingPipeline
+    private CompletableFuture<Void> runPipeline(ProcessingJob job, ProcessingScan scan, Consumer<List<Item>> sink) {
+        return pipeline.run(job, scan, items -> {
+            publishProcessed(items);
+            sink.accept(items);
+        }).thenRun(() -> finishScan(job, scan));
+    }
+
+    /**
+     * Set-based engine: one UPDATE per chunk, each in its own transaction, no entities loaded.
+     * Transient errors are retried; there are no per-item outcomes, since no item is loaded.
+     * With an incremental `scan` every chunk is an UPDATE ... WHERE id IN over the changed ids;
+     * without one, an UPDATE ... WHERE id BETWEEN per range of chunkSize ids of the whole table.
+     * In an incremental run, as in the chunked engine, a chunk that still fails after its retries is
+     * recorded on the job and the other chunks carry on; the checkpoint stays before the failed chunk.
+     * A range of the full pass that keeps failing fails the run instead: its ids are not known.
+     * Completes with the number of rows updated.
+     */
+    private CompletableFuture<Integer> runSetBased(ProcessingJob job, ProcessingScan scan) {
+        if (scan == null) {
+            return runSetBasedRanges(job);
+        }
+        Semaphore permits = new Semaphore(processingExecutor.parallelism());
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        ProcessingScan.Chunk next;
+        while (!job.isCancelRequested() && (next = scan.next()) != null) {
+            ProcessingScan.Chunk chunk = next;
+            permits.acquireUninterruptibly();
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                        long start = System.nanoTime();
+                        int updated = recovery.retry(job, () -> chunkProcessor.markProcessed(chunk.ids()));
+                        chunk.ids().forEach(itemCache::evict);
+                        changeFeed.processed(chunk.ids());
+                        scan.committed(chunk);
+                        job.recordProcessed(updated);
+                        metrics.recordChunk(start, updated, 0);
+                        return updated;
+                    }, processingExecutor.executorService())
+                    .exceptionally(e -> {
+                        log.warn("Error marking chunk starting at ID {} as processed: {}", chunk.ids().get(0), e.getMessage());
+                        job.recordFailed(chunk.ids(), e);
+                        metrics.recordFailed(chunk.ids().size());
+                        return 0;
+                    })
+                    .whenComplete((r, e) -> permits.release()));
+        }
+
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .thenApply(v -> {
+                    finishScan(job, scan);
+                    return futures.stream().mapToInt(CompletableFuture::join).sum();
+                });
+    }
+
+    private CompletableFuture<Integer> runSetBasedRanges(ProcessingJob job) {
+        Long minId = itemRepository.findMinId();
+        Long maxId = itemRepository.findMaxId();
+        if (minId == null || maxId == null) {
+            return CompletableFuture.completedFuture(0);
+        }
+
+        long chunkSize = processingProperties.getChunkSize();
+        Semaphore permits = new Semaphore(processingExecutor.parallelism());
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (long from = minId; from <= maxId && !job.isCancelRequested(); from += chunkSize) {
+            long fromId = from;
+            long toId = Math.min(from + chunkSize - 1, maxId);
+            permits.acquireUninterruptibly();
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                        long start = System.nanoTime();
+                        int updated = recovery.retry(job, () -> chunkProcessor.markProcessed(fromId, toId));
+                        if (updated > 0) {
+                            itemCache.evictRange(fromId, toId);
+                            changeFeed.processedRange(fromId, toId);
+                        }
+                        job.recordProcessed(updated);
+                        metrics.recordChunk(start, updated, 0);
+                        return updated;
+                    }, processingExecutor.executorService())
+                    .whenComplete((r, e) -> permits.release()));
+        }
+
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .thenApply(v -> futures.stream().mapToInt(CompletableFuture::join).sum());
+    }
+
+    /**
+     * Publishes committed items of a processing run to the change feed. Processors other than
+     * MarkProcessedItemProcessor may change the indexed text, so their items are also re-indexed
+     * (processing does not touch modifiedAt, so the search catch-up would not see them).
+     */
+    private void publishProcessed(List<Item> items) {
+        changeFeed.processed(ids(items));
+        if (!processors.onlyMarksProcessed()) {
+            searchIndex.indexAll(items);
+        }
+    }
+
+    private static List<Long> ids(List<Item> items) {
+        return items.stream().map(Item::getId).toList();
+    }
+
+    // A cancelled run keeps the checkpoint at its last committed chunk instead of jumping to the end of the scan
+    private static void finishScan(ProcessingJob job, ProcessingScan scan) {
+        if (!job.isCancelRequested()) {
+            scan.finish();
+        }
+    }
+
+    // Original engine: one findById + save per id, each on its own future
+    private CompletableFuture<List<Item>> processPerItem() {
         // Step 1: Get all item IDs from the database
         List<Long> itemIds = itemRepository.findAllIds();
 
@@ -70,19 +960,25 @@ public class ItemService {
                     if (optionalItem.isPresent()) {
                         // If item exists, update status and save it
                         Item item = optionalItem.get();
-                        item.setStatus("PROCESSED");
-                        return itemRepository.save(item);
+                        processors.apply(List.of(item), null);
+                        Item saved = itemRepository.save(item);
+                        itemCache.evict(saved.getId());
+                        publishProcessed(List.of(saved));
+                        metrics.recordProcessed(1);
+                        return saved;
                     } else {
                         // Item not found — log warning (no exception thrown)
-                        System.err.println("Item with ID " + id + " not found.");
+                        log.warn("Item with ID {} not found.", id);
+                        metrics.recordMissing(1);
                     }
                 } catch (Exception e) {
                     // Catch and log any unexpected exception
-                    System.err.println("Error processing item with ID " + id + ": " + e.getMessage());
+                    log.warn("Error processing item with ID {}: {}", id, e.getMessage());
+                    metrics.recordFailed(1);
                 }
                 // Return null if processing failed
                 return null;
-            }, executor);
+            }, processingExecutor.executorService());
 
             futures.add(future);
         }
@@ -100,7 +996,7 @@ public class ItemService {
                             }
                         } catch (Exception e) {
                             // Log failure to retrieve result
-                            System.err.println("Failed to get result: " + e.getMessage());
+                            log.warn("Failed to get result: {}", e.getMessage());
                         }
                     }
                     // Return list of all successfully processed items
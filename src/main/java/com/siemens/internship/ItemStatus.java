@@ -0,0 +1,14 @@
+package com.siemens.internship;
+
+/**
+ * Lifecycle status of an item.
+
+ * Stored by ordinal in a one-byte column (see Item.status), so new constants must only
+ * ever be appended at the end: reordering would silently change the meaning of stored rows.
+ * JSON keeps using the constant names.
+ */
+public enum ItemStatus {
+    NEW,
+    PROCESSED,
+    DONE
+}
@@ -0,0 +1,34 @@
+package com.siemens.internship;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+
+/**
+ * Snapshots of the file-backed H2 database and restoring from them (prefix {@code items.storage}),
+ * see StorageSnapshots and StorageRestore. The database itself is configured by
+ * spring.datasource.url, see application-file.properties.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "items.storage")
+public class ItemStorageProperties {
+
+    // Spring cron expression of the online snapshots, e.g. "0 0 * * * *"; "-" disables them (it is also read by @Scheduled)
+    private String snapshotCron = "-";
+
+    // Directory of the snapshots, named <database>-<UTC time>.zip
+    private Path snapshotDirectory = Path.of("./data/snapshots");
+
+    // Snapshots kept in snapshotDirectory; older ones are deleted after every new snapshot
+    private int snapshotRetain = 7;
+
+    /**
+     * When the database file does not exist at startup, it is restored from the newest snapshot
+     * in snapshotDirectory before the first connection opens: a copy of the store file, indexes
+     * included, instead of a reload row by row.
+     */
+    private boolean restoreOnStartup = false;
+}
@@ -0,0 +1,17 @@
+package com.siemens.internship;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the startup configuration checks (prefix {@code items.validation}), see StartupValidation.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "items.validation")
+public class ItemValidationProperties {
+
+    // When true a misconfiguration fails the startup; otherwise it is logged as a warning
+    private boolean strict = false;
+}
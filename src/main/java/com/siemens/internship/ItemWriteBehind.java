@@ -0,0 +1,334 @@
+package com.siemens.internship;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Opt-in write-behind buffer for item updates (items.write-behind.enabled), used by ItemService.update.
+
+ * - An unconditional update is acknowledged once it is buffered. The buffer is keyed by item id,
+ *   so a burst of updates of the same hot item costs a single row write: the last one wins
+ * - A flush writes the buffered items with one JDBC batch per items.write-behind.batch-size items
+ *   (ItemBatchWriter.updateFields). It runs every flush-interval, as soon as batch-size items are
+ *   buffered, and at shutdown
+ * - ItemService.findById returns the buffered state of an item. Other reads (pages, counts,
+ *   streams) and processing runs see an update once it has been flushed
+ * - With items.write-behind.journal every write is appended to a local log before it is buffered.
+ *   The log is compacted to the still buffered writes after each flush and replayed at startup,
+ *   so acknowledged writes survive a crash of the process
+
+ * A flush that fails with a transient error keeps its items for the next one. After any other
+ * failure the items are written one by one, and the ones that still fail are dropped with an error log.
+
+ * A flush stamps the rows it writes with its own start time, not the time of the update: the incremental
+ * processing scan and the search catch-up only look back items.processing.checkpoint-overlap and
+ * items.search.catch-up-overlap (5 s) from their checkpoints, so a row written with an update time older than
+ * that (a flush held back by retries, or replayed from the journal) would never be seen by them.
+ * Until the flush, find returns the update time.
+ */
+@Component
+public class ItemWriteBehind {
+    private static final Logger log = LoggerFactory.getLogger(ItemWriteBehind.class);
+
+    private final ItemWriteBehindProperties properties;
+    private final ItemBatchWriter batchWriter;
+    private final ItemCache itemCache;
+    private final ObjectMapper objectMapper;
+
+    private final ConcurrentHashMap<Long, Item> buffer = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final AtomicLong flushed = new AtomicLong();
+    // Held while a write is logged and buffered and while the journal is compacted, so a compaction never loses a write
+    private final Object journalLock = new Object();
+    private volatile FileChannel journal;
+    private ScheduledExecutorService flusher;
+
+    public ItemWriteBehind(ItemWriteBehindProperties properties, ItemBatchWriter batchWriter,
+                           ItemCache itemCache, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.batchWriter = batchWriter;
+        this.itemCache = itemCache;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Path path = properties.getJournal();
+        if (path != null) {
+            replay(path);
+            journal = openJournal(path);
+            // Writes acknowledged before a crash go out before any new one
+            flush();
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "item-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(1, properties.getFlushInterval().toMillis());
+        flusher.scheduleWithFixedDelay(this::backgroundFlush, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() throws IOException {
+        if (flusher == null) {
+            return;
+        }
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(properties.getFlushInterval().toMillis() + 10_000, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("{} buffered item writes could not be flushed at shutdown, {}", buffer.size(),
+                    journal != null ? "they stay in the journal" : "they are lost", e);
+        }
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Buffers the new state of an existing item (id and modifiedAt set), replacing any buffered
+     * write of the same item. Returns once the write is buffered and, with a journal, logged.
+     */
+    public void write(Item item) {
+        if (buffer.size() >= properties.getCapacity()) {
+            flush();
+        }
+        Item copy = ItemCache.copy(item);
+        copy.setVersion(null);
+        if (journal != null) {
+            synchronized (journalLock) {
+                append(journal, copy);
+                if (properties.isJournalSync()) {
+                    force(journal);
+                }
+                buffer.put(copy.getId(), copy);
+            }
+        } else {
+            buffer.put(copy.getId(), copy);
+        }
+        if (buffer.size() >= properties.getBatchSize() && flushRequested.compareAndSet(false, true)) {
+            flusher.execute(this::backgroundFlush);
+        }
+    }
+
+    // Buffered state of the item (without a version, which is only known once written), if any
+    public Optional<Item> find(Long id) {
+        return Optional.ofNullable(buffer.get(id)).map(ItemCache::copy);
+    }
+
+    // Drops the buffered write of an item that is being deleted
+    public void discard(Long id) {
+        buffer.remove(id);
+    }
+
+    public int pending() {
+        return buffer.size();
+    }
+
+    public long flushedCount() {
+        return flushed.get();
+    }
+
+    /**
+     * Writes every item buffered when the flush starts, then compacts the journal.
+     * Throws if a batch fails with a transient error; its items and the later ones stay buffered.
+     */
+    public synchronized void flush() {
+        List<Item> items = new ArrayList<>(buffer.values());
+        int size = Math.max(1, properties.getBatchSize());
+        try {
+            for (int from = 0; from < items.size(); from += size) {
+                writeBatch(items.subList(from, Math.min(from + size, items.size())));
+            }
+        } finally {
+            compactJournal();
+        }
+    }
+
+    // Writes the buffered state of the given items only, before statements that must not overtake it
+    public synchronized void flush(Collection<Long> ids) {
+        List<Item> items = new ArrayList<>();
+        for (Long id : ids) {
+            Item item = buffer.get(id);
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        if (!items.isEmpty()) {
+            writeBatch(items);
+        }
+    }
+
+    private void backgroundFlush() {
+        flushRequested.set(false);
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Write-behind flush of {} items failed, retrying later: {}", buffer.size(), e.getMessage());
+        }
+    }
+
+    private void writeBatch(List<Item> items) {
+        Instant modifiedAt = Item.now();
+        try {
+            batchWriter.updateFields(items, modifiedAt);
+        } catch (RuntimeException e) {
+            if (ProcessingRecovery.isTransient(e)) {
+                throw e;
+            }
+            for (Item item : items) {
+                try {
+                    batchWriter.updateFields(List.of(item), modifiedAt);
+                } catch (RuntimeException itemFailure) {
+                    if (ProcessingRecovery.isTransient(itemFailure)) {
+                        throw itemFailure;
+                    }
+                    log.error("Dropping buffered write of item {}: {}", item.getId(), itemFailure.getMessage());
+                    buffer.remove(item.getId(), item);
+                    continue;
+                }
+                written(item);
+            }
+            return;
+        }
+        items.forEach(this::written);
+    }
+
+    /**
+     * The cached copy is evicted before the buffered state goes away, so readers never fall back
+     * to it. remove(id, item) keeps a newer write of the same item that came in during the flush.
+     */
+    private void written(Item item) {
+        itemCache.evict(item.getId());
+        buffer.remove(item.getId(), item);
+        flushed.incrementAndGet();
+    }
+
+    // Fills the buffer from the journal; the last entry of an item wins, a torn last line is ignored
+    private void replay(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(path)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    Item item = objectMapper.readValue(line, Item.class);
+                    buffer.put(item.getId(), item);
+                } catch (JsonProcessingException e) {
+                    log.warn("Ignoring unreadable write-behind journal entry: {}", e.getOriginalMessage());
+                }
+            }
+        }
+        if (!buffer.isEmpty()) {
+            log.info("Replaying {} buffered item writes from {}", buffer.size(), path);
+        }
+    }
+
+    // Rewrites the journal with the writes that are still buffered (usually none: then it is just truncated)
+    private void compactJournal() {
+        if (journal == null) {
+            return;
+        }
+        synchronized (journalLock) {
+            try {
+                if (buffer.isEmpty()) {
+                    if (journal.size() > 0) {
+                        journal.truncate(0);
+                        journal.force(false);
+                    }
+                    return;
+                }
+                Path path = properties.getJournal();
+                Path compacted = path.resolveSibling(path.getFileName() + ".tmp");
+                try (FileChannel out = FileChannel.open(compacted, CREATE, WRITE, TRUNCATE_EXISTING)) {
+                    for (Item item : buffer.values()) {
+                        append(out, item);
+                    }
+                    out.force(false);
+                }
+                Files.move(compacted, path, REPLACE_EXISTING, ATOMIC_MOVE);
+                journal.close();
+                journal = openJournal(path);
+            } catch (IOException e) {
+                // The old journal is still complete, only longer than needed
+                log.warn("Could not compact the write-behind journal: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void append(FileChannel channel, Item item) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(item);
+            ByteBuffer line = ByteBuffer.allocate(json.length + 1).put(json).put((byte) '\n').flip();
+            while (line.hasRemaining()) {
+                channel.write(line);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void force(FileChannel channel) {
+        try {
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static FileChannel openJournal(Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        return FileChannel.open(path, CREATE, WRITE, APPEND);
+    }
+}
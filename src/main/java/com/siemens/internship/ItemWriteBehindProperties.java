@@ -0,0 +1,35 @@
+package com.siemens.internship;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Settings for write-behind buffering of item updates (prefix {@code items.write-behind}), see ItemWriteBehind.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "items.write-behind")
+public class ItemWriteBehindProperties {
+
+    // When false every PUT /api/items/{id} is written to the database before it is acknowledged
+    private boolean enabled = false;
+
+    // Buffered items that trigger a flush, and items written per JDBC batch
+    private int batchSize = 500;
+
+    // Longest time a buffered write waits for a flush
+    private Duration flushInterval = Duration.ofMillis(100);
+
+    // Buffered items beyond which writers flush themselves before buffering more (back-pressure)
+    private int capacity = 10_000;
+
+    // Append-only log of buffered writes, replayed at startup; none when empty (buffered writes are lost on a crash)
+    private Path journal;
+
+    // Forces every journal append to disk before the write is acknowledged (survives an OS crash, not only a JVM crash)
+    private boolean journalSync = true;
+}
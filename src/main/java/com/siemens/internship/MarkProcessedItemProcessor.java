@@ -0,0 +1,24 @@
+package com.siemens.internship;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * The original transformation of processItemsAsync: sets the status to PROCESSED.
+ * Runs last, so other processors still see the status the item had before the run.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class MarkProcessedItemProcessor implements ItemProcessor {
+
+    @Override
+    public String name() {
+        return "mark-processed";
+    }
+
+    @Override
+    public void process(Item item) {
+        item.setStatus(ItemStatus.PROCESSED);
+    }
+}
@@ -0,0 +1,29 @@
+package com.siemens.internship;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * High-water mark of incremental processing: every unprocessed item at or before
+ * (modifiedAt, lastId) has been handled by a committed chunk.
+ */
+@Entity
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProcessingCheckpoint {
+
+    @Id
+    private String name;
+
+    private Instant modifiedAt;
+
+    private Long lastId;
+}
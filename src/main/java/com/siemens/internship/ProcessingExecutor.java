@@ -0,0 +1,121 @@
+package com.siemens.internship;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Managed executor for the item processing engines, configured by items.processing.executor.*.
+
+ * Replaces the static Executors.newFixedThreadPool(10) that ItemService used to create:
+ * that pool was never shut down and was sized independently of the database.
+ * Every processing task holds a JDBC connection while it runs, so the thread count and
+ * the engines' in-flight limit are capped by the DataSource pool size. More threads would
+ * only wait for connections.
+
+ * Deliberately not an Executor bean itself: exposing one would replace Spring Boot's
+ * applicationTaskExecutor, which @Async and the MVC async support rely on.
+ */
+@Component
+public class ProcessingExecutor implements DisposableBean {
+
+    // Used when the pool size cannot be read from the DataSource (matches HikariCP's default)
+    static final int DEFAULT_CONNECTION_POOL_SIZE = 10;
+
+    private final ItemProcessingProperties processingProperties;
+    private final int connectionPoolSize;
+    private final ExecutorService executorService;
+
+    @Autowired
+    public ProcessingExecutor(ItemProcessingProperties processingProperties, DataSource dataSource) {
+        this(processingProperties, dataSource instanceof HikariDataSource hikari
+                ? hikari.getMaximumPoolSize()
+                : DEFAULT_CONNECTION_POOL_SIZE);
+    }
+
+    ProcessingExecutor(ItemProcessingProperties processingProperties, int connectionPoolSize) {
+        this.processingProperties = processingProperties;
+        this.connectionPoolSize = connectionPoolSize;
+        this.executorService = create(processingProperties.getExecutor());
+    }
+
+    public ExecutorService executorService() {
+        return executorService;
+    }
+
+    // Number of platform / fork-join worker threads: the configured count, capped by the connection pool
+    public int threads() {
+        int configured = processingProperties.getExecutor().getThreads();
+        return configured > 0 ? Math.min(configured, connectionPoolSize) : connectionPoolSize;
+    }
+
+    // Maximum number of chunks / ranges an engine keeps in flight
+    public int parallelism() {
+        return Math.max(1, Math.min(processingProperties.getParallelism(), connectionPoolSize));
+    }
+
+    // Tasks waiting to start (always 0 for virtual threads, which start immediately)
+    public int queueDepth() {
+        if (executorService instanceof ThreadPoolExecutor pool) {
+            return pool.getQueue().size();
+        }
+        if (executorService instanceof ForkJoinPool pool) {
+            return (int) Math.min(Integer.MAX_VALUE, pool.getQueuedSubmissionCount() + pool.getQueuedTaskCount());
+        }
+        return 0;
+    }
+
+    private ExecutorService create(ItemProcessingProperties.Executor settings) {
+        return switch (settings.getMode()) {
+            case PLATFORM -> new ThreadPoolExecutor(threads(), threads(), 60, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(settings.getQueueCapacity()),
+                    namedThreads("item-processing-"),
+                    new ThreadPoolExecutor.CallerRunsPolicy());
+            case FORK_JOIN -> new ForkJoinPool(threads());
+            case VIRTUAL -> newVirtualThreadPerTaskExecutor();
+        };
+    }
+
+    // Looked up reflectively so the project still compiles for Java 17
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("items.processing.executor.mode=virtual requires Java 21 or newer, running on "
+                    + Runtime.version(), e);
+        }
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Stops accepting tasks and waits up to shutdownTimeout for running ones,
+     * then interrupts whatever is left so the context can close.
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        executorService.shutdown();
+        long timeoutMillis = processingProperties.getExecutor().getShutdownTimeout().toMillis();
+        if (!executorService.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS)) {
+            executorService.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.siemens.internship;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Per-item outcomes of a processing run other than "processed": the ids that no longer
+ * existed and the ids that failed, grouped by cause.
+
+ * Processed items are only counted (by ProcessingJob), so a run without failures never
+ * touches this class. The report stays small whatever goes wrong: every cause keeps its
+ * exact count but at most `maxIds` sample ids, and after MAX_CAUSES distinct causes the
+ * rest are grouped under OTHER.
+ */
+class ProcessingFailures {
+    static final int MAX_CAUSES = 20;
+    static final String OTHER = "other";
+
+    private final int maxIds;
+    private final List<Long> missingIds = new ArrayList<>();
+    private final Map<String, Group> causes = new LinkedHashMap<>();
+
+    ProcessingFailures(int maxIds) {
+        this.maxIds = Math.max(0, maxIds);
+    }
+
+    synchronized void missing(Collection<Long> ids) {
+        addSample(missingIds, ids);
+    }
+
+    synchronized void failed(Collection<Long> ids, Throwable cause) {
+        String key = describe(cause);
+        if (!causes.containsKey(key) && causes.size() >= MAX_CAUSES) {
+            key = OTHER;
+        }
+        Group group = causes.computeIfAbsent(key, k -> new Group());
+        group.count += ids.size();
+        addSample(group.ids, ids);
+    }
+
+    synchronized List<Long> missingIds() {
+        return List.copyOf(missingIds);
+    }
+
+    synchronized List<ProcessingJob.Failure> failures() {
+        List<ProcessingJob.Failure> failures = new ArrayList<>(causes.size());
+        causes.forEach((cause, group) -> failures.add(new ProcessingJob.Failure(cause, group.count, List.copyOf(group.ids))));
+        return failures;
+    }
+
+    // "ExceptionType: message" of the root failure, without the CompletableFuture wrapper
+    static String describe(Throwable cause) {
+        if (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage() != null
+                ? cause.getClass().getSimpleName() + ": " + cause.getMessage()
+                : cause.getClass().getSimpleName();
+    }
+
+    private void addSample(List<Long> sample, Collection<Long> ids) {
+        for (Long id : ids) {
+            if (sample.size() >= maxIds) {
+                return;
+            }
+            sample.add(id);
+        }
+    }
+
+    private static class Group {
+        long count;
+        final List<Long> ids = new ArrayList<>();
+    }
+}
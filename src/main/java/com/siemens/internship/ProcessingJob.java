@@ -0,0 +1,189 @@
+package com.siemens.internship;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress and lifecycle of one background processing run started through
+ * POST /api/items/process.
+
+ * Counters are updated by the worker threads once per chunk, and read by request
+ * threads polling GET /api/items/process/{jobId}, so they are plain atomics.
+ * Cancellation is cooperative: the run checks isCancelRequested() between chunks.
+
+ * Missing and failed items are also recorded by id in a bounded ProcessingFailures
+ * report (failures grouped by cause), which the snapshot returns as the run summary.
+ */
+public class ProcessingJob {
+
+    public enum State {
+        RUNNING,
+        COMPLETED,
+        CANCELLED,
+        FAILED
+    }
+
+    static final int DEFAULT_REPORTED_IDS = 100;
+
+    private final String id = UUID.randomUUID().toString();
+    private final ItemProcessingProperties.ProcessingMode mode;
+    private final Instant startedAt = Instant.now();
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong missing = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong deadLettered = new AtomicLong();
+    private final ProcessingFailures failures;
+    // Nanoseconds spent per ItemProcessor, see ItemProcessors
+    private final Map<String, AtomicLong> processorNanos = new ConcurrentHashMap<>();
+
+    private volatile long total;
+    private volatile boolean cancelRequested;
+    private volatile State state = State.RUNNING;
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    public ProcessingJob(ItemProcessingProperties.ProcessingMode mode) {
+        this(mode, DEFAULT_REPORTED_IDS);
+    }
+
+    // `maxReportedIds`: sample ids kept per cause (and for missing items) in the run summary
+    public ProcessingJob(ItemProcessingProperties.ProcessingMode mode, int maxReportedIds) {
+        this.mode = mode;
+        this.failures = new ProcessingFailures(maxReportedIds);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    // Number of items in the table when the run started, used for remaining/ETA
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public boolean isFinished() {
+        return state != State.RUNNING;
+    }
+
+    public boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    // Asks the run to stop after the chunks that are already in flight
+    public void cancel() {
+        cancelRequested = true;
+    }
+
+    public void recordProcessed(long count) {
+        processed.addAndGet(count);
+    }
+
+    // Ids that no longer exist; free when `ids` is empty, which is the common case
+    public void recordMissing(Collection<Long> ids) {
+        if (!ids.isEmpty()) {
+            missing.addAndGet(ids.size());
+            failures.missing(ids);
+        }
+    }
+
+    public void recordFailed(Collection<Long> ids, Throwable cause) {
+        failed.addAndGet(ids.size());
+        failures.failed(ids, cause);
+    }
+
+    // One more attempt after a transient error (see ProcessingRecovery)
+    public void recordRetry() {
+        retried.incrementAndGet();
+    }
+
+    // Failed items that were written to the dead-letter table; they are also counted as failed
+    public void recordDeadLettered(long count) {
+        deadLettered.addAndGet(count);
+    }
+
+    public void recordProcessorTime(String processor, long nanos) {
+        processorNanos.computeIfAbsent(processor, name -> new AtomicLong()).addAndGet(nanos);
+    }
+
+    public void complete() {
+        finish(cancelRequested ? State.CANCELLED : State.COMPLETED);
+    }
+
+    public void fail(Throwable cause) {
+        error = cause.getMessage();
+        finish(State.FAILED);
+    }
+
+    private void finish(State finalState) {
+        finishedAt = Instant.now();
+        state = finalState;
+    }
+
+    /**
+     * Consistent-enough view of the job for the status endpoint.
+     * Throughput is measured over the whole run so far; the ETA is only given
+     * while the job is running and has made progress.
+     */
+    public Snapshot snapshot() {
+        long done = processed.get();
+        long notFound = missing.get();
+        long errors = failed.get();
+        long remaining = Math.max(0, total - done - notFound - errors);
+
+        Instant end = finishedAt != null ? finishedAt : Instant.now();
+        double seconds = Math.max(Duration.between(startedAt, end).toMillis(), 1) / 1000.0;
+        double throughput = (done + notFound + errors) / seconds;
+        Long eta = state == State.RUNNING && throughput > 0 ? (long) Math.ceil(remaining / throughput) : null;
+
+        return new Snapshot(id, state, mode, total, done, notFound, errors, remaining,
+                retried.get(), deadLettered.get(), throughput, eta, startedAt, finishedAt, error,
+                failures.missingIds(), failures.failures(), processorSeconds());
+    }
+
+    // Seconds spent per processor, the most expensive first
+    private Map<String, Double> processorSeconds() {
+        Map<String, Double> seconds = new LinkedHashMap<>();
+        processorNanos.entrySet().stream()
+                .sorted(Map.Entry.comparingByValue((a, b) -> Long.compare(b.get(), a.get())))
+                .forEach(entry -> seconds.put(entry.getKey(), entry.getValue().get() / 1e9));
+        return seconds;
+    }
+
+    public record Snapshot(String id,
+                           State state,
+                           ItemProcessingProperties.ProcessingMode mode,
+                           long total,
+                           long processed,
+                           long missing,
+                           long failed,
+                           long remaining,
+                           long retried,
+                           long deadLettered,
+                           double throughputPerSecond,
+                           Long etaSeconds,
+                           Instant startedAt,
+                           Instant finishedAt,
+                           String error,
+                           List<Long> missingIds,
+                           List<Failure> failures,
+                           Map<String, Double> processorSeconds) {
+    }
+
+    /**
+     * Items that failed for the same cause: the exact count and up to maxReportedIds of their ids.
+     */
+    public record Failure(String cause, long count, List<Long> itemIds) {
+    }
+}
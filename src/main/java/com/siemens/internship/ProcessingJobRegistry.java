@@ -0,0 +1,58 @@
+package com.siemens.internship;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * In-memory registry of processing jobs, bounded by items.processing.max-retained-jobs.
+
+ * Jobs are kept in start order; when the limit is reached the oldest finished jobs
+ * are evicted first. If every retained job is still running, new jobs are rejected
+ * instead of growing the registry.
+ * At most items.processing.max-running-jobs jobs run at once (one by default): two runs would
+ * only compete for the same connections and rows.
+ */
+@Component
+public class ProcessingJobRegistry {
+
+    @Autowired
+    private ItemProcessingProperties processingProperties;
+
+    private final Map<String, ProcessingJob> jobs = new LinkedHashMap<>();
+
+    /**
+     * Adds a job, evicting old finished jobs if needed.
+     * Throws IllegalStateException if max-running-jobs jobs are running or the registry is full of running jobs.
+     */
+    public synchronized ProcessingJob register(ProcessingJob job) {
+        int maxRunning = Math.max(1, processingProperties.getMaxRunningJobs());
+        if (jobs.values().stream().filter(running -> !running.isFinished()).count() >= maxRunning) {
+            throw new IllegalStateException("A processing job is already running");
+        }
+        int limit = Math.max(1, processingProperties.getMaxRetainedJobs());
+        Iterator<ProcessingJob> oldest = jobs.values().iterator();
+        while (jobs.size() >= limit && oldest.hasNext()) {
+            if (oldest.next().isFinished()) {
+                oldest.remove();
+            }
+        }
+        if (jobs.size() >= limit) {
+            throw new IllegalStateException("Too many processing jobs are running");
+        }
+        jobs.put(job.getId(), job);
+        return job;
+    }
+
+    public synchronized Optional<ProcessingJob> find(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    public synchronized int size() {
+        return jobs.size();
+    }
+}
@@ -0,0 +1,58 @@
+package com.siemens.internship;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * An id range [fromId, toId] of a ProcessingRun, processed by whichever instance holds its lease.
+
+ * `lastId` is the last id of the last committed chunk: an instance that takes over an
+ * expired lease resumes right after it. The counters add up what every owner processed.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_partition_claim", columnList = "done, lease_until"))
+@Getter
+@Setter
+@NoArgsConstructor
+public class ProcessingPartition {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String runId;
+
+    private long fromId;
+
+    private long toId;
+
+    private Long lastId;
+
+    // Instance holding (or last holding) the lease
+    private String owner;
+
+    private Instant leaseUntil;
+
+    private boolean done;
+
+    private long processed;
+
+    private long missing;
+
+    private long failed;
+
+    public ProcessingPartition(String runId, long fromId, long toId) {
+        this.runId = runId;
+        this.fromId = fromId;
+        this.toId = toId;
+    }
+}
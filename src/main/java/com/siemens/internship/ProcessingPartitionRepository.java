@@ -0,0 +1,58 @@
+package com.siemens.internship;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+public interface ProcessingPartitionRepository extends JpaRepository<ProcessingPartition, Long> {
+
+    /**
+     * Locks the first partition that is not done and has no owner or an expired lease.
+     * Partitions locked by another instance's claim are skipped instead of waited for.
+     * Native SQL because Hibernate's H2Dialect renders the JPA SKIP_LOCKED hint as a plain FOR UPDATE.
+     */
+    @Query(value = "SELECT * FROM processing_partition WHERE done = FALSE AND (owner IS NULL OR lease_until < :now) "
+            + "ORDER BY id FETCH FIRST 1 ROWS ONLY FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    Optional<ProcessingPartition> lockClaimable(@Param("now") Instant now);
+
+    @Query("SELECT COUNT(p) > 0 FROM ProcessingPartition p WHERE p.done = false AND (p.owner IS NULL OR p.leaseUntil < :now)")
+    boolean existsClaimable(@Param("now") Instant now);
+
+    /**
+     * Records the progress of a chunk and extends the lease, only while `owner` still holds the
+     * partition. Returns 0 when another instance has taken it over.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE ProcessingPartition p SET p.lastId = :lastId, p.leaseUntil = :leaseUntil, "
+            + "p.processed = p.processed + :processed, p.missing = p.missing + :missing, p.failed = p.failed + :failed "
+            + "WHERE p.id = :id AND p.owner = :owner AND p.done = false")
+    int recordProgress(@Param("id") Long id,
+                       @Param("owner") String owner,
+                       @Param("lastId") Long lastId,
+                       @Param("leaseUntil") Instant leaseUntil,
+                       @Param("processed") long processed,
+                       @Param("missing") long missing,
+                       @Param("failed") long failed);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ProcessingPartition p SET p.done = true, p.leaseUntil = NULL WHERE p.id = :id AND p.owner = :owner AND p.done = false")
+    int complete(@Param("id") Long id, @Param("owner") String owner);
+
+    // Gives the partition back before its lease expires, e.g. when the job is cancelled
+    @Transactional
+    @Modifying
+    @Query("UPDATE ProcessingPartition p SET p.owner = NULL, p.leaseUntil = NULL WHERE p.id = :id AND p.owner = :owner AND p.done = false")
+    int release(@Param("id") Long id, @Param("owner") String owner);
+
+    long countByRunIdAndDoneFalse(String runId);
+
+    List<ProcessingPartition> findByRunIdOrderByFromId(String runId);
+}
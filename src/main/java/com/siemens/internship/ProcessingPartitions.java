@@ -0,0 +1,125 @@
+package com.siemens.internship;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Database-backed coordination of PARTITIONED processing runs across application instances.
+
+ * - A run splits the id space into ranges of items.processing.partitioning.partition-size ids
+ *   (ProcessingPartition rows). Only one run is active at a time (see ProcessingRun.active)
+ * - An instance claims a partition with SELECT ... FOR UPDATE SKIP LOCKED, so concurrent
+ *   claimers never wait for each other nor get the same partition, and takes a lease on it
+ * - The owner renews the lease with every committed chunk. When an instance dies its lease
+ *   expires and another instance takes the partition over, resuming after its last chunk
+
+ * Items are processed at least once: a chunk committed just before its owner lost the lease
+ * is processed again by the next owner, which is harmless since processing is idempotent.
+ */
+@Component
+public class ProcessingPartitions {
+    private static final Logger log = LoggerFactory.getLogger(ProcessingPartitions.class);
+
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private ProcessingRunRepository runRepository;
+    @Autowired
+    private ProcessingPartitionRepository partitionRepository;
+    @Autowired
+    private ItemProcessingProperties processingProperties;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * Returns the active run, creating one over the current id space if there is none.
+     * Returns empty when there is nothing to process.
+     */
+    public Optional<ProcessingRun> openRun() {
+        Optional<ProcessingRun> active = runRepository.findByActive(ProcessingRun.ACTIVE);
+        if (active.isPresent()) {
+            return active;
+        }
+        try {
+            return Optional.ofNullable(transactionTemplate.execute(status -> createRun()));
+        } catch (DataIntegrityViolationException e) {
+            // Another instance created a run at the same time: join it
+            return runRepository.findByActive(ProcessingRun.ACTIVE);
+        }
+    }
+
+    private ProcessingRun createRun() {
+        Long minId = itemRepository.findMinId();
+        Long maxId = itemRepository.findMaxId();
+        if (minId == null || maxId == null) {
+            return null;
+        }
+        ProcessingRun run = runRepository.saveAndFlush(
+                new ProcessingRun(UUID.randomUUID().toString(), ProcessingRun.ACTIVE, Instant.now(), null));
+        long size = Math.max(1, processingProperties.getPartitioning().getPartitionSize());
+        List<ProcessingPartition> partitions = new ArrayList<>();
+        for (long from = minId; from <= maxId; from += size) {
+            partitions.add(new ProcessingPartition(run.getId(), from, Math.min(from + size - 1, maxId)));
+        }
+        partitionRepository.saveAll(partitions);
+        log.info("Started processing run {} with {} partitions", run.getId(), partitions.size());
+        return run;
+    }
+
+    // Claims a free or expired partition for this instance, if any
+    @Transactional
+    public Optional<ProcessingPartition> claim() {
+        Instant now = Instant.now();
+        return partitionRepository.lockClaimable(now).map(partition -> {
+            if (partition.getOwner() != null) {
+                log.info("Taking over partition {} of run {} from {}", partition.getId(), partition.getRunId(), partition.getOwner());
+            }
+            partition.setOwner(instanceId());
+            partition.setLeaseUntil(now.plus(processingProperties.getPartitioning().getLease()));
+            return partition;
+        });
+    }
+
+    // Cheap check used by the poller before it starts any work
+    public boolean hasClaimable() {
+        return partitionRepository.existsClaimable(Instant.now());
+    }
+
+    /**
+     * Records a committed chunk of `partition` and extends the lease.
+     * Returns false if the partition has been taken over: the caller must stop working on it.
+     */
+    public boolean recordProgress(ProcessingPartition partition, long lastId, long processed, long missing, long failed) {
+        Instant leaseUntil = Instant.now().plus(processingProperties.getPartitioning().getLease());
+        return partitionRepository.recordProgress(partition.getId(), instanceId(), lastId, leaseUntil,
+                processed, missing, failed) == 1;
+    }
+
+    // Marks the partition as done; the last partition of a run finishes the run
+    public void complete(ProcessingPartition partition) {
+        if (partitionRepository.complete(partition.getId(), instanceId()) == 1
+                && partitionRepository.countByRunIdAndDoneFalse(partition.getRunId()) == 0
+                && runRepository.finish(partition.getRunId(), Instant.now()) == 1) {
+            log.info("Finished processing run {}", partition.getRunId());
+        }
+    }
+
+    public void release(ProcessingPartition partition) {
+        partitionRepository.release(partition.getId(), instanceId());
+    }
+
+    public String instanceId() {
+        return processingProperties.getPartitioning().getInstanceId();
+    }
+}
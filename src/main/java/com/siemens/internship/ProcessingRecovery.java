@@ -0,0 +1,126 @@
+package com.siemens.internship;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.sql.SQLTransientException;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Failure handling shared by the processing engines.
+
+ * - retry() runs a chunk or item again after a transient database error (lock or query
+ *   timeout, optimistic lock conflict, no connection available, ...), with bounded
+ *   exponential backoff (items.processing.retry)
+ * - Any other error is treated as a property of the data. The engines then process the
+ *   chunk item by item, and deadLetter() records the items that still fail in the
+ *   DeadLetterItem table, where they can be listed and reprocessed (ItemService.reprocessDeadLetters)
+
+ * Nothing here runs on the happy path but the try block around the action.
+ */
+@Component
+public class ProcessingRecovery {
+    private static final Logger log = LoggerFactory.getLogger(ProcessingRecovery.class);
+
+    private final ItemProcessingProperties processingProperties;
+    private final DeadLetterItemRepository deadLetterRepository;
+    private final ItemMetrics metrics;
+
+    public ProcessingRecovery(ItemProcessingProperties processingProperties,
+                              DeadLetterItemRepository deadLetterRepository,
+                              ItemMetrics metrics) {
+        this.processingProperties = processingProperties;
+        this.deadLetterRepository = deadLetterRepository;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Runs `action`, retrying it while it fails with a transient error and attempts are left.
+     * The last error, or the first non-transient one, is rethrown.
+     */
+    public <T> T retry(ProcessingJob job, Supplier<T> action) {
+        ItemProcessingProperties.Retry settings = processingProperties.getRetry();
+        long backoff = settings.getInitialBackoff().toMillis();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (RuntimeException e) {
+                if (attempt >= settings.getMaxAttempts() || !isTransient(e)) {
+                    throw e;
+                }
+                job.recordRetry();
+                metrics.recordRetry();
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+                backoff = Math.min(backoff * 2, settings.getMaxBackoff().toMillis());
+            }
+        }
+    }
+
+    // True if the error (or one of its causes) is worth retrying as is
+    public static boolean isTransient(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof TransientDataAccessException
+                    || t instanceof RecoverableDataAccessException
+                    || t instanceof CannotCreateTransactionException
+                    || t instanceof SQLTransientException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Records items that cannot be processed: counted as failed in the job and upserted into the
+     * dead-letter table. Throws if the table cannot be written; the caller must then treat the
+     * items as not handled.
+     */
+    public void deadLetter(ProcessingJob job, List<Long> itemIds, Throwable cause) {
+        String description = ProcessingFailures.describe(cause);
+        log.warn("Dead-lettering items {}: {}", itemIds, description);
+        Instant now = Instant.now();
+        Map<Long, DeadLetterItem> existing = deadLetterRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(DeadLetterItem::getItemId, Function.identity()));
+        List<DeadLetterItem> letters = itemIds.stream().map(id -> {
+            DeadLetterItem letter = existing.getOrDefault(id, new DeadLetterItem(id, null, null, 0, now, null));
+            letter.setJobId(job.getId());
+            letter.setCause(description.length() > 1000 ? description.substring(0, 1000) : description);
+            letter.setFailures(letter.getFailures() + 1);
+            letter.setLastFailedAt(now);
+            return letter;
+        }).toList();
+        deadLetterRepository.saveAll(letters);
+        job.recordFailed(itemIds, cause);
+        job.recordDeadLettered(itemIds.size());
+        metrics.recordFailed(itemIds.size());
+        metrics.recordDeadLettered(itemIds.size());
+    }
+
+    // Keyset page of dead letters with an item id greater than `after`
+    public List<DeadLetterItem> findDeadLetters(Long after, int limit) {
+        return deadLetterRepository.findPageAfter(after, PageRequest.ofSize(limit));
+    }
+
+    public long countDeadLetters() {
+        return deadLetterRepository.count();
+    }
+
+    // The item has been processed (or no longer exists): it leaves the dead-letter table
+    public void resolved(Long itemId) {
+        deadLetterRepository.deleteById(itemId);
+    }
+}
@@ -0,0 +1,38 @@
+package com.siemens.internship;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * One PARTITIONED processing run, shared by every application instance (see ProcessingPartitions).
+ */
+@Entity
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProcessingRun {
+    static final int ACTIVE = 1;
+
+    @Id
+    private String id;
+
+    /**
+     * ACTIVE while the run has unfinished partitions, null once it is over. The unique
+     * constraint lets only one run be active: when two instances start a run at the same
+     * time, the second insert fails and that instance joins the first run.
+     */
+    @Column(unique = true)
+    private Integer active;
+
+    private Instant createdAt;
+
+    private Instant finishedAt;
+}
@@ -0,0 +1,21 @@
+package com.siemens.internship;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface ProcessingRunRepository extends JpaRepository<ProcessingRun, String> {
+
+    Optional<ProcessingRun> findByActive(Integer active);
+
+    // Marks the run as over; a no-op when another instance already did
+    @Transactional
+    @Modifying
+    @Query("UPDATE ProcessingRun r SET r.active = NULL, r.finishedAt = :now WHERE r.id = :id AND r.active IS NOT NULL")
+    int finish(@Param("id") String id, @Param("now") Instant now);
+}
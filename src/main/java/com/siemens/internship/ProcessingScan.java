@@ -0,0 +1,150 @@
+package com.siemens.internship;
+
+import org.springframework.data.domain.PageRequest;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Producer side of a processing run: hands out the ids to process, chunkSize at a time.
+
+ * A full scan pages the whole id space (the original behaviour), a range scan one
+ * partition of it (see ProcessingPartitions). An incremental scan
+ * only pages the items that are not PROCESSED and were modified between the persisted
+ * checkpoint and the start of the run, in (modifiedAt, id) order, so its cost follows
+ * the number of changed rows instead of the size of the table.
+
+ * Chunks commit out of order on the processing executor. The checkpoint is only moved
+ * over the gap-free prefix of committed chunks: a run that is interrupted (crash,
+ * cancellation, failed chunk) resumes from its last committed chunk and never skips
+ * one that did not commit. A chunk committing twice is harmless since its items are
+ * already PROCESSED and filtered out.
+
+ * Every incremental scan restarts `overlap` before the checkpoint. A row whose modifiedAt
+ * was taken just before the checkpoint but whose transaction committed after the
+ * previous run had read past it is still picked up.
+ */
+class ProcessingScan {
+    static final String CHECKPOINT = "item-processing";
+
+    private final ItemRepository itemRepository;
+    private final ProcessingCheckpointRepository checkpointRepository; // null for full scans
+    private final int chunkSize;
+    private final Instant since;
+    private final Instant until;
+    private final Long toId; // upper bound of range scans, null otherwise
+
+    // Producer position, only touched by the thread calling next()
+    private Instant afterModifiedAt;
+    private Long afterId;
+
+    // Last key of every chunk handed out, by chunk number, and which of them committed
+    private final List<ItemChangeKey> lastKeys = new ArrayList<>();
+    private final BitSet committed = new BitSet();
+    private int committedPrefix;
+
+    private ProcessingScan(ItemRepository itemRepository, ProcessingCheckpointRepository checkpointRepository,
+                           int chunkSize, Instant since, Instant until, Long afterId, Long toId) {
+        this.itemRepository = itemRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.chunkSize = chunkSize;
+        this.since = since;
+        this.until = until;
+        this.afterModifiedAt = since;
+        this.afterId = afterId;
+        this.toId = toId;
+    }
+
+    static ProcessingScan full(ItemRepository itemRepository, int chunkSize) {
+        return new ProcessingScan(itemRepository, null, chunkSize, null, null, Long.MIN_VALUE, null);
+    }
+
+    // Ids in (afterId, toId]
+    static ProcessingScan range(ItemRepository itemRepository, int chunkSize, long afterId, long toId) {
+        return new ProcessingScan(itemRepository, null, chunkSize, null, null, afterId, toId);
+    }
+
+    // Reads the checkpoint; rows modified from now on are left to the next run
+    static ProcessingScan incremental(ItemRepository itemRepository, ProcessingCheckpointRepository checkpointRepository,
+                                      int chunkSize, Duration overlap) {
+        Instant until = Item.now();
+        Instant since = checkpointRepository.findById(CHECKPOINT)
+                .map(checkpoint -> checkpoint.getModifiedAt().minus(overlap))
+                .orElse(Instant.EPOCH);
+        return new ProcessingScan(itemRepository, checkpointRepository, chunkSize, since, until, Long.MIN_VALUE, null);
+    }
+
+    boolean isIncremental() {
+        return checkpointRepository != null;
+    }
+
+    // Number of items the run is expected to visit, used as the job total
+    long pending() {
+        return isIncremental() ? itemRepository.countChanged(since, until) : itemRepository.count();
+    }
+
+    // Next chunk of ids, or null when the scan is exhausted
+    Chunk next() {
+        List<Long> ids = new ArrayList<>(chunkSize);
+        ItemChangeKey last;
+        if (isIncremental()) {
+            List<ItemChangeKey> keys = itemRepository.findChangedAfter(afterModifiedAt, afterId, until, PageRequest.ofSize(chunkSize));
+            if (keys.isEmpty()) {
+                return null;
+            }
+            keys.forEach(key -> ids.add(key.id()));
+            last = keys.get(keys.size() - 1);
+            afterModifiedAt = last.modifiedAt();
+        } else {
+            ids.addAll(toId == null
+                    ? itemRepository.findIdsAfter(afterId, PageRequest.ofSize(chunkSize))
+                    : itemRepository.findIdsBetween(afterId, toId, PageRequest.ofSize(chunkSize)));
+            if (ids.isEmpty()) {
+                return null;
+            }
+            last = new ItemChangeKey(ids.get(ids.size() - 1), null);
+        }
+        afterId = last.id();
+        synchronized (this) {
+            lastKeys.add(last);
+            return new Chunk(lastKeys.size() - 1, ids);
+        }
+    }
+
+    /**
+     * Records that a chunk has committed and moves the checkpoint to the last key of the
+     * gap-free committed prefix, if that prefix grew. Called from the worker threads.
+     */
+    synchronized void committed(Chunk chunk) {
+        if (!isIncremental()) {
+            return;
+        }
+        committed.set(chunk.number());
+        int prefix = committed.nextClearBit(committedPrefix);
+        if (prefix > committedPrefix) {
+            committedPrefix = prefix;
+            ItemChangeKey key = lastKeys.get(prefix - 1);
+            save(key.modifiedAt(), key.id());
+        }
+    }
+
+    /**
+     * Called once the producer is exhausted and every chunk has finished. When all of them
+     * committed, nothing unprocessed is left up to `until` and the checkpoint jumps there.
+     */
+    synchronized void finish() {
+        if (isIncremental() && committedPrefix == lastKeys.size()) {
+            save(until, Long.MAX_VALUE);
+        }
+    }
+
+    private void save(Instant modifiedAt, Long lastId) {
+        checkpointRepository.save(new ProcessingCheckpoint(CHECKPOINT, modifiedAt, lastId));
+    }
+
+    record Chunk(int number, List<Long> ids) {
+    }
+}
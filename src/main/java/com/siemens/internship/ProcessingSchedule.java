@@ -0,0 +1,79 @@
+package com.siemens.internship;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.CronTask;
+import org.springframework.scheduling.config.FixedRateTask;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.scheduling.support.CronTrigger;
+import org.springframework.stereotype.Component;
+
+import java.time.ZoneId;
+import java.util.Optional;
+
+/**
+ * Starts processing runs on the cron or fixed-rate schedule of items.processing.schedule.
+ * A run is started like POST /api/items/process does (ItemService.startProcessing), so it is
+ * registered, polled and cancelled like any other job.
+
+ * Runs never overlap: a tick is skipped while the job of the previous tick is still running,
+ * and when the job registry refuses the run (max-running-jobs reached, e.g. by a run started
+ * over HTTP). Skipped ticks are not made up for; the next tick starts a run as usual.
+ * Ticks are counted by outcome in items.processing.schedule.runs.
+ */
+@Component
+public class ProcessingSchedule implements SchedulingConfigurer {
+    private static final Logger log = LoggerFactory.getLogger(ProcessingSchedule.class);
+
+    private final ItemService itemService;
+    private final ItemProcessingProperties processingProperties;
+    private final ItemMetrics metrics;
+
+    // Job of the last tick that started one; only the scheduler thread writes it
+    private volatile ProcessingJob lastJob;
+
+    public ProcessingSchedule(ItemService itemService, ItemProcessingProperties processingProperties, ItemMetrics metrics) {
+        this.itemService = itemService;
+        this.processingProperties = processingProperties;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        ItemProcessingProperties.Schedule schedule = processingProperties.getSchedule();
+        if (!schedule.getCron().isBlank()) {
+            CronTrigger trigger = schedule.getZone().isBlank()
+                    ? new CronTrigger(schedule.getCron())
+                    : new CronTrigger(schedule.getCron(), ZoneId.of(schedule.getZone()));
+            registrar.addCronTask(new CronTask(this::tick, trigger));
+            log.info("Processing runs scheduled with cron '{}'", schedule.getCron());
+        } else if (schedule.getFixedRate() != null) {
+            registrar.addFixedRateTask(new FixedRateTask(this::tick, schedule.getFixedRate(), schedule.getInitialDelay()));
+            log.info("Processing runs scheduled every {}", schedule.getFixedRate());
+        }
+    }
+
+    /**
+     * One tick of the schedule: starts a run unless one is still going.
+     * Returns the started job, or empty if the tick was skipped.
+     */
+    public Optional<ProcessingJob> tick() {
+        ProcessingJob previous = lastJob;
+        if (previous != null && !previous.isFinished()) {
+            log.info("Scheduled processing run skipped: job {} is still running", previous.getId());
+            metrics.recordScheduledRun(false);
+            return Optional.empty();
+        }
+        try {
+            ProcessingJob job = itemService.startProcessing();
+            lastJob = job;
+            metrics.recordScheduledRun(true);
+            return Optional.of(job);
+        } catch (IllegalStateException e) {
+            log.info("Scheduled processing run skipped: {}", e.getMessage());
+            metrics.recordScheduledRun(false);
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.siemens.internship;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.JpaProperties;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Checks at startup for settings that are valid one by one but combine badly, e.g. more
+ * processing chunks in flight than the pool has connections (they would only wait for one).
+
+ * Problems are logged as warnings. With items.validation.strict=true (prod profile) they fail
+ * the startup instead, before the application takes any traffic.
+ */
+@Component
+public class StartupValidation implements SmartInitializingSingleton {
+    private static final Logger log = LoggerFactory.getLogger(StartupValidation.class);
+
+    private static final Set<String> SCHEMA_CHANGING_DDL_AUTO = Set.of("update", "create", "create-drop");
+
+    private final ItemValidationProperties validationProperties;
+    private final ItemProcessingProperties processingProperties;
+    private final ItemBatchProperties batchProperties;
+    private final ItemWriteBehindProperties writeBehindProperties;
+    private final ItemStorageProperties storageProperties;
+    private final DataSource dataSource;
+    private final JpaProperties jpaProperties;
+    private final HibernateProperties hibernateProperties;
+    private final ObjectProvider<Flyway> flyway;
+
+    public StartupValidation(ItemValidationProperties validationProperties,
+                             ItemProcessingProperties processingProperties,
+                             ItemBatchProperties batchProperties,
+                             ItemWriteBehindProperties writeBehindProperties,
+                             ItemStorageProperties storageProperties,
+                             DataSource dataSource,
+                             JpaProperties jpaProperties,
+                             HibernateProperties hibernateProperties,
+                             ObjectProvider<Flyway> flyway) {
+        this.validationProperties = validationProperties;
+        this.processingProperties = processingProperties;
+        this.batchProperties = batchProperties;
+        this.writeBehindProperties = writeBehindProperties;
+        this.storageProperties = storageProperties;
+        this.dataSource = dataSource;
+        this.jpaProperties = jpaProperties;
+        this.hibernateProperties = hibernateProperties;
+        this.flyway = flyway;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        List<String> problems = problems();
+        if (problems.isEmpty()) {
+            return;
+        }
+        if (validationProperties.isStrict()) {
+            throw new IllegalStateException("Invalid configuration:\n- " + String.join("\n- ", problems));
+        }
+        problems.forEach(problem -> log.warn("Configuration: {}", problem));
+    }
+
+    List<String> problems() {
+        List<String> problems = new ArrayList<>();
+        if (dataSource instanceof HikariDataSource hikari) {
+            int poolSize = hikari.getMaximumPoolSize();
+            if (processingProperties.getParallelism() > poolSize) {
+                problems.add("items.processing.parallelism=" + processingProperties.getParallelism()
+                        + " exceeds the connection pool size " + poolSize + ": at most " + poolSize + " chunks can run at once");
+            }
+            if (processingProperties.getExecutor().getThreads() > poolSize) {
+                problems.add("items.processing.executor.threads=" + processingProperties.getExecutor().getThreads()
+                        + " exceeds the connection pool size " + poolSize + ": the extra threads would only wait for connections");
+            }
+            if (StorageRestore.databasePath(hikari.getJdbcUrl()).isEmpty()
+                    && (!"-".equals(storageProperties.getSnapshotCron()) || storageProperties.isRestoreOnStartup())) {
+                problems.add("items.storage snapshots and restore-on-startup need a file-backed database, not " + hikari.getJdbcUrl());
+            }
+        }
+
+        String jdbcBatchSize = jpaProperties.getProperties().get("hibernate.jdbc.batch_size");
+        if (jdbcBatchSize == null || parseInt(jdbcBatchSize) <= 1) {
+            problems.add("hibernate.jdbc.batch_size=" + jdbcBatchSize + " disables JDBC batching of inserts and updates");
+        } else if (parseInt(jdbcBatchSize) != batchProperties.getSize()) {
+            problems.add("items.batch.size=" + batchProperties.getSize() + " differs from hibernate.jdbc.batch_size="
+                    + jdbcBatchSize + ": bulk windows are not flushed as one JDBC batch");
+        }
+
+        String ddlAuto = hibernateProperties.getDdlAuto();
+        if (flyway.getIfAvailable() != null && ddlAuto != null && SCHEMA_CHANGING_DDL_AUTO.contains(ddlAuto)) {
+            problems.add("spring.jpa.hibernate.ddl-auto=" + ddlAuto + " changes the schema managed by Flyway migrations");
+        }
+
+        ItemProcessingProperties.Schedule schedule = processingProperties.getSchedule();
+        if (!schedule.getCron().isBlank() && schedule.getFixedRate() != null) {
+            problems.add("items.processing.schedule.cron and items.processing.schedule.fixed-rate are both set: only the cron schedule is used");
+        }
+
+        if (writeBehindProperties.isEnabled() && writeBehindProperties.getBatchSize() > writeBehindProperties.getCapacity()) {
+            problems.add("items.write-behind.batch-size=" + writeBehindProperties.getBatchSize() + " exceeds items.write-behind.capacity="
+                    + writeBehindProperties.getCapacity() + ": writers would flush before a batch is full");
+        }
+        return problems;
+    }
+
+    private static int parseInt(String value) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
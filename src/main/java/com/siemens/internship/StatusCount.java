@@ -0,0 +1,5 @@
+package com.siemens.internship;
+
+// One row of the items-per-status aggregate
+public record StatusCount(ItemStatus status, long count) {
+}
@@ -0,0 +1,131 @@
+package com.siemens.internship;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Restores a missing database file from the newest snapshot of StorageSnapshots (items.storage.restore-on-startup).
+
+ * Unzipping the store file is a sequential copy, with the indexes already built: far faster than
+ * loading the rows again through INSERTs, which spends most of its time maintaining the indexes.
+ * The file is unzipped under a temporary name and renamed when complete, so an interrupted restore
+ * never leaves a truncated database behind. An existing database file is never touched.
+
+ * A BeanPostProcessor, so that the file is in place before the pool opens its first connection
+ * (Hikari connects lazily). For the same reason the settings are bound from the Environment.
+ */
+@Component
+public class StorageRestore implements BeanPostProcessor, EnvironmentAware {
+    private static final Logger log = LoggerFactory.getLogger(StorageRestore.class);
+
+    private Environment environment;
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof HikariDataSource hikari) {
+            ItemStorageProperties settings = Binder.get(environment).bind("items.storage", ItemStorageProperties.class)
+                    .orElseGet(ItemStorageProperties::new);
+            if (settings.isRestoreOnStartup()) {
+                restore(hikari.getJdbcUrl(), settings.getSnapshotDirectory());
+            }
+        }
+        return bean;
+    }
+
+    /**
+     * Restores the database of `jdbcUrl` from the newest snapshot in `snapshotDirectory` if its file
+     * does not exist. Returns the snapshot restored, or empty if nothing was restored.
+     */
+    static Optional<Path> restore(String jdbcUrl, Path snapshotDirectory) {
+        Optional<Path> database = databasePath(jdbcUrl);
+        if (database.isEmpty()) {
+            log.warn("Restore on startup skipped: {} is not a file-backed H2 database", jdbcUrl);
+            return Optional.empty();
+        }
+        Path path = database.get().toAbsolutePath();
+        String name = path.getFileName().toString();
+        Path file = path.resolveSibling(name + ".mv.db");
+        if (Files.exists(file)) {
+            return Optional.empty();
+        }
+        try {
+            List<Path> snapshots = StorageSnapshots.list(snapshotDirectory, name);
+            if (snapshots.isEmpty()) {
+                log.info("No snapshot of database {} in {}, starting empty", name, snapshotDirectory);
+                return Optional.empty();
+            }
+            Path newest = snapshots.get(snapshots.size() - 1);
+            long start = System.nanoTime();
+            unzip(newest, file.getFileName().toString(), file);
+            log.info("Database {} restored from {} in {} ms", name, newest,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return Optional.of(newest);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Extracts the entry `entryName` of `zip` into `target`
+    private static void unzip(Path zip, String entryName, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path partial = target.resolveSibling(target.getFileName() + ".part");
+        try (ZipInputStream in = new ZipInputStream(Files.newInputStream(zip))) {
+            ZipEntry entry;
+            while ((entry = in.getNextEntry()) != null) {
+                if (entry.getName().equals(entryName)) {
+                    Files.copy(in, partial, StandardCopyOption.REPLACE_EXISTING);
+                    Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE);
+                    return;
+                }
+            }
+        }
+        throw new IOException(zip + " has no entry " + entryName);
+    }
+
+    /**
+     * Path (without the .mv.db suffix) of an embedded file database, e.g. ./data/items for
+     * jdbc:h2:file:./data/items;CACHE_SIZE=131072. Empty for in-memory, server and other databases.
+     */
+    static Optional<Path> databasePath(String jdbcUrl) {
+        if (jdbcUrl == null || !jdbcUrl.startsWith("jdbc:h2:")) {
+            return Optional.empty();
+        }
+        String location = jdbcUrl.substring("jdbc:h2:".length());
+        int settings = location.indexOf(';');
+        if (settings >= 0) {
+            location = location.substring(0, settings);
+        }
+        if (location.startsWith("file:")) {
+            location = location.substring("file:".length());
+        } else if (location.matches("^[a-z]{2,}:.*")) {
+            // mem:, tcp:, ssl:, zip:, ...; a single letter is a Windows drive
+            return Optional.empty();
+        }
+        if (location.startsWith("~")) {
+            location = System.getProperty("user.home") + location.substring(1);
+        }
+        return location.isEmpty() ? Optional.empty() : Optional.of(Path.of(location));
+    }
+}
@@ -0,0 +1,99 @@
+package com.siemens.internship;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Online snapshots of the file-backed database with H2's BACKUP TO, on items.storage.snapshot-cron.
+ * BACKUP TO copies a consistent version of the MVStore file into a zip while the application keeps
+ * reading and writing; StorageRestore turns the newest one back into the database file at startup.
+
+ * A snapshot is written under a temporary name and renamed when complete, so a crash mid-backup never
+ * leaves a truncated zip that looks like the newest snapshot. Durations are published as items.storage.snapshot.
+ */
+@Component
+public class StorageSnapshots {
+    private static final Logger log = LoggerFactory.getLogger(StorageSnapshots.class);
+
+    // Sorts by name in time order
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmssSSS'Z'").withZone(ZoneOffset.UTC);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ItemStorageProperties properties;
+    private final Timer timer;
+
+    public StorageSnapshots(JdbcTemplate jdbcTemplate, ItemStorageProperties properties, MeterRegistry registry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.timer = Timer.builder("items.storage.snapshot")
+                .description("Duration of an online snapshot of the database")
+                .register(registry);
+    }
+
+    @Scheduled(cron = "${items.storage.snapshot-cron:-}")
+    public void scheduledSnapshot() {
+        snapshot();
+    }
+
+    /**
+     * Writes a snapshot of the database to items.storage.snapshot-directory and deletes the ones beyond
+     * items.storage.snapshot-retain. Returns the snapshot. Throws IllegalStateException for an in-memory database.
+     */
+    public synchronized Path snapshot() {
+        String database = jdbcTemplate.queryForObject("SELECT DATABASE_PATH()", String.class);
+        if (database == null) {
+            throw new IllegalStateException("The database is in memory: snapshots need a file-backed database (profile file)");
+        }
+        String name = Path.of(database).getFileName().toString();
+        Path directory = properties.getSnapshotDirectory();
+        Path snapshot = directory.resolve(name + "-" + TIMESTAMP.format(Instant.now()) + ".zip");
+        Path partial = directory.resolve(snapshot.getFileName() + ".part");
+        try {
+            Files.createDirectories(directory);
+            long start = System.nanoTime();
+            jdbcTemplate.execute("BACKUP TO '" + partial.toAbsolutePath().toString().replace("'", "''") + "'");
+            Files.move(partial, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            ItemMetrics.stop(timer, start);
+            log.info("Database snapshot {} written in {} ms ({} KB)", snapshot,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), Files.size(snapshot) / 1024);
+
+            List<Path> all = list(directory, name);
+            for (Path old : all.subList(0, Math.max(0, all.size() - Math.max(1, properties.getSnapshotRetain())))) {
+                Files.deleteIfExists(old);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return snapshot;
+    }
+
+    // Complete snapshots of `database` in `directory`, oldest first
+    static List<Path> list(Path directory, String database) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        String pattern = "\\Q" + database + "\\E-\\d{8}T\\d{9}Z\\.zip";
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().matches(pattern))
+                    .sorted()
+                    .toList();
+        }
+    }
+}
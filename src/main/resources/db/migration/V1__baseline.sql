@@ -0,0 +1,59 @@
+-- Schema of the entities as of the first versioned migration (previously created by ddl-auto=update)
+
+create sequence item_seq start with 1 increment by 500;
+
+create table item (
+    id bigint not null,
+    name varchar(255) not null,
+    description varchar(255) not null,
+    status tinyint not null check (status between 0 and 2),
+    email varchar(255) not null,
+    version bigint not null,
+    modified_at timestamp(6) with time zone not null,
+    primary key (id)
+);
+create index idx_item_modified_at on item (modified_at, id);
+create index idx_item_status on item (status, id);
+create index idx_item_email on item (email, id);
+create index idx_item_name on item (name);
+
+create table processing_checkpoint (
+    name varchar(255) not null,
+    modified_at timestamp(6) with time zone,
+    last_id bigint,
+    primary key (name)
+);
+
+create table dead_letter_item (
+    item_id bigint not null,
+    job_id varchar(255),
+    cause varchar(1000),
+    failures integer not null,
+    first_failed_at timestamp(6) with time zone,
+    last_failed_at timestamp(6) with time zone,
+    primary key (item_id)
+);
+
+create table processing_run (
+    id varchar(255) not null,
+    active integer unique,
+    created_at timestamp(6) with time zone,
+    finished_at timestamp(6) with time zone,
+    primary key (id)
+);
+
+create table processing_partition (
+    id bigint generated by default as identity,
+    run_id varchar(255),
+    from_id bigint not null,
+    to_id bigint not null,
+    last_id bigint,
+    owner varchar(255),
+    lease_until timestamp(6) with time zone,
+    done boolean not null,
+    processed bigint not null,
+    missing bigint not null,
+    failed bigint not null,
+    primary key (id)
+);
+create index idx_partition_claim on processing_partition (done, lease_until);
@@ -0,0 +1,54 @@
+package com.siemens.internship;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ClientRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.SECONDS.toNanos(1_000));
+
+    // 10 requests per second with a burst of 3, on a clock the test moves by hand
+    private final ClientRateLimiter limiter = new ClientRateLimiter(10, 3, 100, now::get);
+
+    // Tests that a client gets its burst at once, then one request per emission interval
+    @Test
+    void testBurstThenSustainedRate() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire("a"));
+        }
+        long wait = limiter.tryAcquire("a");
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), wait);
+
+        now.addAndGet(wait);
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertTrue(limiter.tryAcquire("a") > 0);
+    }
+
+    // Tests that every client has its own bucket
+    @Test
+    void testClientsAreIndependent() {
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("a");
+        }
+        assertTrue(limiter.tryAcquire("a") > 0);
+        assertEquals(0, limiter.tryAcquire("b"));
+        assertEquals(2, limiter.trackedClients());
+    }
+
+    // Tests that an idle client is back to a full burst, and never beyond it
+    @Test
+    void testRefillsUpToBurst() {
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("a");
+        }
+        now.addAndGet(TimeUnit.SECONDS.toNanos(60));
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire("a"));
+        }
+        assertTrue(limiter.tryAcquire("a") > 0);
+    }
+}
@@ -0,0 +1,77 @@
+package com.siemens.internship;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The file profile together with prod: the database lives in a file, online snapshots can be taken
+ * while it is in use and a missing database file is restored from the newest one.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:file:./target/file-storage/db/items;CACHE_SIZE=131072;PAGE_SIZE=16384;WRITE_DELAY=1000;DB_CLOSE_ON_EXIT=FALSE",
+		"items.storage.snapshot-directory=./target/file-storage/snapshots",
+		"items.storage.snapshot-retain=2"})
+@ActiveProfiles({"prod", "file"})
+class FileStorageTests {
+	private static final Path SNAPSHOTS = Path.of("target", "file-storage", "snapshots");
+
+	@Autowired
+	private ItemService itemService;
+
+	@Autowired
+	private StorageSnapshots snapshots;
+
+	@Autowired
+	private StartupValidation startupValidation;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void databaseIsFileBacked() {
+		assertTrue(jdbcTemplate.queryForObject("SELECT DATABASE_PATH()", String.class).endsWith("items"));
+		assertEquals("131072", jdbcTemplate.queryForObject(
+				"SELECT SETTING_VALUE FROM INFORMATION_SCHEMA.SETTINGS WHERE SETTING_NAME = 'CACHE_SIZE'", String.class));
+		assertEquals(List.of(), startupValidation.problems());
+	}
+
+	// Tests that a snapshot holds the items committed before it, restores into a new database file and is pruned
+	@Test
+	void snapshotRestoresIntoMissingDatabase() throws Exception {
+		for (int i = 0; i < 20; i++) {
+			itemService.save(new Item(null, "Item" + i, "desc", ItemStatus.NEW, "item" + i + "@example.com"));
+		}
+		long items = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM item", Long.class);
+
+		Path snapshot = snapshots.snapshot();
+		snapshots.snapshot();
+		Path newest = snapshots.snapshot();
+		assertTrue(Files.size(newest) > 0);
+		assertEquals(2, StorageSnapshots.list(SNAPSHOTS, "items").size());
+		assertFalse(Files.exists(snapshot));
+
+		Path restored = Path.of("target", "file-storage", "restored-" + System.nanoTime(), "items");
+		String url = "jdbc:h2:file:./" + restored + ";IFEXISTS=TRUE";
+		assertEquals(Optional.of(newest), StorageRestore.restore(url, SNAPSHOTS));
+		// The database file exists now: nothing is restored over it
+		assertEquals(Optional.empty(), StorageRestore.restore(url, SNAPSHOTS));
+		try (Connection connection = DriverManager.getConnection(url, "sa", "");
+			 ResultSet count = connection.createStatement().executeQuery("SELECT COUNT(*) FROM item")) {
+			assertTrue(count.next());
+			assertEquals(items, count.getLong(1));
+		}
+	}
+}
@@ -2,13 +2,27 @@ package com.siemens.internship;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
 class InternshipApplicationTests {
 	@Autowired
 	private ItemService itemService;
@@ -16,9 +30,300 @@ class InternshipApplicationTests {
 	@Autowired
 	private ItemRepository itemRepository;
 
+	@Autowired
+	private ProcessingCheckpointRepository checkpointRepository;
+
+	@Autowired
+	private ItemProcessingProperties processingProperties;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private DeadLetterItemRepository deadLetterRepository;
+
+	@Autowired
+	private ItemBatchWriter batchWriter;
+
+	@Autowired
+	private ItemSearchIndexer searchIndexer;
+
+	@Autowired
+	private ItemSearchIndex searchIndex;
+
 
 	@Test
 	void contextLoads() {
 	}
 
+	// Chunked and set-based processing against the embedded H2 database
+	@Test
+	void processingEnginesUpdateEveryRow() throws Exception {
+		itemRepository.deleteAll();
+		for (int i = 0; i < 25; i++) {
+			itemRepository.save(new Item(null, "Item" + i, "desc", ItemStatus.NEW, "item" + i + "@example.com"));
+		}
+
+		List<Item> processed = itemService.processItemsAsync().get();
+		assertEquals(25, processed.size());
+		assertEquals(25, itemRepository.findAll().stream().filter(i -> i.getStatus() == ItemStatus.PROCESSED).count());
+
+		// Every row is processed already: nothing left to mark
+		assertEquals(0, itemService.markAllProcessedAsync().get());
+	}
+
+	// The set-based engine skips rows that are already processed, so their version (and ETag) stays as it is
+	@Test
+	void setBasedEngineSkipsProcessedRows() throws Exception {
+		itemRepository.deleteAll();
+		Item done = itemService.save(new Item(null, "Done", "desc", ItemStatus.PROCESSED, "done@example.com"));
+		Item pending = itemService.save(new Item(null, "Pending", "desc", ItemStatus.NEW, "pending@example.com"));
+
+		assertEquals(1, itemService.markAllProcessedAsync().get());
+		assertEquals(done.getVersion(), itemRepository.findById(done.getId()).orElseThrow().getVersion());
+		Item marked = itemRepository.findById(pending.getId()).orElseThrow();
+		assertEquals(ItemStatus.PROCESSED, marked.getStatus());
+		assertEquals(pending.getVersion() + 1, marked.getVersion());
+	}
+
+	// The PIPELINE engine processes every row through its version-guarded batch writer
+	@Test
+	void pipelineEngineProcessesEveryRow() throws Exception {
+		itemRepository.deleteAll();
+		for (int i = 0; i < 30; i++) {
+			itemService.save(new Item(null, "Piped" + i, "desc", ItemStatus.NEW, "piped" + i + "@example.com"));
+		}
+		ItemProcessingProperties.ProcessingMode mode = processingProperties.getMode();
+		int chunkSize = processingProperties.getChunkSize();
+		processingProperties.setMode(ItemProcessingProperties.ProcessingMode.PIPELINE);
+		processingProperties.setChunkSize(7);
+		try {
+			assertEquals(30, itemService.processItemsAsync().get().size());
+		} finally {
+			processingProperties.setMode(mode);
+			processingProperties.setChunkSize(chunkSize);
+		}
+		assertEquals(30, itemRepository.findAll().stream()
+				.filter(i -> i.getStatus() == ItemStatus.PROCESSED && i.getVersion() == 1L).count());
+	}
+
+	// A row that cannot be written is dead-lettered without holding back the rest of its chunk, and is reprocessed once fixed
+	@Test
+	void poisonRowIsDeadLetteredAndReprocessed() throws Exception {
+		itemRepository.deleteAll();
+		List<Item> items = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			items.add(itemService.save(new Item(null, "Poison" + i, "desc", ItemStatus.NEW, "poison" + i + "@example.com")));
+		}
+		Long poisoned = items.get(2).getId();
+		// The database refuses to mark this one row as processed
+		jdbcTemplate.execute("ALTER TABLE item ADD CONSTRAINT poison CHECK (id <> " + poisoned + " OR status <> 1)");
+		try {
+			ProcessingJob job = itemService.startProcessing();
+			waitUntilFinished(job);
+			ProcessingJob.Snapshot snapshot = job.snapshot();
+			assertEquals(4, snapshot.processed());
+			assertEquals(1, snapshot.deadLettered());
+			assertEquals(List.of(poisoned), snapshot.failures().get(0).itemIds());
+			assertEquals(1, deadLetterRepository.findById(poisoned).orElseThrow().getFailures());
+		} finally {
+			jdbcTemplate.execute("ALTER TABLE item DROP CONSTRAINT poison");
+		}
+
+		ProcessingJob reprocess = itemService.reprocessDeadLetters();
+		waitUntilFinished(reprocess);
+		assertEquals(1, reprocess.snapshot().processed());
+		assertFalse(deadLetterRepository.existsById(poisoned));
+		assertEquals(ItemStatus.PROCESSED, itemRepository.findById(poisoned).orElseThrow().getStatus());
+	}
+
+	// A second incremental run only picks up the rows modified since the first one
+	@Test
+	void incrementalProcessingOnlyVisitsChangedRows() throws Exception {
+		itemRepository.deleteAll();
+		List<Item> items = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			items.add(itemService.save(new Item(null, "Item" + i, "desc", ItemStatus.NEW, "item" + i + "@example.com")));
+		}
+		assertEquals(10, itemService.processItemsAsync().get().size());
+		assertEquals(0, itemService.processItemsAsync().get().size());
+
+		Item changed = items.get(3);
+		itemService.update(changed.getId(), new Item(null, "Changed", "desc", ItemStatus.NEW, "item3@example.com"), null);
+		itemService.save(new Item(null, "Added", "desc", ItemStatus.NEW, "added@example.com"));
+
+		List<Item> processed = itemService.processItemsAsync().get();
+		assertEquals(2, processed.size());
+		assertTrue(processed.stream().anyMatch(i -> i.getId().equals(changed.getId())));
+		assertTrue(checkpointRepository.existsById(ProcessingScan.CHECKPOINT));
+	}
+
+	// Keyset paging and cursor streaming walk every row exactly once, in id order
+	@Test
+	void pagingAndStreamingReturnEveryRow() {
+		itemRepository.deleteAll();
+		for (int i = 0; i < 7; i++) {
+			itemRepository.save(new Item(null, "Item" + i, "desc", ItemStatus.NEW, "item" + i + "@example.com"));
+		}
+
+		List<Long> paged = new ArrayList<>();
+		ItemPage page = itemService.findPage(null, 3);
+		page.items().forEach(item -> paged.add(item.getId()));
+		while (page.nextCursor() != null) {
+			page = itemService.findPage(page.nextCursor(), 3);
+			page.items().forEach(item -> paged.add(item.getId()));
+		}
+
+		List<Long> streamed = new ArrayList<>();
+		itemService.streamAll(item -> streamed.add(item.getId()));
+
+		assertEquals(7, paged.size());
+		assertEquals(paged, streamed);
+	}
+
+	// Service and HTTP timers are exposed on the Prometheus scrape endpoint
+	@Test
+	void prometheusEndpointExposesItemMetrics() throws Exception {
+		mockMvc.perform(get("/api/items/1")).andExpect(status().isNotFound());
+
+		mockMvc.perform(get("/actuator/prometheus"))
+				.andExpect(status().isOk())
+				.andExpect(content().string(containsString("items_service_seconds_bucket")))
+				.andExpect(content().string(containsString("http_server_requests_seconds_bucket")))
+				.andExpect(content().string(containsString("items_processing_executor_queue")));
+	}
+
+	// Bulk create, update and delete against the embedded H2 database
+	@Test
+	void bulkWritesRoundTrip() {
+		List<Item> items = new ArrayList<>();
+		for (int i = 0; i < 1200; i++) {
+			items.add(new Item(null, "Bulk" + i, "desc", ItemStatus.NEW, "bulk" + i + "@example.com"));
+		}
+
+		List<BatchItemResult> created = itemService.createAll(items);
+		assertEquals(1200, created.stream().filter(BatchItemResult::isSuccess).count());
+
+		List<Item> updates = new ArrayList<>();
+		for (BatchItemResult result : created.subList(0, 10)) {
+			updates.add(new Item(result.id(), "Renamed", "desc", ItemStatus.DONE, "renamed@example.com"));
+		}
+		updates.add(new Item(-1L, "Missing", "desc", ItemStatus.DONE, "missing@example.com"));
+		List<BatchItemResult> updated = itemService.updateAll(updates);
+		assertEquals(10, updated.stream().filter(BatchItemResult::isSuccess).count());
+		assertEquals(BatchItemResult.Outcome.NOT_FOUND, updated.get(10).outcome());
+		assertEquals("Renamed", itemRepository.findById(created.get(0).id()).get().getName());
+
+		List<Long> ids = created.stream().map(BatchItemResult::id).toList();
+		List<BatchItemResult> deleted = itemService.deleteAll(ids);
+		assertEquals(1200, deleted.stream().filter(BatchItemResult::isSuccess).count());
+		assertEquals(0, itemRepository.findExistingIds(ids).size());
+	}
+
+	// Versioned single-statement updates and deletes against the embedded H2 database
+	@Test
+	void conditionalUpdateAndDelete() {
+		Item created = itemService.save(new Item(null, "Versioned", "desc", ItemStatus.NEW, "v@example.com"));
+		assertEquals(0L, created.getVersion());
+
+		Item update = new Item(null, "Versioned", "desc", ItemStatus.DONE, "v@example.com");
+		assertEquals(1L, itemService.update(created.getId(), update, 0L).get().getVersion());
+		assertEquals(ItemStatus.DONE, itemService.findById(created.getId()).get().getStatus());
+		assertEquals(1L, itemService.findById(created.getId()).get().getVersion());
+
+		assertThrows(ObjectOptimisticLockingFailureException.class,
+				() -> itemService.update(created.getId(), update, 0L));
+		assertEquals(2L, itemService.update(created.getId(), update, null).get().getVersion());
+		assertEquals(2L, itemRepository.findById(created.getId()).get().getVersion());
+
+		assertThrows(ObjectOptimisticLockingFailureException.class, () -> itemService.delete(created.getId(), 1L));
+		assertTrue(itemService.delete(created.getId(), 2L));
+		assertFalse(itemService.delete(created.getId(), null));
+		assertFalse(itemService.update(created.getId(), update, null).isPresent());
+	}
+
+	// The write-behind flush statement writes every buffered field by id with the flush time and skips ids that no longer exist
+	@Test
+	void writeBehindFlushWritesBufferedFields() {
+		Item created = itemService.save(new Item(null, "Before", "desc", ItemStatus.NEW, "wb@example.com"));
+		Item buffered = new Item(created.getId(), "After", "changed", ItemStatus.DONE, "wb2@example.com");
+		buffered.setModifiedAt(Item.now().minusSeconds(60));
+		Item deleted = new Item(-1L, "Gone", "desc", ItemStatus.DONE, "gone@example.com");
+		deleted.setModifiedAt(Item.now());
+
+		Instant flushed = Item.now();
+		assertArrayEquals(new int[]{1, 0}, batchWriter.updateFields(List.of(buffered, deleted), flushed));
+
+		Item row = itemRepository.findById(created.getId()).orElseThrow();
+		assertEquals("After", row.getName());
+		assertEquals("changed", row.getDescription());
+		assertEquals(ItemStatus.DONE, row.getStatus());
+		assertEquals("wb2@example.com", row.getEmail());
+		// Stamped with the flush time, not the buffered update time
+		assertEquals(flushed, row.getModifiedAt());
+		assertEquals(1L, row.getVersion());
+	}
+
+	// Filters and aggregates are evaluated by the database, including a LIKE prefix with wildcard characters
+	@Test
+	void filteringAndCountingInTheDatabase() {
+		itemRepository.deleteAll();
+		for (int i = 0; i < 12; i++) {
+			ItemStatus status = i % 3 == 0 ? ItemStatus.DONE : ItemStatus.NEW;
+			itemRepository.save(new Item(null, "Filter" + i, "desc", status, "filter" + i + "@example.com"));
+		}
+		itemRepository.save(new Item(null, "50%_off", "desc", ItemStatus.NEW, "sale@example.com"));
+		itemRepository.save(new Item(null, "500 units", "desc", ItemStatus.NEW, "units@example.com"));
+
+		List<Long> done = new ArrayList<>();
+		ItemPage page = itemService.findPage(new ItemFilter(ItemStatus.DONE, null, null), null, 3);
+		page.items().forEach(item -> done.add(item.getId()));
+		page = itemService.findPage(new ItemFilter(ItemStatus.DONE, null, null), page.nextCursor(), 3);
+		page.items().forEach(item -> done.add(item.getId()));
+		assertEquals(4, done.size());
+		assertNull(page.nextCursor());
+
+		assertEquals(1, itemService.findPage(new ItemFilter(null, "filter4@example.com", null), null, 10).items().size());
+		assertEquals(3, itemService.findPage(new ItemFilter(null, null, "Filter1"), null, 10).items().size());
+		assertEquals(List.of("50%_off"), itemService.findPage(new ItemFilter(null, null, "50%_"), null, 10)
+				.items().stream().map(Item::getName).toList());
+
+		assertEquals(3, itemService.count(new ItemFilter(ItemStatus.NEW, null, "Filter1")));
+		assertEquals(14, itemService.count(ItemFilter.NONE));
+		Map<ItemStatus, Long> perStatus = itemService.countByStatus();
+		assertEquals(10L, perStatus.get(ItemStatus.NEW));
+		assertEquals(4L, perStatus.get(ItemStatus.DONE));
+		assertEquals(0L, perStatus.get(ItemStatus.PROCESSED));
+	}
+
+	// Full-text search follows writes through ItemService, and the catch-up scan finds rows written behind it
+	@Test
+	void searchFollowsWrites() throws Exception {
+		searchIndexer.rebuild();
+		Item lamp = itemService.save(new Item(null, "Zanzibar lamp", "Brass", ItemStatus.NEW, "lamp@example.com"));
+		Item chair = itemRepository.save(new Item(null, "Chair", "Made in Zanzibar", ItemStatus.NEW, "chair@example.com"));
+		searchIndexer.catchUp();
+		searchIndex.refresh();
+
+		assertEquals(List.of(lamp.getId(), chair.getId()),
+				itemService.search("zanzibar", null, 10).items().stream().map(Item::getId).toList());
+		mockMvc.perform(get("/api/items/search").param("q", "zanzibar brass"))
+				.andExpect(status().isOk())
+				.andExpect(content().string(containsString("Zanzibar lamp")));
+
+		itemService.deleteById(lamp.getId());
+		searchIndex.refresh();
+		assertEquals(List.of(chair.getId()),
+				itemService.search("zanzibar", null, 10).items().stream().map(Item::getId).toList());
+	}
+
+	private static void waitUntilFinished(ProcessingJob job) throws InterruptedException {
+		for (int i = 0; i < 500 && !job.isFinished(); i++) {
+			Thread.sleep(10);
+		}
+		assertTrue(job.isFinished());
+	}
 }
@@ -0,0 +1,53 @@
+package com.siemens.internship;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IsoInstantSerializerTest {
+
+    private final ObjectMapper mapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .registerModule(new SimpleModule().addSerializer(Instant.class, new IsoInstantSerializer()))
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    // Tests that instants are written exactly like Instant.toString, whatever their fraction of a second
+    @Test
+    void testSameTextAsInstantToString() throws Exception {
+        Instant[] instants = {
+                Instant.EPOCH,
+                Instant.parse("1969-12-31T23:59:59.999999999Z"),
+                Instant.parse("2000-02-29T12:00:00.5Z"),
+                Instant.parse("2026-10-16T23:14:59.327125Z"),
+                Instant.parse("2026-10-16T23:14:59.000000001Z"),
+                Instant.parse("0000-01-01T00:00:00Z"),
+                Instant.parse("9999-12-31T23:59:59.120Z"),
+                Instant.parse("+10000-01-01T00:00:00Z"),
+                Instant.MIN,
+                Instant.MAX
+        };
+        for (Instant instant : instants) {
+            assertEquals("\"" + instant + "\"", mapper.writeValueAsString(instant));
+        }
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < 10_000; i++) {
+            Instant instant = Instant.ofEpochSecond(random.nextLong(-62_167_219_200L, 253_402_300_800L), random.nextInt(1_000_000_000));
+            assertEquals("\"" + instant + "\"", mapper.writeValueAsString(instant));
+            assertEquals(instant, mapper.readValue(mapper.writeValueAsString(instant), Instant.class));
+        }
+    }
+
+    // Tests that timestamps are still written as numbers when the mapper is configured for them
+    @Test
+    void testTimestampsEnabled() throws Exception {
+        mapper.enable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        assertEquals("1.500000000", mapper.writeValueAsString(Instant.ofEpochSecond(1, 500_000_000)));
+    }
+}
@@ -0,0 +1,121 @@
+package com.siemens.internship;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ItemAdmissionFilterTest {
+
+    private final ItemAdmissionProperties properties = new ItemAdmissionProperties();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    // Tests that a client beyond its burst gets 429 with Retry-After, while another client is still served
+    @Test
+    void testRateLimitPerClient() throws Exception {
+        properties.getRateLimit().setRequestsPerSecond(1);
+        properties.getRateLimit().setBurst(2);
+        ItemAdmissionFilter filter = new ItemAdmissionFilter(properties, registry);
+
+        assertEquals(200, perform(filter, "GET", "/api/items/1", "10.0.0.1").getStatus());
+        assertEquals(200, perform(filter, "GET", "/api/items/1", "10.0.0.1").getStatus());
+        MockHttpServletResponse limited = perform(filter, "GET", "/api/items/1", "10.0.0.1");
+        assertEquals(429, limited.getStatus());
+        assertEquals("1", limited.getHeader("Retry-After"));
+        assertEquals(200, perform(filter, "GET", "/api/items/1", "10.0.0.2").getStatus());
+
+        assertEquals(1, count("other", "rate_limited"));
+        assertEquals(3, count("other", "admitted"));
+    }
+
+    // Tests that the configured client header takes precedence over the remote address
+    @Test
+    void testClientHeader() throws Exception {
+        properties.setClientHeader("X-Client-Id");
+        properties.getRateLimit().setRequestsPerSecond(1);
+        properties.getRateLimit().setBurst(1);
+        ItemAdmissionFilter filter = new ItemAdmissionFilter(properties, registry);
+
+        MockHttpServletRequest first = request("GET", "/api/items/1", "10.0.0.1");
+        first.addHeader("X-Client-Id", "tenant-a");
+        filter.doFilter(first, new MockHttpServletResponse(), new MockFilterChain());
+
+        MockHttpServletRequest second = request("GET", "/api/items/1", "10.0.0.1");
+        second.addHeader("X-Client-Id", "tenant-b");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(second, response, new MockFilterChain());
+        assertEquals(200, response.getStatus());
+    }
+
+    // Tests that a full endpoint group answers 503 with Retry-After, and admits again once a permit is released
+    @Test
+    void testConcurrencyLimit() throws Exception {
+        properties.getRateLimit().setRequestsPerSecond(0);
+        properties.getMaxConcurrent().put(ItemAdmissionProperties.Endpoint.LIST, 1);
+        properties.setRetryAfter(Duration.ofSeconds(3));
+        ItemAdmissionFilter filter = new ItemAdmissionFilter(properties, registry);
+
+        MockHttpServletResponse[] nested = new MockHttpServletResponse[2];
+        // The first request is still in the chain while the second and third arrive
+        FilterChain inFlight = (request, response) -> {
+            nested[0] = perform(filter, "GET", "/api/items", "10.0.0.2");
+            nested[1] = perform(filter, "GET", "/api/items/7", "10.0.0.2");
+        };
+        filter.doFilter(request("GET", "/api/items", "10.0.0.1"), new MockHttpServletResponse(), inFlight);
+
+        assertEquals(503, nested[0].getStatus());
+        assertEquals("3", nested[0].getHeader("Retry-After"));
+        assertEquals(200, nested[1].getStatus());
+        assertEquals(200, perform(filter, "GET", "/api/items", "10.0.0.2").getStatus());
+        assertEquals(1, count("list", "concurrency_limited"));
+    }
+
+    // Tests the grouping of endpoints
+    @Test
+    void testEndpointGroups() {
+        assertEquals(ItemAdmissionProperties.Endpoint.LIST, ItemAdmissionFilter.endpoint(request("GET", "/api/items", "")));
+        assertEquals(ItemAdmissionProperties.Endpoint.OTHER, ItemAdmissionFilter.endpoint(request("POST", "/api/items", "")));
+        assertEquals(ItemAdmissionProperties.Endpoint.BATCH, ItemAdmissionFilter.endpoint(request("PUT", "/api/items/batch", "")));
+        assertEquals(ItemAdmissionProperties.Endpoint.PROCESS, ItemAdmissionFilter.endpoint(request("POST", "/api/items/process", "")));
+        assertEquals(ItemAdmissionProperties.Endpoint.PROCESS,
+                ItemAdmissionFilter.endpoint(request("POST", "/api/items/dead-letters/reprocess", "")));
+        assertEquals(ItemAdmissionProperties.Endpoint.OTHER, ItemAdmissionFilter.endpoint(request("GET", "/api/items/process/abc", "")));
+    }
+
+    // Tests that nothing is limited when admission control is disabled
+    @Test
+    void testDisabled() throws Exception {
+        properties.setEnabled(false);
+        properties.getRateLimit().setBurst(1);
+        ItemAdmissionFilter filter = new ItemAdmissionFilter(properties, registry);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(200, perform(filter, "GET", "/api/items/1", "10.0.0.1").getStatus());
+        }
+    }
+
+    private static MockHttpServletResponse perform(ItemAdmissionFilter filter, String method, String uri, String remoteAddr)
+            throws IOException, ServletException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(method, uri, remoteAddr), response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String method, String uri, String remoteAddr) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.setRemoteAddr(remoteAddr);
+        return request;
+    }
+
+    private double count(String endpoint, String outcome) {
+        return registry.get("items.admission.requests").tag("endpoint", endpoint).tag("outcome", outcome).counter().count();
+    }
+}
@@ -0,0 +1,187 @@
+package com.siemens.internship;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.management.ThreadMXBean;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.MockMvcPrint;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Heap allocated per request on the read endpoints, so that an allocation regression fails the build.
+ * After a warmup the requests run in a few rounds, and a request costs the bytes the test thread allocated
+ * per request in its best round (ThreadMXBean.getCurrentThreadAllocatedBytes), which leaves out rounds disturbed
+ * by a JIT compilation or a GC. MockMvc serves a request on the calling thread, so that covers the whole
+ * request: filters, controller, the query and the JSON response (written to an in-memory response). The item
+ * cache is off, so every read goes to the database.
+
+ * The absolute budgets still move with the JDK, so the read model is also compared with loading the same
+ * page as entities, measured in the same test.
+
+ * The rounds run under a JFR recording that samples allocations with their stack: a failure lists the classes
+ * allocating the most, and the recording stays in target/allocation for JDK Mission Control.
+ */
+@SpringBootTest(properties = {
+		// Own database, seeded once for all tests
+		"spring.datasource.url=jdbc:h2:mem:allocation",
+		"items.cache.enabled=false",
+		"items.admission.enabled=false"})
+@AutoConfigureMockMvc(print = MockMvcPrint.NONE)
+class ItemAllocationTests {
+	private static final int ITEMS = 200;
+	private static final int WARMUP = 2_000;
+	private static final int REQUESTS = 500;
+	private static final int ROUNDS = 3;
+
+	// Bytes per request, about 20% over the measured 49 KB, 121 KB and 65 KB (the class runs in a JVM of its own,
+	// see pom.xml). Before the read model and IsoInstantSerializer a page of 100 took 200 KB and a filtered page 102 KB
+	private static final long GET_BY_ID_BUDGET = 60_000;
+	private static final long LIST_PAGE_BUDGET = 150_000;
+	private static final long FILTERED_PAGE_BUDGET = 80_000;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ItemService itemService;
+
+	@Autowired
+	private ItemRepository itemRepository;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private final List<Long> ids = new ArrayList<>();
+
+	@BeforeEach
+	void seed() {
+		if (itemRepository.count() == 0) {
+			List<Item> items = new ArrayList<>();
+			for (int i = 0; i < ITEMS; i++) {
+				items.add(new Item(null, "Item " + i, "Description of item " + i, ItemStatus.NEW, "item" + i + "@example.com"));
+			}
+			itemService.createAll(items);
+		}
+		ids.clear();
+		ids.addAll(itemRepository.findAllIds());
+	}
+
+	// Tests that GET /api/items/{id} stays within its allocation budget
+	@Test
+	void getByIdAllocation() throws Exception {
+		assertWithinBudget("get-by-id", GET_BY_ID_BUDGET, i -> get("/api/items/{id}", ids.get(i % ids.size())));
+	}
+
+	// Tests that a page of 100 items from GET /api/items stays within its allocation budget
+	@Test
+	void listPageAllocation() throws Exception {
+		assertWithinBudget("list-page", LIST_PAGE_BUDGET, i -> get("/api/items").param("after", String.valueOf(ids.get(i % 50))));
+	}
+
+	// Tests that a filtered page of GET /api/items stays within its allocation budget
+	@Test
+	void filteredPageAllocation() throws Exception {
+		assertWithinBudget("filtered-page", FILTERED_PAGE_BUDGET, i -> get("/api/items").param("status", "NEW").param("limit", "20"));
+	}
+
+	// Tests that a page of 100 read through the read model and written as JSON allocates less than half of the same page loaded as entities
+	@Test
+	void readModelAllocatesLessThanEntities() throws Exception {
+		Work readModel = i -> objectMapper.writeValue(OutputStream.nullOutputStream(), itemService.findPage(ids.get(i % 50), 100).items());
+		Work entities = i -> objectMapper.writeValue(OutputStream.nullOutputStream(), itemRepository.findAllById(ids.subList(i % 50 + 1, i % 50 + 101)));
+		perCall(readModel, WARMUP);
+		perCall(entities, WARMUP);
+		long readModelBytes = Long.MAX_VALUE;
+		long entityBytes = Long.MAX_VALUE;
+		for (int round = 0; round < ROUNDS; round++) {
+			readModelBytes = Math.min(readModelBytes, perCall(readModel, REQUESTS));
+			entityBytes = Math.min(entityBytes, perCall(entities, REQUESTS));
+		}
+		// Measured: 44 KB against 186 KB
+		assertTrue(readModelBytes * 2 < entityBytes,
+				"The read model allocated " + readModelBytes + " bytes per page, entities " + entityBytes);
+	}
+
+	private interface Requests {
+		RequestBuilder get(int i);
+	}
+
+	private interface Work {
+		void run(int i) throws Exception;
+	}
+
+	private void assertWithinBudget(String name, long budget, Requests requests) throws Exception {
+		Work work = i -> assertEquals(200, mockMvc.perform(requests.get(i)).andReturn().getResponse().getStatus());
+		perCall(work, WARMUP);
+		Path file = Path.of("target", "allocation", name + ".jfr").toAbsolutePath();
+		Files.createDirectories(file.getParent());
+		long perRequest = Long.MAX_VALUE;
+		try (Recording recording = new Recording()) {
+			recording.enable("jdk.ObjectAllocationSample").withStackTrace().with("throttle", "1000/s");
+			recording.start();
+			for (int round = 0; round < ROUNDS; round++) {
+				perRequest = Math.min(perRequest, perCall(work, REQUESTS));
+			}
+			recording.stop();
+			recording.dump(file);
+		}
+		if (perRequest > budget) {
+			long thread = Thread.currentThread().getId();
+			List<RecordedEvent> samples = new ArrayList<>();
+			for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+				if (event.getThread() != null && event.getThread().getJavaThreadId() == thread) {
+					samples.add(event);
+				}
+			}
+			fail(name + " allocated " + perRequest + " bytes per request, budget " + budget
+					+ "\nTop allocations (sampled), recording in " + file + ":\n" + top(samples));
+		}
+	}
+
+	// Bytes the test thread allocates per call of `work`, over `count` calls
+	private static long perCall(Work work, int count) throws Exception {
+		ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long before = threads.getCurrentThreadAllocatedBytes();
+		for (int i = 0; i < count; i++) {
+			work.run(i);
+		}
+		return (threads.getCurrentThreadAllocatedBytes() - before) / count;
+	}
+
+	// Classes with the most sampled bytes, and their share of the samples
+	private static String top(List<RecordedEvent> samples) {
+		// The weight of a sample is what the thread allocated since its previous one: the first also counts the warmup
+		samples.sort(Comparator.comparing(RecordedEvent::getStartTime));
+		Map<String, Long> sampledPerClass = new HashMap<>();
+		for (RecordedEvent sample : samples.subList(Math.min(1, samples.size()), samples.size())) {
+			sampledPerClass.merge(sample.getClass("objectClass").getName(), sample.getLong("weight"), Long::sum);
+		}
+		long total = sampledPerClass.values().stream().mapToLong(Long::longValue).sum();
+		return sampledPerClass.entrySet().stream()
+				.sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+				.limit(15)
+				.map(entry -> String.format("  %5.1f%%  %s", 100.0 * entry.getValue() / total, entry.getKey()))
+				.collect(Collectors.joining("\n"));
+	}
+}
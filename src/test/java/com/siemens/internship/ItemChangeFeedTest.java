@@ -0,0 +1,197 @@
+package com.siemens.internship;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ItemChangeFeedTest {
+
+    private final ItemChangeProperties properties = new ItemChangeProperties();
+    private ItemChangeFeed feed;
+
+    @AfterEach
+    void tearDown() {
+        feed.destroy();
+    }
+
+    // Tests that events are numbered in order and can be read again after any sequence still in the ring
+    @Test
+    void testResumeAfterSequence() {
+        feed = new ItemChangeFeed(properties, new SimpleMeterRegistry());
+        long start = feed.latestSequence();
+        feed.saved(item(1L));
+        feed.deleted(2L);
+        feed.processed(List.of(3L, 4L));
+        feed.processedRange(10, 20);
+
+        List<ItemChange> all = feed.read(start, 100);
+        assertEquals(List.of(ItemChange.Type.SAVED, ItemChange.Type.DELETED, ItemChange.Type.PROCESSED, ItemChange.Type.PROCESSED),
+                all.stream().map(ItemChange::type).toList());
+        assertEquals(start + 4, feed.latestSequence());
+        assertEquals(List.of(3L, 4L), all.get(2).ids());
+        assertEquals(20L, all.get(3).toId());
+
+        List<ItemChange> rest = feed.read(all.get(1).sequence(), 100);
+        assertEquals(all.subList(2, 4), rest);
+        assertTrue(feed.read(feed.latestSequence(), 100).isEmpty());
+    }
+
+    // Tests that a sequence no longer in the ring, or one the feed never issued, requires a resync
+    @Test
+    void testOverwrittenSequenceRequiresResync() {
+        properties.setCapacity(3);
+        feed = new ItemChangeFeed(properties, new SimpleMeterRegistry());
+        long start = feed.latestSequence();
+        for (long id = 1; id <= 5; id++) {
+            feed.deleted(id);
+        }
+
+        assertNull(feed.read(start, 100));
+        assertNull(feed.read(start + 1, 100));
+        assertEquals(List.of(3L, 4L, 5L), feed.read(start + 2, 100).stream().map(ItemChange::id).toList());
+        assertNull(feed.read(feed.latestSequence() + 1, 100));
+        assertNull(feed.read(0, 100));
+    }
+
+    // Tests that a subscriber gets the backlog, then live events, then a RESYNC and the end of its stream once it falls behind
+    @Test
+    void testSubscriberFallsBehind() throws Exception {
+        properties.setCapacity(4);
+        feed = new ItemChangeFeed(properties, new SimpleMeterRegistry());
+        long start = feed.latestSequence();
+        feed.deleted(1L);
+
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingSubscriber subscriber = new RecordingSubscriber() {
+            @Override
+            public void send(List<ItemChange> changes) {
+                super.send(changes);
+                if (changes.get(0).id() != null && changes.get(0).id() == 2L) {
+                    // A slow client: stuck in a write while the writers move on
+                    blocked.countDown();
+                    await(release);
+                }
+            }
+        };
+        feed.subscribe(start, subscriber);
+        assertEquals(1L, subscriber.next().id());
+
+        feed.deleted(2L);
+        assertEquals(2L, subscriber.next().id());
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+        for (long id = 3; id <= 10; id++) {
+            feed.deleted(id);
+        }
+        release.countDown();
+
+        ItemChange resync = subscriber.next();
+        assertEquals(ItemChange.Type.RESYNC, resync.type());
+        assertEquals(feed.latestSequence(), resync.sequence());
+        assertTrue(subscriber.closed.await(5, TimeUnit.SECONDS));
+    }
+
+    // Tests that subscriptions beyond max-subscribers are refused, and that idle streams get heartbeats
+    @Test
+    void testMaxSubscribersAndHeartbeat() throws Exception {
+        properties.setMaxSubscribers(1);
+        properties.setHeartbeatInterval(Duration.ofMillis(10));
+        feed = new ItemChangeFeed(properties, new SimpleMeterRegistry());
+
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        feed.subscribe(null, subscriber);
+        assertThrows(IllegalStateException.class, () -> feed.subscribe(null, new RecordingSubscriber()));
+        assertTrue(subscriber.heartbeats.await(5, TimeUnit.SECONDS));
+
+        subscriber.open = false;
+        assertTrue(subscriber.closed.await(5, TimeUnit.SECONDS));
+    }
+
+    // Tests that a client gone between two events (SseEmitter throws IllegalStateException) ends its stream quietly
+    @Test
+    void testDisconnectedSubscriber() throws Exception {
+        properties.setHeartbeatInterval(Duration.ofMillis(10));
+        feed = new ItemChangeFeed(properties, new SimpleMeterRegistry());
+
+        List<Throwable> uncaught = new CopyOnWriteArrayList<>();
+        AtomicReference<Thread> streamThread = new AtomicReference<>();
+        RecordingSubscriber subscriber = new RecordingSubscriber() {
+            @Override
+            public void heartbeat() {
+                throw new IllegalStateException("ResponseBodyEmitter has already completed");
+            }
+
+            @Override
+            public void close() {
+                streamThread.set(Thread.currentThread());
+                Thread.currentThread().setUncaughtExceptionHandler((thread, e) -> uncaught.add(e));
+                super.close();
+            }
+        };
+        feed.subscribe(null, subscriber);
+
+        assertTrue(subscriber.closed.await(5, TimeUnit.SECONDS));
+        // A stream thread that threw would terminate right away; a quiet one goes back to the pool
+        streamThread.get().join(500);
+        assertEquals(List.of(), uncaught);
+    }
+
+    private static Item item(Long id) {
+        Item item = new Item();
+        item.setId(id);
+        item.setName("Item " + id);
+        return item;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class RecordingSubscriber implements ItemChangeFeed.Subscriber {
+        final BlockingQueue<ItemChange> received = new LinkedBlockingQueue<>();
+        final CountDownLatch heartbeats = new CountDownLatch(2);
+        final CountDownLatch closed = new CountDownLatch(1);
+        volatile boolean open = true;
+
+        @Override
+        public void send(List<ItemChange> changes) {
+            received.addAll(changes);
+        }
+
+        @Override
+        public void heartbeat() {
+            heartbeats.countDown();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void close() {
+            closed.countDown();
+        }
+
+        ItemChange next() throws InterruptedException {
+            ItemChange change = received.poll(5, TimeUnit.SECONDS);
+            assertNotNull(change);
+            return change;
+        }
+    }
+}
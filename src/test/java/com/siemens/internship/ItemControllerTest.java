@@ -1,21 +1,41 @@
 package com.siemens.internship;
 
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.ArgumentMatchers.any;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -23,6 +43,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 @WebMvcTest(ItemController.class)
 @AutoConfigureMockMvc
+@EnableConfigurationProperties({ItemBatchProperties.class, ItemAdmissionProperties.class, ItemChangeProperties.class})
+@Import(ItemFormats.class)
 class ItemControllerTest {
 
     @Autowired
@@ -40,11 +62,242 @@ class ItemControllerTest {
         Item item1 = new Item(); item1.setId(101L); item1.setName("Test1");
         Item item2 = new Item(); item2.setId(102L); item2.setName("Test2");
 
-        when(itemService.findAll()).thenReturn(Arrays.asList(item1, item2));
+        when(itemService.findPage(ItemFilter.NONE, null, 100)).thenReturn(new ItemPage(Arrays.asList(item1, item2), null));
 
         mockMvc.perform(get("/api/items"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(2)));
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    // Test keyset paging: the next cursor is returned when more items exist
+    @Test
+    void testGetAllItemsNextCursor() throws Exception {
+        Item item1 = new Item(); item1.setId(101L); item1.setName("Test1");
+        Item item2 = new Item(); item2.setId(102L); item2.setName("Test2");
+
+        when(itemService.findPage(ItemFilter.NONE, 100L, 2)).thenReturn(new ItemPage(Arrays.asList(item1, item2), 102L));
+
+        mockMvc.perform(get("/api/items").param("after", "100").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(header().string("X-Next-Cursor", "102"))
+                .andExpect(header().string("Link", "</api/items?after=102&limit=2>; rel=\"next\""));
+    }
+
+    // Test server-side filtering: the filter reaches the service and is kept in the next link
+    @Test
+    void testGetAllItemsFiltered() throws Exception {
+        Item item1 = new Item(); item1.setId(101L); item1.setName("Alpha"); item1.setStatus(ItemStatus.DONE);
+        ItemFilter filter = new ItemFilter(ItemStatus.DONE, null, "Al");
+
+        when(itemService.findPage(filter, null, 1)).thenReturn(new ItemPage(List.of(item1), 101L));
+
+        mockMvc.perform(get("/api/items").param("status", "DONE").param("namePrefix", "Al").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("DONE"))
+                .andExpect(header().string("Link", "</api/items?after=101&limit=1&status=DONE&namePrefix=Al>; rel=\"next\""));
+    }
+
+    // Test full-text search: ranked items in the body, the next cursor in the headers
+    @Test
+    void testSearchItems() throws Exception {
+        Item item1 = new Item(); item1.setId(101L); item1.setName("Red chair");
+
+        when(itemService.search("red chair", null, 1)).thenReturn(new ItemSearchPage(List.of(item1), "1.5:101"));
+
+        mockMvc.perform(get("/api/items/search").param("q", "red chair").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(101))
+                .andExpect(header().string("X-Next-Cursor", "1.5:101"))
+                .andExpect(header().string("Link", "</api/items/search?q=red%20chair&after=1.5:101&limit=1>; rel=\"next\""));
+    }
+
+    // Test the rejected searches: blank query, malformed cursor, and 503 while the index is rebuilt
+    @Test
+    void testSearchItemsRejected() throws Exception {
+        when(itemService.search("chair", "x", 100)).thenThrow(new IllegalArgumentException("Malformed search cursor: x"));
+        when(itemService.search("chair", null, 100)).thenThrow(new IllegalStateException("The search index is being rebuilt"));
+
+        mockMvc.perform(get("/api/items/search").param("q", " "))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/items/search").param("q", "chair").param("after", "x"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/items/search").param("q", "chair"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
+    // Test filtering by a status that does not exist
+    @Test
+    void testGetAllItemsUnknownStatus() throws Exception {
+        mockMvc.perform(get("/api/items").param("status", "LOST"))
+                .andExpect(status().isBadRequest());
+    }
+
+    // Test the count endpoints
+    @Test
+    void testCountItems() throws Exception {
+        when(itemService.count(new ItemFilter(ItemStatus.NEW, null, null))).thenReturn(42L);
+        Map<ItemStatus, Long> perStatus = new EnumMap<>(ItemStatus.class);
+        perStatus.put(ItemStatus.NEW, 42L);
+        perStatus.put(ItemStatus.PROCESSED, 7L);
+        perStatus.put(ItemStatus.DONE, 0L);
+        when(itemService.countByStatus()).thenReturn(perStatus);
+
+        mockMvc.perform(get("/api/items/count").param("status", "NEW"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(42));
+        mockMvc.perform(get("/api/items/count/by-status"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.PROCESSED").value(7))
+                .andExpect(jsonPath("$.DONE").value(0));
+    }
+
+    // Test paging with a limit outside the allowed range
+    @Test
+    void testGetAllItemsInvalidLimit() throws Exception {
+        mockMvc.perform(get("/api/items").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/items").param("limit", "1001"))
+                .andExpect(status().isBadRequest());
+    }
+
+    // Test streaming all items as newline-delimited JSON
+    @Test
+    void testStreamAllItems() throws Exception {
+        Item item1 = new Item(); item1.setId(101L); item1.setName("Test1");
+        Item item2 = new Item(); item2.setId(102L); item2.setName("Test2");
+
+        doAnswer(invocation -> {
+            Consumer<Item> consumer = invocation.getArgument(0);
+            consumer.accept(item1);
+            consumer.accept(item2);
+            return null;
+        }).when(itemService).streamAll(any());
+
+        MvcResult result = mockMvc.perform(get("/api/items").accept("application/x-ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(101L, objectMapper.readValue(lines[0], Item.class).getId());
+        assertEquals(102L, objectMapper.readValue(lines[1], Item.class).getId());
+    }
+
+    // Test the change feed as server-sent events, resumed from Last-Event-ID
+    @Test
+    void testStreamChangesSse() throws Exception {
+        Item item = new Item(101L, "Test1", "desc", ItemStatus.NEW, "a@example.com");
+        doAnswer(invocation -> {
+            ItemChangeFeed.Subscriber subscriber = invocation.getArgument(1);
+            subscriber.send(List.of(new ItemChange(42L, ItemChange.Type.SAVED, null, 101L, item, null, null, null)));
+            subscriber.close();
+            return null;
+        }).when(itemService).subscribeChanges(eq(41L), any());
+
+        MvcResult result = mockMvc.perform(get("/api/items/changes").accept("text/event-stream").header("Last-Event-ID", "41"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/event-stream"))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals("id: 42", lines[0]);
+        assertEquals("event: saved", lines[1]);
+        ItemChange change = objectMapper.readValue(lines[2].substring("data: ".length()), ItemChange.class);
+        assertEquals(101L, change.item().getId());
+    }
+
+    // Test the change feed as NDJSON, and the rejected subscriptions
+    @Test
+    void testStreamChangesNdjson() throws Exception {
+        doAnswer(invocation -> {
+            ItemChangeFeed.Subscriber subscriber = invocation.getArgument(1);
+            subscriber.send(List.of(new ItemChange(8L, ItemChange.Type.DELETED, null, 3L, null, null, null, null),
+                    new ItemChange(9L, ItemChange.Type.RESYNC, null, null, null, null, null, null)));
+            subscriber.close();
+            return null;
+        }).when(itemService).subscribeChanges(eq(7L), any());
+        doThrow(new IllegalStateException("Too many change feed subscribers")).when(itemService).subscribeChanges(isNull(), any());
+
+        MvcResult result = mockMvc.perform(get("/api/items/changes").param("after", "7").accept("application/x-ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+        assertEquals("{\"sequence\":8,\"type\":\"DELETED\",\"id\":3}\n{\"sequence\":9,\"type\":\"RESYNC\"}\n", body);
+
+        mockMvc.perform(get("/api/items/changes").param("after", "x"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/items/changes"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
+    // Test content negotiation of a page: CBOR and Smile carry the same items as JSON
+    @Test
+    void testGetAllItemsBinaryFormats() throws Exception {
+        Item item1 = new Item(101L, "Test1", "desc", ItemStatus.NEW, "a@example.com");
+        Item item2 = new Item(102L, "Test2", "desc", ItemStatus.DONE, "b@example.com");
+        when(itemService.findPage(ItemFilter.NONE, null, 100)).thenReturn(new ItemPage(Arrays.asList(item1, item2), null));
+
+        byte[] cbor = mockMvc.perform(get("/api/items").accept("application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/cbor"))
+                .andReturn().getResponse().getContentAsByteArray();
+        Item[] fromCbor = new CBORMapper().findAndRegisterModules().readValue(cbor, Item[].class);
+        assertEquals(List.of(101L, 102L), Arrays.stream(fromCbor).map(Item::getId).toList());
+        assertEquals(ItemStatus.DONE, fromCbor[1].getStatus());
+
+        byte[] smile = mockMvc.perform(get("/api/items").accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-jackson-smile"))
+                .andReturn().getResponse().getContentAsByteArray();
+        Item[] fromSmile = new SmileMapper().findAndRegisterModules().readValue(smile, Item[].class);
+        assertEquals("b@example.com", fromSmile[1].getEmail());
+
+        byte[] json = mockMvc.perform(get("/api/items")).andReturn().getResponse().getContentAsByteArray();
+        assertTrue(cbor.length < json.length);
+        assertTrue(smile.length < json.length);
+    }
+
+    // Test streaming all items as a CBOR sequence
+    @Test
+    void testStreamAllItemsCbor() throws Exception {
+        Item item1 = new Item(); item1.setId(101L); item1.setName("Test1");
+        Item item2 = new Item(); item2.setId(102L); item2.setName("Test2");
+
+        doAnswer(invocation -> {
+            Consumer<Item> consumer = invocation.getArgument(0);
+            consumer.accept(item1);
+            consumer.accept(item2);
+            return null;
+        }).when(itemService).streamAll(any());
+
+        MvcResult result = mockMvc.perform(get("/api/items").accept("application/cbor-seq"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        byte[] body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/cbor-seq"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        try (MappingIterator<Item> items = new CBORMapper().findAndRegisterModules().readerFor(Item.class).readValues(body)) {
+            assertEquals(List.of(101L, 102L), items.readAll().stream().map(Item::getId).toList());
+        }
     }
 
     // Test retrieving one item by ID when it exists
@@ -61,6 +314,20 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$.name").value("Found"));
     }
 
+    // Test the ETag of an item and a conditional GET with If-None-Match
+    @Test
+    void testGetItemByIdETag() throws Exception {
+        Item item = new Item(103L, "Found", "Some desc", ItemStatus.NEW, "email@domain.com", 5L, null);
+
+        when(itemService.findById(103L)).thenReturn(Optional.of(item));
+
+        mockMvc.perform(get("/api/items/103"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"5\""));
+        mockMvc.perform(get("/api/items/103").header("If-None-Match", "\"5\""))
+                .andExpect(status().isNotModified());
+    }
+
     // Test retrieving an item by ID when it does not exist
     @Test
     void testGetItemByIdNotFound() throws Exception {
@@ -75,7 +342,7 @@ class ItemControllerTest {
     void testCreateItemValid() throws Exception {
         Item item = new Item();
         item.setName("Valid Item");
-        item.setStatus("NEW");
+        item.setStatus(ItemStatus.NEW);
         item.setDescription("Some desc");
         item.setEmail("test@example.com");
 
@@ -93,7 +360,7 @@ class ItemControllerTest {
     void testCreateItemInvalidEmail() throws Exception {
         Item item = new Item();
         item.setName("Invalid Email");
-        item.setStatus("NEW");
+        item.setStatus(ItemStatus.NEW);
         item.setDescription("Some desc");
         item.setEmail("not-an-email");
 
@@ -109,18 +376,86 @@ class ItemControllerTest {
         Item item = new Item();
         item.setId(101L);
         item.setName("Updated");
-        item.setStatus("NEW");
+        item.setStatus(ItemStatus.NEW);
         item.setDescription("Some desc");
         item.setEmail("email@domain.com");
 
-        when(itemService.findById(101L)).thenReturn(Optional.of(item));
-        when(itemService.save(any(Item.class))).thenReturn(item);
+        when(itemService.update(eq(101L), any(Item.class), isNull())).thenReturn(Optional.of(item));
 
         mockMvc.perform(put("/api/items/101")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(item)))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.name").value("Updated"));
+
+        verify(itemService, never()).findById(any());
+    }
+
+    // Test that an update without If-Match also returns the new version as ETag
+    @Test
+    void testUpdateItemETagWithoutIfMatch() throws Exception {
+        Item item = new Item(101L, "Updated", "Some desc", ItemStatus.NEW, "email@domain.com");
+
+        when(itemService.update(eq(101L), any(Item.class), isNull())).thenAnswer(invocation -> {
+            Item updated = invocation.getArgument(1);
+            updated.setVersion(7L);
+            return Optional.of(updated);
+        });
+
+        mockMvc.perform(put("/api/items/101")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(item)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"7\""));
+    }
+
+    // Test a conditional update with If-Match: the new version is returned as ETag
+    @Test
+    void testUpdateItemIfMatch() throws Exception {
+        Item item = new Item(101L, "Updated", "Some desc", ItemStatus.NEW, "email@domain.com");
+
+        when(itemService.update(eq(101L), any(Item.class), eq(3L))).thenAnswer(invocation -> {
+            Item updated = invocation.getArgument(1);
+            updated.setVersion(4L);
+            return Optional.of(updated);
+        });
+
+        mockMvc.perform(put("/api/items/101")
+                        .header("If-Match", "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(item)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""));
+    }
+
+    // Test a conditional update against a stale version
+    @Test
+    void testUpdateItemVersionConflict() throws Exception {
+        Item item = new Item(101L, "Updated", "Some desc", ItemStatus.NEW, "email@domain.com");
+
+        when(itemService.update(eq(101L), any(Item.class), eq(3L)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Item.class, 101L));
+
+        mockMvc.perform(put("/api/items/101")
+                        .header("If-Match", "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(item)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    // Test that a malformed If-Match header can never match
+    @Test
+    void testUpdateItemMalformedIfMatch() throws Exception {
+        Item item = new Item(101L, "Updated", "Some desc", ItemStatus.NEW, "email@domain.com");
+
+        when(itemService.update(eq(101L), any(Item.class), eq(ItemController.NO_VERSION)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Item.class, 101L));
+
+        mockMvc.perform(put("/api/items/101")
+                        .header("If-Match", "not-an-etag")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(item)))
+                .andExpect(status().isPreconditionFailed());
     }
 
     // Test updating a non-existent item
@@ -129,11 +464,11 @@ class ItemControllerTest {
         Item item = new Item();
         item.setId(101L);
         item.setName("Doesn't matter");
-        item.setStatus("NEW");
+        item.setStatus(ItemStatus.NEW);
         item.setDescription("Some desc");
         item.setEmail("email@domain.com");
 
-        when(itemService.findById(101L)).thenReturn(Optional.empty());
+        when(itemService.update(eq(1L), any(Item.class), isNull())).thenReturn(Optional.empty());
 
         mockMvc.perform(put("/api/items/1")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -144,21 +479,220 @@ class ItemControllerTest {
     // Test deleting an item that exists
     @Test
     void testDeleteItemFound() throws Exception {
-        Item item = new Item();
-        item.setId(101L);
-        when(itemService.findById(101L)).thenReturn(Optional.of(item));
-        Mockito.doNothing().when(itemService).deleteById(101L);
+        when(itemService.delete(101L, null)).thenReturn(true);
 
         mockMvc.perform(delete("/api/items/101"))
                 .andExpect(status().isNoContent());
+
+        verify(itemService, never()).findById(any());
+    }
+
+    // Test a conditional delete against a stale version
+    @Test
+    void testDeleteItemVersionConflict() throws Exception {
+        when(itemService.delete(101L, 2L)).thenThrow(new ObjectOptimisticLockingFailureException(Item.class, 101L));
+
+        mockMvc.perform(delete("/api/items/101").header("If-Match", "\"2\""))
+                .andExpect(status().isPreconditionFailed());
     }
 
     // Test deleting a non-existent item
     @Test
     void testDeleteItemNotFound() throws Exception {
-        when(itemService.findById(101L)).thenReturn(Optional.empty());
+        when(itemService.delete(1L, null)).thenReturn(false);
 
         mockMvc.perform(delete("/api/items/1"))
                 .andExpect(status().isNotFound());
     }
+
+    // Test starting a processing job: returns 202 with the job id and a Location header
+    @Test
+    void testStartProcessing() throws Exception {
+        ProcessingJob job = new ProcessingJob(ItemProcessingProperties.ProcessingMode.CHUNKED);
+        when(itemService.startProcessing()).thenReturn(job);
+
+        mockMvc.perform(post("/api/items/process"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/items/process/" + job.getId()))
+                .andExpect(jsonPath("$.id").value(job.getId()))
+                .andExpect(jsonPath("$.state").value("RUNNING"));
+    }
+
+    // Test starting a processing job when the registry is full
+    @Test
+    void testStartProcessingRejected() throws Exception {
+        when(itemService.startProcessing()).thenThrow(new IllegalStateException("full"));
+
+        mockMvc.perform(post("/api/items/process"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
+    // Test polling the progress of a processing job, with its summary of missing and failed items
+    @Test
+    void testGetProcessingJob() throws Exception {
+        ProcessingJob job = new ProcessingJob(ItemProcessingProperties.ProcessingMode.CHUNKED);
+        job.setTotal(10);
+        job.recordProcessed(4);
+        job.recordMissing(List.of(9L));
+        job.recordFailed(List.of(3L), new IllegalStateException("boom"));
+        when(itemService.findJob(job.getId())).thenReturn(Optional.of(job));
+
+        mockMvc.perform(get("/api/items/process/" + job.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.processed").value(4))
+                .andExpect(jsonPath("$.missing").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.remaining").value(4))
+                .andExpect(jsonPath("$.missingIds[0]").value(9))
+                .andExpect(jsonPath("$.failures[0].cause").value("IllegalStateException: boom"))
+                .andExpect(jsonPath("$.failures[0].count").value(1))
+                .andExpect(jsonPath("$.failures[0].itemIds[0]").value(3));
+    }
+
+    // Test polling an unknown processing job
+    @Test
+    void testGetProcessingJobNotFound() throws Exception {
+        when(itemService.findJob("unknown")).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/items/process/unknown"))
+                .andExpect(status().isNotFound());
+    }
+
+    // Test cancelling a processing job
+    @Test
+    void testCancelProcessingJob() throws Exception {
+        ProcessingJob job = new ProcessingJob(ItemProcessingProperties.ProcessingMode.CHUNKED);
+        when(itemService.findJob(job.getId())).thenReturn(Optional.of(job));
+
+        mockMvc.perform(delete("/api/items/process/" + job.getId()))
+                .andExpect(status().isAccepted());
+
+        assertTrue(job.isCancelRequested());
+    }
+
+    // Test listing dead-lettered items
+    @Test
+    void testGetDeadLetters() throws Exception {
+        DeadLetterItem letter = new DeadLetterItem(7L, "job-1", "IllegalStateException: boom", 2, null, null);
+        when(itemService.findDeadLetters(5L, 10)).thenReturn(List.of(letter));
+
+        mockMvc.perform(get("/api/items/dead-letters").param("after", "5").param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].itemId").value(7))
+                .andExpect(jsonPath("$[0].cause").value("IllegalStateException: boom"))
+                .andExpect(jsonPath("$[0].failures").value(2));
+    }
+
+    // Test starting the reprocessing of dead-lettered items: 202 with the job location
+    @Test
+    void testReprocessDeadLetters() throws Exception {
+        ProcessingJob job = new ProcessingJob(ItemProcessingProperties.ProcessingMode.PER_ITEM);
+        when(itemService.reprocessDeadLetters()).thenReturn(job);
+
+        mockMvc.perform(post("/api/items/dead-letters/reprocess"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/items/process/" + job.getId()));
+    }
+
+    // Test reading the cache counters
+    @Test
+    void testGetCacheStats() throws Exception {
+        when(itemService.cacheStats()).thenReturn(new ItemCache.Stats(true, 7, 3, 1, 2));
+
+        mockMvc.perform(get("/api/items/cache/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hits").value(7))
+                .andExpect(jsonPath("$.misses").value(3))
+                .andExpect(jsonPath("$.evictions").value(1));
+    }
+
+    // Test bulk create: valid items are written, invalid ones are reported per item
+    @Test
+    void testCreateItemsBatch() throws Exception {
+        Item valid = new Item(null, "Valid", "Some desc", ItemStatus.NEW, "valid@example.com");
+        Item invalid = new Item(null, "Invalid", "Some desc", ItemStatus.NEW, "not-an-email");
+
+        when(itemService.createAll(anyList())).thenReturn(List.of(
+                BatchItemResult.of(0, 501L, BatchItemResult.Outcome.CREATED)));
+
+        mockMvc.perform(post("/api/items/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(valid, invalid))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.results[0].outcome").value("CREATED"))
+                .andExpect(jsonPath("$.results[0].id").value(501))
+                .andExpect(jsonPath("$.results[1].index").value(1))
+                .andExpect(jsonPath("$.results[1].outcome").value("INVALID"))
+                .andExpect(jsonPath("$.results[1].errors[0]").value("Invalid email format"));
+
+        verify(itemService).createAll(argThat(items -> items.size() == 1 && items.get(0).getName().equals("Valid")));
+    }
+
+    // Test bulk create from an NDJSON body
+    @Test
+    void testCreateItemsBatchNdjson() throws Exception {
+        Item item1 = new Item(null, "First", "Some desc", ItemStatus.NEW, "first@example.com");
+        Item item2 = new Item(null, "Second", "Some desc", ItemStatus.NEW, "second@example.com");
+
+        when(itemService.createAll(anyList())).thenReturn(List.of(
+                BatchItemResult.of(0, 1L, BatchItemResult.Outcome.CREATED),
+                BatchItemResult.of(1, 2L, BatchItemResult.Outcome.CREATED)));
+
+        mockMvc.perform(post("/api/items/batch")
+                        .contentType("application/x-ndjson")
+                        .content(objectMapper.writeValueAsString(item1) + "\n" + objectMapper.writeValueAsString(item2) + "\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(2))
+                .andExpect(jsonPath("$.results", hasSize(2)));
+    }
+
+    // Test bulk update: items without an id are invalid, unknown ids are reported as not found
+    @Test
+    void testUpdateItemsBatch() throws Exception {
+        Item withoutId = new Item(null, "No id", "Some desc", ItemStatus.NEW, "a@example.com");
+        Item unknown = new Item(404L, "Unknown", "Some desc", ItemStatus.NEW, "b@example.com");
+
+        when(itemService.updateAll(anyList())).thenReturn(List.of(
+                BatchItemResult.of(0, 404L, BatchItemResult.Outcome.NOT_FOUND)));
+
+        mockMvc.perform(put("/api/items/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(withoutId, unknown))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(0))
+                .andExpect(jsonPath("$.results[0].outcome").value("INVALID"))
+                .andExpect(jsonPath("$.results[1].outcome").value("NOT_FOUND"))
+                .andExpect(jsonPath("$.results[1].index").value(1));
+    }
+
+    // Test bulk delete
+    @Test
+    void testDeleteItemsBatch() throws Exception {
+        when(itemService.deleteAll(List.of(1L, 2L))).thenReturn(List.of(
+                BatchItemResult.of(0, 1L, BatchItemResult.Outcome.DELETED),
+                BatchItemResult.of(1, 2L, BatchItemResult.Outcome.NOT_FOUND)));
+
+        mockMvc.perform(delete("/api/items/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1, 2]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(1))
+                .andExpect(jsonPath("$.results[1].outcome").value("NOT_FOUND"));
+    }
+
+    // Test bulk requests that are empty
+    @Test
+    void testBatchEmpty() throws Exception {
+        mockMvc.perform(post("/api/items/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(delete("/api/items/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+    }
 }
@@ -0,0 +1,245 @@
+package com.siemens.internship;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ItemProcessingPipelineTest {
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private ItemChunkProcessor chunkProcessor;
+
+    @Spy
+    private ItemProcessingProperties processingProperties = new ItemProcessingProperties();
+
+    @Spy
+    private ProcessingExecutor processingExecutor = new ProcessingExecutor(processingProperties, 10);
+
+    @Spy
+    private ItemCache itemCache = new ItemCache(new ItemCacheProperties());
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private ItemMetrics metrics = new ItemMetrics(meterRegistry, processingExecutor, itemCache, mock(ItemWriteBehind.class));
+
+    private final DeadLetterItemRepository deadLetterRepository = mock(DeadLetterItemRepository.class);
+
+    @Spy
+    private ProcessingRecovery recovery = new ProcessingRecovery(processingProperties, deadLetterRepository, metrics);
+
+    @Spy
+    private ItemProcessors processors = new ItemProcessors(List.of(new MarkProcessedItemProcessor()), meterRegistry);
+
+    @InjectMocks
+    private ItemProcessingPipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        processingProperties.setChunkSize(10);
+        processingProperties.getPipeline().setQueueCapacity(1);
+        processingProperties.getRetry().setInitialBackoff(Duration.ZERO);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        processingExecutor.destroy();
+    }
+
+    // Tests a run end to end: every chunk is read, transformed and written, stale rows are skipped
+    @Test
+    void testRunProcessesEveryChunk() throws Exception {
+        stubIds(35);
+        when(itemRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            List<Item> items = new ArrayList<>();
+            for (Long id : invocation.<Iterable<Long>>getArgument(0)) {
+                items.add(new Item(id, "Item" + id, "desc", ItemStatus.NEW, "a@example.com", 0L, null));
+            }
+            return items;
+        });
+        // The row with id 7 changed after it was read: its version no longer matches
+        when(chunkProcessor.writeProcessed(anyList())).thenAnswer(invocation -> invocation.<List<Item>>getArgument(0)
+                .stream().mapToInt(item -> item.getId() == 7L ? 0 : 1).toArray());
+
+        ProcessingJob job = new ProcessingJob(ItemProcessingProperties.ProcessingMode.PIPELINE);
+        List<Item> processed = Collections.synchronizedList(new ArrayList<>());
+        pipeline.run(job, ProcessingScan.full(itemRepository, 10), processed::addAll).get(10, TimeUnit.SECONDS);
+
+        assertEquals(34, processed.size());
+        assertTrue(processed.stream().allMatch(item -> item.getStatus() == ItemStatus.PROCESSED && item.getVersion() == 1L));
+        assertEquals(34, job.snapshot().processed());
+        assertEquals(1, job.snapshot().missing());
+        assertEquals(4, meterRegistry.get("items.processing.pipeline.stage").tag("stage", "write").timer().count());
+        assertEquals(0, meterRegistry.get("items.processing.pipeline.queue").tag("queue", "chunks").gauge().value());
+        assertEquals(0, meterRegistry.get("items.processing.pipeline.queue").tag("queue", "writes").gauge().value());
+    }
+
+    // Tests that a row failing to load is dead-lettered while the rest of its chunk and of the run goes on
+    @Test
+    void testReadFailureIsDeadLettered() throws Exception {
+        stubIds(20);
+        when(itemRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            List<Item> items = new ArrayList<>();
+            for (Long id : invocation.<Iterable<Long>>getArgument(0)) {
+                if (id == 1L) {
+                    throw new RuntimeException("boom");
+                }
+                items.add(new Item(id, "Item" + id, "desc", ItemStatus.NEW, "a@example.com", 0L, null));
+            }
+            return items;
+        });
+        when(chunkProcessor.writeProcessed(anyList())).thenAnswer(invocation -> new int[invocation.<List<Item>>getArgument(0).size()]);
+
+        ProcessingJob job = new ProcessingJob(ItemProcessingProperties.ProcessingMode.PIPELINE);
+        pipeline.run(job, ProcessingScan.full(itemRepository, 10), items -> { }).get(10, TimeUnit.SECONDS);
+
+        assertEquals(1, job.snapshot().failed());
+        assertEquals(1, job.snapshot().deadLettered());
+        assertEquals(List.of(1L), job.snapshot().failures().get(0).itemIds());
+        verify(deadLetterRepository).saveAll(anyList());
+    }
+
+    // Tests that an item a processor fails on is dead-lettered, and the rest of its chunk is processed once and written
+    @Test
+    void testProcessorFailureIsDeadLettered() throws Exception {
+        stubIds(10);
+        when(itemRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            List<Item> items = new ArrayList<>();
+            for (Long id : invocation.<Iterable<Long>>getArgument(0)) {
+                items.add(new Item(id, "Item" + id, "desc", ItemStatus.NEW, "a@example.com", 0L, null));
+            }
+            return items;
+        });
+        doAnswer(invocation -> {
+            if (invocation.<List<Item>>getArgument(0).stream().anyMatch(item -> item.getId() == 3L)) {
+                throw new IllegalArgumentException("cannot process item 3");
+            }
+            return invocation.callRealMethod();
+        }).when(processors).apply(anyList(), any());
+        when(chunkProcessor.writeProcessed(anyList())).thenAnswer(invocation -> {
+            int[] counts = new int[invocation.<List<Item>>getArgument(0).size()];
+            Arrays.fill(counts, 1);
+            return counts;
+        });
+
+        ProcessingJob job = new ProcessingJob(ItemProcessingProperties.ProcessingMode.PIPELINE);
+        List<Item> processed = Collections.synchronizedList(new ArrayList<>());
+        pipeline.run(job, ProcessingScan.full(itemRepository, 10), processed::addAll).get(10, TimeUnit.SECONDS);
+
+        assertEquals(9, processed.size());
+        assertTrue(processed.stream().allMatch(item -> item.getStatus() == ItemStatus.PROCESSED && item.getId() != 3L));
+        assertEquals(1, job.snapshot().deadLettered());
+        assertEquals(List.of(3L), job.snapshot().failures().get(0).itemIds());
+    }
+
+    // Tests that an Error thrown by a processor aborts the run instead of leaving the writer blocked forever
+    @Test
+    void testProcessorErrorAbortsRun() {
+        stubIds(30);
+        when(itemRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            List<Item> items = new ArrayList<>();
+            for (Long id : invocation.<Iterable<Long>>getArgument(0)) {
+                items.add(new Item(id, "Item" + id, "desc", ItemStatus.NEW, "a@example.com", 0L, null));
+            }
+            return items;
+        });
+        doAnswer(invocation -> {
+            throw new AssertionError("broken processor");
+        }).when(processors).apply(anyList(), any());
+
+        ProcessingJob job = new ProcessingJob(ItemProcessingProperties.ProcessingMode.PIPELINE);
+        ExecutionException failure = assertThrows(ExecutionException.class,
+                () -> pipeline.run(job, ProcessingScan.full(itemRepository, 10), items -> { }).get(10, TimeUnit.SECONDS));
+        assertInstanceOf(AssertionError.class, failure.getCause());
+        assertEquals(0, meterRegistry.get("items.processing.pipeline.queue").tag("queue", "writes").gauge().value());
+    }
+
+    // Tests that a transient write failure is retried instead of failing the chunk
+    @Test
+    void testTransientWriteFailureIsRetried() throws Exception {
+        stubIds(10);
+        when(itemRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            List<Item> items = new ArrayList<>();
+            for (Long id : invocation.<Iterable<Long>>getArgument(0)) {
+                items.add(new Item(id, "Item" + id, "desc", ItemStatus.NEW, "a@example.com", 0L, null));
+            }
+            return items;
+        });
+        AtomicInteger attempts = new AtomicInteger();
+        when(chunkProcessor.writeProcessed(anyList())).thenAnswer(invocation -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new CannotAcquireLockException("lock timeout");
+            }
+            int[] counts = new int[invocation.<List<Item>>getArgument(0).size()];
+            Arrays.fill(counts, 1);
+            return counts;
+        });
+
+        ProcessingJob job = new ProcessingJob(ItemProcessingProperties.ProcessingMode.PIPELINE);
+        pipeline.run(job, ProcessingScan.full(itemRepository, 10), items -> { }).get(10, TimeUnit.SECONDS);
+
+        assertEquals(10, job.snapshot().processed());
+        assertEquals(0, job.snapshot().failed());
+        assertEquals(1, job.snapshot().retried());
+    }
+
+    // Tests the bound on in-flight work: chunks read ahead of the writer never exceed the queues plus the readers
+    @Test
+    void testInFlightChunksAreBounded() throws Exception {
+        stubIds(200);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(itemRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            return List.of();
+        });
+        when(chunkProcessor.writeProcessed(anyList())).thenAnswer(invocation -> {
+            Thread.sleep(2);
+            inFlight.decrementAndGet();
+            return new int[0];
+        });
+
+        ProcessingJob job = new ProcessingJob(ItemProcessingProperties.ProcessingMode.PIPELINE);
+        pipeline.run(job, ProcessingScan.full(itemRepository, 10), items -> { }).get(10, TimeUnit.SECONDS);
+
+        // One chunk in the write queue, one per reader (4) and one in the writer
+        assertTrue(maxInFlight.get() <= 6, "max in flight: " + maxInFlight.get());
+        assertEquals(200, job.snapshot().missing());
+    }
+
+    // Ids 1..count, paged by the full scan in pages of 10
+    private void stubIds(int count) {
+        when(itemRepository.findIdsAfter(anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+            long after = invocation.getArgument(0);
+            long from = Math.max(1, after + 1);
+            return LongStream.rangeClosed(from, Math.min(count, from + 9)).boxed().toList();
+        });
+    }
+}
@@ -0,0 +1,77 @@
+package com.siemens.internship;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ItemProcessorsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    // Tests that every processor runs on every item, in order, and is timed into its own timer and into the job
+    @Test
+    void testProcessorsRunInOrderAndAreTimed() {
+        List<String> calls = new ArrayList<>();
+        ItemProcessor trim = new ItemProcessor() {
+            @Override
+            public String name() {
+                return "trim";
+            }
+
+            @Override
+            public void process(Item item) {
+                calls.add("trim " + item.getId());
+                item.setName(item.getName().trim());
+            }
+        };
+        ItemProcessor slow = new ItemProcessor() {
+            @Override
+            public String name() {
+                return "slow";
+            }
+
+            @Override
+            public void process(Item item) {
+                calls.add("slow " + item.getId());
+                LockSupport.parkNanos(5_000_000);
+            }
+        };
+        ItemProcessors processors = new ItemProcessors(List.of(trim, slow, new MarkProcessedItemProcessor()), registry);
+        ProcessingJob job = new ProcessingJob(ItemProcessingProperties.ProcessingMode.CHUNKED);
+        List<Item> items = List.of(item(1L, " a "), item(2L, "b "));
+
+        processors.apply(items, job);
+
+        assertEquals(List.of("trim 1", "trim 2", "slow 1", "slow 2"), calls);
+        assertEquals("a", items.get(0).getName());
+        assertTrue(items.stream().allMatch(item -> item.getStatus() == ItemStatus.PROCESSED));
+        assertEquals(List.of("trim", "slow", "mark-processed"), processors.names());
+        assertFalse(processors.onlyMarksProcessed());
+        for (String name : processors.names()) {
+            assertEquals(1, registry.get("items.processing.processor").tag("processor", name).timer().count());
+        }
+        // The slowest processor comes first in the summary
+        assertEquals("slow", job.snapshot().processorSeconds().keySet().iterator().next());
+        assertTrue(job.snapshot().processorSeconds().get("slow") >= 0.01);
+    }
+
+    // Tests that the default processor alone is recognized, so SET_BASED runs stay in SQL
+    @Test
+    void testOnlyMarksProcessed() {
+        ItemProcessors processors = new ItemProcessors(List.of(new MarkProcessedItemProcessor()), registry);
+        processors.apply(List.of(), null);
+        processors.apply(List.of(item(1L, "a")), null);
+
+        assertTrue(processors.onlyMarksProcessed());
+        assertEquals(1, registry.get("items.processing.processor").tag("processor", "mark-processed").timer().count());
+    }
+
+    private static Item item(Long id, String name) {
+        return new Item(id, name, "desc", ItemStatus.NEW, "a@example.com");
+    }
+}
@@ -0,0 +1,87 @@
+package com.siemens.internship;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ItemSearchIndexTest {
+
+    private ItemSearchIndex index;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        index = new ItemSearchIndex(new ItemSearchProperties());
+        index.rebuild(items -> {
+            items.accept(item(1L, "Red chair", "A wooden chair"));
+            items.accept(item(2L, "Table", "Goes well with a red chair"));
+            items.accept(item(3L, "Blue chair", "Plastic"));
+            items.accept(item(4L, "Lamp", "Red shade"));
+        });
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        index.destroy();
+    }
+
+    // Tests that every term must match, and that a match in the name ranks above one in the description
+    @Test
+    void testRanksNameMatchesFirst() {
+        ItemSearchIndex.Hits hits = index.search("red chair", null, 10);
+        assertEquals(List.of(1L, 2L), hits.ids());
+        assertNull(hits.nextCursor());
+    }
+
+    // Tests that paging with the returned cursor visits every hit exactly once, in rank order
+    @Test
+    void testPagesWithCursor() {
+        List<Long> all = index.search("chair | red", null, 10).ids();
+        assertEquals(4, all.size());
+
+        List<Long> paged = new ArrayList<>();
+        String cursor = null;
+        do {
+            ItemSearchIndex.Hits page = index.search("chair | red", cursor, 1);
+            paged.addAll(page.ids());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        assertEquals(all, paged);
+    }
+
+    // Tests that updates replace the document of the item and deletes remove it, once the index is refreshed
+    @Test
+    void testUpdateAndDelete() {
+        index.index(item(3L, "Blue sofa", "Plastic"));
+        index.delete(1L);
+        index.refresh();
+
+        assertEquals(List.of(2L), index.search("chair", null, 10).ids());
+        assertEquals(List.of(3L), index.search("sofa", null, 10).ids());
+        assertEquals(3, index.size());
+    }
+
+    // Tests that searches are refused until the index has been built, and malformed cursors are rejected
+    @Test
+    void testNotReadyAndMalformedCursor() throws Exception {
+        ItemSearchIndex fresh = new ItemSearchIndex(new ItemSearchProperties());
+        try {
+            assertThrows(IllegalStateException.class, () -> fresh.search("chair", null, 10));
+        } finally {
+            fresh.destroy();
+        }
+        assertThrows(IllegalArgumentException.class, () -> index.search("chair", "abc", 10));
+    }
+
+    private static Item item(Long id, String name, String description) {
+        Item item = new Item();
+        item.setId(id);
+        item.setName(name);
+        item.setDescription(description);
+        return item;
+    }
+}
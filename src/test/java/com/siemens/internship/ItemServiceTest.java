@@ -1,14 +1,31 @@
 package com.siemens.internship;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mockito.Spy;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -17,12 +34,71 @@ public class ItemServiceTest {
     @Mock
     private ItemRepository itemRepository; // Mocked repository for isolating service logic
 
+    @Mock
+    private ItemChunkProcessor chunkProcessor; // Mocked transactional chunk worker
+
+    @Spy
+    private ItemProcessingProperties processingProperties = new ItemProcessingProperties();
+
+    @Mock
+    private ProcessingJobRegistry jobRegistry;
+
+    @Spy
+    private TaskExecutor taskExecutor = new SyncTaskExecutor(); // Runs background jobs inline
+
+    @Spy
+    private ProcessingExecutor processingExecutor = new ProcessingExecutor(processingProperties, 10);
+
+    @Spy
+    private ItemCache itemCache = new ItemCache(new ItemCacheProperties()); // Real cache, fresh for every test
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Mock
+    private ItemBatchWriter batchWriter; // Mocked transactional bulk writer
+
+    @Spy
+    private ItemBatchProperties batchProperties = new ItemBatchProperties();
+
+    @Mock
+    private ProcessingCheckpointRepository checkpointRepository; // Checkpoint of incremental runs
+
+    @Mock
+    private ItemProcessingPipeline pipeline; // PIPELINE engine, covered by ItemProcessingPipelineTest
+
+    @Mock
+    private ProcessingPartitions partitions; // Partition leases of the PARTITIONED engine
+
+    @Mock
+    private ItemWriteBehind writeBehind; // Write-behind buffer, disabled unless a test enables it; covered by ItemWriteBehindTest
+
+    @Mock
+    private ItemSearchIndex searchIndex; // Full-text index, covered by ItemSearchIndexTest
+
+    @Spy
+    private ItemChangeFeed changeFeed = new ItemChangeFeed(new ItemChangeProperties(), new SimpleMeterRegistry()); // Real feed, read back by the tests
+
+    @Spy
+    private ItemProcessors processors = new ItemProcessors(List.of(new MarkProcessedItemProcessor()), meterRegistry); // Only the default processor
+
+    @Spy
+    private ItemMetrics metrics = new ItemMetrics(meterRegistry, processingExecutor, itemCache, mock(ItemWriteBehind.class));
+
+    private final DeadLetterItemRepository deadLetterRepository = mock(DeadLetterItemRepository.class);
+
+    @Captor
+    private ArgumentCaptor<List<DeadLetterItem>> deadLetters; // Typed by Mockito, no unchecked conversion
+
+    @Spy
+    private ProcessingRecovery recovery = new ProcessingRecovery(processingProperties, deadLetterRepository, metrics); // Real retries, mocked dead-letter table
+
     @InjectMocks
     private ItemService itemService; // The service under test
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this); // Initialize mocks before each test
+        processingProperties.getRetry().setInitialBackoff(Duration.ZERO);
     }
 
     // Tests retrieval of all items
@@ -33,12 +109,64 @@ public class ItemServiceTest {
         Item item2 = new Item();
         item2.setName("Item2");
 
-        when(itemRepository.findAll()).thenReturn(Arrays.asList(item1, item2));
+        when(itemRepository.findAllDetached()).thenReturn(Arrays.asList(item1, item2));
 
         List<Item> result = itemService.findAll();
         assertEquals(2, result.size());
     }
 
+    // Tests a keyset page when more items exist: one extra row is fetched and the cursor points at the last returned id
+    @Test
+    void testFindPageWithNext() {
+        Item item1 = new Item(); item1.setId(1L);
+        Item item2 = new Item(); item2.setId(2L);
+        Item item3 = new Item(); item3.setId(3L);
+
+        when(itemRepository.findPageAfter(Long.MIN_VALUE, PageRequest.ofSize(3))).thenReturn(Arrays.asList(item1, item2, item3));
+
+        ItemPage page = itemService.findPage(null, 2);
+        assertEquals(2, page.items().size());
+        assertEquals(2L, page.nextCursor());
+    }
+
+    // Tests the last keyset page: no next cursor
+    @Test
+    void testFindPageLast() {
+        Item item3 = new Item(); item3.setId(3L);
+
+        when(itemRepository.findPageAfter(2L, PageRequest.ofSize(3))).thenReturn(List.of(item3));
+
+        ItemPage page = itemService.findPage(2L, 2);
+        assertEquals(1, page.items().size());
+        assertNull(page.nextCursor());
+    }
+
+    // Tests a filtered page: the filter becomes a database query, the unfiltered keyset query is not used
+    @Test
+    void testFindPageFiltered() {
+        Item item1 = new Item(); item1.setId(4L);
+        Item item2 = new Item(); item2.setId(9L);
+
+        when(itemRepository.findDetachedPage(new ItemFilter(ItemStatus.DONE, null, null), null, 2)).thenReturn(Arrays.asList(item1, item2));
+
+        ItemPage page = itemService.findPage(new ItemFilter(ItemStatus.DONE, null, null), null, 1);
+        assertEquals(1, page.items().size());
+        assertEquals(4L, page.nextCursor());
+        verify(itemRepository, never()).findPageAfter(any(), any(Pageable.class));
+        verify(itemRepository, never()).findAllDetached();
+    }
+
+    // Tests the per-status aggregate: statuses without rows are reported as 0
+    @Test
+    void testCountByStatus() {
+        when(itemRepository.countPerStatus()).thenReturn(List.of(new StatusCount(ItemStatus.NEW, 5)));
+
+        Map<ItemStatus, Long> counts = itemService.countByStatus();
+        assertEquals(5L, counts.get(ItemStatus.NEW));
+        assertEquals(0L, counts.get(ItemStatus.PROCESSED));
+        assertEquals(0L, counts.get(ItemStatus.DONE));
+    }
+
     // Tests finding an item by ID when it exists
     @Test
     void testFindByIdFound() {
@@ -46,7 +174,7 @@ public class ItemServiceTest {
         item.setId(100L);
         item.setName("Test");
 
-        when(itemRepository.findById(101L)).thenReturn(Optional.of(item));
+        when(itemRepository.findDetachedById(101L)).thenReturn(Optional.of(item));
 
         Optional<Item> result = itemService.findById(101L);
         assertTrue(result.isPresent());
@@ -56,12 +184,272 @@ public class ItemServiceTest {
     // Tests finding an item by ID when it does not exist
     @Test
     void testFindByIdNotFound() {
-        when(itemRepository.findById(404L)).thenReturn(Optional.empty());
+        when(itemRepository.findDetachedById(404L)).thenReturn(Optional.empty());
 
         Optional<Item> result = itemService.findById(404L);
         assertFalse(result.isPresent());
     }
 
+    // Tests that a second lookup of the same ID is served from the cache
+    @Test
+    void testFindByIdCached() {
+        Item item = new Item();
+        item.setId(105L);
+        item.setName("Cached");
+
+        when(itemRepository.findDetachedById(105L)).thenReturn(Optional.of(item));
+
+        assertEquals("Cached", itemService.findById(105L).get().getName());
+        assertEquals("Cached", itemService.findById(105L).get().getName());
+
+        verify(itemRepository, times(1)).findDetachedById(105L);
+        assertEquals(1, itemService.cacheStats().hits());
+        assertEquals(1, itemService.cacheStats().misses());
+        assertEquals(2, meterRegistry.get("items.service").tag("method", "findById").timer().count());
+        assertEquals(1, meterRegistry.get("cache.gets").tag("cache", "items").tag("result", "hit").functionCounter().count());
+    }
+
+    // Tests that callers cannot change the cached copy
+    @Test
+    void testFindByIdReturnsCopy() {
+        Item item = new Item();
+        item.setId(106L);
+        item.setStatus(ItemStatus.NEW);
+
+        when(itemRepository.findDetachedById(106L)).thenReturn(Optional.of(item));
+
+        itemService.findById(106L).get().setStatus(ItemStatus.DONE);
+        assertEquals(ItemStatus.NEW, itemService.findById(106L).get().getStatus());
+    }
+
+    // Tests that saving and deleting both evict the cached item, so the next lookup loads the committed row
+    @Test
+    void testSaveAndDeleteKeepCacheConsistent() {
+        Item item = new Item();
+        item.setId(107L);
+        item.setName("Old");
+
+        when(itemRepository.findDetachedById(107L)).thenReturn(Optional.of(item));
+        itemService.findById(107L);
+
+        Item updated = new Item();
+        updated.setId(107L);
+        updated.setName("New");
+        when(itemRepository.save(updated)).thenReturn(updated);
+        itemService.save(updated);
+
+        when(itemRepository.findDetachedById(107L)).thenReturn(Optional.of(updated));
+        assertEquals("New", itemService.findById(107L).get().getName());
+        verify(itemRepository, times(2)).findDetachedById(107L);
+
+        itemService.deleteById(107L);
+        when(itemRepository.findDetachedById(107L)).thenReturn(Optional.empty());
+        assertFalse(itemService.findById(107L).isPresent());
+    }
+
+    // Tests that evicting an id does not wait for a load of it in progress, and that the load's result is not cached
+    @Test
+    void testCacheEvictDoesNotWaitForLoad() throws Exception {
+        Item item = new Item();
+        item.setId(109L);
+        CompletableFuture<Void> loading = new CompletableFuture<>();
+        CompletableFuture<Void> release = new CompletableFuture<>();
+
+        CompletableFuture<Optional<Item>> load = CompletableFuture.supplyAsync(() -> itemCache.get(109L, id -> {
+            loading.complete(null);
+            release.join();
+            return Optional.of(item);
+        }));
+        loading.get(5, TimeUnit.SECONDS);
+
+        CompletableFuture.runAsync(() -> itemCache.evict(109L)).get(5, TimeUnit.SECONDS);
+        release.complete(null);
+        assertTrue(load.get(5, TimeUnit.SECONDS).isPresent());
+
+        when(itemRepository.findDetachedById(109L)).thenReturn(Optional.of(item));
+        itemService.findById(109L);
+        verify(itemRepository, times(1)).findDetachedById(109L);
+    }
+
+    // Tests that a processing run does not cache its copy of a row a client updated once the chunk had committed
+    @Test
+    void testProcessingDoesNotCacheStaleCopy() throws Exception {
+        processingProperties.setIncremental(false);
+        Item processedCopy = new Item(112L, "Old", "desc", ItemStatus.PROCESSED, "a@example.com", 1L, null);
+        Item clientUpdate = new Item(112L, "New", "desc", ItemStatus.PROCESSED, "a@example.com", 2L, null);
+
+        when(itemRepository.findIdsAfter(eq(Long.MIN_VALUE), any(Pageable.class))).thenReturn(List.of(112L));
+        when(itemRepository.findIdsAfter(eq(112L), any(Pageable.class))).thenReturn(List.of());
+        // The client's update commits (and evicts) between the chunk's commit and the cache write that follows it
+        when(chunkProcessor.processChunk(eq(List.of(112L)), any())).thenReturn(List.of(processedCopy));
+        when(itemRepository.findDetachedById(112L)).thenReturn(Optional.of(clientUpdate));
+
+        itemService.processItemsAsync().get();
+
+        Item found = itemService.findById(112L).get();
+        assertEquals("New", found.getName());
+        assertEquals(2L, found.getVersion());
+    }
+
+    // Tests that a disabled cache goes to the repository every time
+    @Test
+    void testFindByIdCacheDisabled() {
+        ItemCacheProperties properties = new ItemCacheProperties();
+        properties.setEnabled(false);
+        ItemCache disabled = new ItemCache(properties);
+
+        Item item = new Item();
+        item.setId(108L);
+        disabled.get(108L, id -> Optional.of(item));
+        disabled.get(108L, id -> Optional.of(item));
+
+        assertFalse(disabled.stats().enabled());
+        assertEquals(0, disabled.stats().hits());
+    }
+
+    // Tests bulk create: items are written in windows of items.batch.size, a failing window is reported as FAILED
+    @Test
+    void testCreateAll() {
+        batchProperties.setSize(2);
+        Item item1 = new Item(); item1.setName("1");
+        Item item2 = new Item(); item2.setName("2");
+        Item item3 = new Item(); item3.setName("3");
+
+        when(batchWriter.insert(anyList())).thenAnswer(invocation -> {
+            List<Item> window = invocation.getArgument(0);
+            if (window.contains(item3)) {
+                throw new RuntimeException("constraint violated");
+            }
+            for (Item item : window) {
+                item.setId(Long.valueOf(item.getName()));
+            }
+            return window;
+        });
+
+        List<BatchItemResult> results = itemService.createAll(Arrays.asList(item1, item2, item3));
+
+        assertEquals(3, results.size());
+        assertEquals(BatchItemResult.Outcome.CREATED, results.get(0).outcome());
+        assertEquals(2L, results.get(1).id());
+        assertEquals(BatchItemResult.Outcome.FAILED, results.get(2).outcome());
+        assertEquals(2, results.get(2).index());
+        verify(batchWriter, times(2)).insert(anyList());
+    }
+
+    // Tests bulk update: unknown ids come back as NOT_FOUND
+    @Test
+    void testUpdateAll() {
+        Item known = new Item(1L, "Known", "desc", ItemStatus.NEW, "a@example.com");
+        Item unknown = new Item(2L, "Unknown", "desc", ItemStatus.NEW, "b@example.com");
+
+        when(batchWriter.update(anyList())).thenReturn(Arrays.asList(known, null));
+
+        List<BatchItemResult> results = itemService.updateAll(Arrays.asList(known, unknown));
+
+        assertEquals(BatchItemResult.Outcome.UPDATED, results.get(0).outcome());
+        assertEquals(BatchItemResult.Outcome.NOT_FOUND, results.get(1).outcome());
+        assertEquals(2L, results.get(1).id());
+    }
+
+    // Tests bulk delete
+    @Test
+    void testDeleteAll() {
+        when(batchWriter.delete(Arrays.asList(1L, 2L))).thenReturn(Set.of(1L));
+
+        List<BatchItemResult> results = itemService.deleteAll(Arrays.asList(1L, 2L));
+
+        assertEquals(BatchItemResult.Outcome.DELETED, results.get(0).outcome());
+        assertEquals(BatchItemResult.Outcome.NOT_FOUND, results.get(1).outcome());
+    }
+
+    // Tests the single-statement update: no lookup before the UPDATE, cache entry evicted
+    @Test
+    void testUpdate() {
+        Item item = new Item(null, "Updated", "desc", ItemStatus.NEW, "a@example.com");
+        when(itemRepository.updateById(eq(110L), eq("Updated"), eq("desc"), eq(ItemStatus.NEW), eq("a@example.com"), any(Instant.class), eq(2L)))
+                .thenReturn(1);
+
+        Optional<Item> result = itemService.update(110L, item, 2L);
+
+        assertTrue(result.isPresent());
+        assertEquals(110L, result.get().getId());
+        assertEquals(3L, result.get().getVersion());
+        assertNotNull(result.get().getModifiedAt());
+        verify(itemRepository, never()).findById(anyLong());
+        verify(itemRepository, never()).existsById(anyLong());
+    }
+
+    // Tests that an update without an expected version still returns the version it wrote
+    @Test
+    void testUpdateUnconditional() {
+        Item item = new Item(null, "Updated", "desc", ItemStatus.NEW, "a@example.com");
+        when(itemRepository.updateByIdReturningVersion(eq(113L), eq("Updated"), eq("desc"), eq(ItemStatus.NEW), eq("a@example.com"), any(Instant.class)))
+                .thenReturn(5L);
+        when(itemRepository.updateByIdReturningVersion(eq(114L), any(), any(), any(), any(), any())).thenReturn(null);
+
+        Optional<Item> result = itemService.update(113L, item, null);
+
+        assertTrue(result.isPresent());
+        assertEquals(5L, result.get().getVersion());
+        verify(itemRepository, never()).updateById(any(), any(), any(), any(), any(), any(), any());
+        assertFalse(itemService.update(114L, item, null).isPresent());
+        verify(itemRepository, never()).existsById(anyLong());
+    }
+
+    // Tests an update of a missing item
+    @Test
+    void testUpdateNotFound() {
+        Item item = new Item(null, "Updated", "desc", ItemStatus.NEW, "a@example.com");
+        when(itemRepository.updateById(eq(111L), any(), any(), any(), any(), any(), eq(2L))).thenReturn(0);
+        when(itemRepository.existsById(111L)).thenReturn(false);
+
+        assertFalse(itemService.update(111L, item, 2L).isPresent());
+    }
+
+    // Tests an update at a stale version
+    @Test
+    void testUpdateVersionConflict() {
+        Item item = new Item(null, "Updated", "desc", ItemStatus.NEW, "a@example.com");
+        when(itemRepository.updateById(eq(112L), any(), any(), any(), any(), any(), eq(2L))).thenReturn(0);
+        when(itemRepository.existsById(112L)).thenReturn(true);
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> itemService.update(112L, item, 2L));
+    }
+
+    // Tests write-behind: an unconditional update of an existing item is only buffered, a conditional one flushes the item first
+    @Test
+    void testUpdateWriteBehind() {
+        when(writeBehind.isEnabled()).thenReturn(true);
+        when(itemRepository.findDetachedById(115L)).thenReturn(Optional.of(new Item(115L, "Old", "desc", ItemStatus.NEW, "a@example.com")));
+        when(itemRepository.findDetachedById(116L)).thenReturn(Optional.empty());
+
+        Optional<Item> result = itemService.update(115L, new Item(null, "Updated", "desc", ItemStatus.DONE, "a@example.com"), null);
+
+        assertTrue(result.isPresent());
+        assertEquals(115L, result.get().getId());
+        assertNull(result.get().getVersion());
+        verify(writeBehind).write(argThat(item -> item.getId() == 115L && item.getStatus() == ItemStatus.DONE));
+        assertFalse(itemService.update(116L, new Item(null, "Updated", "desc", ItemStatus.DONE, "a@example.com"), null).isPresent());
+        verify(itemRepository, never()).updateById(any(), any(), any(), any(), any(), any(), any());
+
+        when(itemRepository.updateById(eq(115L), any(), any(), any(), any(), any(), eq(2L))).thenReturn(1);
+        itemService.update(115L, new Item(null, "Again", "desc", ItemStatus.NEW, "a@example.com"), 2L);
+        InOrder order = inOrder(writeBehind, itemRepository);
+        order.verify(writeBehind).flush(List.of(115L));
+        order.verify(itemRepository).updateById(eq(115L), any(), any(), any(), any(), any(), eq(2L));
+    }
+
+    // Tests the single-statement delete
+    @Test
+    void testDelete() {
+        when(itemRepository.deleteByIdAndVersion(113L, null)).thenReturn(1);
+        when(itemRepository.deleteByIdAndVersion(114L, null)).thenReturn(0);
+
+        assertTrue(itemService.delete(113L, null));
+        assertFalse(itemService.delete(114L, null));
+        verify(itemRepository, never()).existsById(anyLong());
+    }
+
     // Tests saving a new item
     @Test
     void testSave() {
@@ -86,16 +474,49 @@ public class ItemServiceTest {
         verify(itemRepository, times(1)).deleteById(idToDelete);
     }
 
+    // Tests that writes keep the search index up to date
+    @Test
+    void testWritesUpdateSearchIndex() {
+        Item item = new Item();
+        item.setId(124L);
+        when(itemRepository.save(item)).thenReturn(item);
+        when(batchWriter.delete(List.of(125L, 126L))).thenReturn(Set.of(125L));
+
+        itemService.save(item);
+        itemService.deleteById(124L);
+        itemService.deleteAll(List.of(125L, 126L));
+
+        verify(searchIndex).index(item);
+        verify(searchIndex).delete(124L);
+        verify(searchIndex).deleteAll(Set.of(125L));
+    }
+
+    // Tests that search hits are loaded in rank order, and ids whose row is gone are dropped from the page and the index
+    @Test
+    void testSearchLoadsHitsInRankOrder() {
+        Item item1 = new Item(); item1.setId(1L);
+        Item item3 = new Item(); item3.setId(3L);
+        when(searchIndex.search("chair", null, 3)).thenReturn(new ItemSearchIndex.Hits(List.of(3L, 2L, 1L), "0.5:1"));
+        when(itemRepository.findAllDetachedById(List.of(3L, 2L, 1L))).thenReturn(List.of(item1, item3));
+
+        ItemSearchPage page = itemService.search("chair", null, 3);
+
+        assertEquals(List.of(item3, item1), page.items());
+        assertEquals("0.5:1", page.nextCursor());
+        verify(searchIndex).delete(2L);
+    }
+
     // Tests async processing when all items exist and are processed
     @Test
     void testProcessItemsAsync_AllItemsProcessed() throws Exception {
+        processingProperties.setMode(ItemProcessingProperties.ProcessingMode.PER_ITEM);
         Item item1 = new Item();
         item1.setId(201L);
-        item1.setStatus("NEW");
+        item1.setStatus(ItemStatus.NEW);
 
         Item item2 = new Item();
         item2.setId(202L);
-        item2.setStatus("NEW");
+        item2.setStatus(ItemStatus.NEW);
 
         when(itemRepository.findAllIds()).thenReturn(Arrays.asList(201L, 202L));
         when(itemRepository.findById(201L)).thenReturn(Optional.of(item1));
@@ -106,15 +527,16 @@ public class ItemServiceTest {
         List<Item> processed = future.get();
 
         assertEquals(2, processed.size());
-        assertTrue(processed.stream().allMatch(i -> "PROCESSED".equals(i.getStatus())));
+        assertTrue(processed.stream().allMatch(i -> i.getStatus() == ItemStatus.PROCESSED));
     }
 
     // Tests async processing when one item is missing (should skip it)
     @Test
     void testProcessItemsAsync_ItemNotFound() throws Exception {
+        processingProperties.setMode(ItemProcessingProperties.ProcessingMode.PER_ITEM);
         Item item1 = new Item();
         item1.setId(301L);
-        item1.setStatus("NEW");
+        item1.setStatus(ItemStatus.NEW);
 
         when(itemRepository.findAllIds()).thenReturn(Arrays.asList(301L, 302L));
         when(itemRepository.findById(301L)).thenReturn(Optional.of(item1));
@@ -125,6 +547,411 @@ public class ItemServiceTest {
         List<Item> processed = future.get();
 
         assertEquals(1, processed.size());
-        assertEquals("PROCESSED", processed.get(0).getStatus());
+        assertEquals(ItemStatus.PROCESSED, processed.get(0).getStatus());
+    }
+
+    // Tests chunked processing: ids are paged by keyset and every page is handed to the chunk processor
+    @Test
+    void testProcessItemsAsync_Chunked() throws Exception {
+        processingProperties.setIncremental(false);
+        processingProperties.setChunkSize(2);
+
+        Item item1 = new Item(); item1.setId(1L); item1.setStatus(ItemStatus.PROCESSED);
+        Item item2 = new Item(); item2.setId(2L); item2.setStatus(ItemStatus.PROCESSED);
+        Item item3 = new Item(); item3.setId(3L); item3.setStatus(ItemStatus.PROCESSED);
+
+        when(itemRepository.findIdsAfter(eq(Long.MIN_VALUE), any(Pageable.class))).thenReturn(Arrays.asList(1L, 2L));
+        when(itemRepository.findIdsAfter(eq(2L), any(Pageable.class))).thenReturn(List.of(3L));
+        when(itemRepository.findIdsAfter(eq(3L), any(Pageable.class))).thenReturn(List.of());
+        when(chunkProcessor.processChunk(eq(Arrays.asList(1L, 2L)), any())).thenReturn(Arrays.asList(item1, item2));
+        when(chunkProcessor.processChunk(eq(List.of(3L)), any())).thenReturn(List.of(item3));
+
+        List<Item> processed = itemService.processItemsAsync().get();
+
+        assertEquals(3, processed.size());
+        verify(chunkProcessor, times(2)).processChunk(anyList(), any());
+        verify(itemRepository, never()).findById(anyLong());
+        assertEquals(3, meterRegistry.get("items.processing.items").tag("outcome", "processed").counter().count());
+        assertEquals(2, meterRegistry.get("items.processing.chunk").timer().count());
+    }
+
+    // Tests that a failing chunk does not fail the whole run
+    @Test
+    void testProcessItemsAsync_ChunkFailureIsSkipped() throws Exception {
+        processingProperties.setIncremental(false);
+        processingProperties.setChunkSize(1);
+
+        Item item2 = new Item(); item2.setId(2L); item2.setStatus(ItemStatus.PROCESSED);
+
+        when(itemRepository.findIdsAfter(eq(Long.MIN_VALUE), any(Pageable.class))).thenReturn(List.of(1L));
+        when(itemRepository.findIdsAfter(eq(1L), any(Pageable.class))).thenReturn(List.of(2L));
+        when(itemRepository.findIdsAfter(eq(2L), any(Pageable.class))).thenReturn(List.of());
+        when(chunkProcessor.processChunk(eq(List.of(1L)), any())).thenThrow(new RuntimeException("boom"));
+        when(chunkProcessor.processChunk(eq(List.of(2L)), any())).thenReturn(List.of(item2));
+
+        List<Item> processed = itemService.processItemsAsync().get();
+
+        assertEquals(1, processed.size());
+        assertEquals(2L, processed.get(0).getId());
+        assertEquals(1, meterRegistry.get("items.processing.items").tag("outcome", "failed").counter().count());
+    }
+
+    // Tests the set-based path: the id space is split into BETWEEN ranges of chunkSize ids
+    @Test
+    void testMarkAllProcessedAsync() throws Exception {
+        processingProperties.setChunkSize(10);
+
+        when(itemRepository.findMinId()).thenReturn(1L);
+        when(itemRepository.findMaxId()).thenReturn(25L);
+        when(chunkProcessor.markProcessed(1L, 10L)).thenReturn(10);
+        when(chunkProcessor.markProcessed(11L, 20L)).thenReturn(8);
+        when(chunkProcessor.markProcessed(21L, 25L)).thenReturn(5);
+
+        assertEquals(23, itemService.markAllProcessedAsync().get());
+    }
+
+    // Tests that writes and processing runs are published to the change feed, in order
+    @Test
+    void testChangesArePublished() throws Exception {
+        processingProperties.setChunkSize(10);
+        long start = changeFeed.latestSequence();
+        Item item = new Item();
+        item.setId(7L);
+        when(itemRepository.save(item)).thenReturn(item);
+        when(itemRepository.findMinId()).thenReturn(1L);
+        when(itemRepository.findMaxId()).thenReturn(5L);
+        when(chunkProcessor.markProcessed(1L, 5L)).thenReturn(5); // a range with nothing marked publishes no event
+
+        itemService.save(item);
+        itemService.deleteById(7L);
+        itemService.markAllProcessedAsync().get();
+
+        List<ItemChange> changes = changeFeed.read(start, 10);
+        assertEquals(List.of(ItemChange.Type.SAVED, ItemChange.Type.DELETED, ItemChange.Type.PROCESSED),
+                changes.stream().map(ItemChange::type).toList());
+        assertEquals(7L, changes.get(0).item().getId());
+        assertEquals(1L, changes.get(2).fromId());
+        assertEquals(5L, changes.get(2).toId());
+    }
+
+    // Tests the set-based path on an empty table
+    @Test
+    void testMarkAllProcessedAsync_EmptyTable() throws Exception {
+        when(itemRepository.findMinId()).thenReturn(null);
+        when(itemRepository.findMaxId()).thenReturn(null);
+
+        assertEquals(0, itemService.markAllProcessedAsync().get());
+        verifyNoInteractions(chunkProcessor);
+    }
+
+    // Tests a background job: it is registered, runs the chunked engine and reports progress
+    @Test
+    void testStartProcessing() throws Exception {
+        processingProperties.setIncremental(false);
+        Item item1 = new Item(); item1.setId(1L);
+
+        when(jobRegistry.register(any(ProcessingJob.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(itemRepository.count()).thenReturn(2L);
+        when(itemRepository.findIdsAfter(eq(Long.MIN_VALUE), any(Pageable.class))).thenReturn(Arrays.asList(1L, 2L));
+        when(itemRepository.findIdsAfter(eq(2L), any(Pageable.class))).thenReturn(List.of());
+        when(chunkProcessor.processChunk(eq(Arrays.asList(1L, 2L)), any())).thenReturn(List.of(item1));
+
+        ProcessingJob job = itemService.startProcessing();
+        waitUntilFinished(job);
+
+        ProcessingJob.Snapshot snapshot = job.snapshot();
+        assertEquals(ProcessingJob.State.COMPLETED, snapshot.state());
+        assertEquals(2, snapshot.total());
+        assertEquals(1, snapshot.processed());
+        assertEquals(1, snapshot.missing());
+        assertEquals(0, snapshot.remaining());
+    }
+
+    // Tests that SET_BASED runs on the chunked engine once a processor other than mark-processed is registered, re-indexing the items
+    @Test
+    void testStartProcessing_SetBasedWithProcessors() throws Exception {
+        processingProperties.setMode(ItemProcessingProperties.ProcessingMode.SET_BASED);
+        processingProperties.setIncremental(false);
+        doReturn(false).when(processors).onlyMarksProcessed();
+        Item item1 = new Item(); item1.setId(1L);
+
+        when(jobRegistry.register(any(ProcessingJob.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(itemRepository.count()).thenReturn(1L);
+        when(itemRepository.findIdsAfter(eq(Long.MIN_VALUE), any(Pageable.class))).thenReturn(List.of(1L));
+        when(itemRepository.findIdsAfter(eq(1L), any(Pageable.class))).thenReturn(List.of());
+        when(chunkProcessor.processChunk(eq(List.of(1L)), any())).thenReturn(List.of(item1));
+
+        ProcessingJob job = itemService.startProcessing();
+        waitUntilFinished(job);
+
+        assertEquals(ItemProcessingProperties.ProcessingMode.CHUNKED, job.snapshot().mode());
+        assertEquals(1, job.snapshot().processed());
+        verify(chunkProcessor, never()).markProcessed(anyLong(), anyLong());
+        verify(searchIndex).indexAll(List.of(item1));
+    }
+
+    // Tests that a cancelled job stops before starting new chunks
+    @Test
+    void testStartProcessing_Cancelled() throws Exception {
+        when(jobRegistry.register(any(ProcessingJob.class))).thenAnswer(invocation -> {
+            ProcessingJob job = invocation.getArgument(0);
+            job.cancel();
+            return job;
+        });
+        when(itemRepository.count()).thenReturn(5L);
+
+        ProcessingJob job = itemService.startProcessing();
+        waitUntilFinished(job);
+
+        assertEquals(ProcessingJob.State.CANCELLED, job.getState());
+        verify(itemRepository, never()).findIdsAfter(any(), any(Pageable.class));
+        verifyNoInteractions(chunkProcessor);
+    }
+
+    // Tests an incremental run: only changed keys are paged and the checkpoint follows the committed chunks
+    @Test
+    void testProcessItemsAsync_Incremental() throws Exception {
+        Instant t1 = Instant.parse("2026-01-01T10:00:00Z");
+        Instant t2 = Instant.parse("2026-01-01T10:00:01Z");
+        Item item5 = new Item(); item5.setId(5L);
+        Item item9 = new Item(); item9.setId(9L);
+
+        when(itemRepository.findChangedAfter(eq(Instant.EPOCH), eq(Long.MIN_VALUE), any(Instant.class), any(Pageable.class)))
+                .thenReturn(List.of(new ItemChangeKey(5L, t1), new ItemChangeKey(9L, t2)));
+        when(itemRepository.findChangedAfter(eq(t2), eq(9L), any(Instant.class), any(Pageable.class))).thenReturn(List.of());
+        when(chunkProcessor.processChunk(eq(List.of(5L, 9L)), any())).thenReturn(List.of(item5, item9));
+
+        List<Item> processed = itemService.processItemsAsync().get();
+
+        assertEquals(2, processed.size());
+        verify(itemRepository, never()).findIdsAfter(any(), any(Pageable.class));
+        ArgumentCaptor<ProcessingCheckpoint> saved = ArgumentCaptor.forClass(ProcessingCheckpoint.class);
+        verify(checkpointRepository, times(2)).save(saved.capture());
+        assertEquals(t2, saved.getAllValues().get(0).getModifiedAt());
+        assertEquals(9L, saved.getAllValues().get(0).getLastId());
+        assertTrue(saved.getAllValues().get(1).getModifiedAt().isAfter(t2));
+        assertEquals(Long.MAX_VALUE, saved.getAllValues().get(1).getLastId());
+    }
+
+    // Tests that an incremental run restarts before the checkpoint and that a chunk still failing after its retries holds it back
+    @Test
+    void testProcessItemsAsync_IncrementalFailedChunkKeepsCheckpoint() throws Exception {
+        processingProperties.setChunkSize(1);
+        Instant checkpoint = Instant.parse("2026-01-01T10:00:00Z");
+        Instant since = checkpoint.minus(processingProperties.getCheckpointOverlap());
+        Instant t1 = checkpoint.plusSeconds(1);
+        Instant t2 = checkpoint.plusSeconds(2);
+        Item item2 = new Item(); item2.setId(2L);
+
+        when(checkpointRepository.findById(ProcessingScan.CHECKPOINT))
+                .thenReturn(Optional.of(new ProcessingCheckpoint(ProcessingScan.CHECKPOINT, checkpoint, 7L)));
+        when(itemRepository.findChangedAfter(eq(since), eq(Long.MIN_VALUE), any(Instant.class), any(Pageable.class)))
+                .thenReturn(List.of(new ItemChangeKey(1L, t1)));
+        when(itemRepository.findChangedAfter(eq(t1), eq(1L), any(Instant.class), any(Pageable.class)))
+                .thenReturn(List.of(new ItemChangeKey(2L, t2)));
+        when(itemRepository.findChangedAfter(eq(t2), eq(2L), any(Instant.class), any(Pageable.class))).thenReturn(List.of());
+        when(chunkProcessor.processChunk(eq(List.of(1L)), any())).thenThrow(new QueryTimeoutException("timeout"));
+        when(chunkProcessor.processChunk(eq(List.of(2L)), any())).thenReturn(List.of(item2));
+
+        List<Item> processed = itemService.processItemsAsync().get();
+
+        assertEquals(1, processed.size());
+        verify(chunkProcessor, times(3)).processChunk(eq(List.of(1L)), any());
+        verify(checkpointRepository, never()).save(any());
+        verifyNoInteractions(deadLetterRepository);
+    }
+
+    // Tests that an incremental SET_BASED run records a chunk that keeps failing and completes with the other chunks
+    @Test
+    void testStartProcessing_SetBasedFailedChunk() throws Exception {
+        processingProperties.setMode(ItemProcessingProperties.ProcessingMode.SET_BASED);
+        processingProperties.setChunkSize(1);
+        Instant t1 = Instant.parse("2026-01-01T10:00:01Z");
+        Instant t2 = Instant.parse("2026-01-01T10:00:02Z");
+
+        when(jobRegistry.register(any(ProcessingJob.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(itemRepository.findChangedAfter(eq(Instant.EPOCH), eq(Long.MIN_VALUE), any(Instant.class), any(Pageable.class)))
+                .thenReturn(List.of(new ItemChangeKey(1L, t1)));
+        when(itemRepository.findChangedAfter(eq(t1), eq(1L), any(Instant.class), any(Pageable.class)))
+                .thenReturn(List.of(new ItemChangeKey(2L, t2)));
+        when(itemRepository.findChangedAfter(eq(t2), eq(2L), any(Instant.class), any(Pageable.class))).thenReturn(List.of());
+        when(chunkProcessor.markProcessed(List.of(1L))).thenThrow(new QueryTimeoutException("timeout"));
+        when(chunkProcessor.markProcessed(List.of(2L))).thenReturn(1);
+
+        ProcessingJob job = itemService.startProcessing();
+        waitUntilFinished(job);
+
+        ProcessingJob.Snapshot snapshot = job.snapshot();
+        assertEquals(ProcessingJob.State.COMPLETED, snapshot.state());
+        assertEquals(1, snapshot.processed());
+        assertEquals(1, snapshot.failed());
+        assertEquals(List.of(1L), snapshot.failures().get(0).itemIds());
+        verify(chunkProcessor, times(3)).markProcessed(List.of(1L));
+        // The failed first chunk holds the checkpoint back
+        verify(checkpointRepository, never()).save(any());
+    }
+
+    // Tests that a transient error is retried and the chunk then succeeds
+    @Test
+    void testProcessItemsAsync_TransientFailureIsRetried() throws Exception {
+        processingProperties.setIncremental(false);
+        Item item1 = new Item(); item1.setId(1L);
+        Item item2 = new Item(); item2.setId(2L);
+
+        when(itemRepository.findIdsAfter(eq(Long.MIN_VALUE), any(Pageable.class))).thenReturn(Arrays.asList(1L, 2L));
+        when(itemRepository.findIdsAfter(eq(2L), any(Pageable.class))).thenReturn(List.of());
+        when(chunkProcessor.processChunk(eq(Arrays.asList(1L, 2L)), any()))
+                .thenThrow(new QueryTimeoutException("timeout"))
+                .thenReturn(Arrays.asList(item1, item2));
+
+        List<Item> processed = itemService.processItemsAsync().get();
+
+        assertEquals(2, processed.size());
+        assertEquals(1, meterRegistry.get("items.processing.retries").counter().count());
+        verifyNoInteractions(deadLetterRepository);
+    }
+
+    // Tests that a chunk failing for a non-transient reason is processed item by item and only the poison item is dead-lettered
+    @Test
+    void testStartProcessing_PoisonItemIsDeadLettered() throws Exception {
+        processingProperties.setIncremental(false);
+        Item item1 = new Item(); item1.setId(1L);
+
+        when(jobRegistry.register(any(ProcessingJob.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(itemRepository.count()).thenReturn(3L);
+        when(itemRepository.findIdsAfter(eq(Long.MIN_VALUE), any(Pageable.class))).thenReturn(Arrays.asList(1L, 2L, 3L));
+        when(itemRepository.findIdsAfter(eq(3L), any(Pageable.class))).thenReturn(List.of());
+        when(chunkProcessor.processChunk(eq(Arrays.asList(1L, 2L, 3L)), any())).thenThrow(new DataIntegrityViolationException("bad row"));
+        when(chunkProcessor.processChunk(eq(List.of(1L)), any())).thenReturn(List.of(item1));
+        when(chunkProcessor.processChunk(eq(List.of(2L)), any())).thenThrow(new DataIntegrityViolationException("bad row"));
+        when(chunkProcessor.processChunk(eq(List.of(3L)), any())).thenReturn(List.of());
+
+        ProcessingJob job = itemService.startProcessing();
+        waitUntilFinished(job);
+
+        ProcessingJob.Snapshot snapshot = job.snapshot();
+        assertEquals(ProcessingJob.State.COMPLETED, snapshot.state());
+        assertEquals(1, snapshot.processed());
+        assertEquals(1, snapshot.missing());
+        assertEquals(1, snapshot.failed());
+        assertEquals(1, snapshot.deadLettered());
+        assertEquals(List.of(3L), snapshot.missingIds());
+        assertEquals("DataIntegrityViolationException: bad row", snapshot.failures().get(0).cause());
+        assertEquals(List.of(2L), snapshot.failures().get(0).itemIds());
+
+        verify(deadLetterRepository).saveAll(deadLetters.capture());
+        assertEquals(2L, deadLetters.getValue().get(0).getItemId());
+        assertEquals(job.getId(), deadLetters.getValue().get(0).getJobId());
+        assertEquals(1, deadLetters.getValue().get(0).getFailures());
+    }
+
+    // Tests reprocessing dead letters: items that succeed leave the table, items that fail again stay with one more failure
+    @Test
+    void testReprocessDeadLetters() throws Exception {
+        DeadLetterItem letter4 = new DeadLetterItem(4L, "job-1", "boom", 1, Instant.EPOCH, Instant.EPOCH);
+        DeadLetterItem letter5 = new DeadLetterItem(5L, "job-1", "boom", 1, Instant.EPOCH, Instant.EPOCH);
+        Item item4 = new Item(); item4.setId(4L);
+
+        when(jobRegistry.register(any(ProcessingJob.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(deadLetterRepository.count()).thenReturn(2L);
+        when(deadLetterRepository.findPageAfter(eq(Long.MIN_VALUE), any(Pageable.class))).thenReturn(List.of(letter4, letter5));
+        when(deadLetterRepository.findPageAfter(eq(5L), any(Pageable.class))).thenReturn(List.of());
+        when(deadLetterRepository.findAllById(List.of(5L))).thenReturn(List.of(letter5));
+        when(chunkProcessor.processChunk(eq(List.of(4L)), any())).thenReturn(List.of(item4));
+        when(chunkProcessor.processChunk(eq(List.of(5L)), any())).thenThrow(new IllegalStateException("still broken"));
+
+        ProcessingJob job = itemService.reprocessDeadLetters();
+        waitUntilFinished(job);
+
+        assertEquals(ProcessingJob.State.COMPLETED, job.getState());
+        assertEquals(1, job.snapshot().processed());
+        assertEquals(1, job.snapshot().failed());
+        verify(deadLetterRepository).deleteById(4L);
+        verify(deadLetterRepository, never()).deleteById(5L);
+        assertEquals(2, letter5.getFailures());
+        assertEquals("IllegalStateException: still broken", letter5.getCause());
+    }
+
+    // Tests the partitioned engine: claimed id ranges are processed from their last committed chunk, with the lease renewed per chunk
+    @Test
+    void testStartProcessing_Partitioned() throws Exception {
+        processingProperties.setMode(ItemProcessingProperties.ProcessingMode.PARTITIONED);
+        processingProperties.setChunkSize(2);
+        ProcessingPartition partition = new ProcessingPartition("run-1", 1L, 10L);
+        partition.setLastId(4L); // resumed after a previous owner committed up to id 4
+        Item item5 = new Item(); item5.setId(5L);
+        Item item6 = new Item(); item6.setId(6L);
+        Item item9 = new Item(); item9.setId(9L);
+
+        when(jobRegistry.register(any(ProcessingJob.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(partitions.openRun()).thenReturn(Optional.of(new ProcessingRun("run-1", ProcessingRun.ACTIVE, Instant.now(), null)));
+        when(partitions.claim()).thenReturn(Optional.of(partition)).thenReturn(Optional.empty());
+        when(partitions.recordProgress(eq(partition), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(true);
+        when(itemRepository.findIdsBetween(eq(4L), eq(10L), any(Pageable.class))).thenReturn(Arrays.asList(5L, 6L));
+        when(itemRepository.findIdsBetween(eq(6L), eq(10L), any(Pageable.class))).thenReturn(List.of(9L));
+        when(itemRepository.findIdsBetween(eq(9L), eq(10L), any(Pageable.class))).thenReturn(List.of());
+        when(chunkProcessor.processChunk(eq(Arrays.asList(5L, 6L)), any())).thenReturn(Arrays.asList(item5, item6));
+        when(chunkProcessor.processChunk(eq(List.of(9L)), any())).thenReturn(List.of(item9));
+        when(itemRepository.count()).thenReturn(3L);
+
+        ProcessingJob job = itemService.startProcessing();
+        waitUntilFinished(job);
+
+        assertEquals(ProcessingJob.State.COMPLETED, job.getState());
+        assertEquals(ItemProcessingProperties.ProcessingMode.PARTITIONED, job.snapshot().mode());
+        assertEquals(3, job.snapshot().total());
+        assertEquals(3, job.snapshot().processed());
+        assertEquals(0, job.snapshot().remaining());
+        verify(partitions).recordProgress(partition, 6L, 2, 0, 0);
+        verify(partitions).recordProgress(partition, 9L, 1, 0, 0);
+        verify(partitions).complete(partition);
+        verify(itemRepository, never()).findIdsAfter(any(), any(Pageable.class));
+    }
+
+    // Tests that a partition taken over by another instance is abandoned after the current chunk
+    @Test
+    void testStartProcessing_PartitionLeaseLost() throws Exception {
+        processingProperties.setMode(ItemProcessingProperties.ProcessingMode.PARTITIONED);
+        processingProperties.setChunkSize(2);
+        ProcessingPartition partition = new ProcessingPartition("run-1", 1L, 10L);
+        Item item1 = new Item(); item1.setId(1L);
+
+        when(jobRegistry.register(any(ProcessingJob.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(partitions.openRun()).thenReturn(Optional.of(new ProcessingRun("run-1", ProcessingRun.ACTIVE, Instant.now(), null)));
+        when(partitions.claim()).thenReturn(Optional.of(partition)).thenReturn(Optional.empty());
+        when(partitions.recordProgress(eq(partition), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(false);
+        when(itemRepository.findIdsBetween(eq(0L), eq(10L), any(Pageable.class))).thenReturn(List.of(1L));
+        when(chunkProcessor.processChunk(eq(List.of(1L)), any())).thenReturn(List.of(item1));
+
+        ProcessingJob job = itemService.startProcessing();
+        waitUntilFinished(job);
+
+        assertEquals(ProcessingJob.State.COMPLETED, job.getState());
+        verify(itemRepository, times(1)).findIdsBetween(any(), any(), any(Pageable.class));
+        verify(partitions, never()).complete(any());
+    }
+
+    // Tests that a partition poll while another job runs on this instance is skipped without an error and claims nothing
+    @Test
+    void testPollPartitions_SkippedWhileAnotherJobRuns() {
+        processingProperties.setMode(ItemProcessingProperties.ProcessingMode.PARTITIONED);
+        when(partitions.hasClaimable()).thenReturn(true);
+        when(jobRegistry.register(any(ProcessingJob.class))).thenThrow(new IllegalStateException("A processing job is already running"));
+
+        assertDoesNotThrow(() -> itemService.pollPartitions());
+        assertEquals(Optional.empty(), itemService.joinActiveRun());
+        verify(partitions, never()).claim();
+
+        // The skipped poll released its guard: the next one tries again
+        itemService.pollPartitions();
+        verify(jobRegistry, times(3)).register(any(ProcessingJob.class));
+    }
+
+    // Chunks run on the processing executor, so completion is awaited briefly
+    private static void waitUntilFinished(ProcessingJob job) throws InterruptedException {
+        for (int i = 0; i < 500 && !job.isFinished(); i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(job.isFinished());
     }
 }
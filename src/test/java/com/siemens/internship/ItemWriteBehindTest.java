@@ -0,0 +1,201 @@
+package com.siemens.internship;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+public class ItemWriteBehindTest {
+
+    private final ItemBatchWriter batchWriter = mock(ItemBatchWriter.class);
+    private final ItemCache itemCache = new ItemCache(new ItemCacheProperties());
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @Captor
+    private ArgumentCaptor<List<Item>> written;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    // Enabled, with a flush interval long enough that tests decide when flushes happen
+    private ItemWriteBehindProperties properties() {
+        ItemWriteBehindProperties properties = new ItemWriteBehindProperties();
+        properties.setEnabled(true);
+        properties.setFlushInterval(Duration.ofHours(1));
+        return properties;
+    }
+
+    private static Item item(long id, String name, ItemStatus status) {
+        Item item = new Item(id, name, "desc", status, "item" + id + "@example.com");
+        item.setModifiedAt(Item.now());
+        return item;
+    }
+
+    // Tests that repeated writes of one item are coalesced: reads see the last one, the flush writes it once
+    @Test
+    void testCoalescesWritesOfTheSameItem() throws Exception {
+        ItemWriteBehind writeBehind = new ItemWriteBehind(properties(), batchWriter, itemCache, objectMapper);
+        writeBehind.start();
+        try {
+            itemCache.put(item(1L, "Cached", ItemStatus.NEW));
+            writeBehind.write(item(1L, "First", ItemStatus.NEW));
+            writeBehind.write(item(1L, "Last", ItemStatus.DONE));
+            writeBehind.write(item(2L, "Other", ItemStatus.NEW));
+
+            assertEquals(2, writeBehind.pending());
+            assertEquals("Last", writeBehind.find(1L).orElseThrow().getName());
+            verifyNoInteractions(batchWriter);
+
+            when(batchWriter.updateFields(anyList(), any(Instant.class))).thenReturn(new int[]{1, 1});
+            writeBehind.flush();
+
+            verify(batchWriter).updateFields(written.capture(), any(Instant.class));
+            assertEquals(2, written.getValue().size());
+            assertEquals(ItemStatus.DONE, written.getValue().stream().filter(i -> i.getId() == 1L).findFirst().orElseThrow().getStatus());
+            assertEquals(0, writeBehind.pending());
+            assertEquals(2, writeBehind.flushedCount());
+            assertTrue(writeBehind.find(1L).isEmpty());
+            // The cached copy predates the write: it must be reloaded
+            assertEquals(Optional.empty(), itemCache.get(1L, id -> Optional.empty()));
+        } finally {
+            writeBehind.stop();
+        }
+    }
+
+    // Tests the size trigger: batch-size buffered items start a flush without waiting for the interval
+    @Test
+    void testFlushesWhenBatchIsFull() throws Exception {
+        ItemWriteBehindProperties properties = properties();
+        properties.setBatchSize(3);
+        when(batchWriter.updateFields(anyList(), any(Instant.class))).thenReturn(new int[]{1, 1, 1});
+        ItemWriteBehind writeBehind = new ItemWriteBehind(properties, batchWriter, itemCache, objectMapper);
+        writeBehind.start();
+        try {
+            for (long id = 1; id <= 3; id++) {
+                writeBehind.write(item(id, "Item" + id, ItemStatus.DONE));
+            }
+            verify(batchWriter, timeout(5000)).updateFields(anyList(), any(Instant.class));
+        } finally {
+            writeBehind.stop();
+        }
+    }
+
+    // Tests that a transient failure keeps the writes, and that shutdown flushes them
+    @Test
+    void testTransientFailureKeepsWritesUntilShutdown() throws Exception {
+        ItemWriteBehind writeBehind = new ItemWriteBehind(properties(), batchWriter, itemCache, objectMapper);
+        writeBehind.start();
+        writeBehind.write(item(1L, "Item", ItemStatus.DONE));
+        when(batchWriter.updateFields(anyList(), any(Instant.class))).thenThrow(new QueryTimeoutException("timeout")).thenReturn(new int[]{1});
+
+        assertThrows(QueryTimeoutException.class, writeBehind::flush);
+        assertEquals(1, writeBehind.pending());
+
+        writeBehind.stop();
+        assertEquals(0, writeBehind.pending());
+        verify(batchWriter, times(2)).updateFields(anyList(), any(Instant.class));
+    }
+
+    // Tests that a flush stamps the rows with its own time: a write held back by retries beyond the checkpoint overlaps still gets seen by the incremental scans
+    @Test
+    void testFlushStampsModifiedAt() throws Exception {
+        ItemWriteBehind writeBehind = new ItemWriteBehind(properties(), batchWriter, itemCache, objectMapper);
+        writeBehind.start();
+        try {
+            Item update = item(1L, "Item", ItemStatus.DONE);
+            update.setModifiedAt(Item.now().minus(Duration.ofMinutes(1)));
+            writeBehind.write(update);
+            when(batchWriter.updateFields(anyList(), any(Instant.class))).thenThrow(new QueryTimeoutException("timeout")).thenReturn(new int[]{1});
+            assertThrows(QueryTimeoutException.class, writeBehind::flush);
+
+            Instant flushed = Item.now();
+            writeBehind.flush();
+
+            ArgumentCaptor<Instant> modifiedAt = ArgumentCaptor.forClass(Instant.class);
+            verify(batchWriter, times(2)).updateFields(anyList(), modifiedAt.capture());
+            assertFalse(modifiedAt.getValue().isBefore(flushed));
+            assertEquals(0, writeBehind.pending());
+        } finally {
+            writeBehind.stop();
+        }
+    }
+
+    // Tests that an item that cannot be written is dropped without holding back the rest of its batch
+    @Test
+    void testDropsItemsThatCannotBeWritten() throws Exception {
+        ItemWriteBehind writeBehind = new ItemWriteBehind(properties(), batchWriter, itemCache, objectMapper);
+        writeBehind.start();
+        try {
+            writeBehind.write(item(1L, "Good", ItemStatus.DONE));
+            writeBehind.write(item(2L, "Poison", ItemStatus.DONE));
+            when(batchWriter.updateFields(anyList(), any(Instant.class))).thenAnswer(invocation -> {
+                List<Item> items = invocation.getArgument(0);
+                if (items.stream().anyMatch(i -> i.getId() == 2L)) {
+                    throw new DataIntegrityViolationException("check constraint");
+                }
+                return new int[]{1};
+            });
+
+            writeBehind.flush();
+
+            assertEquals(0, writeBehind.pending());
+            assertEquals(1, writeBehind.flushedCount());
+        } finally {
+            writeBehind.stop();
+        }
+    }
+
+    // Tests crash safety: writes acknowledged before a crash are replayed from the journal at the next start
+    @Test
+    void testJournalIsReplayedAfterCrash() throws Exception {
+        Path journal = tempDir.resolve("journal").resolve("writes.ndjson");
+        ItemWriteBehindProperties properties = properties();
+        properties.setJournal(journal);
+
+        ItemWriteBehind crashed = new ItemWriteBehind(properties, batchWriter, itemCache, objectMapper);
+        crashed.start();
+        crashed.write(item(1L, "First", ItemStatus.NEW));
+        crashed.write(item(1L, "Last", ItemStatus.DONE));
+        crashed.write(item(2L, "Other", ItemStatus.NEW));
+        // No stop(): the process dies with the writes still buffered
+        assertEquals(3, Files.readAllLines(journal).size());
+        Files.writeString(journal, "{\"id\":3,\"na", StandardOpenOption.APPEND);
+
+        when(batchWriter.updateFields(anyList(), any(Instant.class))).thenReturn(new int[]{1, 1});
+        ItemWriteBehind restarted = new ItemWriteBehind(properties, batchWriter, itemCache, objectMapper);
+        restarted.start();
+        try {
+            verify(batchWriter).updateFields(written.capture(), any(Instant.class));
+            assertEquals(List.of(1L, 2L), written.getValue().stream().map(Item::getId).sorted().toList());
+            assertEquals("Last", written.getValue().stream().filter(i -> i.getId() == 1L).findFirst().orElseThrow().getName());
+            // Flushed writes are compacted out of the journal
+            assertEquals(0, Files.size(journal));
+        } finally {
+            restarted.stop();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.siemens.internship;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two application instances sharing one file-based H2 database split PARTITIONED runs
+ * and take over each other's expired leases.
+ */
+class PartitionedProcessingTests {
+	private static final int ITEMS = 500;
+
+	private static ConfigurableApplicationContext instanceA;
+	private static ConfigurableApplicationContext instanceB;
+
+	@BeforeAll
+	static void startInstances() {
+		Path db = Path.of("target", "partitioned-tests", UUID.randomUUID().toString(), "items").toAbsolutePath();
+		instanceA = start(db, "A");
+		instanceB = start(db, "B");
+
+		List<Item> items = new ArrayList<>();
+		for (int i = 0; i < ITEMS; i++) {
+			items.add(new Item(null, "Item" + i, "desc", ItemStatus.NEW, "item" + i + "@example.com"));
+		}
+		instanceA.getBean(ItemService.class).createAll(items);
+	}
+
+	@AfterAll
+	static void stopInstances() {
+		instanceA.close();
+		instanceB.close();
+	}
+
+	// Command line arguments, so that they override application.properties. Pollers are driven by the tests
+	private static ConfigurableApplicationContext start(Path db, String instanceId) {
+		return new SpringApplicationBuilder(InternshipApplication.class)
+				.web(WebApplicationType.NONE)
+				.run(
+						"--spring.datasource.url=jdbc:h2:file:" + db,
+						"--items.processing.mode=partitioned",
+						"--items.processing.chunk-size=10",
+						"--items.processing.partitioning.partition-size=25",
+						"--items.processing.partitioning.poll-interval=PT1H",
+						"--items.processing.partitioning.instance-id=" + instanceId);
+	}
+
+	// Both instances work on the same run at once: every partition is processed exactly once
+	@Test
+	void instancesSplitOneRun() throws Exception {
+		ProcessingRun run = instanceA.getBean(ProcessingPartitions.class).openRun().orElseThrow();
+
+		CompletableFuture<Optional<ProcessingJob>> a = CompletableFuture.supplyAsync(() -> instanceA.getBean(ItemService.class).joinActiveRun());
+		CompletableFuture<Optional<ProcessingJob>> b = CompletableFuture.supplyAsync(() -> instanceB.getBean(ItemService.class).joinActiveRun());
+		long processed = processed(a.get()) + processed(b.get());
+
+		assertEquals(ITEMS, processed);
+		List<ProcessingPartition> partitions = partitions(run);
+		assertEquals(ITEMS / 25, partitions.size());
+		assertTrue(partitions.stream().allMatch(ProcessingPartition::isDone));
+		assertEquals(ITEMS, partitions.stream().mapToLong(ProcessingPartition::getProcessed).sum());
+		assertNull(runRepository().findById(run.getId()).orElseThrow().getActive());
+		assertEquals(ITEMS, instanceB.getBean(ItemService.class).countByStatus().get(ItemStatus.PROCESSED));
+	}
+
+	// A partition claimed by an instance that stops working is taken over once its lease has expired
+	@Test
+	void expiredLeaseIsTakenOver() throws Exception {
+		ProcessingRun run = instanceB.getBean(ProcessingPartitions.class).openRun().orElseThrow();
+		ItemProcessingProperties propertiesA = instanceA.getBean(ItemProcessingProperties.class);
+		Duration lease = propertiesA.getPartitioning().getLease();
+		propertiesA.getPartitioning().setLease(Duration.ofMillis(500));
+		ProcessingPartition abandoned;
+		try {
+			// A claims a partition, then never makes progress on it
+			abandoned = instanceA.getBean(ProcessingPartitions.class).claim().orElseThrow();
+		} finally {
+			propertiesA.getPartitioning().setLease(lease);
+		}
+
+		ItemService serviceB = instanceB.getBean(ItemService.class);
+		serviceB.joinActiveRun();
+		Thread.sleep(600);
+		serviceB.joinActiveRun();
+
+		ProcessingPartition takenOver = partitionRepository().findById(abandoned.getId()).orElseThrow();
+		assertTrue(takenOver.isDone());
+		assertEquals("B", takenOver.getOwner());
+		assertEquals(25, takenOver.getProcessed());
+		assertTrue(partitions(run).stream().allMatch(ProcessingPartition::isDone));
+		assertNull(runRepository().findById(run.getId()).orElseThrow().getActive());
+	}
+
+	private static long processed(Optional<ProcessingJob> job) {
+		return job.map(j -> j.snapshot().processed()).orElse(0L);
+	}
+
+	private static List<ProcessingPartition> partitions(ProcessingRun run) {
+		return partitionRepository().findByRunIdOrderByFromId(run.getId());
+	}
+
+	private static ProcessingPartitionRepository partitionRepository() {
+		return instanceA.getBean(ProcessingPartitionRepository.class);
+	}
+
+	private static ProcessingRunRepository runRepository() {
+		return instanceA.getBean(ProcessingRunRepository.class);
+	}
+}
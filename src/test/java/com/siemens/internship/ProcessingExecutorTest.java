@@ -0,0 +1,79 @@
+package com.siemens.internship;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class ProcessingExecutorTest {
+
+    // Tests that threads and in-flight chunks never exceed the connection pool size
+    @Test
+    void testSizedFromConnectionPool() throws Exception {
+        ItemProcessingProperties properties = new ItemProcessingProperties();
+        properties.getExecutor().setThreads(50);
+        properties.setParallelism(20);
+
+        ProcessingExecutor executor = new ProcessingExecutor(properties, 8);
+        try {
+            assertEquals(8, executor.threads());
+            assertEquals(8, executor.parallelism());
+            assertEquals(8, ((ThreadPoolExecutor) executor.executorService()).getMaximumPoolSize());
+        } finally {
+            executor.destroy();
+        }
+    }
+
+    // Tests that threads=0 uses the connection pool size
+    @Test
+    void testDefaultThreadsMatchConnectionPool() throws Exception {
+        ProcessingExecutor executor = new ProcessingExecutor(new ItemProcessingProperties(), 6);
+        try {
+            assertEquals(6, executor.threads());
+            assertEquals(4, executor.parallelism());
+        } finally {
+            executor.destroy();
+        }
+    }
+
+    // Tests the fork-join mode
+    @Test
+    void testForkJoinMode() throws Exception {
+        ItemProcessingProperties properties = new ItemProcessingProperties();
+        properties.getExecutor().setMode(ItemProcessingProperties.ExecutorMode.FORK_JOIN);
+
+        ProcessingExecutor executor = new ProcessingExecutor(properties, 4);
+        try {
+            assertInstanceOf(ForkJoinPool.class, executor.executorService());
+            assertEquals(4, ((ForkJoinPool) executor.executorService()).getParallelism());
+        } finally {
+            executor.destroy();
+        }
+    }
+
+    // Tests that shutdown stops the executor
+    @Test
+    void testDestroyShutsDown() throws Exception {
+        ProcessingExecutor executor = new ProcessingExecutor(new ItemProcessingProperties(), 2);
+        executor.executorService().submit(() -> { });
+
+        executor.destroy();
+
+        assertTrue(executor.executorService().isShutdown());
+        assertTrue(executor.executorService().isTerminated());
+    }
+
+    // Tests that virtual threads are rejected with a clear message before Java 21
+    @Test
+    void testVirtualModeRequiresJava21() {
+        assumeTrue(Runtime.version().feature() < 21);
+        ItemProcessingProperties properties = new ItemProcessingProperties();
+        properties.getExecutor().setMode(ItemProcessingProperties.ExecutorMode.VIRTUAL);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> new ProcessingExecutor(properties, 4));
+        assertTrue(e.getMessage().contains("Java 21"));
+    }
+}
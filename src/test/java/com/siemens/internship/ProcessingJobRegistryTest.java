@@ -0,0 +1,67 @@
+package com.siemens.internship;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProcessingJobRegistryTest {
+    @Spy
+    private ItemProcessingProperties processingProperties = new ItemProcessingProperties();
+
+    @InjectMocks
+    private ProcessingJobRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        processingProperties.setMaxRetainedJobs(2);
+        processingProperties.setMaxRunningJobs(2);
+    }
+
+    // Tests that the oldest finished job is evicted once the limit is reached
+    @Test
+    void testEvictsOldestFinishedJob() {
+        ProcessingJob first = registry.register(newJob());
+        ProcessingJob second = registry.register(newJob());
+        first.complete();
+
+        ProcessingJob third = registry.register(newJob());
+
+        assertEquals(2, registry.size());
+        assertTrue(registry.find(first.getId()).isEmpty());
+        assertTrue(registry.find(second.getId()).isPresent());
+        assertTrue(registry.find(third.getId()).isPresent());
+    }
+
+    // Tests that running jobs are never evicted; the new job is rejected instead
+    @Test
+    void testRejectsWhenFullOfRunningJobs() {
+        registry.register(newJob());
+        registry.register(newJob());
+
+        assertThrows(IllegalStateException.class, () -> registry.register(newJob()));
+        assertEquals(2, registry.size());
+    }
+
+    // Tests that only max-running-jobs jobs run at once, and that a new one starts once one has finished
+    @Test
+    void testRejectsBeyondMaxRunningJobs() {
+        processingProperties.setMaxRetainedJobs(10);
+        processingProperties.setMaxRunningJobs(1);
+        ProcessingJob first = registry.register(newJob());
+
+        assertThrows(IllegalStateException.class, () -> registry.register(newJob()));
+
+        first.complete();
+        assertNotNull(registry.register(newJob()));
+        assertEquals(2, registry.size());
+    }
+
+    private static ProcessingJob newJob() {
+        return new ProcessingJob(ItemProcessingProperties.ProcessingMode.CHUNKED);
+    }
+}
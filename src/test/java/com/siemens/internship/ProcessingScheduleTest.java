@@ -0,0 +1,66 @@
+package com.siemens.internship;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ProcessingScheduleTest {
+
+    private final ItemService itemService = mock(ItemService.class);
+    private final ItemProcessingProperties processingProperties = new ItemProcessingProperties();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ItemMetrics metrics = new ItemMetrics(registry, new ProcessingExecutor(processingProperties, 10),
+            new ItemCache(new ItemCacheProperties()), mock(ItemWriteBehind.class));
+    private final ProcessingSchedule schedule = new ProcessingSchedule(itemService, processingProperties, metrics);
+
+    // Tests that a tick is skipped while the run of the previous tick is still going, and starts one again after it
+    @Test
+    void testTickSkipsWhilePreviousRunIsRunning() {
+        ProcessingJob first = new ProcessingJob(ItemProcessingProperties.ProcessingMode.CHUNKED);
+        ProcessingJob second = new ProcessingJob(ItemProcessingProperties.ProcessingMode.CHUNKED);
+        when(itemService.startProcessing()).thenReturn(first, second);
+
+        assertEquals(Optional.of(first), schedule.tick());
+        assertEquals(Optional.empty(), schedule.tick());
+        first.complete();
+        assertEquals(Optional.of(second), schedule.tick());
+
+        verify(itemService, times(2)).startProcessing();
+        assertEquals(2, registry.get("items.processing.schedule.runs").tag("outcome", "started").counter().count());
+        assertEquals(1, registry.get("items.processing.schedule.runs").tag("outcome", "skipped").counter().count());
+    }
+
+    // Tests that a tick is skipped when the registry refuses the run, e.g. while a run started over HTTP is going
+    @Test
+    void testTickSkipsWhenRegistryIsBusy() {
+        when(itemService.startProcessing()).thenThrow(new IllegalStateException("A processing job is already running"));
+
+        assertEquals(Optional.empty(), schedule.tick());
+        assertEquals(1, registry.get("items.processing.schedule.runs").tag("outcome", "skipped").counter().count());
+    }
+
+    // Tests that nothing is scheduled by default, and that cron wins over fixed-rate
+    @Test
+    void testConfigureTasks() {
+        ScheduledTaskRegistrar registrar = new ScheduledTaskRegistrar();
+        schedule.configureTasks(registrar);
+        assertFalse(registrar.hasTasks());
+
+        processingProperties.getSchedule().setFixedRate(Duration.ofMinutes(15));
+        schedule.configureTasks(registrar);
+        assertEquals(1, registrar.getFixedRateTaskList().size());
+
+        registrar = new ScheduledTaskRegistrar();
+        processingProperties.getSchedule().setCron("0 0 2 * * *");
+        processingProperties.getSchedule().setZone("UTC");
+        schedule.configureTasks(registrar);
+        assertEquals(1, registrar.getCronTaskList().size());
+        assertTrue(registrar.getFixedRateTaskList().isEmpty());
+    }
+}
@@ -0,0 +1,76 @@
+package com.siemens.internship;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The prod profile boots from the Flyway migrations (validated here against the entities),
+ * with a pool sized from the processing parallelism and strict startup checks.
+ */
+@SpringBootTest(properties = {
+		// Own database: the other test contexts share testdb, created by ddl-auto=update
+		"spring.datasource.url=jdbc:h2:mem:prodprofile",
+		"spring.jpa.hibernate.ddl-auto=validate"})
+@ActiveProfiles("prod")
+class ProductionProfileTests {
+	@Autowired
+	private Flyway flyway;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private ProcessingExecutor processingExecutor;
+
+	@Autowired
+	private ItemService itemService;
+
+	@Autowired
+	private StartupValidation startupValidation;
+
+	@Autowired
+	private ItemProcessingProperties processingProperties;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void schemaComesFromMigrations() {
+		assertEquals("1", flyway.info().current().getVersion().getVersion());
+	}
+
+	@Test
+	void statementCacheIsEnlarged() {
+		assertEquals("64", jdbcTemplate.queryForObject(
+				"SELECT SETTING_VALUE FROM INFORMATION_SCHEMA.SETTINGS WHERE SETTING_NAME = 'QUERY_CACHE_SIZE'", String.class));
+	}
+
+	@Test
+	void poolIsSizedFromParallelism() {
+		HikariDataSource hikari = (HikariDataSource) dataSource;
+		assertEquals(4 + 8, hikari.getMaximumPoolSize());
+		assertEquals(4 + 8, hikari.getMinimumIdle());
+		assertEquals(4, processingProperties.getParallelism());
+		assertEquals(4, processingExecutor.parallelism());
+		assertEquals(List.of(), startupValidation.problems());
+	}
+
+	@Test
+	void itemsAreProcessed() throws Exception {
+		for (int i = 0; i < 20; i++) {
+			itemService.save(new Item(null, "Item" + i, "desc", ItemStatus.NEW, "item" + i + "@example.com"));
+		}
+		assertEquals(20, itemService.processItemsAsync().get().size());
+		assertEquals(20L, itemService.countByStatus().get(ItemStatus.PROCESSED));
+	}
+}
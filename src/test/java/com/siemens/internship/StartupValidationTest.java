@@ -0,0 +1,89 @@
+package com.siemens.internship;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.JpaProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class StartupValidationTest {
+
+    private final ItemValidationProperties validationProperties = new ItemValidationProperties();
+    private final ItemProcessingProperties processingProperties = new ItemProcessingProperties();
+    private final ItemBatchProperties batchProperties = new ItemBatchProperties();
+    private final ItemWriteBehindProperties writeBehindProperties = new ItemWriteBehindProperties();
+    private final ItemStorageProperties storageProperties = new ItemStorageProperties();
+    private final HikariDataSource dataSource = new HikariDataSource(); // Never started, only its settings are read
+    private final JpaProperties jpaProperties = new JpaProperties();
+    private final HibernateProperties hibernateProperties = new HibernateProperties();
+    @SuppressWarnings("unchecked")
+    private final ObjectProvider<Flyway> flyway = mock(ObjectProvider.class);
+
+    private StartupValidation validation() {
+        return new StartupValidation(validationProperties, processingProperties, batchProperties, writeBehindProperties,
+                storageProperties, dataSource, jpaProperties, hibernateProperties, flyway);
+    }
+
+    // A consistent configuration (the defaults of application.properties) has no problems
+    private void defaults() {
+        dataSource.setMaximumPoolSize(10);
+        jpaProperties.getProperties().put("hibernate.jdbc.batch_size", "500");
+        hibernateProperties.setDdlAuto("update");
+    }
+
+    // Tests that the defaults pass
+    @Test
+    void testDefaultsAreValid() {
+        defaults();
+        assertEquals(List.of(), validation().problems());
+    }
+
+    // Tests every check: parallelism and threads above the pool size, snapshots of an in-memory database, batching,
+    // ddl-auto with Flyway, schedule, write-behind
+    @Test
+    void testReportsMisconfigurations() {
+        defaults();
+        processingProperties.setParallelism(16);
+        processingProperties.getExecutor().setThreads(32);
+        dataSource.setJdbcUrl("jdbc:h2:mem:testdb");
+        storageProperties.setSnapshotCron("0 0 * * * *");
+        jpaProperties.getProperties().put("hibernate.jdbc.batch_size", "100");
+        when(flyway.getIfAvailable()).thenReturn(mock(Flyway.class));
+        writeBehindProperties.setEnabled(true);
+        writeBehindProperties.setBatchSize(20_000);
+        processingProperties.getSchedule().setCron("0 0 2 * * *");
+        processingProperties.getSchedule().setFixedRate(Duration.ofMinutes(15));
+
+        List<String> problems = validation().problems();
+
+        assertEquals(7, problems.size());
+        assertTrue(problems.get(0).startsWith("items.processing.parallelism=16 exceeds the connection pool size 10"));
+        assertTrue(problems.get(1).startsWith("items.processing.executor.threads=32"));
+        assertTrue(problems.get(2).startsWith("items.storage snapshots and restore-on-startup need a file-backed database"));
+        assertTrue(problems.get(3).startsWith("items.batch.size=500 differs from hibernate.jdbc.batch_size=100"));
+        assertTrue(problems.get(4).startsWith("spring.jpa.hibernate.ddl-auto=update"));
+        assertTrue(problems.get(5).startsWith("items.processing.schedule.cron and items.processing.schedule.fixed-rate are both set"));
+        assertTrue(problems.get(6).startsWith("items.write-behind.batch-size=20000"));
+    }
+
+    // Tests that strict validation fails the startup while the default only logs
+    @Test
+    void testStrictFailsStartup() {
+        defaults();
+        jpaProperties.getProperties().remove("hibernate.jdbc.batch_size");
+
+        validation().afterSingletonsInstantiated();
+
+        validationProperties.setStrict(true);
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> validation().afterSingletonsInstantiated());
+        assertTrue(e.getMessage().contains("disables JDBC batching"));
+    }
+}
@@ -0,0 +1,57 @@
+package com.siemens.internship;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StorageRestoreTest {
+
+    @TempDir
+    Path directory;
+
+    // Tests that only embedded file databases have a path, without the settings of the URL
+    @Test
+    void testDatabasePath() {
+        assertEquals(Optional.of(Path.of("./data/items")),
+                StorageRestore.databasePath("jdbc:h2:file:./data/items;CACHE_SIZE=131072;WRITE_DELAY=1000"));
+        assertEquals(Optional.of(Path.of("/var/lib/items")), StorageRestore.databasePath("jdbc:h2:/var/lib/items"));
+        assertEquals(Optional.of(Path.of(System.getProperty("user.home") + "/items")), StorageRestore.databasePath("jdbc:h2:~/items"));
+        assertEquals(Optional.empty(), StorageRestore.databasePath("jdbc:h2:mem:testdb;DB_CLOSE_DELAY=-1"));
+        assertEquals(Optional.empty(), StorageRestore.databasePath("jdbc:h2:tcp://localhost/~/items"));
+        assertEquals(Optional.empty(), StorageRestore.databasePath("jdbc:postgresql://localhost/items"));
+    }
+
+    // Tests that the newest complete snapshot of the database is restored, and that partial and foreign ones are ignored
+    @Test
+    void testRestoresNewestSnapshot() throws Exception {
+        Path snapshots = directory.resolve("snapshots");
+        Files.createDirectories(snapshots);
+        snapshot(snapshots.resolve("items-20261001T000000000Z.zip"), "items.mv.db", "old");
+        snapshot(snapshots.resolve("items-20261002T000000000Z.zip"), "items.mv.db", "new");
+        snapshot(snapshots.resolve("items-20261003T000000000Z.zip.part"), "items.mv.db", "partial");
+        snapshot(snapshots.resolve("other-20261004T000000000Z.zip"), "other.mv.db", "other");
+
+        String url = "jdbc:h2:file:" + directory.resolve("db/items") + ";WRITE_DELAY=1000";
+        assertEquals(Optional.of(snapshots.resolve("items-20261002T000000000Z.zip")), StorageRestore.restore(url, snapshots));
+        assertEquals("new", Files.readString(directory.resolve("db/items.mv.db")));
+        assertFalse(Files.exists(directory.resolve("db/items.mv.db.part")));
+
+        assertEquals(Optional.empty(), StorageRestore.restore("jdbc:h2:file:" + directory.resolve("db/none"), snapshots));
+        assertEquals(Optional.empty(), StorageRestore.restore("jdbc:h2:mem:items", snapshots));
+    }
+
+    private static void snapshot(Path zip, String entry, String content) throws Exception {
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(zip))) {
+            out.putNextEntry(new ZipEntry(entry));
+            out.write(content.getBytes());
+            out.closeEntry();
+        }
+    }
+}